@@ -0,0 +1,68 @@
+package tfm.bench;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tfm.graphs.cfg.CFG;
+import tfm.graphs.pdg.PDG;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/** Intraprocedural stages: CFG construction, control dependence and data dependence, for every method. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CFGBenchmark {
+    @Param({"CFG", "ACFG", "ESCFG"})
+    public CFGVariant variant;
+
+    protected List<MethodDeclaration> methods;
+    /** The CFGs of every method, built once, as the dependence builders only read them. */
+    protected List<CFG> cfgs;
+
+    @Setup(Level.Trial)
+    public void setUp(Programs programs) {
+        methods = programs.get().stream()
+                .flatMap(p -> p.getMethods().stream())
+                .collect(Collectors.toList());
+        cfgs = methods.stream()
+                .map(method -> {
+                    CFG cfg = variant.newCFG();
+                    cfg.build(method);
+                    return cfg;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void cfg(Blackhole bh) {
+        for (MethodDeclaration method : methods) {
+            CFG cfg = variant.newCFG();
+            cfg.build(method);
+            bh.consume(cfg);
+        }
+    }
+
+    @Benchmark
+    public void controlDependence(Blackhole bh) {
+        for (CFG cfg : cfgs) {
+            PDG pdg = variant.newUnconnectedPDG(cfg);
+            variant.buildControlDependence(pdg);
+            bh.consume(pdg);
+        }
+    }
+
+    @Benchmark
+    public void dataDependence(Blackhole bh) {
+        for (CFG cfg : cfgs) {
+            DataDependencePDG pdg = new DataDependencePDG(cfg);
+            pdg.buildDataDependency();
+            bh.consume(pdg);
+        }
+    }
+}
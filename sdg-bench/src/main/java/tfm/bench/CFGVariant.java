@@ -0,0 +1,81 @@
+package tfm.bench;
+
+import tfm.graphs.augmented.ACFG;
+import tfm.graphs.augmented.ControlDependencyBuilder;
+import tfm.graphs.augmented.PPDG;
+import tfm.graphs.cfg.CFG;
+import tfm.graphs.exceptionsensitive.ConditionalControlDependencyBuilder;
+import tfm.graphs.exceptionsensitive.ESCFG;
+import tfm.graphs.exceptionsensitive.ESPDG;
+import tfm.graphs.pdg.PDG;
+import tfm.nodes.type.NodeType;
+
+/** The kinds of CFG (and their corresponding PDG) that can be benchmarked. */
+public enum CFGVariant {
+    CFG {
+        @Override
+        public CFG newCFG() {
+            return new CFG();
+        }
+
+        @Override
+        public PDG newPDG(CFG cfg) {
+            return new PDG(cfg);
+        }
+
+        @Override
+        public void buildControlDependence(PDG pdg) {
+            new tfm.graphs.pdg.ControlDependencyBuilder(pdg.getCfg(), pdg).build();
+        }
+    },
+    ACFG {
+        @Override
+        public CFG newCFG() {
+            return new ACFG();
+        }
+
+        @Override
+        public PDG newPDG(CFG cfg) {
+            return new PPDG((ACFG) cfg);
+        }
+
+        @Override
+        public void buildControlDependence(PDG pdg) {
+            new ControlDependencyBuilder((ACFG) pdg.getCfg(), (PPDG) pdg).build();
+        }
+    },
+    ESCFG {
+        @Override
+        public CFG newCFG() {
+            return new ESCFG();
+        }
+
+        @Override
+        public PDG newPDG(CFG cfg) {
+            return new ESPDG((ESCFG) cfg);
+        }
+
+        @Override
+        public void buildControlDependence(PDG pdg) {
+            new ControlDependencyBuilder((ACFG) pdg.getCfg(), (PPDG) pdg).build();
+            new ConditionalControlDependencyBuilder((ESCFG) pdg.getCfg(), (ESPDG) pdg).build();
+        }
+    };
+
+    public abstract CFG newCFG();
+
+    public abstract PDG newPDG(CFG cfg);
+
+    /** Adds the control dependence arcs to a PDG whose nodes have already been copied from its CFG. */
+    public abstract void buildControlDependence(PDG pdg);
+
+    /** Creates a PDG that contains the nodes of the given CFG, but no arcs, as the PDG builder does. */
+    public PDG newUnconnectedPDG(CFG cfg) {
+        PDG pdg = newPDG(cfg);
+        cfg.vertexSet().stream()
+                .filter(node -> node.getNodeType() != NodeType.METHOD_EXIT)
+                .forEach(pdg::addVertex);
+        cfg.getRootNode().ifPresent(pdg::setRootNode);
+        return pdg;
+    }
+}
@@ -0,0 +1,33 @@
+package tfm.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The replacement of method calls with sequential and with concurrent planning
+ * (see {@link tfm.graphs.sdg.SDG#replaceMethodCalls(boolean)}).
+ * <br/>
+ * The call replacement modifies the graph, so each invocation builds the SDGs without summary arcs,
+ * as in {@link SDGBenchmark#unsummarizedBuild}. Every other stage of the construction is the same
+ * for both values of {@link #parallel}, so the difference between them is that of the call replacement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallReplacementBenchmark {
+    @Param({"false", "true"})
+    public boolean exceptionSensitive;
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Benchmark
+    public void unsummarizedBuild(Programs programs, Blackhole bh) {
+        for (Program program : programs.get())
+            bh.consume(UnsummarizedSDG.build(exceptionSensitive, program.getUnits(), parallel));
+    }
+}
@@ -0,0 +1,30 @@
+package tfm.bench;
+
+import tfm.graphs.cfg.CFG;
+import tfm.graphs.pdg.PDG;
+import tfm.nodes.type.NodeType;
+
+/**
+ * A PDG that only computes the data dependencies between the nodes of a built CFG, so that
+ * they can be measured separately from the rest of the PDG's construction.
+ */
+public class DataDependencePDG extends PDG {
+    public DataDependencePDG(CFG cfg) {
+        super(cfg);
+        assert cfg.isBuilt();
+        cfg.vertexSet().stream()
+                .filter(node -> node.getNodeType() != NodeType.METHOD_EXIT)
+                .forEach(this::addVertex);
+    }
+
+    public void buildDataDependency() {
+        new Builder().buildDataDependency();
+    }
+
+    protected class Builder extends PDG.Builder {
+        @Override
+        protected void buildDataDependency() {
+            super.buildDataDependency();
+        }
+    }
+}
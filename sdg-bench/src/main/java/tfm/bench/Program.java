@@ -0,0 +1,40 @@
+package tfm.bench;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** A set of compilation units that are analysed together, as the Slicer would do with a directory. */
+public class Program {
+    protected final String name;
+    protected final NodeList<CompilationUnit> units;
+
+    public Program(String name, NodeList<CompilationUnit> units) {
+        this.name = name;
+        this.units = units;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NodeList<CompilationUnit> getUnits() {
+        return units;
+    }
+
+    /** The methods of this program that have a body, which are the ones that get a CFG and a PDG. */
+    public List<MethodDeclaration> getMethods() {
+        return units.stream()
+                .flatMap(cu -> cu.findAll(MethodDeclaration.class).stream())
+                .filter(m -> m.getBody().isPresent())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
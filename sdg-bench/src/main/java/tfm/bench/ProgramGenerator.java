@@ -0,0 +1,374 @@
+package tfm.bench;
+
+import java.util.*;
+
+/**
+ * Generates synthetic, compilable Java programs of arbitrary size, to stress the construction
+ * of the graphs and the slicing algorithms.
+ * <br/>
+ * The program is a single class with a {@code main} method and {@link Config#methods} static
+ * methods, which only use {@code int} variables and the constructs supported by the slicer:
+ * declarations, assignments, {@code if}, {@code while}, {@code for}, {@code try-catch},
+ * {@code throw}, {@code return} and method calls. The calls between methods follow the
+ * {@link Shape shape} chosen. The generation is deterministic for a given {@link Config}.
+ * <br/>
+ * <b>Usage:</b> {@code new ProgramGenerator(new Config().methods(100).shape(Shape.FAN_OUT)).generate()}
+ */
+public class ProgramGenerator {
+    public static final String CLASS_NAME = "Synthetic";
+    public static final String EXCEPTION_NAME = "SyntheticException";
+
+    /** The shape of the call graph of the generated program. */
+    public enum Shape {
+        /** Each method calls the next one. */
+        CHAIN,
+        /** Each method calls {@link Config#fanOut} other methods, forming a tree. */
+        FAN_OUT,
+        /** A chain in which every {@link Config#cycleLength} methods, the last one calls back
+         *  to the first one of its group, forming recursion cycles. */
+        CYCLES
+    }
+
+    /** The parameters of the generator. All densities are probabilities between 0 and 1. */
+    public static class Config {
+        protected int methods = 10;
+        protected int statements = 10;
+        protected int maxDepth = 2;
+        protected double loopDensity = 0.15;
+        protected double tryDensity = 0.1;
+        protected double ifDensity = 0.2;
+        protected int parameters = 2;
+        protected Shape shape = Shape.CHAIN;
+        protected int fanOut = 2;
+        protected int cycleLength = 3;
+        protected long seed = 0;
+
+        /** Number of methods, apart from {@code main}. */
+        public Config methods(int methods) {
+            this.methods = requirePositive(methods, "methods");
+            return this;
+        }
+
+        /** Number of statements at the top level of each method, excluding its calls and return. */
+        public Config statements(int statements) {
+            this.statements = requirePositive(statements, "statements");
+            return this;
+        }
+
+        /** Maximum nesting of loops, conditionals and try-catch blocks. */
+        public Config maxDepth(int maxDepth) {
+            if (maxDepth < 0)
+                throw new IllegalArgumentException("maxDepth must not be negative");
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Config loopDensity(double loopDensity) {
+            this.loopDensity = requireProbability(loopDensity, "loopDensity");
+            return this;
+        }
+
+        public Config tryDensity(double tryDensity) {
+            this.tryDensity = requireProbability(tryDensity, "tryDensity");
+            return this;
+        }
+
+        public Config ifDensity(double ifDensity) {
+            this.ifDensity = requireProbability(ifDensity, "ifDensity");
+            return this;
+        }
+
+        public Config parameters(int parameters) {
+            this.parameters = requirePositive(parameters, "parameters");
+            return this;
+        }
+
+        public Config shape(Shape shape) {
+            this.shape = Objects.requireNonNull(shape);
+            return this;
+        }
+
+        public Config fanOut(int fanOut) {
+            this.fanOut = requirePositive(fanOut, "fanOut");
+            return this;
+        }
+
+        public Config cycleLength(int cycleLength) {
+            this.cycleLength = requirePositive(cycleLength, "cycleLength");
+            return this;
+        }
+
+        public Config seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        protected static int requirePositive(int value, String name) {
+            if (value < 1)
+                throw new IllegalArgumentException(name + " must be positive");
+            return value;
+        }
+
+        protected static double requireProbability(double value, String name) {
+            if (value < 0 || value > 1)
+                throw new IllegalArgumentException(name + " must be between 0 and 1");
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(methods=%d, statements=%d, depth=%d, params=%d, seed=%d)",
+                    shape, methods, statements, maxDepth, parameters, seed);
+        }
+    }
+
+    protected final Config config;
+    protected final Random random;
+    protected final StringBuilder out = new StringBuilder();
+
+    /** Variables visible at each level of nesting of the method being generated. */
+    protected final Deque<List<String>> scopes = new LinkedList<>();
+    protected int indent = 0;
+    protected int variableCounter = 0;
+
+    public ProgramGenerator(Config config) {
+        this.config = Objects.requireNonNull(config);
+        this.random = new Random(config.seed);
+    }
+
+    /** Generates the source code of the program. Generators are not reusable. */
+    public String generate() {
+        if (out.length() > 0)
+            throw new IllegalStateException("This generator has already been used");
+        line("public class " + CLASS_NAME + " {");
+        indent++;
+        generateMain();
+        for (int i = 0; i < config.methods; i++)
+            generateMethod(i);
+        indent--;
+        line("}");
+        line("");
+        line("class " + EXCEPTION_NAME + " extends Exception {");
+        line("}");
+        return out.toString();
+    }
+
+    /** The methods called by the given method. */
+    protected List<Integer> callees(int method) {
+        List<Integer> list = new LinkedList<>();
+        switch (config.shape) {
+            case CHAIN:
+                if (method + 1 < config.methods)
+                    list.add(method + 1);
+                break;
+            case FAN_OUT:
+                for (int i = 1; i <= config.fanOut; i++)
+                    if (method * config.fanOut + i < config.methods)
+                        list.add(method * config.fanOut + i);
+                break;
+            case CYCLES:
+                if (method + 1 < config.methods)
+                    list.add(method + 1);
+                if (method % config.cycleLength == config.cycleLength - 1)
+                    list.add(method - config.cycleLength + 1);
+                break;
+            default:
+                throw new UnsupportedOperationException("Unknown shape " + config.shape);
+        }
+        return list;
+    }
+
+    protected void generateMain() {
+        line("public static void main(String[] args) {");
+        indent++;
+        scopes.push(new LinkedList<>());
+        declare("args.length");
+        line("try {");
+        indent++;
+        line(call(0) + ";");
+        indent--;
+        line("} catch (" + EXCEPTION_NAME + " e) {");
+        indent++;
+        line("System.out.println(" + anyVariable() + ");");
+        indent--;
+        line("}");
+        scopes.pop();
+        indent--;
+        line("}");
+        line("");
+    }
+
+    protected void generateMethod(int method) {
+        variableCounter = 0;
+        List<String> params = new LinkedList<>();
+        for (int i = 0; i < config.parameters; i++)
+            params.add("p" + i);
+        StringJoiner signature = new StringJoiner(", ", "static int m" + method + "(", ") throws " + EXCEPTION_NAME + " {");
+        params.forEach(p -> signature.add("int " + p));
+        line(signature.toString());
+        indent++;
+        scopes.push(new LinkedList<>(params));
+        // Every method may throw, as the ES-SDG requires methods that declare exceptions to have a source
+        line("if (" + anyVariable() + " < 0)");
+        indent++;
+        line("throw new " + EXCEPTION_NAME + "();");
+        indent--;
+        // Calls are spread evenly through the top-level statements
+        List<Integer> callees = callees(method);
+        int[] callPositions = new int[callees.size()];
+        for (int i = 0; i < callPositions.length; i++)
+            callPositions[i] = (i + 1) * config.statements / (callPositions.length + 1);
+        int nextCall = 0;
+        for (int i = 0; i < config.statements; i++) {
+            while (nextCall < callPositions.length && callPositions[nextCall] == i)
+                generateCall(callees.get(nextCall++), method);
+            generateStatement(0);
+        }
+        line("return " + anyVariable() + ";");
+        scopes.pop();
+        indent--;
+        line("}");
+        line("");
+    }
+
+    protected void generateCall(int callee, int caller) {
+        // Calls back to a previous method are guarded, so that the recursion has a base case
+        if (callee <= caller) {
+            line("if (" + anyVariable() + " > " + random.nextInt(100) + ") {");
+            indent++;
+            line(anyVariable() + " = " + call(callee) + ";");
+            indent--;
+            line("}");
+        } else {
+            declare(call(callee));
+        }
+    }
+
+    protected String call(int callee) {
+        StringJoiner args = new StringJoiner(", ", "m" + callee + "(", ")");
+        for (int i = 0; i < config.parameters; i++)
+            args.add(anyVariable());
+        return args.toString();
+    }
+
+    protected void generateStatement(int depth) {
+        double r = random.nextDouble();
+        if (depth < config.maxDepth) {
+            if ((r -= config.loopDensity) < 0) {
+                generateLoop(depth);
+                return;
+            }
+            if ((r -= config.tryDensity) < 0) {
+                generateTry(depth);
+                return;
+            }
+            if ((r -= config.ifDensity) < 0) {
+                generateIf(depth);
+                return;
+            }
+        }
+        if (random.nextInt(3) == 0)
+            declare(expression());
+        else
+            line(anyVariable() + " = " + expression() + ";");
+    }
+
+    protected void generateLoop(int depth) {
+        if (random.nextBoolean()) {
+            String counter = freshName();
+            line("for (int " + counter + " = 0; " + counter + " < " + anyVariable() + "; " + counter + "++) {");
+            block(depth, counter);
+        } else {
+            String counter = declare(anyVariable());
+            line("while (" + counter + " > 0) {");
+            indent++;
+            line(counter + "--;");
+            indent--;
+            block(depth);
+        }
+    }
+
+    protected void generateIf(int depth) {
+        line("if (" + anyVariable() + " > " + anyVariable() + ") {");
+        block(depth);
+        if (random.nextBoolean()) {
+            // Remove the closing brace of the block to chain the else branch
+            out.setLength(out.lastIndexOf("}"));
+            out.append("} else {\n");
+            block(depth);
+        }
+    }
+
+    /** The try block always contains a throw, as the compiler rejects catching a checked
+     *  exception that can't be thrown. */
+    protected void generateTry(int depth) {
+        line("try {");
+        indent++;
+        line("if (" + anyVariable() + " < " + random.nextInt(100) + ")");
+        indent++;
+        line("throw new " + EXCEPTION_NAME + "();");
+        indent--;
+        indent--;
+        block(depth);
+        out.setLength(out.lastIndexOf("}"));
+        out.append("} catch (" + EXCEPTION_NAME + " " + freshName() + ") {\n");
+        block(depth);
+    }
+
+    /** Generates a block of statements, up to its closing brace.
+     *  The opening brace must be printed by the caller. */
+    protected void block(int depth, String... variables) {
+        indent++;
+        scopes.push(new LinkedList<>(List.of(variables)));
+        int size = 1 + random.nextInt(3);
+        for (int i = 0; i < size; i++)
+            generateStatement(depth + 1);
+        scopes.pop();
+        indent--;
+        line("}");
+    }
+
+    protected String expression() {
+        switch (random.nextInt(3)) {
+            case 0:
+                return anyVariable() + " + " + anyVariable();
+            case 1:
+                return anyVariable() + " * " + random.nextInt(10);
+            default:
+                return String.valueOf(random.nextInt(100));
+        }
+    }
+
+    /** Declares a new variable in the current scope, initialized with the given expression. */
+    protected String declare(String initializer) {
+        String name = newVariable();
+        line("int " + name + " = " + initializer + ";");
+        return name;
+    }
+
+    protected String newVariable() {
+        String name = freshName();
+        scopes.peek().add(name);
+        return name;
+    }
+
+    /** A name that has not been used in the current method. */
+    protected String freshName() {
+        return "v" + variableCounter++;
+    }
+
+    /** A random variable that is visible from the current scope. */
+    protected String anyVariable() {
+        List<String> visible = new ArrayList<>();
+        scopes.forEach(visible::addAll);
+        if (visible.isEmpty())
+            throw new IllegalStateException("There are no variables in scope");
+        return visible.get(random.nextInt(visible.size()));
+    }
+
+    protected void line(String line) {
+        for (int i = 0; i < indent; i++)
+            out.append("    ");
+        out.append(line).append('\n');
+    }
+}
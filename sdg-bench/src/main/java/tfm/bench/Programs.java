@@ -0,0 +1,149 @@
+package tfm.bench;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.openjdk.jmh.annotations.*;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.utils.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The input of every benchmark: a list of {@link Program programs}, loaded once per trial.
+ * <br/>
+ * <b>Inputs:</b>
+ * <ul>
+ *     <li>{@code corpus}: every file in the test corpus ({@code sdg-core/src/test/res}, or the
+ *     directory in the {@value #CORPUS_PROPERTY} system property) is a separate program.
+ *     Files that cannot be converted to an SDG or an ESSDG are skipped.
+ *     The {@code scale} parameter replicates each program that many times, each copy in its
+ *     own package, so that the size of the graphs grows linearly with it.</li>
+ *     <li>{@code synthetic-chain}, {@code synthetic-fan_out}, {@code synthetic-cycles}: a single
+ *     program created by the {@link ProgramGenerator}, with the given call graph shape and
+ *     {@value #SYNTHETIC_METHODS} methods per unit of {@code scale}.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class Programs {
+    public static final String CORPUS_PROPERTY = "tfm.bench.corpus";
+    public static final String DEFAULT_CORPUS = "sdg-core/src/test/res";
+    public static final String SYNTHETIC_PREFIX = "synthetic-";
+    public static final int SYNTHETIC_METHODS = 10;
+
+    static {
+        Logger.clearPrintStreams();
+        CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+        combinedTypeSolver.add(new ReflectionTypeSolver(true));
+        JavaParser.getStaticConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
+        JavaParser.getStaticConfiguration().setAttributeComments(false);
+    }
+
+    @Param({"corpus", "synthetic-chain"})
+    public String input;
+
+    @Param({"1", "4"})
+    public int scale;
+
+    protected List<Program> programs;
+
+    @Setup(Level.Trial)
+    public void load() {
+        programs = load(input, scale);
+        if (programs.isEmpty())
+            throw new IllegalStateException("No program could be loaded for input " + input);
+    }
+
+    public List<Program> get() {
+        return programs;
+    }
+
+    public static List<Program> load(String input, int scale) {
+        if (scale < 1)
+            throw new IllegalArgumentException("The scale must be a positive number");
+        if (input.equals("corpus"))
+            return loadCorpus(findCorpus(), scale);
+        if (input.startsWith(SYNTHETIC_PREFIX)) {
+            ProgramGenerator.Shape shape = ProgramGenerator.Shape.valueOf(
+                    input.substring(SYNTHETIC_PREFIX.length()).toUpperCase());
+            ProgramGenerator.Config config = new ProgramGenerator.Config()
+                    .shape(shape)
+                    .methods(SYNTHETIC_METHODS * scale);
+            return List.of(synthetic(config));
+        }
+        throw new IllegalArgumentException("Unknown benchmark input: " + input);
+    }
+
+    /** Generates and parses a synthetic program. */
+    public static Program synthetic(ProgramGenerator.Config config) {
+        CompilationUnit unit = JavaParser.parse(new ProgramGenerator(config).generate());
+        unit.setStorage(Paths.get(ProgramGenerator.CLASS_NAME + ".java"));
+        return new Program(config.toString(), new NodeList<>(unit));
+    }
+
+    /** Locates the corpus, which may be relative to the project root or to this module. */
+    protected static Path findCorpus() {
+        String property = System.getProperty(CORPUS_PROPERTY);
+        if (property != null)
+            return Paths.get(property);
+        Path path = Paths.get(DEFAULT_CORPUS);
+        return Files.isDirectory(path) ? path : Paths.get("..").resolve(DEFAULT_CORPUS);
+    }
+
+    protected static List<Program> loadCorpus(Path directory, int scale) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            files = stream.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Program> programs = new LinkedList<>();
+        for (Path file : files) {
+            try {
+                String source = Files.readString(file);
+                NodeList<CompilationUnit> units = new NodeList<>();
+                for (int i = 0; i < scale; i++)
+                    units.add(parseCopy(source, file, i));
+                Program program = new Program(directory.relativize(file).toString(), units);
+                if (isSupported(program))
+                    programs.add(program);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                // A parse error, the file is not a valid program
+            }
+        }
+        return programs;
+    }
+
+    /** Parses a copy of the given source, placing it in a package of its own. */
+    protected static CompilationUnit parseCopy(String source, Path file, int copy) {
+        CompilationUnit unit = JavaParser.parse(source);
+        unit.setPackageDeclaration("bench.copy" + copy);
+        unit.setStorage(file.resolveSibling("copy" + copy).resolve(file.getFileName()));
+        return unit;
+    }
+
+    /** Whether both kinds of SDG can be built from the given program. */
+    protected static boolean isSupported(Program program) {
+        try {
+            new SDG().build(program.getUnits());
+            new ESSDG().build(program.getUnits());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package tfm.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.graphs.sdg.sumarcs.AnalysisSummaryArcsBuilder;
+import tfm.graphs.sdg.sumarcs.NaiveSummaryArcsBuilder;
+import tfm.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interprocedural stages: the complete construction of the SDG and the computation of its summary arcs.
+ * <br/>
+ * The summary arc builders modify the graph, so each invocation builds the SDGs without summary
+ * arcs before computing them, instead of preparing them in a per-invocation setup, which would
+ * distort the timings and leave its allocations in the figures of the GC profiler. The cost of
+ * each builder is the difference with {@link #unsummarizedBuild}. The compilation units are parsed
+ * once per trial, as building an SDG doesn't modify them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SDGBenchmark {
+    @Param({"false", "true"})
+    public boolean exceptionSensitive;
+    /** Whether {@link #build} records {@link Metrics}, to measure their overhead ({@code -p metrics=true}). */
+    @Param({"false"})
+    public boolean metrics;
+
+    @Benchmark
+    public void build(Programs programs, Blackhole bh) {
+        for (Program program : programs.get()) {
+            SDG sdg = exceptionSensitive ? new ESSDG() : new SDG();
+            if (metrics)
+                sdg.setMetrics(new Metrics());
+            sdg.build(program.getUnits());
+            bh.consume(sdg);
+        }
+    }
+
+    /** The construction of the SDGs without their summary arcs, which must be subtracted from
+     *  the figures of the summary arc benchmarks to obtain the cost of each builder. */
+    @Benchmark
+    public void unsummarizedBuild(Programs programs, Blackhole bh) {
+        for (Program program : programs.get())
+            bh.consume(UnsummarizedSDG.build(exceptionSensitive, program.getUnits()));
+    }
+
+    @Benchmark
+    public void naiveSummaryArcs(Programs programs, Blackhole bh) {
+        for (Program program : programs.get()) {
+            SDG sdg = UnsummarizedSDG.build(exceptionSensitive, program.getUnits());
+            new NaiveSummaryArcsBuilder(sdg).visit();
+            bh.consume(sdg);
+        }
+    }
+
+    @Benchmark
+    public void analysisSummaryArcs(Programs programs, Blackhole bh) {
+        for (Program program : programs.get()) {
+            SDG sdg = UnsummarizedSDG.build(exceptionSensitive, program.getUnits());
+            new AnalysisSummaryArcsBuilder(sdg).visit();
+            bh.consume(sdg);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package tfm.bench;
+
+import com.github.javaparser.ast.stmt.Statement;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and slices synthetic programs of increasing size, recording the time spent in each
+ * step as CSV, to see how it grows with the size of the program. It is a rough, single-shot
+ * measurement: use the JMH benchmarks with the {@code synthetic-*} inputs for precise figures.
+ * The {@link Metrics} of the SDG are enabled, to break its construction down into phases.
+ * <br/>
+ * Usage: {@code java -cp target/benchmarks.jar tfm.bench.ScalingReport [sizes] [report]}, where
+ * {@code sizes} is a comma-separated list of numbers of methods (default {@value #DEFAULT_SIZES})
+ * and {@code report} is the output file (default {@value #DEFAULT_REPORT}).
+ */
+public class ScalingReport {
+    public static final String DEFAULT_SIZES = "4,8,16";
+    public static final String DEFAULT_REPORT = "target/scaling.csv";
+    protected static final int CRITERIA = 5;
+
+    public static void main(String[] args) throws FileNotFoundException {
+        List<Integer> sizes = Arrays.stream((args.length > 0 ? args[0] : DEFAULT_SIZES).split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .collect(Collectors.toList());
+        Path report = Paths.get(args.length > 1 ? args[1] : DEFAULT_REPORT);
+        if (report.toAbsolutePath().getParent() != null)
+            report.toAbsolutePath().getParent().toFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(report.toFile())) {
+            writer.println("shape,methods,nodes,arcs,sdgBuildMs,essdgBuildMs,classicSliceMs,esSliceMs," +
+                    "sdgCallReplacementMs,sdgSummaryArcsMs,sdgAllocatedMB");
+            for (ProgramGenerator.Shape shape : ProgramGenerator.Shape.values())
+                for (int size : sizes)
+                    writer.println(measure(shape, size));
+        }
+        System.out.println("Report written to " + report);
+    }
+
+    /** Builds and slices a program of the given shape and size, returning a line of the report. */
+    protected static String measure(ProgramGenerator.Shape shape, int size) {
+        Program program = Programs.synthetic(new ProgramGenerator.Config().shape(shape).methods(size));
+
+        long start = System.nanoTime();
+        SDG sdg = new SDG();
+        sdg.setMetrics(new Metrics());
+        sdg.build(program.getUnits());
+        long sdgBuild = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ESSDG essdg = new ESSDG();
+        essdg.build(program.getUnits());
+        long essdgBuild = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (GraphNode<?> node : criteria(sdg))
+            new ClassicSlicingAlgorithm(sdg).traverse(node);
+        long classicSlice = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (GraphNode<?> node : criteria(essdg))
+            new ExceptionSensitiveSlicingAlgorithm(essdg).traverse(node);
+        long esSlice = System.nanoTime() - start;
+
+        Metrics metrics = sdg.getMetrics();
+        long allocated = 0;
+        for (Phase phase : Phase.values())
+            if (phase != Phase.SLICE)
+                allocated += metrics.getAllocatedBytes(phase);
+        return String.format("%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d", shape, size,
+                sdg.vertexSet().size(), sdg.edgeSet().size(),
+                sdgBuild / 1_000_000, essdgBuild / 1_000_000,
+                classicSlice / 1_000_000, esSlice / 1_000_000,
+                metrics.getWallTime(Phase.CALL_REPLACEMENT) / 1_000_000,
+                metrics.getWallTime(Phase.SUMMARY_ARCS) / 1_000_000,
+                allocated / (1024 * 1024));
+    }
+
+    /** The last statements of the program, whose slices tend to be the biggest. */
+    protected static List<GraphNode<?>> criteria(SDG sdg) {
+        List<GraphNode<?>> statements = sdg.vertexSet().stream()
+                .filter(n -> n.getNodeType() == NodeType.STATEMENT)
+                .filter(n -> n.getAstNode() instanceof Statement)
+                .sorted()
+                .collect(Collectors.toList());
+        return statements.subList(Math.max(0, statements.size() - CRITERIA), statements.size());
+    }
+}
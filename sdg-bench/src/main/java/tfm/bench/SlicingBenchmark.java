@@ -0,0 +1,113 @@
+package tfm.bench;
+
+import com.github.javaparser.ast.stmt.Statement;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.CondensedSlicingAlgorithm;
+import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
+import tfm.slicing.Slice;
+import tfm.slicing.ThinSlicingAlgorithm;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Slicing stages: the traversal of the SDG with each algorithm and the conversion of the
+ * resulting slices back to source code. Every statement of each program is used as a
+ * slicing criterion, up to {@link #criteria} per program, evenly spread through the program.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlicingBenchmark {
+    @Param("16")
+    public int criteria;
+
+    protected final List<Case> classicCases = new LinkedList<>();
+    protected final List<Case> esCases = new LinkedList<>();
+    protected final List<Slice> slices = new LinkedList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(Programs programs) {
+        for (Program program : programs.get()) {
+            SDG sdg = new SDG();
+            sdg.build(program.getUnits());
+            classicCases.add(new Case(sdg, selectCriteria(sdg)));
+            ESSDG essdg = new ESSDG();
+            essdg.build(program.getUnits());
+            esCases.add(new Case(essdg, selectCriteria(essdg)));
+        }
+        for (Case c : classicCases)
+            for (GraphNode<?> node : c.criteria)
+                slices.add(new ClassicSlicingAlgorithm(c.sdg).traverse(node));
+    }
+
+    protected List<GraphNode<?>> selectCriteria(SDG sdg) {
+        List<GraphNode<?>> statements = sdg.vertexSet().stream()
+                .filter(n -> n.getNodeType() == NodeType.STATEMENT)
+                .filter(n -> n.getAstNode() instanceof Statement)
+                .sorted()
+                .collect(Collectors.toList());
+        if (statements.size() <= criteria)
+            return statements;
+        List<GraphNode<?>> selected = new LinkedList<>();
+        for (int i = 0; i < criteria; i++)
+            selected.add(statements.get(i * statements.size() / criteria));
+        return selected;
+    }
+
+    @Benchmark
+    public void classicSlicing(Blackhole bh) {
+        for (Case c : classicCases)
+            for (GraphNode<?> node : c.criteria)
+                bh.consume(new ClassicSlicingAlgorithm(c.sdg).traverse(node));
+    }
+
+    /** All the criteria of each program at once, assembling the slices from the components of its snapshot.
+     *  Freezing the graph and condensing it are included in the time. */
+    @Benchmark
+    public void condensedBatchSlicing(Blackhole bh) {
+        for (Case c : classicCases)
+            bh.consume(new CondensedSlicingAlgorithm(c.sdg.freeze()).traverse(c.criteria));
+    }
+
+    @Benchmark
+    public void thinSlicing(Blackhole bh) {
+        for (Case c : classicCases)
+            for (GraphNode<?> node : c.criteria)
+                bh.consume(new ThinSlicingAlgorithm(c.sdg).traverse(node));
+    }
+
+    @Benchmark
+    public void exceptionSensitiveSlicing(Blackhole bh) {
+        for (Case c : esCases)
+            for (GraphNode<?> node : c.criteria)
+                bh.consume(new ExceptionSensitiveSlicingAlgorithm((ESSDG) c.sdg).traverse(node));
+    }
+
+    @Benchmark
+    public void toAst(Blackhole bh) {
+        for (Slice slice : slices)
+            bh.consume(slice.toAst());
+    }
+
+    protected static class Case {
+        protected final SDG sdg;
+        protected final List<GraphNode<?>> criteria;
+
+        protected Case(SDG sdg, List<GraphNode<?>> criteria) {
+            this.sdg = sdg;
+            this.criteria = criteria;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package tfm.bench;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.utils.Context;
+
+/** Builds SDGs without their summary arcs, which can then be computed by any {@link tfm.graphs.sdg.sumarcs.SummaryArcsBuilder}. */
+public class UnsummarizedSDG {
+    public static SDG build(boolean exceptionSensitive, NodeList<CompilationUnit> units) {
+        return build(exceptionSensitive, units, true);
+    }
+
+    /** @param parallelCalls Whether the changes of the call replacement are planned concurrently. */
+    public static SDG build(boolean exceptionSensitive, NodeList<CompilationUnit> units, boolean parallelCalls) {
+        SDG sdg = exceptionSensitive ? new ES(parallelCalls) : new Classic(parallelCalls);
+        sdg.build(units);
+        return sdg;
+    }
+
+    protected static class Classic extends SDG {
+        protected final boolean parallelCalls;
+
+        protected Classic(boolean parallelCalls) {
+            this.parallelCalls = parallelCalls;
+        }
+
+        @Override
+        public void build(NodeList<CompilationUnit> nodeList) {
+            nodeList.accept(createBuilder(), new Context());
+            replaceMethodCalls(parallelCalls);
+            compilationUnits = nodeList;
+            built = true;
+        }
+    }
+
+    protected static class ES extends ESSDG {
+        protected final boolean parallelCalls;
+
+        protected ES(boolean parallelCalls) {
+            this.parallelCalls = parallelCalls;
+        }
+
+        @Override
+        public void build(NodeList<CompilationUnit> nodeList) {
+            nodeList.accept(createBuilder(), new Context());
+            replaceMethodCalls(parallelCalls);
+            compilationUnits = nodeList;
+            built = true;
+        }
+    }
+}
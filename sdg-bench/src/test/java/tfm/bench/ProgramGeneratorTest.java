@@ -0,0 +1,69 @@
+package tfm.bench;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the programs created by the {@link ProgramGenerator} compile, and that the SDGs of small
+ * ones can be built and sliced. The time taken by larger programs is measured by {@link ScalingReport}.
+ */
+public class ProgramGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(ProgramGenerator.Shape.class)
+    public void generatedProgramsCompile(ProgramGenerator.Shape shape) {
+        for (long seed = 0; seed < 5; seed++) {
+            String source = new ProgramGenerator(new ProgramGenerator.Config()
+                    .shape(shape).seed(seed).statements(20).maxDepth(4)).generate();
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavaFileManager fileManager = new ForwardingJavaFileManager<>(compiler.getStandardFileManager(null, null, null)) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                    return new SimpleJavaFileObject(URI.create("mem:///" + className + kind.extension), kind) {
+                        @Override
+                        public OutputStream openOutputStream() {
+                            return new ByteArrayOutputStream();
+                        }
+                    };
+                }
+            };
+            JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + ProgramGenerator.CLASS_NAME + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            boolean success = compiler.getTask(null, fileManager, diagnostics, null, null, List.of(file)).call();
+            assertTrue(success, () -> diagnostics.getDiagnostics().toString() + "\n" + source);
+        }
+    }
+
+    /** The shape with recursion, which is the hardest one for the slicing algorithms. */
+    @Test
+    public void generatedProgramsCanBeSliced() {
+        Program program = Programs.synthetic(new ProgramGenerator.Config().shape(ProgramGenerator.Shape.CYCLES).methods(4));
+        SDG sdg = new SDG();
+        sdg.build(program.getUnits());
+        for (GraphNode<?> node : ScalingReport.criteria(sdg))
+            assertTrue(new ClassicSlicingAlgorithm(sdg).traverse(node).contains(node));
+        ESSDG essdg = new ESSDG();
+        essdg.build(program.getUnits());
+        for (GraphNode<?> node : ScalingReport.criteria(essdg))
+            assertTrue(new ExceptionSensitiveSlicingAlgorithm(essdg).traverse(node).contains(node));
+    }
+}
@@ -0,0 +1,112 @@
+package tfm.cli;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.apache.commons.cli.*;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.ImpactAnalysis;
+import tfm.slicing.ImpactAnalysis.LineRange;
+import tfm.slicing.Slice;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Prints the statements and methods of a project that may be affected by a patch, e.g. to select
+ * the tests that must be run after a change. The lines changed by the patch are the criterion of
+ * a single {@link ImpactAnalysis forward slice} of the SDG of the project (with its new version).
+ * <br/>
+ * The output lists each affected file, followed by a tab and the affected lines, separated by commas;
+ * and then each affected method, as its file, line and declaration, separated by tabs.
+ */
+public class ImpactAnalyzer {
+    protected static final Options OPTIONS = new Options();
+
+    static {
+        OPTIONS.addOption(Option
+                .builder("i").longOpt("include")
+                .hasArgs().argName("directory[,directory,...]").valueSeparator(',')
+                .required()
+                .desc("The directories of the project, which must contain the changed version of the files.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("d").longOpt("diff")
+                .hasArg().argName("patchFile")
+                .required()
+                .desc("The changes, in unified diff format (e.g. the output of \"git diff\"), or \"-\" to read" +
+                        " them from the standard input.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("r").longOpt("root")
+                .hasArg().argName("directory")
+                .desc("The directory that the paths of the patch are relative to, by default the current one.")
+                .build());
+        OPTIONS.addOption("es", "exception-sensitive", false, "Enable exception-sensitive analysis");
+        OPTIONS.addOption(Option
+                .builder("h").longOpt("help")
+                .desc("Shows this text")
+                .build());
+    }
+
+    protected final Project project;
+    protected final String diff;
+    protected final Path root;
+
+    public ImpactAnalyzer(String... cliArgs) throws ParseException {
+        CommandLine cliOpts = new DefaultParser().parse(OPTIONS, cliArgs);
+        if (cliOpts.hasOption('h'))
+            throw new ParseException(OPTIONS.toString());
+        List<File> includes = new LinkedList<>();
+        for (String str : cliOpts.getOptionValues('i')) {
+            File dir = new File(str);
+            if (!dir.isDirectory())
+                throw new ParseException("One of the include directories is not a directory or isn't accesible: " + str);
+            includes.add(dir);
+        }
+        project = new Project(includes, cliOpts.hasOption("exception-sensitive"));
+        diff = cliOpts.getOptionValue('d');
+        root = Paths.get(cliOpts.getOptionValue('r', "."));
+    }
+
+    public void analyse(PrintStream out) throws IOException {
+        List<LineRange> changes;
+        try (BufferedReader reader = diff.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(diff))) {
+            changes = UnifiedDiff.parse(reader, root);
+        }
+        FrozenSDG sdg = project.build().freeze();
+        ImpactAnalysis analysis = new ImpactAnalysis(sdg);
+        List<GraphNode<?>> changed = analysis.findChangedNodes(changes);
+        Slice slice = analysis.impactOfNodes(changed);
+        out.printf("# %d ranges of lines changed, %d statements changed, %d nodes affected%n",
+                changes.size(), changed.size(), slice.getGraphNodes().size());
+        out.println("# Affected statements");
+        out.print(SlicerServer.toLines(slice));
+        out.println("# Affected methods");
+        for (CallableDeclaration<?> method : ImpactAnalysis.findMethods(slice)) {
+            String file = method.findCompilationUnit().flatMap(CompilationUnit::getStorage)
+                    .map(s -> s.getPath().toString()).orElse("?");
+            String type = method.findAncestor(TypeDeclaration.class).map(t -> t.getNameAsString() + ".").orElse("");
+            out.println(file + '\t' + method.getBegin().map(p -> p.line).orElse(0) + '\t'
+                    + type + method.getDeclarationAsString(false, false, false));
+        }
+    }
+
+    public static void main(String... args) {
+        try {
+            new ImpactAnalyzer(args).analyse(System.out);
+        } catch (ParseException e) {
+            System.err.println("Error parsing the arguments!\n" + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Could not read the patch: " + e.getMessage());
+        }
+    }
+}
@@ -12,6 +12,7 @@ import tfm.graphs.cfg.CFG;
 import tfm.graphs.exceptionsensitive.ESSDG;
 import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
+import tfm.slicing.MutableSlice;
 import tfm.slicing.NodeIdSlicingCriterion;
 import tfm.slicing.Slice;
 import tfm.slicing.SlicingCriterion;
@@ -98,7 +99,7 @@ public class PHPSlice {
         sdg.build(units);
 
         SlicingCriterion sc = new NodeIdSlicingCriterion(0, "");
-        Slice slice = new Slice();
+        Slice slice = new MutableSlice();
         if (scId != 0) {
             // Slice the SDG
             sc = new NodeIdSlicingCriterion(scId, "");
@@ -0,0 +1,184 @@
+package tfm.cli;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.resolution.SymbolResolver;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.PDGCache;
+import tfm.graphs.sdg.SDG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A set of source directories that are analyzed together, and the kind of SDG built from them.
+ * Two projects are equal if they contain the same directories and build the same kind of SDG.
+ */
+public class Project {
+    protected final SortedSet<Path> directories;
+    protected final boolean exceptionSensitive;
+
+    public Project(Collection<File> directories, boolean exceptionSensitive) {
+        if (directories.isEmpty())
+            throw new IllegalArgumentException("A project must contain at least one directory");
+        this.directories = new TreeSet<>();
+        for (File dir : directories) {
+            if (!dir.isDirectory())
+                throw new IllegalArgumentException("Not a directory or not accessible: " + dir);
+            this.directories.add(dir.toPath().toAbsolutePath().normalize());
+        }
+        this.exceptionSensitive = exceptionSensitive;
+    }
+
+    public SortedSet<Path> getDirectories() {
+        return Collections.unmodifiableSortedSet(directories);
+    }
+
+    public boolean isExceptionSensitive() {
+        return exceptionSensitive;
+    }
+
+    /** A string that identifies this project: two projects are equal if and only if their keys are equal. */
+    public String getKey() {
+        StringBuilder builder = new StringBuilder(exceptionSensitive ? "es" : "sdg");
+        for (Path directory : directories)
+            builder.append('\n').append(directory);
+        return builder.toString();
+    }
+
+    /** Whether the given file is inside one of the directories of this project. */
+    public boolean contains(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        return directories.stream().anyMatch(path::startsWith);
+    }
+
+    /** All the Java files in this project, sorted by path. */
+    public List<Path> findSourceFiles() {
+        List<Path> files = new LinkedList<>();
+        for (Path dir : directories) {
+            try (Stream<Path> stream = Files.walk(dir)) {
+                stream.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p)).forEach(files::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return files.stream().sorted().distinct().collect(Collectors.toList());
+    }
+
+    /** Reads the source code of every file of this project. */
+    public SortedMap<Path, String> readSources() {
+        SortedMap<Path, String> sources = new TreeMap<>();
+        for (Path file : findSourceFiles()) {
+            try {
+                sources.put(file, Files.readString(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return sources;
+    }
+
+    /** Parses every file of this project and builds its SDG. */
+    public SDG build() {
+        return build(readSources());
+    }
+
+    /**
+     * Builds the SDG of this project from the given source code, which need not be the
+     * current contents of the files.
+     * @param sources The source code of each file, indexed by its path.
+     */
+    public SDG build(Map<Path, String> sources) {
+        // The configuration of JavaParser is global, so only one project can be parsed at a time
+        synchronized (Project.class) {
+            List<CompilationUnit> units = new LinkedList<>();
+            sources.forEach((file, source) -> units.add(parse(file, source)));
+            return build(units);
+        }
+    }
+
+    /**
+     * Builds the SDG of this project from compilation units that have already been parsed.
+     * The SDG refers to the nodes of the units and sets their symbol resolver, but it doesn't
+     * modify them otherwise, so the units may be shared by several SDGs that aren't being built.
+     * @see ProjectWatcher
+     */
+    public SDG build(Collection<CompilationUnit> units) {
+        return build(units, null);
+    }
+
+    /**
+     * Builds the SDG of this project from compilation units that have already been parsed,
+     * reusing the PDGs of the methods of the units that were built with the same cache.
+     * @param pdgCache The PDGs of previous builds, or null. It is ignored if this project is exception-sensitive.
+     * @see PDGCache
+     */
+    public SDG build(Collection<CompilationUnit> units, PDGCache pdgCache) {
+        synchronized (Project.class) {
+            // The symbol solver caches the files it reads, so a new one is needed in each build
+            SymbolResolver symbolResolver = configureParser();
+            NodeList<CompilationUnit> nodeList = new NodeList<>();
+            for (CompilationUnit unit : units) {
+                unit.setData(Node.SYMBOL_RESOLVER_KEY, symbolResolver);
+                nodeList.add(unit);
+            }
+            SDG sdg = exceptionSensitive ? new ESSDG() : new SDG();
+            if (!exceptionSensitive)
+                sdg.setPDGCache(pdgCache);
+            sdg.build(nodeList);
+            return sdg;
+        }
+    }
+
+    /** Sets up the symbol solver of JavaParser to look for declarations in this project and the JRE. */
+    protected SymbolResolver configureParser() {
+        CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+        combinedTypeSolver.add(new ReflectionTypeSolver(true));
+        for (Path directory : directories)
+            combinedTypeSolver.add(new JavaParserTypeSolver(directory));
+        SymbolResolver symbolResolver = new JavaSymbolSolver(combinedTypeSolver);
+        JavaParser.getStaticConfiguration().setSymbolResolver(symbolResolver);
+        JavaParser.getStaticConfiguration().setAttributeComments(false);
+        return symbolResolver;
+    }
+
+    /** Parses a file of this project. */
+    public CompilationUnit parse(Path file, String source) {
+        synchronized (Project.class) {
+            JavaParser.getStaticConfiguration().setAttributeComments(false);
+            CompilationUnit unit = JavaParser.parse(source);
+            unit.setStorage(file);
+            return unit;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Project project = (Project) o;
+        return exceptionSensitive == project.exceptionSensitive && directories.equals(project.directories);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(directories, exceptionSensitive);
+    }
+
+    @Override
+    public String toString() {
+        return (exceptionSensitive ? "ES " : "") + directories;
+    }
+}
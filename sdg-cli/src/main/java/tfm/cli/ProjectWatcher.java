@@ -0,0 +1,231 @@
+package tfm.cli;
+
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.CompilationUnit;
+import tfm.graphs.sdg.PDGCache;
+import tfm.graphs.sdg.SDG;
+import tfm.utils.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps the SDG of a project up to date with its files, watching its directories for changes.
+ * <br/>
+ * Changes that happen in a burst (e.g. saving several files, or checking out a branch) are
+ * {@link #debounceMillis grouped}, and then only the files whose content has changed are parsed
+ * again. The SDG is then rebuilt from the new and the unchanged compilation units, reusing the
+ * PDGs of the methods of the unchanged units from a {@link PDGCache}. Only the method calls and
+ * the summary arcs are computed again for every method, as they may depend on the files changed.
+ * The PDGs are not reused in exception-sensitive SDGs, which depend on the exceptions declared
+ * by the methods called.
+ * <br/>
+ * {@link #getSDG()} always returns a complete SDG, which is never modified: the new SDG replaces
+ * it when it has been built, so slices that are being computed keep using the previous version.
+ * If a file can't be parsed, its previous version is used until it is fixed.
+ * <br/>
+ * The SDGs built share the compilation units that haven't changed, which they don't modify.
+ */
+public class ProjectWatcher implements Closeable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    protected final Project project;
+    protected final long debounceMillis;
+    protected final WatchService watchService;
+    protected final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    /** The source code and AST of each file, only accessed by the watching thread after the first build. */
+    protected final Map<Path, String> sources = new TreeMap<>();
+    protected final Map<Path, CompilationUnit> units = new TreeMap<>();
+    /** The PDGs of the methods of {@link #units}, only accessed by the watching thread after the first build. */
+    protected final PDGCache pdgCache = new PDGCache();
+    protected final Thread thread;
+
+    protected volatile SDG sdg;
+    protected final LongAdder rebuilds = new LongAdder();
+    protected final LongAdder filesParsed = new LongAdder();
+    protected final LongAdder pdgsReused = new LongAdder();
+
+    public ProjectWatcher(Project project) throws IOException {
+        this(project, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /** @param debounceMillis How long to wait since the last change before updating the SDG. */
+    public ProjectWatcher(Project project, long debounceMillis) throws IOException {
+        this.project = Objects.requireNonNull(project);
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::watch, "tfm-watcher");
+        thread.setDaemon(true);
+    }
+
+    /** Builds the SDG of the project and starts watching its directories. */
+    public void start() throws IOException {
+        // Directories are registered before reading the files, so that no change is missed
+        for (Path dir : project.getDirectories())
+            registerAll(dir);
+        for (Path file : project.findSourceFiles())
+            readFile(file);
+        sdg = build();
+        thread.start();
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    /** The latest SDG built. It must not be modified. */
+    public SDG getSDG() {
+        return sdg;
+    }
+
+    /** The number of times that the SDG has been rebuilt after a change. */
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    /** The number of files parsed, including those of the first build. */
+    public long getFilesParsed() {
+        return filesParsed.sum();
+    }
+
+    /** The number of PDGs that have been reused from previous builds instead of built again. */
+    public long getPDGsReused() {
+        return pdgsReused.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+
+    protected void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new TreeSet<>();
+                boolean overflow = poll(watchService.take(), changed);
+                // Wait until no change has happened for a while
+                for (WatchKey key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS); key != null;
+                     key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS))
+                    overflow |= poll(key, changed);
+                if (overflow)
+                    changed.addAll(rescan());
+                update(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher has been closed
+        }
+    }
+
+    /** Adds the paths changed according to the events of the key to the given set.
+     *  @return Whether some events have been lost and all files must be checked. */
+    protected boolean poll(WatchKey key, Set<Path> changed) {
+        Path dir = watchedDirectories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerAll(path);
+                    changed.addAll(findSourceFiles(path));
+                } catch (IOException e) {
+                    Logger.warn(getClass().getSimpleName(), () -> "Could not watch " + path + ": " + e.getMessage());
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+        if (!key.reset())
+            watchedDirectories.remove(key);
+        return overflow;
+    }
+
+    /** All the files of the project, including those that have been deleted since the last update. */
+    protected Set<Path> rescan() {
+        Set<Path> all = new TreeSet<>(units.keySet());
+        all.addAll(project.findSourceFiles());
+        return all;
+    }
+
+    /** Parses the files whose content has changed and, if there is any, rebuilds the SDG. */
+    protected void update(Set<Path> changed) {
+        boolean modified = false;
+        for (Path path : changed) {
+            if (!path.toString().endsWith(".java"))
+                continue;
+            try {
+                if (Files.isRegularFile(path))
+                    modified |= readFile(path);
+                else
+                    modified |= sources.remove(path) != null | units.remove(path) != null;
+            } catch (ParseProblemException | UncheckedIOException e) {
+                Logger.warn(getClass().getSimpleName(), () -> "Keeping the previous version of " + path + ": " + e.getMessage());
+            }
+        }
+        if (!modified)
+            return;
+        try {
+            sdg = build();
+            rebuilds.increment();
+        } catch (RuntimeException e) {
+            Logger.warn(getClass().getSimpleName(), () -> "Keeping the previous SDG, the new one failed to build: " + e);
+        }
+    }
+
+    /** Builds an SDG from the current AST of every file, reusing the PDGs of the files that haven't changed. */
+    protected SDG build() {
+        List<CompilationUnit> current = new ArrayList<>(units.values());
+        pdgCache.retainAll(current);
+        long hits = pdgCache.getHits();
+        try {
+            return project.build(current, pdgCache);
+        } finally {
+            pdgsReused.add(pdgCache.getHits() - hits);
+        }
+    }
+
+    /** Reads and parses a file, if its content has changed.
+     *  @return Whether the file has changed. */
+    protected boolean readFile(Path file) {
+        String source;
+        try {
+            source = Files.readString(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (source.equals(sources.get(file)))
+            return false;
+        CompilationUnit unit = project.parse(file, source);
+        filesParsed.increment();
+        sources.put(file, source);
+        units.put(file, unit);
+        return true;
+    }
+
+    protected void registerAll(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) stream.filter(Files::isDirectory)::iterator)
+                watchedDirectories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+        }
+    }
+
+    protected static List<Path> findSourceFiles(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            List<Path> list = new LinkedList<>();
+            stream.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p)).forEach(list::add);
+            return list;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package tfm.cli;
+
+import com.github.javaparser.ast.Node;
+import tfm.graphs.sdg.SDG;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the SDGs of several projects in memory, within a budget of heap memory. When the budget
+ * is exceeded, the least recently used SDGs are evicted.
+ * <br/>
+ * The memory retained by each SDG is {@link #estimateSize(SDG, Map) estimated} from the number of
+ * nodes and arcs of the graph, the number of nodes of its AST and the length of its source code.
+ * <br/>
+ * If a spill directory is set, the source code from which an evicted SDG was built is saved to it,
+ * and the SDG is rebuilt from that copy when it is requested again, so that the slices of a project
+ * are always computed over the same version of its code, even if the files change (e.g. when
+ * switching branches). SDGs are not serializable, so it is the source code that is spilled.
+ * Removing a project with {@link #invalidate(Project)} discards its copy. Each copy is stored in
+ * a file named after a digest of the {@link Project#getKey() key} of its project, which is also saved
+ * in the file and checked when it is read. Copies are written without holding the lock of the cache;
+ * a project that is requested while its copy is being written is rebuilt from the code in memory.
+ * <br/>
+ * Instances are thread-safe. Concurrent requests of a project that is not in memory wait for a
+ * single build.
+ */
+public class SDGCache {
+    /** Estimated bytes retained by each node of the SDG, including the CFG and PDG nodes. */
+    public static final long NODE_BYTES = 500;
+    /** Estimated bytes retained by each arc of the SDG, including the CFG and PDG arcs. */
+    public static final long ARC_BYTES = 250;
+    /** Estimated bytes retained by each node of the AST, including its tokens and position. */
+    public static final long AST_NODE_BYTES = 800;
+
+    protected final long budget;
+    protected final Path spillDirectory;
+
+    /** The entries in access order (least recently used first). Guarded by {@code this}. */
+    protected final LinkedHashMap<Project, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** The projects whose source code has been spilled. Guarded by {@code this}. */
+    protected final Map<Project, Path> spilled = new HashMap<>();
+    /** The source code of the evicted projects whose copy is being written. Guarded by {@code this}. */
+    protected final Map<Project, Map<Path, String>> spilling = new HashMap<>();
+    protected long usedBytes = 0;
+
+    protected final LongAdder hits = new LongAdder();
+    protected final LongAdder misses = new LongAdder();
+    protected final LongAdder evictions = new LongAdder();
+    protected final LongAdder restores = new LongAdder();
+
+    /**
+     * @param budget The maximum number of bytes that the SDGs in memory should retain. The most
+     *               recently requested SDG is always kept, even if it exceeds the budget.
+     * @param spillDirectory Where the source code of evicted SDGs is saved, or {@code null} to
+     *                       discard them.
+     */
+    public SDGCache(long budget, Path spillDirectory) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("The memory budget must be positive");
+        this.budget = budget;
+        this.spillDirectory = spillDirectory;
+        if (spillDirectory != null) {
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Obtains the SDG of the given project, building it if it is not in memory. */
+    public SDG get(Project project) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(project);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(project, entry);
+                owner = true;
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+        }
+        if (owner)
+            load(project, entry);
+        return entry.sdg.join();
+    }
+
+    /** Builds the SDG of a project, from its spilled source code if there is any. */
+    protected void load(Project project, Entry entry) {
+        Map<Project, Map<Path, String>> evicted = Map.of();
+        try {
+            Path spillFile;
+            Map<Path, String> sources;
+            synchronized (this) {
+                sources = spilling.get(project);
+                spillFile = spilled.get(project);
+            }
+            if (sources != null) {
+                restores.increment();
+            } else if (spillFile != null) {
+                try {
+                    sources = readSpill(project, spillFile);
+                    restores.increment();
+                } catch (UncheckedIOException e) {
+                    // The project may have been invalidated, and its copy deleted, since it was looked up
+                    synchronized (this) {
+                        if (spillFile.equals(spilled.get(project)))
+                            throw e;
+                    }
+                }
+            }
+            if (sources == null)
+                sources = project.readSources();
+            SDG sdg = project.build(sources);
+            synchronized (this) {
+                // The project may have been invalidated while it was being built
+                if (entries.get(project) == entry) {
+                    entry.sources = sources;
+                    entry.size = estimateSize(sdg, sources);
+                    usedBytes += entry.size;
+                    evicted = evict(project);
+                }
+            }
+            entry.sdg.complete(sdg);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(project, entry);
+            }
+            entry.sdg.completeExceptionally(e);
+        }
+        evicted.forEach(this::spill);
+    }
+
+    /**
+     * Evicts the least recently used SDGs until the budget is met. SDGs that are being built and
+     * the one given are kept. The caller must {@link #spill(Project, Map) spill} the evicted source
+     * code once it has released the lock.
+     * @return The evicted projects whose source code must be spilled, and that code.
+     */
+    protected synchronized Map<Project, Map<Path, String>> evict(Project keep) {
+        Map<Project, Map<Path, String>> evicted = new LinkedHashMap<>();
+        Iterator<Map.Entry<Project, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > budget && it.hasNext()) {
+            Map.Entry<Project, Entry> mapEntry = it.next();
+            Entry entry = mapEntry.getValue();
+            if (mapEntry.getKey().equals(keep) || !entry.sdg.isDone())
+                continue;
+            it.remove();
+            usedBytes -= entry.size;
+            evictions.increment();
+            if (spillDirectory != null && entry.sources != null) {
+                evicted.put(mapEntry.getKey(), entry.sources);
+                spilling.put(mapEntry.getKey(), entry.sources);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes a project from memory and discards its spilled source code, so that the next
+     * request reads its files again. If its SDG is being built, the requests that are waiting
+     * for it still receive it, but it is not kept when it is done.
+     */
+    public synchronized void invalidate(Project project) {
+        Entry entry = entries.remove(project);
+        if (entry != null)
+            usedBytes -= entry.size;
+        spilling.remove(project);
+        Path spillFile = spilled.remove(project);
+        if (spillFile != null)
+            spillFile.toFile().delete();
+    }
+
+    /**
+     * Saves the source code of an evicted project to a temporary file, without holding the lock,
+     * and then publishes it. The copy is discarded if the project has been invalidated or evicted
+     * again since it was evicted.
+     */
+    protected void spill(Project project, Map<Path, String> sources) {
+        String name = digest(project.getKey());
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(spillDirectory, name, ".tmp");
+            writeSpill(project, sources, temp);
+            synchronized (this) {
+                if (spilling.get(project) == sources) {
+                    spilling.remove(project);
+                    Path file = spillDirectory.resolve(name + ".sources.gz");
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    spilled.put(project, file);
+                    temp = null;
+                }
+            }
+        } catch (IOException e) {
+            // The project will be read from its files again
+            synchronized (this) {
+                if (spilling.get(project) == sources)
+                    spilling.remove(project);
+            }
+        } finally {
+            if (temp != null)
+                temp.toFile().delete();
+        }
+    }
+
+    /** Writes the key and the source code of a project to the given file. */
+    protected void writeSpill(Project project, Map<Path, String> sources, Path file) throws IOException {
+        Map<String, String> data = new TreeMap<>();
+        sources.forEach((path, source) -> data.put(path.toString(), source));
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeUTF(project.getKey());
+            out.writeObject(data);
+        }
+    }
+
+    /** Reads the source code of a project from its spill file.
+     *  @throws IllegalStateException If the file belongs to another project. */
+    @SuppressWarnings("unchecked")
+    protected Map<Path, String> readSpill(Project project, Path file) {
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (!in.readUTF().equals(project.getKey()))
+                throw new IllegalStateException("The spill file " + file + " does not belong to " + project);
+            Map<Path, String> sources = new TreeMap<>();
+            ((Map<String, String>) in.readObject()).forEach((path, source) -> sources.put(Paths.get(path), source));
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The SHA-256 digest of a string, in hexadecimal. */
+    protected static String digest(String text) {
+        try {
+            StringBuilder builder = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)))
+                builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every implementation of the JRE must support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Estimates the memory retained by an SDG and the source code it was built from, in bytes. */
+    public static long estimateSize(SDG sdg, Map<Path, String> sources) {
+        long astNodes = sdg.getCompilationUnits().stream()
+                .mapToLong(cu -> cu.findAll(Node.class).size())
+                .sum();
+        long chars = sources.values().stream().mapToLong(String::length).sum();
+        return sdg.vertexSet().size() * NODE_BYTES
+                + sdg.edgeSet().size() * ARC_BYTES
+                + astNodes * AST_NODE_BYTES
+                + chars;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** The projects in memory, from least to most recently used. */
+    public synchronized List<Project> getProjects() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /** The estimated size of the SDG of the given project, or 0 if it is not in memory. */
+    public synchronized long getSize(Project project) {
+        Entry entry = entries.get(project);
+        return entry == null ? 0 : entry.size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** The number of SDGs that have been rebuilt from spilled source code. */
+    public long getRestores() {
+        return restores.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SDGCache{used: %d/%d KB, hits: %d, misses: %d, evictions: %d, restores: %d}",
+                getUsedBytes() / 1024, budget / 1024, getHits(), getMisses(), getEvictions(), getRestores());
+    }
+
+    protected static class Entry {
+        protected final CompletableFuture<SDG> sdg = new CompletableFuture<>();
+        protected Map<Path, String> sources;
+        protected long size;
+    }
+}
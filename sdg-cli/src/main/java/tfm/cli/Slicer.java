@@ -3,6 +3,7 @@ package tfm.cli;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.comments.BlockComment;
 import com.github.javaparser.ast.nodeTypes.NodeWithName;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
@@ -10,15 +11,25 @@ import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSol
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import org.apache.commons.cli.*;
+import tfm.graphs.Graph;
+import tfm.graphs.exceptionsensitive.ESPDG;
 import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.pdg.PDG;
 import tfm.graphs.sdg.SDG;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.slicing.ClassicSlicingAlgorithm;
 import tfm.slicing.FileLineSlicingCriterion;
+import tfm.slicing.FileLineVariableCriterion;
 import tfm.slicing.Slice;
-import tfm.slicing.SlicingCriterion;
+import tfm.utils.TaskCancelledException;
+import tfm.utils.TaskMonitor;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.time.Duration;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -79,11 +90,30 @@ public class Slicer {
                 .build());
         OPTIONS.addOption(Option
                 .builder("o").longOpt("output")
-                .hasArg().argName("outputDir")
+                .hasArg().argName("outputDir").type(File.class)
                 .desc("The directory where the sliced source code should be placed. By default, it is placed at " +
                         DEFAULT_OUTPUT_DIR)
                 .build());
         OPTIONS.addOption("es", "exception-sensitive", false, "Enable exception-sensitive analysis");
+        OPTIONS.addOption(Option
+                .builder().longOpt("intraprocedural")
+                .desc("Only slices the method that contains the slicing criterion, building its PDG instead of the" +
+                        " SDG of the whole program. Only the file of the slicing criterion is parsed, and the" +
+                        " statements of other methods and the effects of calls on the slice are not analyzed.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder().longOpt("stats")
+                .desc("Prints the time and memory spent in each phase of the analysis, and the size of the SDG.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder().longOpt("timeout")
+                .hasArg().argName("seconds").type(Number.class)
+                .desc("Stops the analysis if building the SDG and slicing it take longer than the given time.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder().longOpt("progress")
+                .desc("Prints the progress of each step of the analysis to the standard error.")
+                .build());
         OPTIONS.addOption(Option
                 .builder("h").longOpt("help")
                 .desc("Shows this text")
@@ -210,25 +240,20 @@ public class Slicer {
         JavaParser.getStaticConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
         JavaParser.getStaticConfiguration().setAttributeComments(false);
 
-        // Build the SDG
-        NodeList<CompilationUnit> units = new NodeList<>();
-        try {
-            for (File directory : dirIncludeSet)
-                units.add(JavaParser.parse(directory));
-            CompilationUnit scUnit = JavaParser.parse(scFile);
-            if (!units.contains(scUnit))
-                units.add(scUnit);
-        } catch (FileNotFoundException e) {
-            throw new ParseException(e.getMessage());
+        // Build the graph and slice it
+        FileLineVariableCriterion sc = new FileLineVariableCriterion(scFile, scLine, scVars, scVarOccurrences);
+        Graph graph;
+        Slice slice;
+        if (cliOpts.hasOption("intraprocedural")) {
+            PDG pdg = buildPDG(sc);
+            graph = pdg;
+            slice = hasVariables() ? sliceVariables(pdg, sc.findNode(pdg), sc) : pdg.slice(sc);
+        } else {
+            SDG sdg = buildSDG();
+            graph = sdg;
+            slice = hasVariables() ? sliceVariables(sdg, sc.findNode(sdg), sc) : sdg.slice(sc);
         }
 
-        SDG sdg = cliOpts.hasOption("exception-sensitive") ? new ESSDG() : new SDG();
-        sdg.build(units);
-
-        // Slice the SDG
-        SlicingCriterion sc = new FileLineSlicingCriterion(scFile, scLine);
-        Slice slice = sdg.slice(sc);
-
         // Convert the slice to code and output the result to `outputDir`
         for (CompilationUnit cu : slice.toAst()) {
             if (cu.getStorage().isEmpty())
@@ -244,6 +269,79 @@ public class Slicer {
                 System.err.println("Could not write file " + javaFile);
             }
         }
+
+        if (cliOpts.hasOption("stats"))
+            System.out.print(graph.getMetrics().report(graph));
+    }
+
+    /** Whether the slice starts from the variables of the criterion, instead of its whole statement. */
+    protected boolean hasVariables() {
+        if (scVars.isEmpty())
+            return false;
+        if (cliOpts.hasOption("exception-sensitive")) {
+            System.err.println("The exception-sensitive analysis can't slice from variables, the whole statement will be used.");
+            return false;
+        }
+        return true;
+    }
+
+    /** Slices from the selected variables of the criterion, in a single traversal. */
+    protected Slice sliceVariables(Graph graph, Optional<GraphNode<?>> node, FileLineVariableCriterion sc) throws ParseException {
+        if (node.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the graph");
+        try {
+            return new ClassicSlicingAlgorithm(graph).traverse(node.get(), sc.findVariableActions(graph, node.get()));
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(e.getMessage());
+        }
+    }
+
+    protected SDG buildSDG() throws ParseException {
+        SDG sdg = cliOpts.hasOption("exception-sensitive") ? new ESSDG() : new SDG();
+        sdg.setMonitor(createMonitor());
+        if (cliOpts.hasOption("stats"))
+            sdg.setMetrics(new Metrics());
+        NodeList<CompilationUnit> units = new NodeList<>();
+        try (Metrics.Timer t = sdg.getMetrics().time(Phase.PARSE)) {
+            for (File directory : dirIncludeSet)
+                units.add(JavaParser.parse(directory));
+            CompilationUnit scUnit = JavaParser.parse(scFile);
+            if (!units.contains(scUnit))
+                units.add(scUnit);
+        } catch (FileNotFoundException e) {
+            throw new ParseException(e.getMessage());
+        }
+        sdg.build(units);
+        return sdg;
+    }
+
+    /** Parses the file of the slicing criterion and builds the PDG of the method that contains it. */
+    protected PDG buildPDG(FileLineSlicingCriterion sc) throws ParseException {
+        PDG pdg = cliOpts.hasOption("exception-sensitive") ? new ESPDG() : new PDG();
+        pdg.setMonitor(createMonitor());
+        if (cliOpts.hasOption("stats"))
+            pdg.setMetrics(new Metrics());
+        CompilationUnit scUnit;
+        try (Metrics.Timer t = pdg.getMetrics().time(Phase.PARSE)) {
+            scUnit = JavaParser.parse(scFile);
+        } catch (FileNotFoundException e) {
+            throw new ParseException(e.getMessage());
+        }
+        Optional<MethodDeclaration> method = sc.findMethod(scUnit);
+        if (method.isEmpty())
+            throw new ParseException("The slicing criterion is not inside the body of a method.");
+        pdg.build(method.get());
+        return pdg;
+    }
+
+    protected TaskMonitor createMonitor() throws ParseException {
+        Duration budget = null;
+        if (cliOpts.hasOption("timeout"))
+            budget = Duration.ofSeconds(((Number) cliOpts.getParsedOptionValue("timeout")).longValue());
+        TaskMonitor.Listener listener = null;
+        if (cliOpts.hasOption("progress"))
+            listener = (step, done, total) -> System.err.printf(total < 0 ? "%s: %d%n" : "%s: %d/%d%n", step, done, total);
+        return new TaskMonitor(budget, listener);
     }
 
     protected String getDisclaimer(CompilationUnit.Storage s) {
@@ -257,6 +355,8 @@ public class Slicer {
             new Slicer(args).slice();
         } catch (ParseException e) {
             System.err.println("Error parsing the arguments!\n" + e.getMessage());
+        } catch (TaskCancelledException e) {
+            System.err.println("The slice could not be computed: " + e.getMessage());
         }
     }
 }
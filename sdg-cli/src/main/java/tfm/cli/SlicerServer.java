@@ -0,0 +1,409 @@
+package tfm.cli;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.cli.*;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.FileLineSlicingCriterion;
+import tfm.slicing.Slice;
+import tfm.slicing.SliceCache;
+import tfm.utils.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the SDGs of one or more projects in memory and answers slicing requests over HTTP,
+ * so that the cost of starting the JVM, parsing and building the SDG is only paid once.
+ * Each project is built the first time that it is requested, and kept in a {@link SDGCache}.
+ * In watch mode, the SDGs of the default project are instead kept up to date with its files
+ * by a {@link ProjectWatcher}. Optionally, the slices of each SDG are kept in a {@link SliceCache}.
+ * <br/>
+ * <b>Endpoints</b> (all of them use GET and answer with plain text in UTF-8):
+ * <ul>
+ *     <li>{@code /slice?file=F&line=L[&es=true][&format=lines|source][&include=D1,D2]}: slices
+ *     the SDG of the project formed by the include directories (by default, those given when
+ *     starting the server) with the statement of file {@code F} at line {@code L} as criterion.
+ *     The {@code lines} format (the default) prints each file in the slice followed by a tab and
+ *     the lines included, separated by commas. The {@code source} format prints the sliced files.</li>
+ *     <li>{@code /invalidate[?include=D1,D2]}: discards the SDGs of a project, which will be rebuilt
+ *     from its files in the next request.</li>
+ *     <li>{@code /status}: lists the projects that are loaded and the statistics of the cache.</li>
+ * </ul>
+ * Errors are reported with status 400 (bad request), 404 (criterion not found) or 500.
+ */
+public class SlicerServer {
+    protected static final Options OPTIONS = new Options();
+    protected static final int DEFAULT_PORT = 8642;
+
+    static {
+        OPTIONS.addOption(Option
+                .builder("i").longOpt("include")
+                .hasArgs().argName("directory[,directory,...]").valueSeparator(',')
+                .required()
+                .desc("The directories of the project that is sliced when a request doesn't specify one.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("p").longOpt("port")
+                .hasArg().argName("port").type(Number.class)
+                .desc("The port where the server listens, " + DEFAULT_PORT + " by default.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("t").longOpt("threads")
+                .hasArg().argName("threads").type(Number.class)
+                .desc("The number of requests answered concurrently, by default the number of processors.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("m").longOpt("memory")
+                .hasArg().argName("megabytes").type(Number.class)
+                .desc("The memory that the SDGs in memory may use, by default half of the maximum heap size." +
+                        " When it is exceeded, the least recently used SDGs are evicted.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("s").longOpt("spill")
+                .hasArg().argName("directory")
+                .desc("A directory where the source code of evicted SDGs is saved, so that they are rebuilt" +
+                        " from the same version of the code when requested again.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("c").longOpt("slice-cache")
+                .hasArg().argName("megabytes").type(Number.class)
+                .desc("Keeps the slices of each SDG, within the given memory per SDG, to reuse them in later" +
+                        " requests. This memory is not part of the memory given to the SDGs.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("w").longOpt("watch")
+                .desc("Watches the include directories and updates their SDGs when a file changes.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("b").longOpt("bind")
+                .hasArg().argName("address")
+                .desc("The address where the server listens, by default the loopback interface.")
+                .build());
+        OPTIONS.addOption(Option
+                .builder("h").longOpt("help")
+                .desc("Shows this text")
+                .build());
+    }
+
+    protected final List<File> defaultIncludes = new LinkedList<>();
+    protected final SDGCache cache;
+    protected final boolean watch;
+    /** The memory of the {@link SliceCache} of each SDG, or 0 if slices are not cached. */
+    protected final long sliceCacheBudget;
+    /** The watchers of the default project (exception-sensitive or not), which are completed when their
+     *  first build ends. Guarded by {@code this}, which is not held while they are started. */
+    protected final Map<Project, CompletableFuture<ProjectWatcher>> watchers = new HashMap<>();
+    protected final HttpServer server;
+    protected final ExecutorService executor;
+
+    public SlicerServer(String... cliArgs) throws ParseException, IOException {
+        CommandLine cliOpts = new DefaultParser().parse(OPTIONS, cliArgs);
+        if (cliOpts.hasOption('h'))
+            throw new ParseException(OPTIONS.toString());
+        for (String str : cliOpts.getOptionValues('i')) {
+            File dir = new File(str);
+            if (!dir.isDirectory())
+                throw new ParseException("One of the include directories is not a directory or isn't accesible: " + str);
+            defaultIncludes.add(dir);
+        }
+        int port = cliOpts.hasOption('p') ? ((Number) cliOpts.getParsedOptionValue("p")).intValue() : DEFAULT_PORT;
+        int threads = cliOpts.hasOption('t') ? ((Number) cliOpts.getParsedOptionValue("t")).intValue()
+                : Runtime.getRuntime().availableProcessors();
+        if (threads < 1)
+            throw new ParseException("The number of threads must be positive.");
+        long budget = cliOpts.hasOption('m') ? ((Number) cliOpts.getParsedOptionValue("m")).longValue() * 1024 * 1024
+                : Runtime.getRuntime().maxMemory() / 2;
+        if (budget <= 0)
+            throw new ParseException("The memory must be positive.");
+        cache = new SDGCache(budget, cliOpts.hasOption('s') ? Paths.get(cliOpts.getOptionValue('s')) : null);
+        watch = cliOpts.hasOption('w');
+        sliceCacheBudget = cliOpts.hasOption('c') ? ((Number) cliOpts.getParsedOptionValue("c")).longValue() * 1024 * 1024 : 0;
+        if (sliceCacheBudget < 0)
+            throw new ParseException("The memory of the slice cache can't be negative.");
+        InetSocketAddress address = cliOpts.hasOption('b') ? new InetSocketAddress(cliOpts.getOptionValue('b'), port)
+                : new InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), port);
+
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/slice", exchange -> handle(exchange, this::slice));
+        server.createContext("/invalidate", exchange -> handle(exchange, this::invalidate));
+        server.createContext("/status", exchange -> handle(exchange, params -> status()));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** Stops accepting requests and waits up to {@code delay} seconds for the current ones to end. */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+        synchronized (this) {
+            // Watchers that are still starting are closed when their first build ends
+            for (CompletableFuture<ProjectWatcher> watcher : watchers.values())
+                watcher.thenAccept(SlicerServer::close);
+        }
+    }
+
+    protected static void close(ProjectWatcher watcher) {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println("Could not stop watching " + watcher.getProject() + ": " + e.getMessage());
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public SDGCache getCache() {
+        return cache;
+    }
+
+    protected String slice(Map<String, String> params) throws RequestException {
+        File file = new File(requireParam(params, "file")).getAbsoluteFile();
+        int line;
+        try {
+            line = Integer.parseInt(requireParam(params, "line"));
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "The line must be a number");
+        }
+        boolean es = Boolean.parseBoolean(params.getOrDefault("es", "false"));
+        String format = params.getOrDefault("format", "lines");
+        if (!format.equals("lines") && !format.equals("source"))
+            throw new RequestException(400, "Unknown format: " + format);
+
+        Project project;
+        try {
+            project = new Project(includes(params), es);
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+        if (!project.contains(file))
+            throw new RequestException(400, "The file " + file + " is not part of the project " + project);
+
+        SDG sdg = getSDG(project);
+        if (sliceCacheBudget > 0)
+            setSliceCache(sdg);
+        Slice slice;
+        try {
+            slice = sdg.slice(new FileLineSlicingCriterion(file.toPath().normalize().toFile(), line));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(404, e.getMessage());
+        }
+        return format.equals("lines") ? toLines(slice) : toSource(slice);
+    }
+
+    /** The SDG of a project, from its watcher if it is watched or from the cache otherwise. */
+    protected SDG getSDG(Project project) {
+        if (watch && project.getDirectories().equals(new Project(defaultIncludes, false).getDirectories()))
+            return getWatcher(project).getSDG();
+        return cache.get(project);
+    }
+
+    /** Gives a slice cache to an SDG, unless it already has one. */
+    protected void setSliceCache(SDG sdg) {
+        if (sdg.getSliceCache() != null)
+            return;
+        synchronized (sdg) {
+            if (sdg.getSliceCache() == null)
+                sdg.setSliceCache(new SliceCache(sliceCacheBudget));
+        }
+    }
+
+    /**
+     * Obtains the watcher of a project, starting it if it is the first time it is requested.
+     * The first build of the watcher happens outside the lock of the server, so that other requests
+     * are not blocked by it. Concurrent requests of a watcher that is starting wait for it.
+     */
+    protected ProjectWatcher getWatcher(Project project) {
+        CompletableFuture<ProjectWatcher> future;
+        boolean owner = false;
+        synchronized (this) {
+            future = watchers.get(project);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                watchers.put(project, future);
+                owner = true;
+            }
+        }
+        if (owner)
+            startWatcher(project, future);
+        return future.join();
+    }
+
+    /** Starts watching a project, and completes the future with the watcher once the SDG is built. */
+    protected void startWatcher(Project project, CompletableFuture<ProjectWatcher> future) {
+        ProjectWatcher watcher = null;
+        try {
+            watcher = new ProjectWatcher(project);
+            watcher.start();
+            future.complete(watcher);
+        } catch (IOException | RuntimeException e) {
+            if (watcher != null)
+                close(watcher);
+            // The next request will try to start it again
+            synchronized (this) {
+                watchers.remove(project, future);
+            }
+            future.completeExceptionally(e instanceof IOException ? new UncheckedIOException((IOException) e) : e);
+        }
+    }
+
+    protected String invalidate(Map<String, String> params) throws RequestException {
+        try {
+            for (boolean es : new boolean[]{false, true})
+                cache.invalidate(new Project(includes(params), es));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+        return "OK\n";
+    }
+
+    protected List<File> includes(Map<String, String> params) {
+        if (!params.containsKey("include"))
+            return defaultIncludes;
+        List<File> list = new LinkedList<>();
+        for (String dir : params.get("include").split(","))
+            list.add(new File(dir));
+        return list;
+    }
+
+    protected String status() {
+        StringBuilder builder = new StringBuilder().append(cache).append('\n');
+        for (Project project : cache.getProjects()) {
+            long size = cache.getSize(project);
+            builder.append(project).append('\t').append(size > 0 ? size / 1024 + " KB" : "building").append('\n');
+        }
+        synchronized (this) {
+            watchers.forEach((project, future) -> {
+                builder.append(project).append("\twatched, ");
+                ProjectWatcher watcher = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+                if (watcher == null)
+                    builder.append("building\n");
+                else
+                    builder.append(watcher.getRebuilds()).append(" rebuilds, ")
+                            .append(watcher.getFilesParsed()).append(" files parsed, ")
+                            .append(watcher.getPDGsReused()).append(" PDGs reused\n");
+            });
+        }
+        return builder.toString();
+    }
+
+    /** Prints each file of the slice, followed by the lines that are included, in order. */
+    protected static String toLines(Slice slice) {
+        Map<Path, SortedSet<Integer>> lines = new TreeMap<>();
+        for (GraphNode<?> node : slice.getGraphNodes()) {
+            Node astNode = node.getAstNode();
+            Optional<Path> path = astNode.findCompilationUnit()
+                    .flatMap(CompilationUnit::getStorage)
+                    .map(CompilationUnit.Storage::getPath);
+            if (path.isEmpty() || astNode.getBegin().isEmpty())
+                continue;
+            lines.computeIfAbsent(path.get(), p -> new TreeSet<>()).add(astNode.getBegin().get().line);
+        }
+        StringBuilder builder = new StringBuilder();
+        lines.forEach((path, set) -> {
+            StringJoiner joiner = new StringJoiner(",", path + "\t", "\n");
+            set.forEach(l -> joiner.add(String.valueOf(l)));
+            builder.append(joiner);
+        });
+        return builder.toString();
+    }
+
+    /** Prints each sliced file, preceded by a comment with its path. */
+    protected static String toSource(Slice slice) {
+        StringBuilder builder = new StringBuilder();
+        for (CompilationUnit cu : slice.toAst()) {
+            builder.append("// ").append(cu.getStorage().map(CompilationUnit.Storage::getPath).map(Path::toString).orElse("?"))
+                    .append('\n').append(cu).append('\n');
+        }
+        return builder.toString();
+    }
+
+    protected void handle(HttpExchange exchange, RequestHandler handler) throws IOException {
+        int status = 200;
+        String response;
+        try {
+            if (!exchange.getRequestMethod().equals("GET"))
+                throw new RequestException(405, "Only GET requests are supported");
+            response = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (RequestException e) {
+            status = e.status;
+            response = e.getMessage() + "\n";
+        } catch (RuntimeException e) {
+            Logger.error(getClass().getSimpleName(), () -> "Error answering " + exchange.getRequestURI(), e);
+            status = 500;
+            response = e + "\n";
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    protected static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty())
+            return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    protected static String requireParam(Map<String, String> params, String name) throws RequestException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty())
+            throw new RequestException(400, "Missing parameter: " + name);
+        return value;
+    }
+
+    @FunctionalInterface
+    protected interface RequestHandler {
+        String handle(Map<String, String> params) throws RequestException;
+    }
+
+    protected static class RequestException extends Exception {
+        protected final int status;
+
+        public RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public static void main(String... args) {
+        try {
+            SlicerServer server = new SlicerServer(args);
+            server.start();
+            System.out.println("Listening on " + server.getAddress());
+        } catch (ParseException e) {
+            System.err.println("Error parsing the arguments!\n" + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Could not start the server: " + e.getMessage());
+        }
+    }
+}
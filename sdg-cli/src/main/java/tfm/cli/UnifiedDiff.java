@@ -0,0 +1,99 @@
+package tfm.cli;
+
+import tfm.slicing.ImpactAnalysis.LineRange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the lines changed by a patch in the unified diff format (e.g. the output of {@code git diff}),
+ * as ranges of lines of the new version of each file.
+ * <br/>
+ * Added lines are changed lines. Removed lines have no counterpart in the new version, so the
+ * lines before and after them are changed instead. Deleted files are ignored.
+ */
+public class UnifiedDiff {
+    protected static final Pattern HUNK_PATTERN = Pattern.compile("^@@ -\\d+(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+
+    /**
+     * Parses a patch.
+     * @param root The directory the paths of the patch are relative to. The {@code a/} and
+     *             {@code b/} prefixes added by git are removed.
+     */
+    public static List<LineRange> parse(BufferedReader reader, Path root) throws IOException {
+        List<LineRange> ranges = new LinkedList<>();
+        Path file = null;
+        int oldRemaining = 0, newRemaining = 0;
+        int line = 0;
+        int rangeStart = -1, rangeEnd = -1;
+        for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+            if (oldRemaining > 0 || newRemaining > 0) {
+                // Inside a hunk
+                if (text.startsWith("\\"))
+                    continue; // "\ No newline at end of file"
+                char kind = text.isEmpty() ? ' ' : text.charAt(0);
+                int first, last;
+                if (kind == '+') {
+                    first = last = line++;
+                    newRemaining--;
+                } else if (kind == '-') {
+                    first = Math.max(1, line - 1);
+                    last = line;
+                    oldRemaining--;
+                } else {
+                    line++;
+                    oldRemaining--;
+                    newRemaining--;
+                    continue;
+                }
+                if (file == null)
+                    continue;
+                if (rangeStart >= 0 && first <= rangeEnd + 1) {
+                    rangeEnd = Math.max(rangeEnd, last);
+                } else {
+                    if (rangeStart >= 0)
+                        ranges.add(new LineRange(file, rangeStart, rangeEnd));
+                    rangeStart = first;
+                    rangeEnd = last;
+                }
+                continue;
+            }
+            if (rangeStart >= 0) {
+                ranges.add(new LineRange(file, rangeStart, rangeEnd));
+                rangeStart = -1;
+            }
+            if (text.startsWith("+++ ")) {
+                file = parsePath(text.substring(4), root);
+            } else {
+                Matcher matcher = HUNK_PATTERN.matcher(text);
+                if (matcher.matches()) {
+                    oldRemaining = matcher.group(1) == null ? 1 : Integer.parseInt(matcher.group(1));
+                    line = Integer.parseInt(matcher.group(2));
+                    newRemaining = matcher.group(3) == null ? 1 : Integer.parseInt(matcher.group(3));
+                    // An empty range starts after the given line
+                    if (newRemaining == 0)
+                        line++;
+                }
+            }
+        }
+        if (rangeStart >= 0)
+            ranges.add(new LineRange(file, rangeStart, rangeEnd));
+        return ranges;
+    }
+
+    /** The path of a file header, or null if the file has been deleted. */
+    protected static Path parsePath(String header, Path root) {
+        int tab = header.indexOf('\t');
+        String path = tab >= 0 ? header.substring(0, tab) : header.trim();
+        if (path.equals("/dev/null"))
+            return null;
+        if (path.startsWith("a/") || path.startsWith("b/"))
+            path = path.substring(2);
+        return root.resolve(path);
+    }
+}
@@ -0,0 +1,123 @@
+package tfm.cli;
+
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.utils.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectWatcherTest {
+    static {
+        Logger.clearPrintStreams();
+    }
+
+    private static final String CALLER = "class Caller {\n" +
+            "    static void main(int[] args) {\n" +
+            "        int x = Callee.sum(args[0], args[1]);\n" +
+            "        System.out.println(x);\n" +
+            "    }\n" +
+            "}\n";
+    private static final String CALLEE = "class Callee {\n" +
+            "    static int sum(int... values) {\n" +
+            "        int total = 0;\n" +
+            "        for (int value : values)\n" +
+            "            total += value;\n" +
+            "        return total;\n" +
+            "    }\n" +
+            "}\n";
+    private static final String CHANGED_CALLEE = "class Callee {\n" +
+            "    static int sum(int... values) {\n" +
+            "        return values.length;\n" +
+            "    }\n" +
+            "}\n";
+
+    @TempDir
+    Path directory;
+
+    /** The SDG rebuilt after a file changes is the same as one built from scratch, the PDGs of the
+     *  unchanged file are reused, except in exception-sensitive SDGs, and the previous SDG is not
+     *  affected by the rebuild. */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void rebuildMatchesFreshBuild(boolean exceptionSensitive) throws IOException, InterruptedException {
+        Files.writeString(directory.resolve("Caller.java"), CALLER);
+        Files.writeString(directory.resolve("Callee.java"), CALLEE);
+        Project project = new Project(List.of(directory.toFile()), exceptionSensitive);
+        try (ProjectWatcher watcher = new ProjectWatcher(project, 50)) {
+            watcher.start();
+            SDG previous = watcher.getSDG();
+            String previousCode = code(previous);
+            List<String> previousVertices = vertices(previous);
+            List<String> previousArcs = arcs(previous);
+            assertGraphsEqual(project.build(), previous);
+            assertEquals(0, watcher.getPDGsReused());
+
+            Files.writeString(directory.resolve("Callee.java"), CHANGED_CALLEE);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (watcher.getRebuilds() == 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(20);
+            assertEquals(1, watcher.getRebuilds(), "The change was not detected");
+            assertEquals(3, watcher.getFilesParsed());
+            assertEquals(exceptionSensitive ? 0 : 1, watcher.getPDGsReused());
+
+            SDG rebuilt = watcher.getSDG();
+            assertGraphsEqual(project.build(), rebuilt);
+            assertEquals(previousCode, code(previous));
+            assertEquals(previousVertices, vertices(previous));
+            assertEquals(previousArcs, arcs(previous));
+            assertSame(unit(previous, "Caller"), unit(rebuilt, "Caller"));
+            assertNotSame(unit(previous, "Callee"), unit(rebuilt, "Callee"));
+            assertEquals(!exceptionSensitive, nodeOf(previous, "System.out.println(x);").getId()
+                    == nodeOf(rebuilt, "System.out.println(x);").getId(), "Only the reused nodes keep their ids");
+        }
+    }
+
+    private static CompilationUnit unit(SDG sdg, String type) {
+        return sdg.getCompilationUnits().stream()
+                .filter(cu -> cu.getType(0).getNameAsString().equals(type))
+                .findFirst().orElseThrow();
+    }
+
+    private static GraphNode<?> nodeOf(SDG sdg, String instruction) {
+        return sdg.findNodeBy(n -> n.getInstruction().equals(instruction)).orElseThrow();
+    }
+
+    private static String code(SDG sdg) {
+        return sdg.getCompilationUnits().stream().map(CompilationUnit::toString).collect(Collectors.joining());
+    }
+
+    private static void assertGraphsEqual(SDG expected, SDG actual) {
+        assertEquals(code(expected), code(actual));
+        assertEquals(vertices(expected), vertices(actual));
+        assertEquals(arcs(expected), arcs(actual));
+    }
+
+    /** The nodes of a graph, without their ids, as each graph has different ids and reused nodes keep theirs. */
+    private static List<String> vertices(SDG sdg) {
+        return sdg.vertexSet().stream().map(ProjectWatcherTest::describe).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> arcs(SDG sdg) {
+        return sdg.edgeSet().stream()
+                .map(a -> describe(sdg.getEdgeSource(a)) + " -> " + describe(sdg.getEdgeTarget(a))
+                        + " " + a.getClass().getSimpleName() + " " + a.getLabel())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(GraphNode<?> node) {
+        return node.getNodeType() + " " + node.getInstruction() + " "
+                + node.getAstNode().getBegin().map(Object::toString).orElse("-") + " "
+                + node.getVariableActions();
+    }
+}
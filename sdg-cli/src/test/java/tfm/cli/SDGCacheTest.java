@@ -0,0 +1,220 @@
+package tfm.cli;
+
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tfm.graphs.sdg.SDG;
+import tfm.utils.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SDGCacheTest {
+    static {
+        Logger.clearPrintStreams();
+    }
+
+    @TempDir
+    Path temp;
+    Path spill;
+    Project a, b;
+
+    @BeforeEach
+    public void createProjects() throws IOException {
+        spill = temp.resolve("spill");
+        a = new Project(List.of(write("a", "A", "m").toFile()), false);
+        b = new Project(List.of(write("b", "B", "m").toFile()), false);
+    }
+
+    /** Writes a class with a single method, and returns its directory. */
+    private Path write(String directory, String type, String method) throws IOException {
+        Path dir = Files.createDirectories(temp.resolve(directory));
+        Files.writeString(dir.resolve(type + ".java"), "class " + type + " {\n" +
+                "    static int " + method + "(int x) {\n" +
+                "        return x + 1;\n" +
+                "    }\n" +
+                "}\n");
+        return dir;
+    }
+
+    /** The names of the methods in the compilation units of an SDG. */
+    private static Set<String> methods(SDG sdg) {
+        return sdg.getCompilationUnits().stream()
+                .flatMap(cu -> cu.getTypes().stream())
+                .flatMap(type -> type.getMethods().stream())
+                .map(m -> m.getNameAsString())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> types(SDG sdg) {
+        return sdg.getCompilationUnits().stream()
+                .flatMap(cu -> cu.getTypes().stream())
+                .map(TypeDeclaration::getNameAsString)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void repeatedRequestsHitTheCache() {
+        SDGCache cache = new SDGCache(Long.MAX_VALUE, null);
+        SDG sdg = cache.get(a);
+        assertSame(sdg, cache.get(a));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(cache.getSize(a), cache.getUsedBytes());
+        assertTrue(cache.getUsedBytes() > 0);
+    }
+
+    /** With a budget of one byte, only the most recently requested SDG is kept. */
+    @Test
+    public void leastRecentlyUsedSDGsAreEvicted() {
+        SDGCache cache = new SDGCache(1, null);
+        SDG first = cache.get(a);
+        cache.get(b);
+        assertEquals(List.of(b), cache.getProjects());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(cache.getSize(b), cache.getUsedBytes());
+        assertNotSame(first, cache.get(a));
+        assertEquals(2, cache.getEvictions());
+        assertEquals(0, cache.getRestores());
+    }
+
+    /** Evicted SDGs are rebuilt from the code they were built from, not from the current files. */
+    @Test
+    public void evictedSourcesAreSpilledAndRestored() throws IOException {
+        SDGCache cache = new SDGCache(1, spill);
+        cache.get(a);
+        cache.get(b);
+        write("a", "A", "changed");
+        assertEquals(Set.of("m"), methods(cache.get(a)));
+        assertEquals(1, cache.getRestores());
+    }
+
+    /** Projects whose hash codes collide must not restore each other's source code. */
+    @Test
+    public void spillsOfCollidingProjectsAreKeptApart() throws IOException {
+        a = new CollidingProject(a);
+        b = new CollidingProject(b);
+        assertEquals(a.hashCode(), b.hashCode());
+        SDGCache cache = new SDGCache(1, spill);
+        cache.get(a);
+        cache.get(b);
+        assertEquals(Set.of("A"), types(cache.get(a)));
+        assertEquals(Set.of("B"), types(cache.get(b)));
+        assertEquals(2, cache.getRestores());
+        try (var files = Files.list(spill)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void invalidatedProjectsAreReadAgain() throws IOException {
+        SDGCache cache = new SDGCache(1, spill);
+        cache.get(a);
+        cache.get(b);
+        write("a", "A", "changed");
+        cache.invalidate(a);
+        try (var files = Files.list(spill)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(Set.of("changed"), methods(cache.get(a)));
+        assertEquals(0, cache.getRestores());
+
+        cache.invalidate(a);
+        assertEquals(List.of(), cache.getProjects());
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    /** A build that was running when its project was invalidated is given to the requests that
+     *  were waiting for it, but it is not kept in the cache. */
+    @Test
+    public void buildsRunningWhenInvalidatedAreDiscarded() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        Project slow = new Project(a.getDirectories().stream().map(Path::toFile).collect(Collectors.toList()), false) {
+            @Override
+            public SDG build(Map<Path, String> sources) {
+                building.countDown();
+                try {
+                    invalidated.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.build(sources);
+            }
+        };
+        SDGCache cache = new SDGCache(Long.MAX_VALUE, null);
+        CompletableFuture<SDG> stale = CompletableFuture.supplyAsync(() -> cache.get(slow));
+        building.await();
+        cache.invalidate(slow);
+        invalidated.countDown();
+        assertNotNull(stale.get());
+        assertEquals(List.of(), cache.getProjects());
+        assertEquals(0, cache.getUsedBytes());
+        assertNotSame(stale.get(), cache.get(slow));
+        assertEquals(2, cache.getMisses());
+    }
+
+    /** Evicted source code is written without holding the lock of the cache, and a project that is
+     *  requested while its copy is being written is rebuilt from the code in memory. */
+    @Test
+    public void sourcesAreSpilledOutsideTheLock() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        SDGCache cache = new SDGCache(1, spill) {
+            @Override
+            protected void writeSpill(Project project, Map<Path, String> sources, Path file) throws IOException {
+                if (project.equals(a) && writing.getCount() > 0) {
+                    writing.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    super.writeSpill(project, sources, file);
+                    written.countDown();
+                } else {
+                    super.writeSpill(project, sources, file);
+                }
+            }
+        };
+        cache.get(a);
+        CompletableFuture<SDG> other = CompletableFuture.supplyAsync(() -> cache.get(b));
+        writing.await();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertEquals(List.of(b), cache.getProjects()));
+        write("a", "A", "changed");
+        assertEquals(Set.of("m"), methods(cache.get(a)));
+        assertEquals(1, cache.getRestores());
+        resume.countDown();
+        written.await();
+        other.get();
+
+        cache.invalidate(a);
+        cache.get(b);
+        assertEquals(Set.of("changed"), methods(cache.get(a)));
+        assertEquals(2, cache.getRestores());
+    }
+
+    /** A project with the same hash code as every other. */
+    protected static class CollidingProject extends Project {
+        public CollidingProject(Project project) {
+            super(project.getDirectories().stream().map(Path::toFile).collect(Collectors.toList()), project.isExceptionSensitive());
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
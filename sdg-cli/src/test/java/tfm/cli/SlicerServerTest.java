@@ -0,0 +1,156 @@
+package tfm.cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tfm.utils.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlicerServerTest {
+    static {
+        Logger.clearPrintStreams();
+    }
+
+    private static final String PROGRAM = "class Vars {\n" +
+            "    static void main() {\n" +
+            "        int a = 1;\n" +
+            "        int b = 2;\n" +
+            "        int c = a + b;\n" +
+            "        int d = 4;\n" +
+            "        System.out.println(c);\n" +
+            "    }\n" +
+            "}\n";
+
+    @TempDir
+    Path temp;
+    Path project;
+    Path source;
+    SlicerServer server;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        project = Files.createDirectory(temp.resolve("project"));
+        source = Files.writeString(project.resolve("Vars.java"), PROGRAM);
+        server = new SlicerServer("-i", project.toString(), "-p", "0", "-t", "2");
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    /** The status code of a request and the body of its response. */
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Response request(String method, String pathAndQuery) throws IOException {
+        URL url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), pathAndQuery);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        try {
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new Response(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private Response get(String pathAndQuery) throws IOException {
+        return request("GET", pathAndQuery);
+    }
+
+    private static String encode(Object value) {
+        return URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+    private String slice(Object file, Object line) {
+        return "/slice?file=" + encode(file) + "&line=" + encode(line);
+    }
+
+    @Test
+    public void sliceLines() throws IOException {
+        Response response = get(slice(source, 7));
+        assertEquals(200, response.status, response.body);
+        assertEquals(source.toAbsolutePath() + "\t2,3,4,5,7\n", response.body);
+        assertEquals(response.body, get(slice(source, 7) + "&format=lines").body);
+    }
+
+    @Test
+    public void sliceSource() throws IOException {
+        Response response = get(slice(source, 7) + "&format=source");
+        assertEquals(200, response.status, response.body);
+        assertTrue(response.body.startsWith("// " + source.toAbsolutePath() + "\n"), response.body);
+        assertTrue(response.body.contains("int c = a + b;"), response.body);
+        assertFalse(response.body.contains("int d = 4;"), response.body);
+    }
+
+    /** The status lists the projects in memory, until they are invalidated. */
+    @Test
+    public void statusAndInvalidate() throws IOException {
+        Response empty = get("/status");
+        assertEquals(200, empty.status);
+        assertTrue(empty.body.startsWith("SDGCache{"), empty.body);
+        assertFalse(empty.body.contains(project.toString()), empty.body);
+
+        get(slice(source, 7));
+        Response loaded = get("/status");
+        assertTrue(loaded.body.contains(new Project(List.of(project.toFile()), false) + "\t"), loaded.body);
+        assertEquals(1, server.getCache().getMisses());
+
+        Response invalidated = get("/invalidate");
+        assertEquals(200, invalidated.status);
+        assertEquals("OK\n", invalidated.body);
+        assertTrue(server.getCache().getProjects().isEmpty());
+        assertFalse(get("/status").body.contains(project.toString()));
+        get(slice(source, 7));
+        assertEquals(2, server.getCache().getMisses());
+    }
+
+    @Test
+    public void badRequests() throws IOException {
+        assertEquals(400, get("/slice?file=" + encode(source)).status);
+        assertEquals(400, get(slice(source, "seven")).status);
+        assertEquals(400, get(slice(source, 7) + "&format=xml").status);
+        Path outside = Files.writeString(temp.resolve("Vars.java"), PROGRAM);
+        Response response = get(slice(outside, 7));
+        assertEquals(400, response.status);
+        assertTrue(response.body.contains("is not part of the project"), response.body);
+        assertEquals(400, get("/invalidate?include=" + encode(temp.resolve("missing"))).status);
+    }
+
+    /** A line without a statement is a criterion that can't be found. */
+    @Test
+    public void criterionNotFound() throws IOException {
+        Response response = get(slice(source, 1));
+        assertEquals(404, response.status);
+        assertFalse(response.body.isEmpty());
+    }
+
+    @Test
+    public void onlyGetRequests() throws IOException {
+        assertEquals(405, request("POST", slice(source, 7)).status);
+        assertEquals(405, request("DELETE", "/status").status);
+    }
+}
@@ -0,0 +1,79 @@
+package tfm.cli;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tfm.utils.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlicerTest {
+    static {
+        Logger.clearPrintStreams();
+    }
+
+    private static final String PROGRAM = "class Vars {\n" +
+            "    static void main() {\n" +
+            "        int a = 1;\n" +
+            "        int b = 2;\n" +
+            "        int c = a + b;\n" +
+            "        System.out.println(c);\n" +
+            "    }\n" +
+            "}\n";
+
+    @TempDir
+    Path temp;
+    Path source;
+
+    @BeforeEach
+    public void writeProgram() throws IOException {
+        source = Files.writeString(temp.resolve("Vars.java"), PROGRAM);
+    }
+
+    /** Slices the program to the given directory, and returns the sliced code without its disclaimer,
+     *  and what was printed to the standard error. */
+    private String[] slice(String output, String... options) throws Exception {
+        Path outputDir = temp.resolve(output);
+        String[] args = new String[options.length + 3];
+        args[0] = "-c";
+        args[1] = options[0];
+        args[2] = "-o";
+        args[3] = outputDir.toString();
+        System.arraycopy(options, 1, args, 4, options.length - 1);
+        PrintStream err = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(captured, true));
+        try {
+            new Slicer(args).slice();
+        } finally {
+            System.setErr(err);
+        }
+        String code = Files.readString(outputDir.resolve("Vars.java"));
+        return new String[]{ code.substring(code.indexOf("*/") + 2), captured.toString() };
+    }
+
+    @Test
+    public void variables() throws Exception {
+        String[] slice = slice("vars", source + "#5:a");
+        assertTrue(slice[0].contains("int a = 1;"));
+        assertFalse(slice[0].contains("int b = 2;"));
+        assertEquals("", slice[1]);
+    }
+
+    /** The exception-sensitive analysis warns that it ignores the variables, and slices the whole statement. */
+    @Test
+    public void exceptionSensitiveFallback() throws Exception {
+        String[] variables = slice("es-vars", source + "#5:a", "-es");
+        String[] statement = slice("es", source + "#5", "-es");
+        assertTrue(variables[1].contains("The exception-sensitive analysis can't slice from variables"), variables[1]);
+        assertEquals("", statement[1]);
+        assertTrue(variables[0].contains("int b = 2;"));
+        assertEquals(statement[0], variables[0]);
+    }
+}
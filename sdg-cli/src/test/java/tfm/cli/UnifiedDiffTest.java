@@ -0,0 +1,75 @@
+package tfm.cli;
+
+import org.junit.jupiter.api.Test;
+import tfm.slicing.ImpactAnalysis.LineRange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The patches in {@link #DIFFS} were written by {@code git diff} (with and without {@code -U0}) for
+ * the same changes: a file added, a file deleted, the last line of a file without a final newline
+ * changed, and in Sum.java a line replaced by two and a line removed.
+ */
+public class UnifiedDiffTest {
+    private static final Path DIFFS = Paths.get("src/test/res/diffs");
+    private static final Path ROOT = Paths.get("/project");
+
+    /** The lines changed by both patches: each removed line changes the lines around it. */
+    private static final List<LineRange> EXPECTED = List.of(
+            new LineRange(ROOT.resolve("src/Added.java"), 1, 2),
+            new LineRange(ROOT.resolve("src/NoNewline.java"), 1, 2),
+            new LineRange(ROOT.resolve("src/Sum.java"), 6, 8),
+            new LineRange(ROOT.resolve("src/Sum.java"), 12, 13));
+
+    private static List<LineRange> parse(String patch) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(DIFFS.resolve(patch))) {
+            return UnifiedDiff.parse(reader, ROOT);
+        }
+    }
+
+    private static List<LineRange> parseText(String patch) throws IOException {
+        return UnifiedDiff.parse(new BufferedReader(new StringReader(patch)), ROOT);
+    }
+
+    @Test
+    public void withContext() throws IOException {
+        assertEquals(EXPECTED, parse("context.diff"));
+    }
+
+    /** Without context, the removed line is a hunk of its own, with an empty range in the new version. */
+    @Test
+    public void withoutContext() throws IOException {
+        assertEquals(EXPECTED, parse("no-context.diff"));
+    }
+
+    /** An empty range in the new version ("+4,0") is after its line, so the lines around it are 4 and 5. */
+    @Test
+    public void removedOnlyHunk() throws IOException {
+        assertEquals(List.of(new LineRange(ROOT.resolve("A.java"), 4, 5)), parseText("--- a/A.java\n+++ b/A.java\n" +
+                "@@ -5,2 +4,0 @@\n-    int x = 1;\n-    int y = 2;\n"));
+    }
+
+    /** Removing the first lines of a file changes the new first line. */
+    @Test
+    public void removedFirstLines() throws IOException {
+        assertEquals(List.of(new LineRange(ROOT.resolve("A.java"), 1, 1)), parseText("--- a/A.java\n+++ b/A.java\n" +
+                "@@ -1,2 +0,0 @@\n-import java.util.List;\n-\n"));
+    }
+
+    /** The marker of a missing newline is not a line, so it doesn't end the hunk early or change the next file. */
+    @Test
+    public void noNewlineMarker() throws IOException {
+        assertEquals(List.of(new LineRange(ROOT.resolve("A.java"), 1, 3), new LineRange(ROOT.resolve("B.java"), 1, 1)),
+                parseText("--- a/A.java\n+++ b/A.java\n" +
+                        "@@ -1,3 +1,3 @@\n class A {\n-    int x = 1;\n-}\n\\ No newline at end of file\n+    int x = 2;\n+}\n" +
+                        "--- a/B.java\n+++ b/B.java\n@@ -1 +1 @@\n-class B {}\n\\ No newline at end of file\n+class B { }\n"));
+    }
+}
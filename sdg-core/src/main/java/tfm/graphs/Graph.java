@@ -4,22 +4,48 @@ import com.github.javaparser.ast.Node;
 import org.jgrapht.graph.DirectedPseudograph;
 import org.jgrapht.io.DOTExporter;
 import tfm.arcs.Arc;
+import tfm.metrics.Metrics;
 import tfm.nodes.GraphNode;
 import tfm.nodes.NodeFactory;
 import tfm.nodes.SyntheticNode;
 import tfm.utils.ASTUtils;
+import tfm.utils.TaskMonitor;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public abstract class Graph extends DirectedPseudograph<GraphNode<?>, Arc> {
+    protected Metrics metrics = Metrics.DISABLED;
+    protected TaskMonitor monitor = TaskMonitor.NONE;
 
     protected Graph() {
         super(null, null, false);
     }
 
+    /** The metrics of the construction of this graph and the slices computed from it.
+     *  They are {@link Metrics#DISABLED disabled} unless others are set. */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /** Replaces the metrics of this graph, e.g. to share them with the graph it is a part of. */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    /** The monitor that may cancel the construction of this graph and the slices computed from it. */
+    public TaskMonitor getMonitor() {
+        return monitor;
+    }
+
+    /** Replaces the monitor of this graph. It must be set before building or slicing it. */
+    public void setMonitor(TaskMonitor monitor) {
+        this.monitor = Objects.requireNonNull(monitor);
+    }
+
     /**
      * Adds the given node to the graph.
      *
@@ -1,6 +1,9 @@
 package tfm.graphs.augmented;
 
 import tfm.graphs.pdg.PDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.PseudoPredicateSlicingAlgorithm;
+import tfm.slicing.SlicingAlgorithm;
 
 public class PPDG extends APDG {
     public PPDG() {
@@ -11,6 +14,15 @@ public class PPDG extends APDG {
         super(acfg);
     }
 
+    public boolean isPseudoPredicate(GraphNode<?> node) {
+        return ((ACFG) cfg).isPseudoPredicate(node);
+    }
+
+    @Override
+    protected SlicingAlgorithm createSlicingAlgorithm() {
+        return new PseudoPredicateSlicingAlgorithm(this, this::isPseudoPredicate);
+    }
+
     @Override
     protected PDG.Builder createBuilder() {
         return new Builder();
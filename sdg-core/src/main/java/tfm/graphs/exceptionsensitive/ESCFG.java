@@ -6,6 +6,7 @@ import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.stmt.*;
 import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.resolution.types.ResolvedType;
@@ -14,6 +15,7 @@ import tfm.graphs.augmented.ACFG;
 import tfm.graphs.augmented.ACFGBuilder;
 import tfm.graphs.augmented.ControlDependencyBuilder;
 import tfm.graphs.cfg.CFGBuilder;
+import tfm.metrics.Counter;
 import tfm.nodes.*;
 import tfm.nodes.type.NodeType;
 import tfm.utils.Logger;
@@ -189,7 +191,7 @@ public class ESCFG extends ACFG {
         @Override
         public void visit(TryStmt n, Void arg) {
             if (n.getFinallyBlock().isPresent())
-                Logger.log("ES-CFG Builder", "try statement with unsupported finally block");
+                Logger.warn("ES-CFG Builder", () -> "try statement with unsupported finally block");
             stmtStack.push(n);
             tryStack.push(n);
             tryNonExecHangingStack.push(new HashSet<>());
@@ -241,7 +243,14 @@ public class ESCFG extends ACFG {
 
         @Override
         public void visit(MethodCallExpr n, Void arg) {
-            ResolvedMethodDeclaration resolved = n.resolve();
+            ResolvedMethodDeclaration resolved;
+            try {
+                resolved = n.resolve();
+                metrics.increment(Counter.SYMBOL_RESOLUTIONS);
+            } catch (UnsolvedSymbolException e) {
+                metrics.increment(Counter.SYMBOL_RESOLUTION_FAILURES);
+                throw e;
+            }
             if (resolved.getNumberOfSpecifiedExceptions() == 0)
                 return;
 
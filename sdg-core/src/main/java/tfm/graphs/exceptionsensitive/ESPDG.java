@@ -4,6 +4,9 @@ import tfm.arcs.pdg.ConditionalControlDependencyArc;
 import tfm.graphs.augmented.PPDG;
 import tfm.graphs.pdg.PDG;
 import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
+import tfm.slicing.SlicingAlgorithm;
 
 public class ESPDG extends PPDG {
     public ESPDG() {
@@ -22,6 +25,16 @@ public class ESPDG extends PPDG {
         addEdge(src, dst, new ConditionalControlDependencyArc.CC2());
     }
 
+    @Override
+    public boolean isPseudoPredicate(GraphNode<?> node) {
+        return !(node instanceof SyntheticNode) && super.isPseudoPredicate(node);
+    }
+
+    @Override
+    protected SlicingAlgorithm createSlicingAlgorithm() {
+        return new ExceptionSensitiveSlicingAlgorithm(this, this::isPseudoPredicate, monitor);
+    }
+
     @Override
     protected PDG.Builder createBuilder() {
         return new Builder();
@@ -6,9 +6,14 @@ import tfm.arcs.sdg.ReturnArc;
 import tfm.graphs.augmented.ACFG;
 import tfm.graphs.cfg.CFG;
 import tfm.graphs.pdg.PDG;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.MethodCallReplacerVisitor;
+import tfm.graphs.sdg.PDGCache;
 import tfm.graphs.sdg.SDG;
 import tfm.graphs.sdg.SDGBuilder;
 import tfm.graphs.sdg.sumarcs.NaiveSummaryArcsBuilder;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.ExitNode;
 import tfm.nodes.GraphNode;
 import tfm.nodes.ReturnNode;
@@ -16,6 +21,7 @@ import tfm.nodes.SyntheticNode;
 import tfm.nodes.type.NodeType;
 import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
 import tfm.slicing.Slice;
+import tfm.slicing.SliceCache;
 import tfm.slicing.SlicingCriterion;
 import tfm.utils.Context;
 
@@ -35,19 +41,45 @@ public class ESSDG extends SDG {
         Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
         if (optSlicingNode.isEmpty())
             throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
+        SliceCache cache = sliceCache;
+        if (cache != null)
+            return cache.computeIfAbsent(optSlicingNode.get(), SliceCache.Algorithm.EXCEPTION_SENSITIVE,
+                    new ExceptionSensitiveSlicingAlgorithm(ESSDG.this), metrics);
         return new ExceptionSensitiveSlicingAlgorithm(ESSDG.this).traverse(optSlicingNode.get());
     }
 
     @Override
     public void build(NodeList<CompilationUnit> nodeList) {
+        clearSliceCache();
         nodeList.accept(createBuilder(), new Context());
-        Set<GraphNode<?>> vertices = Set.copyOf(vertexSet());
-        vertices.forEach(n -> new ExceptionSensitiveMethodCallReplacerVisitor(this).startVisit(n));
-        new NaiveSummaryArcsBuilder(this).visit();
+        try (Metrics.Timer t = metrics.time(Phase.CALL_REPLACEMENT)) {
+            replaceMethodCalls();
+        }
+        try (Metrics.Timer t = metrics.time(Phase.SUMMARY_ARCS)) {
+            new NaiveSummaryArcsBuilder(this).visit();
+        }
         compilationUnits = nodeList;
         built = true;
     }
 
+    /** The PDGs of this graph can't be reused, as they depend on the exceptions declared by the
+     *  methods they call, which may have changed. */
+    @Override
+    public void setPDGCache(PDGCache pdgCache) {
+        if (pdgCache != null)
+            throw new UnsupportedOperationException("The exception-sensitive PDGs can't be reused");
+    }
+
+    @Override
+    public FrozenSDG freeze() {
+        return new FrozenSDG(this, true, this::isPseudoPredicate);
+    }
+
+    @Override
+    protected MethodCallReplacerVisitor createMethodCallReplacer() {
+        return new ExceptionSensitiveMethodCallReplacerVisitor(this);
+    }
+
     public boolean isPseudoPredicate(GraphNode<?> node) {
         if (NOT_PP_TYPES.contains(node.getNodeType()) || node instanceof SyntheticNode)
             return false;
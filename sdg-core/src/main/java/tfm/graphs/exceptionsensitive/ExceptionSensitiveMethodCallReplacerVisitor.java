@@ -13,13 +13,44 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallReplacerVisitor {
+    /** The exceptions declared by the method of each call that declares any, resolved before planning. */
+    protected final Map<MethodCallExpr, List<ResolvedType>> thrownExceptions = new IdentityHashMap<>();
+    /** The direct ancestors of the exception types that the calls may throw, by qualified name, resolved before planning. */
+    protected final Map<String, List<ResolvedReferenceType>> ancestors = new HashMap<>();
+
     public ExceptionSensitiveMethodCallReplacerVisitor(ESSDG sdg) {
         super(sdg);
     }
 
+    @Override
+    protected void resolveCall(MethodCallExpr methodCallExpr) {
+        ResolvedMethodDeclaration resolvedDecl = methodCallExpr.resolve();
+        declarations.put(methodCallExpr, resolvedDecl.toAst());
+        if (resolvedDecl.getNumberOfSpecifiedExceptions() > 0) {
+            MethodDeclaration decl = resolvedDecl.toAst().orElseThrow();
+            thrownExceptions.put(methodCallExpr, decl.getThrownExceptions().stream()
+                    .map(ReferenceType::resolve)
+                    .collect(Collectors.toList()));
+            sdg.vertexSet().stream()
+                    .filter(ExceptionExitNode.class::isInstance)
+                    .map(ExceptionExitNode.class::cast)
+                    .filter(n -> n.getAstNode() == decl)
+                    .forEach(n -> resolveAncestors(n.getExceptionType().asReferenceType()));
+        }
+    }
+
+    /** Resolves the ancestors of a type, up to {@link Object}, as needed by {@link #connectRemainingExceptionNodes(Map, Set)}. */
+    protected void resolveAncestors(ResolvedReferenceType type) {
+        if (type.getQualifiedName().equals("java.lang.Object") || ancestors.containsKey(type.getQualifiedName()))
+            return;
+        List<ResolvedReferenceType> directAncestors = type.getDirectAncestors();
+        ancestors.put(type.getQualifiedName(), directAncestors);
+        directAncestors.forEach(this::resolveAncestors);
+    }
+
     @Override
     public void visit(MethodCallExpr methodCallExpr, Void arg) {
-        if (methodCallExpr.resolve().getNumberOfSpecifiedExceptions() > 0)
+        if (!resolving && thrownExceptions.containsKey(methodCallExpr))
             handleExceptionReturnArcs(methodCallExpr);
         super.visit(methodCallExpr, arg);
     }
@@ -36,8 +67,7 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                 .filter(SyntheticNode.class::isInstance)
                 .map(n -> (SyntheticNode<?>) n)
                 .collect(Collectors.toSet());
-        ResolvedMethodDeclaration resolvedDecl = call.resolve();
-        MethodDeclaration decl = resolvedDecl.toAst().orElseThrow();
+        MethodDeclaration decl = declarations.get(call).orElseThrow();
 
         connectNormalNodes(synthNodes, call, decl);
         connectExceptionNodes(synthNodes, call, decl);
@@ -53,7 +83,7 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                 .filter(NormalExitNode.class::isInstance)
                 .filter(n -> n.getAstNode() == decl)
                 .findAny().orElseThrow();
-        ((ESSDG) sdg).addReturnArc(normalExit, normalReturn);
+        plannedMutations.add(() -> ((ESSDG) sdg).addReturnArc(normalExit, normalReturn));
     }
 
     /**
@@ -69,8 +99,7 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                 .map(ExceptionExitNode.class::cast)
                 .filter(n -> n.getAstNode() == decl)
                 .collect(Collectors.toSet());
-        for (ReferenceType rType : decl.getThrownExceptions()) {
-            ResolvedType type = rType.resolve();
+        for (ResolvedType type : thrownExceptions.get(call)) {
             ExceptionReturnNode exceptionReturn = synthNodes.stream()
                     .filter(ExceptionReturnNode.class::isInstance)
                     .map(ExceptionReturnNode.class::cast)
@@ -82,7 +111,7 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                     .findAny().orElseThrow();
             eeNodes.remove(exceptionExit);
             exceptionReturnMap.put(type, exceptionReturn);
-            ((ESSDG) sdg).addReturnArc(exceptionExit, exceptionReturn);
+            plannedMutations.add(() -> ((ESSDG) sdg).addReturnArc(exceptionExit, exceptionReturn));
         }
 
         connectRemainingExceptionNodes(exceptionReturnMap, eeNodes);
@@ -99,7 +128,8 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                 List<ResolvedReferenceType> newTypeList = new LinkedList<>();
                 for (ResolvedReferenceType type : typeList) {
                     if (exceptionReturnMap.containsKey(type)) {
-                        ((ESSDG) sdg).addReturnArc(ee, exceptionReturnMap.get(type));
+                        ExceptionReturnNode exceptionReturn = exceptionReturnMap.get(type);
+                        plannedMutations.add(() -> ((ESSDG) sdg).addReturnArc(ee, exceptionReturn));
                         continue eeFor;
                     }
                     // Skip RuntimeException, unless Throwable or Exception are present as ER nodes
@@ -110,7 +140,7 @@ public class ExceptionSensitiveMethodCallReplacerVisitor extends MethodCallRepla
                         continue;
                     // Object has no ancestors, the startVisit has ended
                     if (!type.getQualifiedName().equals("java.lang.Object"))
-                        newTypeList.addAll(type.asReferenceType().getDirectAncestors());
+                        newTypeList.addAll(ancestors.get(type.getQualifiedName()));
                 }
                 typeList = newTypeList;
             }
@@ -47,6 +47,7 @@ public class ControlDependencyBuilder {
 
         Set<GraphNode<?>> nodes = pdg.vertexSet();
         for (GraphNode<?> a : nodes) {
+            pdg.getMonitor().checkCancelled();
             for (GraphNode<?> b : nodes) {
                 if (a == b) continue;
                 if (hasControlDependence(a, b))
@@ -5,9 +5,19 @@ import tfm.arcs.pdg.ControlDependencyArc;
 import tfm.arcs.pdg.DataDependencyArc;
 import tfm.graphs.GraphWithRootNode;
 import tfm.graphs.cfg.CFG;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.GraphNode;
 import tfm.nodes.VariableAction;
 import tfm.nodes.type.NodeType;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.Slice;
+import tfm.slicing.Sliceable;
+import tfm.slicing.SlicingAlgorithm;
+import tfm.slicing.SlicingCriterion;
+import tfm.utils.TaskMonitor;
+
+import java.util.Optional;
 
 /**
  * The <b>Program Dependence Graph</b> represents the statements of a method in
@@ -15,8 +25,11 @@ import tfm.nodes.type.NodeType;
  * and {@link DataDependencyArc data} relationships. You can build one manually or use
  * the {@link Builder PDGBuilder}.
  * The variations of the PDG are represented as child types.
+ * <br/>
+ * A PDG can be sliced on its own, which yields the intraprocedural slice of its method: calls are
+ * treated as opaque statements, so it doesn't need the rest of the program or the symbol resolution.
  */
-public class PDG extends GraphWithRootNode<MethodDeclaration> {
+public class PDG extends GraphWithRootNode<MethodDeclaration> implements Sliceable {
     protected CFG cfg;
 
     public PDG() {
@@ -47,6 +60,18 @@ public class PDG extends GraphWithRootNode<MethodDeclaration> {
         return cfg;
     }
 
+    @Override
+    public void setMetrics(Metrics metrics) {
+        super.setMetrics(metrics);
+        cfg.setMetrics(metrics);
+    }
+
+    @Override
+    public void setMonitor(TaskMonitor monitor) {
+        super.setMonitor(monitor);
+        cfg.setMonitor(monitor);
+    }
+
     @Override
     public void build(MethodDeclaration method) {
         createBuilder().build(method);
@@ -57,6 +82,19 @@ public class PDG extends GraphWithRootNode<MethodDeclaration> {
         return new Builder();
     }
 
+    @Override
+    public Slice slice(SlicingCriterion slicingCriterion) {
+        Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+        if (optSlicingNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the PDG");
+        return createSlicingAlgorithm().traverse(optSlicingNode.get());
+    }
+
+    /** The algorithm that slices this variation of the PDG. */
+    protected SlicingAlgorithm createSlicingAlgorithm() {
+        return new ClassicSlicingAlgorithm(this);
+    }
+
     /**
      * Populates a {@link PDG}, given a complete {@link CFG}, an empty {@link PDG} and an AST root node.
      * For now it only accepts {@link MethodDeclaration} as root, as it can only receive a single CFG.
@@ -82,9 +120,17 @@ public class PDG extends GraphWithRootNode<MethodDeclaration> {
         public void build(MethodDeclaration methodDeclaration) {
             if (methodDeclaration.getBody().isEmpty())
                 throw new IllegalStateException("Method needs to have a body");
-            buildAndCopyCFG(methodDeclaration);
-            buildControlDependency();
-            buildDataDependency();
+            try (Metrics.Timer t = metrics.time(Phase.CFG)) {
+                buildAndCopyCFG(methodDeclaration);
+            }
+            monitor.checkCancelled();
+            try (Metrics.Timer t = metrics.time(Phase.CONTROL_DEPENDENCE)) {
+                buildControlDependency();
+            }
+            monitor.checkCancelled();
+            try (Metrics.Timer t = metrics.time(Phase.DATA_DEPENDENCE)) {
+                buildDataDependency();
+            }
         }
 
         protected void buildAndCopyCFG(MethodDeclaration methodDeclaration) {
@@ -103,6 +149,7 @@ public class PDG extends GraphWithRootNode<MethodDeclaration> {
 
         protected void buildDataDependency() {
             for (GraphNode<?> node : vertexSet()) {
+                monitor.checkCancelled();
                 for (VariableAction varAct : node.getVariableActions()) {
                     if (varAct.isUsage()) {
                         VariableAction.Usage use = (VariableAction.Usage) varAct;
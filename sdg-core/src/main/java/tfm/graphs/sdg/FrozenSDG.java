@@ -0,0 +1,345 @@
+package tfm.graphs.sdg;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import tfm.arcs.Arc;
+import tfm.arcs.pdg.ConditionalControlDependencyArc.CC1;
+import tfm.arcs.pdg.ConditionalControlDependencyArc.CC2;
+import tfm.metrics.Metrics;
+import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.slicing.BoundedSlicingAlgorithm;
+import tfm.slicing.CondensedSlicingAlgorithm;
+import tfm.slicing.FrozenChoppingAlgorithm;
+import tfm.slicing.FrozenClassicSlicingAlgorithm;
+import tfm.slicing.FrozenExceptionSensitiveSlicingAlgorithm;
+import tfm.slicing.FrozenForwardSlicingAlgorithm;
+import tfm.slicing.FrozenSlice;
+import tfm.slicing.LineIndex;
+import tfm.slicing.Slice;
+import tfm.slicing.Sliceable;
+import tfm.slicing.SlicingCriterion;
+import tfm.utils.ASTUtils;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A read-only snapshot of a built {@link SDG}, created with {@link SDG#freeze()}.
+ * <br/>
+ * The nodes are numbered from 0 to {@link #getNodeCount()} - 1, in the order of their ids, and the arcs
+ * from 0 to {@link #getArcCount()} - 1. The incoming and outgoing arcs of each node are stored in
+ * compressed sparse row (CSR) form: two arrays of offsets and two arrays of arc numbers, in the same order
+ * as in the original graph. The kind of each arc is stored as a set of flags ({@link #CONTROL_DEPENDENCE},
+ * {@link #DATA_DEPENDENCE}, etc.), so that traversals don't need to inspect the {@link Arc} objects.
+ * <br/>
+ * Snapshots can't be modified, and the slicing algorithms that work on them
+ * ({@link FrozenClassicSlicingAlgorithm}, {@link FrozenExceptionSensitiveSlicingAlgorithm},
+ * {@link FrozenForwardSlicingAlgorithm}) keep their
+ * state in each call, so any number of threads may slice a snapshot concurrently. Changes to the SDG
+ * after freezing it are not reflected in the snapshot.
+ */
+public class FrozenSDG implements Sliceable {
+    // Arc flags
+    public static final int CONTROL_DEPENDENCE = 1;
+    /** Also has {@link #CONTROL_DEPENDENCE}. */
+    public static final int CONDITIONAL_CC1 = 1 << 1;
+    /** Also has {@link #CONTROL_DEPENDENCE}. */
+    public static final int CONDITIONAL_CC2 = 1 << 2;
+    public static final int DATA_DEPENDENCE = 1 << 3;
+    public static final int INTERPROCEDURAL_INPUT = 1 << 4;
+    public static final int INTERPROCEDURAL_OUTPUT = 1 << 5;
+    public static final int SUMMARY = 1 << 6;
+    public static final int CALL = 1 << 7;
+    public static final int PARAMETER_IN_OUT = 1 << 8;
+
+    protected final boolean exceptionSensitive;
+    protected final NodeList<CompilationUnit> compilationUnits;
+    protected final Metrics metrics;
+
+    protected final GraphNode<?>[] nodes;
+    protected final long[] ids;
+    protected final BitSet pseudoPredicates;
+
+    protected final Arc[] arcs;
+    protected final int[] arcFlags;
+    protected final int[] arcSources;
+    protected final int[] arcTargets;
+
+    protected final int[] inOffsets;
+    protected final int[] inArcs;
+    protected final int[] outOffsets;
+    protected final int[] outArcs;
+
+    /** Created by the first call to {@link #getLineIndex()}. */
+    protected LineIndex lineIndex;
+
+    /**
+     * Creates a snapshot of the given graph. {@link SDG#freeze()} should be used instead.
+     * @param sdg A built SDG.
+     * @param exceptionSensitive Whether to slice it with the exception-sensitive algorithm.
+     * @param isPseudoPredicate Which nodes are pseudo-predicates, only used if it is exception-sensitive.
+     */
+    public FrozenSDG(SDG sdg, boolean exceptionSensitive, Predicate<GraphNode<?>> isPseudoPredicate) {
+        if (!sdg.built)
+            throw new IllegalStateException("Only a built SDG can be frozen");
+        this.exceptionSensitive = exceptionSensitive;
+        this.compilationUnits = sdg.getCompilationUnits();
+        this.metrics = sdg.getMetrics();
+
+        nodes = sdg.vertexSet().stream().sorted(Comparator.comparingLong(GraphNode::getId)).toArray(GraphNode[]::new);
+        ids = new long[nodes.length];
+        pseudoPredicates = new BitSet(nodes.length);
+        Map<GraphNode<?>, Integer> indices = new IdentityHashMap<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            ids[i] = nodes[i].getId();
+            indices.put(nodes[i], i);
+            if (exceptionSensitive && isPseudoPredicate.test(nodes[i]))
+                pseudoPredicates.set(i);
+        }
+
+        arcs = sdg.edgeSet().toArray(Arc[]::new);
+        arcFlags = new int[arcs.length];
+        arcSources = new int[arcs.length];
+        arcTargets = new int[arcs.length];
+        Map<Arc, Integer> arcIndices = new IdentityHashMap<>(arcs.length);
+        for (int i = 0; i < arcs.length; i++) {
+            arcFlags[i] = flagsOf(arcs[i]);
+            arcSources[i] = indices.get(sdg.getEdgeSource(arcs[i]));
+            arcTargets[i] = indices.get(sdg.getEdgeTarget(arcs[i]));
+            arcIndices.put(arcs[i], i);
+        }
+
+        inOffsets = new int[nodes.length + 1];
+        inArcs = new int[arcs.length];
+        outOffsets = new int[nodes.length + 1];
+        outArcs = new int[arcs.length];
+        int in = 0, out = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            inOffsets[i] = in;
+            for (Arc arc : sdg.incomingEdgesOf(nodes[i]))
+                inArcs[in++] = arcIndices.get(arc);
+            outOffsets[i] = out;
+            for (Arc arc : sdg.outgoingEdgesOf(nodes[i]))
+                outArcs[out++] = arcIndices.get(arc);
+        }
+        inOffsets[nodes.length] = in;
+        outOffsets[nodes.length] = out;
+    }
+
+    protected static int flagsOf(Arc arc) {
+        int flags = 0;
+        if (arc.isControlDependencyArc())
+            flags |= CONTROL_DEPENDENCE;
+        if (arc instanceof CC1)
+            flags |= CONDITIONAL_CC1;
+        if (arc instanceof CC2)
+            flags |= CONDITIONAL_CC2;
+        if (arc.isDataDependencyArc())
+            flags |= DATA_DEPENDENCE;
+        if (arc.isInterproceduralInputArc())
+            flags |= INTERPROCEDURAL_INPUT;
+        if (arc.isInterproceduralOutputArc())
+            flags |= INTERPROCEDURAL_OUTPUT;
+        if (arc.isSummaryArc())
+            flags |= SUMMARY;
+        if (arc.isCallArc())
+            flags |= CALL;
+        if (arc.isParameterInOutArc())
+            flags |= PARAMETER_IN_OUT;
+        return flags;
+    }
+
+    @Override
+    public Slice slice(SlicingCriterion slicingCriterion) {
+        Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+        if (optSlicingNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
+        if (exceptionSensitive)
+            return new FrozenExceptionSensitiveSlicingAlgorithm(this).traverse(optSlicingNode.get());
+        return new FrozenClassicSlicingAlgorithm(this).traverse(optSlicingNode.get());
+    }
+
+    /**
+     * Obtains the slices of several criteria, in the same order. Unless the snapshot is exception-sensitive,
+     * the slices are assembled from the components of the graph, so that the nodes shared by several
+     * slices are only traversed once.
+     * @see CondensedSlicingAlgorithm
+     */
+    public List<Slice> sliceAll(List<? extends SlicingCriterion> slicingCriteria) {
+        List<GraphNode<?>> nodes = new ArrayList<>(slicingCriteria.size());
+        for (SlicingCriterion slicingCriterion : slicingCriteria) {
+            Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+            if (optSlicingNode.isEmpty())
+                throw new IllegalArgumentException("Could not locate the slicing criterion "
+                        + slicingCriterion + " in the SDG");
+            nodes.add(optSlicingNode.get());
+        }
+        if (!exceptionSensitive)
+            return new CondensedSlicingAlgorithm(this).traverse(nodes);
+        FrozenExceptionSensitiveSlicingAlgorithm algorithm = new FrozenExceptionSensitiveSlicingAlgorithm(this);
+        List<Slice> slices = new ArrayList<>(nodes.size());
+        for (GraphNode<?> node : nodes)
+            slices.add(algorithm.traverse(node));
+        return slices;
+    }
+
+    /**
+     * Obtains the nodes of the slice that are at most {@code maxDistance} arcs and {@code maxCallDepth}
+     * interprocedural arcs away from the criterion, and their distance to it. The arcs are traversed as
+     * in the classic algorithm, even if the snapshot is exception-sensitive.
+     * @see BoundedSlicingAlgorithm
+     */
+    public Map<GraphNode<?>, Integer> sliceWithin(SlicingCriterion slicingCriterion, int maxDistance, int maxCallDepth) {
+        Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+        if (optSlicingNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
+        return new BoundedSlicingAlgorithm(new FrozenClassicSlicingAlgorithm(this), maxDistance, maxCallDepth)
+                .distances(optSlicingNode.get());
+    }
+
+    /** Obtains the nodes that may be affected by the slicing criterion.
+     *  @see FrozenForwardSlicingAlgorithm */
+    public Slice forwardSlice(SlicingCriterion slicingCriterion) {
+        Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+        if (optSlicingNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
+        return new FrozenForwardSlicingAlgorithm(this).traverse(optSlicingNode.get());
+    }
+
+    /** Obtains the nodes through which the source criterion may influence the target criterion.
+     *  @see FrozenChoppingAlgorithm */
+    public Slice chop(SlicingCriterion source, SlicingCriterion target) {
+        Optional<GraphNode<?>> optSourceNode = source.findNode(this);
+        if (optSourceNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the source criterion in the SDG");
+        Optional<GraphNode<?>> optTargetNode = target.findNode(this);
+        if (optTargetNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the target criterion in the SDG");
+        return new FrozenChoppingAlgorithm(this).chop(optSourceNode.get(), optTargetNode.get());
+    }
+
+    /** Creates a read-only slice that contains the nodes whose numbers are in the given set, without
+     *  copying it. The set must not be modified afterwards.
+     *  @see FrozenSlice */
+    public Slice toSlice(BitSet nodeSet) {
+        return new FrozenSlice(this, nodeSet);
+    }
+
+    public boolean isExceptionSensitive() {
+        return exceptionSensitive;
+    }
+
+    public NodeList<CompilationUnit> getCompilationUnits() {
+        return compilationUnits;
+    }
+
+    /** The nodes of the statements of each file, by line, which is built the first time it is needed. */
+    public synchronized LineIndex getLineIndex() {
+        if (lineIndex == null)
+            lineIndex = new LineIndex(compilationUnits, Arrays.asList(nodes));
+        return lineIndex;
+    }
+
+    /** The metrics of the SDG this snapshot was created from. */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // ================================================
+    // ==================== Nodes =====================
+    // ================================================
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    public GraphNode<?> getNode(int node) {
+        return nodes[node];
+    }
+
+    /** The number of the node with the given id, or -1 if it is not part of this graph. */
+    public int indexOfId(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /** The number of the given node, or -1 if it is not part of this graph. */
+    public int indexOf(GraphNode<?> node) {
+        int index = indexOfId(node.getId());
+        return index >= 0 && nodes[index] == node ? index : -1;
+    }
+
+    public Optional<GraphNode<?>> findNodeById(long id) {
+        int index = indexOfId(id);
+        return index >= 0 ? Optional.of(nodes[index]) : Optional.empty();
+    }
+
+    /** @see tfm.graphs.Graph#findNodeByASTNode(Node) */
+    @SuppressWarnings("unchecked")
+    public <ASTNode extends Node> Optional<GraphNode<ASTNode>> findNodeByASTNode(ASTNode astNode) {
+        List<GraphNode<?>> found = new LinkedList<>();
+        for (GraphNode<?> node : nodes)
+            if (ASTUtils.equalsWithRangeInCU(node.getAstNode(), astNode))
+                found.add(node);
+        if (found.size() > 1)
+            found.removeIf(SyntheticNode.class::isInstance);
+        if (found.isEmpty())
+            return Optional.empty();
+        if (found.size() == 1)
+            return Optional.of((GraphNode<ASTNode>) found.get(0));
+        throw new IllegalStateException("There may only be one real node representing each AST node in the graph!");
+    }
+
+    public boolean isPseudoPredicate(int node) {
+        return pseudoPredicates.get(node);
+    }
+
+    // ================================================
+    // ===================== Arcs =====================
+    // ================================================
+
+    public int getArcCount() {
+        return arcs.length;
+    }
+
+    public Arc getArc(int arc) {
+        return arcs[arc];
+    }
+
+    public int getArcSource(int arc) {
+        return arcSources[arc];
+    }
+
+    public int getArcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    public int getArcFlags(int arc) {
+        return arcFlags[arc];
+    }
+
+    /** Whether the arc has any of the given flags. */
+    public boolean hasFlag(int arc, int flags) {
+        return (arcFlags[arc] & flags) != 0;
+    }
+
+    public int getInDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    /** The i-th incoming arc of the node, with {@code 0 <= i < getInDegree(node)}. */
+    public int getIncomingArc(int node, int i) {
+        return inArcs[inOffsets[node] + i];
+    }
+
+    public int getOutDegree(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    /** The i-th outgoing arc of the node, with {@code 0 <= i < getOutDegree(node)}. */
+    public int getOutgoingArc(int node, int i) {
+        return outArcs[outOffsets[node] + i];
+    }
+}
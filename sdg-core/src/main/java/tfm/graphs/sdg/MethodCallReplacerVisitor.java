@@ -11,18 +11,40 @@ import tfm.arcs.Arc;
 import tfm.arcs.pdg.DataDependencyArc;
 import tfm.graphs.GraphNodeContentVisitor;
 import tfm.graphs.cfg.CFGBuilder;
+import tfm.metrics.Counter;
 import tfm.nodes.*;
 import tfm.nodes.type.NodeType;
 import tfm.utils.Logger;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Replaces the method calls contained in a node of the {@link SDG} with their call nodes,
+ * actual-in/out nodes and interprocedural arcs. It works in three stages:
+ * <ol>
+ *     <li>{@link #resolve(GraphNode)} resolves each call with the symbol solver. JavaParser's
+ *     symbol solver is not thread-safe, so this stage must not be run concurrently with itself.</li>
+ *     <li>{@link #plan(GraphNode)} computes every node and arc that must be created, moved or
+ *     connected. It only reads the graph and the resolved calls, so it may be run concurrently
+ *     for different nodes.</li>
+ *     <li>{@link #apply()} performs the planned mutations, creating the new nodes in the order
+ *     in which the calls were found. It must not be run concurrently with any other stage.</li>
+ * </ol>
+ * {@link #startVisit(GraphNode)} runs the three stages consecutively. None of them modifies the AST.
+ */
 public class MethodCallReplacerVisitor extends GraphNodeContentVisitor<Void> {
     protected final SDG sdg;
+    /** The declaration of each call found by {@link #resolve(GraphNode)}, or empty if it couldn't be resolved. */
+    protected final Map<MethodCallExpr, Optional<MethodDeclaration>> declarations = new IdentityHashMap<>();
+    /** Whether the calls are being resolved, instead of planned. */
+    protected boolean resolving = false;
+    /** Mutations computed by {@link #plan(GraphNode)} and pending to be performed by {@link #apply()}. */
+    protected final List<Runnable> plannedMutations = new LinkedList<>();
+    /** Arcs that have been replaced while applying the mutations, mapped to their replacement.
+     * An arc is moved twice if both its source and target contain a method call. */
+    protected Map<DataDependencyArc, DataDependencyArc> movedArcs;
 
     public MethodCallReplacerVisitor(SDG sdg) {
         this.sdg = sdg;
@@ -30,155 +52,243 @@ public class MethodCallReplacerVisitor extends GraphNodeContentVisitor<Void> {
 
     @Override
     public void startVisit(GraphNode<?> graphNode) {
+        resolve(graphNode);
+        plan(graphNode);
+        apply();
+    }
+
+    /** Resolves the method calls contained in the given node, which must be done before planning them. */
+    public void resolve(GraphNode<?> graphNode) {
+        resolving = true;
+        try {
+            visitContents(graphNode);
+        } finally {
+            resolving = false;
+        }
+    }
+
+    /** Plans the changes for the method calls contained in the given node, without modifying the graph.
+     *  The node must have been {@link #resolve(GraphNode) resolved} by this visitor. */
+    public void plan(GraphNode<?> graphNode) {
+        visitContents(graphNode);
+    }
+
+    protected void visitContents(GraphNode<?> graphNode) {
         if (!(graphNode.getAstNode() instanceof MethodCallExpr) && !(graphNode instanceof SyntheticNode))
             super.startVisit(graphNode);
     }
 
-    @Override
-    public void visit(MethodCallExpr methodCallExpr, Void arg) {
-        GraphNode<MethodDeclaration> methodDeclarationNode;
+    /** Performs the changes planned in all previous calls to {@link #plan(GraphNode)}, in order. */
+    public void apply() {
+        apply(new IdentityHashMap<>());
+    }
+
+    /**
+     * Performs the changes planned in all previous calls to {@link #plan(GraphNode)}, in order.
+     * @param movedArcs The arcs replaced so far. When multiple visitors plan their changes
+     *                  before any is applied, they must share this map while applying them,
+     *                  as the arcs they planned to move may have been replaced by another visitor.
+     */
+    public void apply(Map<DataDependencyArc, DataDependencyArc> movedArcs) {
+        this.movedArcs = movedArcs;
+        plannedMutations.forEach(Runnable::run);
+        plannedMutations.clear();
+        this.movedArcs = null;
+    }
+
+    /** Resolves the declaration of a call, and anything else that its plan needs from the symbol solver. */
+    protected void resolveCall(MethodCallExpr methodCallExpr) {
+        Optional<MethodDeclaration> declaration;
         try {
-            methodDeclarationNode = methodCallExpr.resolve().toAst()
-                    .flatMap(sdg::findNodeByASTNode)
-                    .orElseThrow(() -> new UnsolvedSymbolException(""));
+            declaration = methodCallExpr.resolve().toAst();
         } catch (UnsolvedSymbolException e) {
-            Logger.format("Method declaration not found: '%s'. Discarding", methodCallExpr);
+            declaration = Optional.empty();
+        }
+        declarations.put(methodCallExpr, declaration);
+    }
+
+    @Override
+    public void visit(MethodCallExpr methodCallExpr, Void arg) {
+        if (resolving) {
+            resolveCall(methodCallExpr);
+            return;
+        }
+        Optional<GraphNode<MethodDeclaration>> optDeclarationNode = declarations.get(methodCallExpr)
+                .flatMap(sdg::findNodeByASTNode);
+        if (optDeclarationNode.isEmpty()) {
+            sdg.getMetrics().increment(Counter.SYMBOL_RESOLUTION_FAILURES);
+            Logger.format(Logger.Level.DEBUG, "Method declaration not found: '%s'. Discarding", methodCallExpr);
             return;
         }
+        sdg.getMetrics().increment(Counter.SYMBOL_RESOLUTIONS);
+        GraphNode<MethodDeclaration> methodDeclarationNode = optDeclarationNode.get();
 
         NodeList<Expression> arguments = methodCallExpr.getArguments();
         NodeList<Parameter> parameters = methodDeclarationNode.getAstNode().getParameters();
-
-        // Create and connect the CALL node
-        CallNode methodCallNode = new CallNode(methodCallExpr);
-        sdg.addNode(methodCallNode);
-        sdg.addControlDependencyArc(graphNode, methodCallNode);
-        sdg.addCallArc(methodCallNode, methodDeclarationNode);
-
+        List<Consumer<CallNode>> argumentMutations = new LinkedList<>();
 
         for (int i = 0; i < parameters.size(); i++) {
             Parameter parameter = parameters.get(i);
             Expression argument;
+            List<Expression> argumentNodes;
 
             if (!parameter.isVarArgs()) {
                 argument = arguments.get(i);
+                argumentNodes = List.of(argument);
             } else {
-                NodeList<Expression> varArgs = new NodeList<>(arguments.subList(i, arguments.size()));
+                // The array is built from copies, as adding the arguments to it would detach them from the call
+                argumentNodes = arguments.subList(i, arguments.size());
+                NodeList<Expression> varArgs = argumentNodes.stream()
+                        .map(Expression::clone)
+                        .collect(Collectors.toCollection(NodeList::new));
 
                 argument = new ArrayCreationExpr(
-                        parameter.getType(),
+                        parameter.getType().clone(),
                         new NodeList<>(new ArrayCreationLevel(varArgs.size())),
                         new ArrayInitializerExpr(varArgs)
                 );
                 i = parameters.size();
             }
 
-            createActualIn(methodDeclarationNode, methodCallNode, parameter, argument);
-            createActualOut(methodDeclarationNode, methodCallNode, parameter, argument);
+            argumentMutations.add(planActualIn(graphNode, methodDeclarationNode, parameter, argument, argumentNodes));
+            planActualOut(graphNode, methodDeclarationNode, parameter, argument, argumentNodes).ifPresent(argumentMutations::add);
         }
 
-        // Add the 'output' node to the call and connect to the METHOD_OUTPUT node (there should be only one -- if any)
-        sdg.outgoingEdgesOf(methodDeclarationNode).stream()
+        // Find the METHOD_OUTPUT node (there should be only one -- if any)
+        List<GraphNode<?>> methodOutputNodes = sdg.outgoingEdgesOf(methodDeclarationNode).stream()
                 .filter(arc -> sdg.getEdgeTarget(arc).getNodeType() == NodeType.METHOD_OUTPUT)
                 .map(sdg::getEdgeTarget)
-                .forEach(node -> processMethodOutputNode(node, methodCallNode));
-    }
+                .collect(Collectors.toList());
+
+        GraphNode<?> node = graphNode;
+        plannedMutations.add(() -> {
+            // Create and connect the CALL node
+            CallNode methodCallNode = new CallNode(methodCallExpr);
+            sdg.addNode(methodCallNode);
+            sdg.addControlDependencyArc(node, methodCallNode);
+            sdg.addCallArc(methodCallNode, methodDeclarationNode);
 
-    protected void createActualIn(GraphNode<MethodDeclaration> declaration, GraphNode<MethodCallExpr> call, Parameter parameter, Expression argument) {
-        ActualIONode argumentInNode = ActualIONode.createActualIn(call.getAstNode(), parameter, argument);
-        sdg.addNode(argumentInNode);
-        sdg.addControlDependencyArc(call, argumentInNode);
+            argumentMutations.forEach(mutation -> mutation.accept(methodCallNode));
+
+            // Add the 'output' node to the call and connect to the METHOD_OUTPUT node
+            methodOutputNodes.forEach(outputNode -> processMethodOutputNode(node, outputNode, methodCallNode));
+        });
+    }
 
+    /**
+     * @param argument      The argument, or an array with the variable arguments.
+     * @param argumentNodes The expressions of the call that form the argument.
+     */
+    protected Consumer<CallNode> planActualIn(GraphNode<?> node, GraphNode<MethodDeclaration> declaration, Parameter parameter,
+                                              Expression argument, List<Expression> argumentNodes) {
         // Handle data dependency: Remove arc from method call node and add it to IN node
-        List<DataDependencyArc> arcsToRemove = sdg.incomingEdgesOf(graphNode).stream()
+        List<DataDependencyArc> arcsToMove = sdg.incomingEdgesOf(node).stream()
                 .filter(Arc::isDataDependencyArc)
                 .map(Arc::asDataDependencyArc)
-                .filter(arc -> arc.getTarget().isContainedIn(argument))
+                .filter(arc -> argumentNodes.stream().anyMatch(arc.getTarget()::isContainedIn))
                 .collect(Collectors.toList());
-        arcsToRemove.forEach(arc -> moveArc(arc, argumentInNode, true));
 
-        // Now, find the corresponding method declaration's in node and link argument node with it
-        Optional<FormalIONode> optFormalInNode = sdg.outgoingEdgesOf(declaration).stream()
-                .map(sdg::getEdgeTarget)
-                .filter(FormalIONode.class::isInstance)
-                .map(FormalIONode.class::cast)
-                .filter(argumentInNode::matchesFormalIO)
-                .findFirst();
+        // Now, find the corresponding method declaration's in node
+        Optional<FormalIONode> optFormalInNode = findFormalIONode(declaration, parameter, NodeType.FORMAL_IN);
 
-        if (optFormalInNode.isPresent())
-            sdg.addParameterInOutArc(argumentInNode, optFormalInNode.get());
-        else
-            Logger.log(getClass().getSimpleName(), "WARNING: FORMAL-IN node for argument " + argument + " of call " + call + " not found.");
+        return call -> {
+            ActualIONode argumentInNode = ActualIONode.createActualIn(call.getAstNode(), parameter, argument);
+            sdg.addNode(argumentInNode);
+            sdg.addControlDependencyArc(call, argumentInNode);
+
+            arcsToMove.forEach(arc -> moveArc(arc, argumentInNode, true));
+
+            if (optFormalInNode.isPresent())
+                sdg.addParameterInOutArc(argumentInNode, optFormalInNode.get());
+            else
+                Logger.warn(getClass().getSimpleName(), () -> "FORMAL-IN node for argument " + argument + " of call " + call + " not found.");
+        };
     }
 
-    protected void createActualOut(GraphNode<MethodDeclaration> declaration, GraphNode<MethodCallExpr> call, Parameter parameter, Expression argument) {
+    /** @see #planActualIn(GraphNode, GraphNode, Parameter, Expression, List) */
+    protected Optional<Consumer<CallNode>> planActualOut(GraphNode<?> node, GraphNode<MethodDeclaration> declaration, Parameter parameter,
+                                                         Expression argument, List<Expression> argumentNodes) {
         Set<String> variablesForOutNode = new HashSet<>();
         argument.accept(new OutNodeVariableVisitor(), variablesForOutNode);
 
         // Here, variablesForOutNode may have 1 variable or more depending on the expression
         if (variablesForOutNode.isEmpty()) {
             // If the argument is not a variable or it is not declared in the scope, then there is no OUT node
-            Logger.log("MethodCallReplacerVisitor", String.format("Expression '%s' should not have out node", argument.toString()));
-            return;
+            Logger.debug("MethodCallReplacerVisitor", () -> String.format("Expression '%s' should not have out node", argument));
+            return Optional.empty();
         } else if (variablesForOutNode.size() == 1) {
             String variable = variablesForOutNode.iterator().next();
 
-            List<GraphNode<?>> declarations = sdg.findDeclarationsOfVariable(variable, graphNode);
+            List<GraphNode<?>> declarations = sdg.findDeclarationsOfVariable(variable, node);
 
-            Logger.log("MethodCallReplacerVisitor", String.format("Declarations of variable: '%s': %s", variable, declarations));
+            Logger.debug("MethodCallReplacerVisitor", () -> String.format("Declarations of variable: '%s': %s", variable, declarations));
 
             if (declarations.isEmpty()) {
-                Logger.log("MethodCallReplacerVisitor", String.format("Expression '%s' should not have out node", argument.toString()));
-                return;
+                Logger.debug("MethodCallReplacerVisitor", () -> String.format("Expression '%s' should not have out node", argument));
+                return Optional.empty();
             }
         } else {
             // Multiple variables (varargs, array) not considered!
-            return;
+            return Optional.empty();
         }
 
-        ActualIONode argumentOutNode = ActualIONode.createActualOut(call.getAstNode(), parameter, argument);
-        sdg.addNode(argumentOutNode);
-        sdg.addControlDependencyArc(call, argumentOutNode);
-
-        // Now, find the corresponding method call's out node and link argument node with it
-        Optional<FormalIONode> optionalParameterOutNode = sdg.outgoingEdgesOf(declaration).stream()
-                .map(sdg::getEdgeTarget)
-                .filter(FormalIONode.class::isInstance)
-                .map(FormalIONode.class::cast)
-                .filter(argumentOutNode::matchesFormalIO)
-                .findFirst();
+        // Now, find the corresponding method call's out node
+        Optional<FormalIONode> optionalParameterOutNode = findFormalIONode(declaration, parameter, NodeType.FORMAL_OUT);
 
         // Handle data dependency: copy arc from method call node and add it to OUT node
-        List<DataDependencyArc> arcsToRemove = sdg.outgoingEdgesOf(graphNode).stream()
+        List<DataDependencyArc> arcsToMove = sdg.outgoingEdgesOf(node).stream()
                 .filter(Arc::isDataDependencyArc)
                 .map(DataDependencyArc.class::cast)
-                .filter(arc -> arc.getSource().isContainedIn(argument))
+                .filter(arc -> argumentNodes.stream().anyMatch(arc.getSource()::isContainedIn))
                 .collect(Collectors.toList());
-        arcsToRemove.forEach(arc -> moveArc(arc, argumentOutNode, false));
 
-        if (optionalParameterOutNode.isPresent())
-            sdg.addParameterInOutArc(optionalParameterOutNode.get(), argumentOutNode);
-        else
-            Logger.log(getClass().getSimpleName(), "WARNING: FORMAL-OUT node for argument " + argument + " of call " + call + " not found.");
+        return Optional.of(call -> {
+            ActualIONode argumentOutNode = ActualIONode.createActualOut(call.getAstNode(), parameter, argument);
+            sdg.addNode(argumentOutNode);
+            sdg.addControlDependencyArc(call, argumentOutNode);
+
+            arcsToMove.forEach(arc -> moveArc(arc, argumentOutNode, false));
+
+            if (optionalParameterOutNode.isPresent())
+                sdg.addParameterInOutArc(optionalParameterOutNode.get(), argumentOutNode);
+            else
+                Logger.warn(getClass().getSimpleName(), () -> "FORMAL-OUT node for argument " + argument + " of call " + call + " not found.");
+        });
+    }
+
+    /** Finds the formal-in or formal-out node of the given declaration that corresponds to a parameter. */
+    protected Optional<FormalIONode> findFormalIONode(GraphNode<MethodDeclaration> declaration, Parameter parameter, NodeType type) {
+        return sdg.outgoingEdgesOf(declaration).stream()
+                .map(sdg::getEdgeTarget)
+                .filter(n -> n.getClass().equals(FormalIONode.class))
+                .map(FormalIONode.class::cast)
+                .filter(n -> n.getNodeType() == type)
+                .filter(n -> n.getParameter().equals(parameter))
+                .filter(n -> Objects.equals(n.getAstNode(), declaration.getAstNode()))
+                .findFirst();
     }
 
     /**
      * @param moveTarget If true, the target will be changed to 'node', otherwise the source will be.
      */
     protected void moveArc(DataDependencyArc arc, ActualIONode node, boolean moveTarget) {
+        while (movedArcs.containsKey(arc))
+            arc = movedArcs.get(arc);
         VariableAction sourceAction = arc.getSource();
         VariableAction targetAction = arc.getTarget();
+        DataDependencyArc newArc;
         if (moveTarget)
-            sdg.addDataDependencyArc(sourceAction, targetAction.moveTo(node));
+            newArc = sdg.addDataDependencyArc(sourceAction, targetAction.moveTo(node));
         else
-            sdg.addDataDependencyArc(sourceAction.moveTo(node), targetAction);
+            newArc = sdg.addDataDependencyArc(sourceAction.moveTo(node), targetAction);
         sdg.removeEdge(arc);
+        movedArcs.put(arc, newArc);
     }
 
-    protected void processMethodOutputNode(GraphNode<?> methodOutputNode, GraphNode<MethodCallExpr> methodCallNode) {
+    protected void processMethodOutputNode(GraphNode<?> node, GraphNode<?> methodOutputNode, GraphNode<MethodCallExpr> methodCallNode) {
         GraphNode<EmptyStmt> callReturnNode = sdg.addNode("call output", new EmptyStmt(),
                 TypeNodeFactory.fromType(NodeType.METHOD_CALL_RETURN));
-        VariableAction.Usage usage = graphNode.addUsedVariable(new NameExpr(CFGBuilder.VARIABLE_NAME_OUTPUT));
+        VariableAction.Usage usage = node.addUsedVariable(new NameExpr(CFGBuilder.VARIABLE_NAME_OUTPUT));
         VariableAction.Definition definition = callReturnNode.addDefinedVariable(new NameExpr(CFGBuilder.VARIABLE_NAME_OUTPUT));
 
         sdg.addControlDependencyArc(methodCallNode, callReturnNode);
@@ -37,13 +37,13 @@ public class OutNodeVariableVisitor extends VoidVisitorAdapter<Set<String>> {
 
     @Override
     public void visit(FieldAccessExpr n, Set<String> variables) {
-        Logger.log("ShouldHaveOutNodeVisitor", "Exploring " + n);
+        Logger.debug("ShouldHaveOutNodeVisitor", () -> "Exploring " + n);
         n.getScope().accept(this, variables);
     }
 
     @Override
     public void visit(NameExpr n, Set<String> variables) {
-        Logger.log("ShouldHaveOutNodeVisitor", n + " is a variable!!");
+        Logger.debug("ShouldHaveOutNodeVisitor", () -> n + " is a variable!!");
         variables.add(n.getNameAsString());
     }
 
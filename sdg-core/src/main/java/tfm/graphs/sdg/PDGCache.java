@@ -0,0 +1,72 @@
+package tfm.graphs.sdg;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import tfm.graphs.pdg.PDG;
+import tfm.nodes.GraphNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keeps the PDG of each method across several builds of an SDG, so that a rebuild only builds
+ * the PDGs of the methods that have changed, and then replaces the method calls and computes the
+ * summary arcs again. The PDGs are indexed by the identity of their declaration, so the units that
+ * haven't changed must be given to each build as they are, instead of copies.
+ * <br/>
+ * The PDGs are never modified by the SDGs built with them, which contain {@link GraphNode#copy() copies}
+ * of their nodes and arcs, so a previous SDG is not affected by the builds that follow.
+ * <br/>
+ * Instances are not thread-safe: SDGs that share a cache must be built one at a time.
+ * @see SDG#setPDGCache(PDGCache)
+ * @see SDGBuilder
+ */
+public class PDGCache {
+    protected final Map<MethodDeclaration, PDG> pdgs = new IdentityHashMap<>();
+    protected long hits = 0;
+    protected long misses = 0;
+
+    /** Obtains the PDG of a method, building it with the given function if it is not cached. */
+    public PDG computeIfAbsent(MethodDeclaration method, Function<MethodDeclaration, PDG> builder) {
+        PDG pdg = pdgs.get(method);
+        if (pdg != null) {
+            hits++;
+            return pdg;
+        }
+        misses++;
+        pdg = builder.apply(method);
+        pdgs.put(method, pdg);
+        return pdg;
+    }
+
+    /** Discards the PDGs of the methods that are not contained in the given compilation units,
+     *  e.g. because their file has changed and has been parsed again. */
+    public void retainAll(Collection<CompilationUnit> units) {
+        Set<CompilationUnit> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(units);
+        pdgs.keySet().removeIf(method -> method.findCompilationUnit().map(cu -> !retained.contains(cu)).orElse(true));
+    }
+
+    /** The number of PDGs cached. */
+    public int size() {
+        return pdgs.size();
+    }
+
+    /** The number of PDGs that have been reused. */
+    public long getHits() {
+        return hits;
+    }
+
+    /** The number of PDGs that have been built. */
+    public long getMisses() {
+        return misses;
+    }
+
+    public void clear() {
+        pdgs.clear();
+    }
+}
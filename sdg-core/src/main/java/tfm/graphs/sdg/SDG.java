@@ -16,53 +16,190 @@ import tfm.graphs.Graph;
 import tfm.graphs.cfg.CFG;
 import tfm.graphs.sdg.sumarcs.AnalysisSummaryArcsBuilder;
 import tfm.graphs.sdg.sumarcs.NaiveSummaryArcsBuilder;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.GraphNode;
 import tfm.nodes.VariableAction;
+import tfm.slicing.CachedSlicingAlgorithm;
 import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.ForwardSlicingAlgorithm;
+import tfm.slicing.LineIndex;
+import tfm.slicing.MethodSummaries;
 import tfm.slicing.Slice;
+import tfm.slicing.SliceCache;
 import tfm.slicing.Sliceable;
 import tfm.slicing.SlicingCriterion;
 import tfm.utils.Context;
 import tfm.utils.Logger;
+import tfm.utils.TaskMonitor;
 
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SDG extends Graph implements Sliceable, Buildable<NodeList<CompilationUnit>> {
     protected final List<CFG> cfgs = new LinkedList<>();
 
     protected boolean built = false;
     protected NodeList<CompilationUnit> compilationUnits;
+    protected volatile SliceCache sliceCache;
+    protected PDGCache pdgCache;
+    /** The summaries of the method outputs, created by the first slice. Guarded by {@code this}. */
+    protected MethodSummaries methodSummaries;
+    protected LineIndex lineIndex;
 
     public NodeList<CompilationUnit> getCompilationUnits() {
         return compilationUnits;
     }
 
+    /** The cache of the slices computed by {@link #slice(SlicingCriterion)}, or null if they are not cached. */
+    public SliceCache getSliceCache() {
+        return sliceCache;
+    }
+
+    /** Sets the cache used by {@link #slice(SlicingCriterion)}, or disables caching if it is null.
+     *  @see CachedSlicingAlgorithm */
+    public void setSliceCache(SliceCache sliceCache) {
+        this.sliceCache = sliceCache;
+    }
+
+    /** The cache from which the PDGs of the methods are reused by {@link #build(NodeList)}, or null. */
+    public PDGCache getPDGCache() {
+        return pdgCache;
+    }
+
+    /** Sets the cache of the PDGs of previous builds, or disables reusing them if it is null.
+     *  It must be set before building the graph. */
+    public void setPDGCache(PDGCache pdgCache) {
+        this.pdgCache = pdgCache;
+    }
+
     @Override
     public Slice slice(SlicingCriterion slicingCriterion) {
         Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
         if (optSlicingNode.isEmpty())
             throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
-        return new ClassicSlicingAlgorithm(this).traverse(optSlicingNode.get());
+        SliceCache cache = sliceCache;
+        if (cache != null)
+            return new CachedSlicingAlgorithm(this, monitor, cache, getMethodSummaries()).traverse(optSlicingNode.get());
+        return new ClassicSlicingAlgorithm(this, monitor, getMethodSummaries()).traverse(optSlicingNode.get());
+    }
+
+    /** The summaries of the method outputs, which are filled as the slices of this graph need them. */
+    public synchronized MethodSummaries getMethodSummaries() {
+        if (methodSummaries == null)
+            methodSummaries = new MethodSummaries(this);
+        return methodSummaries;
+    }
+
+    /** The nodes of the statements of each file, by line, which is built the first time it is needed. */
+    public synchronized LineIndex getLineIndex() {
+        if (lineIndex == null)
+            lineIndex = new LineIndex(compilationUnits != null ? compilationUnits : List.of(), vertexSet());
+        return lineIndex;
+    }
+
+    /** Obtains the nodes that may be affected by the slicing criterion.
+     *  @see ForwardSlicingAlgorithm */
+    public Slice forwardSlice(SlicingCriterion slicingCriterion) {
+        Optional<GraphNode<?>> optSlicingNode = slicingCriterion.findNode(this);
+        if (optSlicingNode.isEmpty())
+            throw new IllegalArgumentException("Could not locate the slicing criterion in the SDG");
+        return new ForwardSlicingAlgorithm(this).traverse(optSlicingNode.get());
     }
 
     @Override
     public void build(NodeList<CompilationUnit> nodeList) {
+        clearSliceCache();
         nodeList.accept(createBuilder(), new Context());
-        Set<GraphNode<?>> vertices = Set.copyOf(vertexSet());
-        vertices.forEach(n -> new MethodCallReplacerVisitor(this).startVisit(n));
+        try (Metrics.Timer t = metrics.time(Phase.CALL_REPLACEMENT)) {
+            replaceMethodCalls();
+        }
         compilationUnits = nodeList;
-        // new NaiveSummaryArcsBuilder(this).visit();
-         new AnalysisSummaryArcsBuilder(this).visit();
+        try (Metrics.Timer t = metrics.time(Phase.SUMMARY_ARCS)) {
+            // new NaiveSummaryArcsBuilder(this).visit();
+            new AnalysisSummaryArcsBuilder(this).visit();
+        }
         built = true;
     }
 
+    /**
+     * Obtains the nodes through which the source criterion may influence the target criterion.
+     * It is computed on a {@link #freeze() snapshot} of this graph, so several chops of the same
+     * graph should be computed with {@link FrozenSDG#chop(SlicingCriterion, SlicingCriterion)}.
+     * @see tfm.slicing.FrozenChoppingAlgorithm
+     */
+    public Slice chop(SlicingCriterion source, SlicingCriterion target) {
+        return freeze().chop(source, target);
+    }
+
+    /** Creates a read-only snapshot of this graph, which can be sliced by several threads at once.
+     *  @see FrozenSDG */
+    public FrozenSDG freeze() {
+        return new FrozenSDG(this, false, n -> false);
+    }
+
+    /** Discards the cached slices, summaries and line index, which are no longer valid when the graph changes. */
+    protected void clearSliceCache() {
+        SliceCache cache = sliceCache;
+        if (cache != null)
+            cache.clear();
+        synchronized (this) {
+            methodSummaries = null;
+            lineIndex = null;
+        }
+    }
+
     protected SDGBuilder createBuilder() {
         return new SDGBuilder(this);
     }
 
+    /**
+     * Replaces the method calls of every node with their call nodes and interprocedural arcs.
+     * The calls are resolved sequentially, as JavaParser's symbol solver is not thread-safe.
+     * Then, the changes are planned concurrently, as that only reads the graph, and the graph
+     * is modified sequentially, in node id order, so that the result does not depend on the
+     * scheduling of the second stage.
+     * The monitor is checked while resolving and planning, and notified of the progress while applying.
+     * The changes are only planned concurrently if the common pool has more than one worker, as
+     * otherwise the parallel stream only adds the cost of splitting the work (compare both with
+     * {@code CallReplacementBenchmark} in sdg-bench).
+     * @see MethodCallReplacerVisitor
+     */
+    protected void replaceMethodCalls() {
+        replaceMethodCalls(ForkJoinPool.getCommonPoolParallelism() > 1);
+    }
+
+    /** @param parallel Whether the changes are planned concurrently. The result is the same either way. */
+    protected void replaceMethodCalls(boolean parallel) {
+        List<GraphNode<?>> vertices = vertexSet().stream().sorted().collect(Collectors.toList());
+        List<MethodCallReplacerVisitor> visitors = new ArrayList<>(vertices.size());
+        for (GraphNode<?> node : vertices) {
+            monitor.checkCancelled();
+            MethodCallReplacerVisitor visitor = createMethodCallReplacer();
+            visitor.resolve(node);
+            visitors.add(visitor);
+        }
+        IntStream indices = IntStream.range(0, vertices.size());
+        (parallel ? indices.parallel() : indices).forEach(i -> {
+            monitor.checkCancelled();
+            metrics.runPart(Phase.CALL_REPLACEMENT, () -> visitors.get(i).plan(vertices.get(i)));
+        });
+        Map<DataDependencyArc, DataDependencyArc> movedArcs = new IdentityHashMap<>();
+        long applied = 0;
+        for (MethodCallReplacerVisitor visitor : visitors) {
+            visitor.apply(movedArcs);
+            monitor.progress(TaskMonitor.Step.CALL_REPLACEMENT, ++applied, visitors.size());
+        }
+    }
+
+    protected MethodCallReplacerVisitor createMethodCallReplacer() {
+        return new MethodCallReplacerVisitor(this);
+    }
+
     @Override
     public boolean isBuilt() {
         return built;
@@ -80,7 +217,7 @@ public class SDG extends Graph implements Sliceable, Buildable<NodeList<Compilat
         this.addEdge(from, to, new ControlDependencyArc());
     }
 
-    public void addDataDependencyArc(VariableAction src, VariableAction tgt) {
+    public DataDependencyArc addDataDependencyArc(VariableAction src, VariableAction tgt) {
         DataDependencyArc arc;
         if (src instanceof VariableAction.Definition && tgt instanceof VariableAction.Usage)
             arc = new DataDependencyArc((VariableAction.Definition) src, (VariableAction.Usage) tgt);
@@ -89,6 +226,7 @@ public class SDG extends Graph implements Sliceable, Buildable<NodeList<Compilat
         else
             throw new UnsupportedOperationException("Unsupported combination of VariableActions");
         addEdge(src.getGraphNode(), tgt.getGraphNode(), arc);
+        return arc;
     }
 
     public void addCallArc(GraphNode<?> from, GraphNode<MethodDeclaration> to) {
@@ -1,20 +1,45 @@
 package tfm.graphs.sdg;
 
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import tfm.arcs.Arc;
+import tfm.arcs.pdg.DataDependencyArc;
 import tfm.graphs.pdg.PDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.VariableAction;
 import tfm.utils.Context;
+import tfm.utils.TaskMonitor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 public class SDGBuilder extends VoidVisitorAdapter<Context> {
 
     SDG sdg;
+    /** The number of methods with a body to build, and of those already built, for the progress. */
+    protected long methodCount = -1;
+    protected long methodsBuilt = 0;
 
     public SDGBuilder(SDG sdg) {
         this.sdg = sdg;
     }
 
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void visit(NodeList nodeList, Context context) {
+        if (methodCount < 0) {
+            methodCount = 0;
+            for (Object node : nodeList)
+                if (node instanceof CompilationUnit)
+                    methodCount += ((CompilationUnit) node).findAll(MethodDeclaration.class, m -> m.getBody().isPresent()).size();
+        }
+        super.visit(nodeList, context);
+    }
+
     @Override
     public void visit(MethodDeclaration methodDeclaration, Context context) {
         if (methodDeclaration.getBody().isEmpty())
@@ -27,12 +52,67 @@ public class SDGBuilder extends VoidVisitorAdapter<Context> {
         return new PDG();
     }
 
+    /** Adds the PDG of a method to the SDG. If the SDG has a {@link PDGCache}, the PDG is reused
+     *  from it if possible, and its nodes and arcs are copied, so that it is not modified. */
     protected void buildAndCopyPDG(MethodDeclaration methodDeclaration) {
+        PDGCache cache = sdg.getPDGCache();
+        PDG pdg;
+        if (cache == null) {
+            pdg = buildPDG(methodDeclaration);
+            pdg.vertexSet().forEach(sdg::addNode);
+            pdg.edgeSet().forEach(arc -> sdg.addEdge(pdg.getEdgeSource(arc), pdg.getEdgeTarget(arc), arc));
+        } else {
+            pdg = cache.computeIfAbsent(methodDeclaration, this::buildPDG);
+            copyPDG(pdg);
+        }
+        sdg.setMethodCFG(pdg.getCfg());
+        sdg.getMonitor().progress(TaskMonitor.Step.METHODS, ++methodsBuilt, methodCount);
+    }
+
+    protected PDG buildPDG(MethodDeclaration methodDeclaration) {
         PDG pdg = createPDG();
+        pdg.setMetrics(sdg.getMetrics());
+        pdg.setMonitor(sdg.getMonitor());
         pdg.build(methodDeclaration);
-        pdg.vertexSet().forEach(sdg::addNode);
-        pdg.edgeSet().forEach(arc -> sdg.addEdge(pdg.getEdgeSource(arc), pdg.getEdgeTarget(arc), arc));
-        sdg.setMethodCFG(pdg.getCfg());
+        return pdg;
+    }
+
+    /** Adds copies of the nodes and arcs of a PDG to the SDG. The copies are equal to the nodes of
+     *  the PDG (and its CFG), but the method call replacement modifies the copies instead. */
+    protected void copyPDG(PDG pdg) {
+        Map<GraphNode<?>, GraphNode<?>> copies = new IdentityHashMap<>();
+        for (GraphNode<?> node : pdg.vertexSet()) {
+            GraphNode<?> copy = node.copy();
+            copies.put(node, copy);
+            sdg.addNode(copy);
+        }
+        for (Arc arc : pdg.edgeSet()) {
+            GraphNode<?> source = copies.get(pdg.getEdgeSource(arc));
+            GraphNode<?> target = copies.get(pdg.getEdgeTarget(arc));
+            if (arc.isDataDependencyArc()) {
+                DataDependencyArc dataArc = arc.asDataDependencyArc();
+                sdg.addDataDependencyArc(copyOf(dataArc.getSource(), source), copyOf(dataArc.getTarget(), target));
+            } else {
+                sdg.addEdge(source, target, copyOf(arc));
+            }
+        }
+    }
+
+    /** Finds the copy of a variable action in the copy of its node. */
+    protected static VariableAction copyOf(VariableAction action, GraphNode<?> copy) {
+        int index = action.getGraphNode().getVariableActions().indexOf(action);
+        if (index < 0)
+            throw new IllegalStateException("The action " + action + " is not contained in its node");
+        return copy.getVariableActions().get(index);
+    }
+
+    /** Creates an arc of the same kind, which must have no label. */
+    protected static Arc copyOf(Arc arc) {
+        try {
+            return arc.getClass().getConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new UnsupportedOperationException("The arc " + arc + " can't be copied", e);
+        }
     }
 
     @Override
@@ -6,10 +6,12 @@ import tfm.arcs.Arc;
 import tfm.arcs.sdg.CallArc;
 import tfm.graphs.CallGraph;
 import tfm.graphs.sdg.SDG;
+import tfm.metrics.Counter;
 import tfm.nodes.ActualIONode;
 import tfm.nodes.FormalIONode;
 import tfm.nodes.GraphNode;
 import tfm.nodes.type.NodeType;
+import tfm.utils.TaskMonitor;
 import tfm.utils.Utils;
 
 import java.util.*;
@@ -75,10 +77,18 @@ public class AnalysisSummaryArcsBuilder extends SummaryArcsBuilder {
     public void visit() {
         assert !built;
         List<CallableDeclaration<?>> workList = new LinkedList<>(callGraph.vertexSet());
-        callGraph.vertexSet().forEach(v -> vertexDataMap.put(v, computeSummaryArcs(v)));
+        TaskMonitor monitor = sdg.getMonitor();
+        callGraph.vertexSet().forEach(v -> {
+            monitor.checkCancelled();
+            vertexDataMap.put(v, computeSummaryArcs(v));
+        });
+        long round = 0;
         while (!workList.isEmpty()) {
+            sdg.getMetrics().increment(Counter.SUMMARY_ARC_ITERATIONS);
+            monitor.progress(TaskMonitor.Step.SUMMARY_ARCS, ++round, -1);
             List<CallableDeclaration<?>> newWorkList = new LinkedList<>();
             for (CallableDeclaration<?> vertex : workList) {
+                monitor.checkCancelled();
                 updateVertex(vertex);
                 Set<FormalNodesPair> newValue = computeSummaryArcs(vertex); // now with new arcs!!!
                 if (!Objects.equals(vertexDataMap.get(vertex), newValue)) {
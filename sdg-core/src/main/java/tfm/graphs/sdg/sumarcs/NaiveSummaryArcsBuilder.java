@@ -6,6 +6,7 @@ import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
 import tfm.nodes.SyntheticNode;
 import tfm.nodes.type.NodeType;
+import tfm.utils.TaskMonitor;
 import tfm.utils.Utils;
 
 import java.util.Collection;
@@ -32,7 +33,10 @@ public class NaiveSummaryArcsBuilder extends SummaryArcsBuilder {
 
     @Override
     public void visit() {
-        for (GraphNode<MethodDeclaration> methodDeclarationNode : findAllMethodDeclarations()) {
+        Collection<GraphNode<MethodDeclaration>> methodDeclarations = findAllMethodDeclarations();
+        long analysed = 0;
+        for (GraphNode<MethodDeclaration> methodDeclarationNode : methodDeclarations) {
+            sdg.getMonitor().progress(TaskMonitor.Step.SUMMARY_ARCS, analysed++, methodDeclarations.size());
             Set<GraphNode<?>> formalOutNodes = sdg.outgoingEdgesOf(methodDeclarationNode).stream()
                     .filter(arc -> sdg.getEdgeTarget(arc).getNodeType().is(NodeType.FORMAL_OUT))
                     .map(arc -> (GraphNode<?>) sdg.getEdgeTarget(arc))
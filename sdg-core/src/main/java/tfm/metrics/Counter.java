@@ -0,0 +1,21 @@
+package tfm.metrics;
+
+/** The events counted during the construction of the graphs and the slicing process. */
+public enum Counter {
+    /** Method calls resolved to their declaration. */
+    SYMBOL_RESOLUTIONS,
+    /** Method calls whose declaration could not be found. */
+    SYMBOL_RESOLUTION_FAILURES,
+    /** Iterations of the fixed point computation of the summary arcs. Only the
+     *  {@link tfm.graphs.sdg.sumarcs.AnalysisSummaryArcsBuilder analysis-based builder} iterates. */
+    SUMMARY_ARC_ITERATIONS,
+    /** Slices computed. */
+    SLICES,
+    /** Arcs visited during the first pass of the slicing traversals. */
+    FIRST_PASS_ARCS_VISITED,
+    /** Arcs visited during the second pass of the slicing traversals. */
+    SECOND_PASS_ARCS_VISITED,
+    /** Slices obtained, completely or in part, from the results of previous slices
+     *  ({@link tfm.slicing.CondensedSlicingAlgorithm}, {@link tfm.slicing.SliceCache}). */
+    SLICE_CACHE_HITS
+}
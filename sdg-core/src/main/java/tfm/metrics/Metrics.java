@@ -0,0 +1,229 @@
+package tfm.metrics;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records the wall time and memory allocated in each {@link Phase} and the value of each
+ * {@link Counter}. Every {@link Graph} has one, which is shared with the graphs used to build
+ * it (e.g. an SDG shares it with the PDGs and CFGs of its methods). Graphs use {@link #DISABLED}
+ * unless an enabled instance is {@link Graph#setMetrics(Metrics) set} before building them, so
+ * that they don't pay for measurements nobody reads. Phases also emit JFR events
+ * ({@code tfm.Phase} and {@code tfm.SlicePass}) when a recording is active.
+ * <br/>
+ * Instances are thread-safe. Phases should be measured with a try-with-resources block:
+ * <pre>{@code
+ * try (Metrics.Timer t = metrics.time(Phase.CFG)) {
+ *     cfg.build(method);
+ * }
+ * }</pre>
+ * The allocation is measured for the thread that starts and closes the timer only. The parts
+ * of a phase that run on other threads must be run with {@link #runPart(Phase, Runnable)}.
+ */
+public class Metrics {
+    /** An instance that ignores everything it is given. */
+    public static final Metrics DISABLED = new Metrics(false);
+
+    protected static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    protected static final Timer NO_TIMER = DISABLED.new Timer(null);
+
+    protected final boolean enabled;
+    protected final Map<Phase, PhaseRecord> phases = new EnumMap<>(Phase.class);
+    protected final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    /** The number of timers of each phase that are open in each thread, by the ordinal of the phase. */
+    protected final ThreadLocal<int[]> openTimers = ThreadLocal.withInitial(() -> new int[Phase.values().length]);
+
+    public Metrics() {
+        this(true);
+    }
+
+    protected Metrics(boolean enabled) {
+        this.enabled = enabled;
+        // Both maps are filled here and never modified, so concurrent reads are safe
+        for (Phase phase : Phase.values())
+            phases.put(phase, new PhaseRecord());
+        for (Counter counter : Counter.values())
+            counters.put(counter, new LongAdder());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Starts measuring a phase, which ends when the returned timer is closed. */
+    public Timer time(Phase phase) {
+        return enabled ? new Timer(phase) : NO_TIMER;
+    }
+
+    /**
+     * Runs part of a phase on a thread other than the one that measures it, adding the memory it
+     * allocates to that phase. Its time is not added, as it is already part of the time of the phase.
+     * If it runs on a thread that is measuring the phase (e.g. the caller of a parallel stream),
+     * its allocation is left to that timer.
+     */
+    public void runPart(Phase phase, Runnable part) {
+        if (!enabled || openTimers.get()[phase.ordinal()] > 0) {
+            part.run();
+            return;
+        }
+        long startBytes = currentThreadAllocatedBytes();
+        try {
+            part.run();
+        } finally {
+            phases.get(phase).allocated.add(currentThreadAllocatedBytes() - startBytes);
+        }
+    }
+
+    public void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    public void add(Counter counter, long amount) {
+        if (enabled)
+            counters.get(counter).add(amount);
+    }
+
+    /** Records the number of arcs visited in a pass (1 or 2) of a slicing traversal. */
+    public void recordSlicePass(int pass, long arcsVisited) {
+        if (!enabled)
+            return;
+        add(pass == 1 ? Counter.FIRST_PASS_ARCS_VISITED : Counter.SECOND_PASS_ARCS_VISITED, arcsVisited);
+        SlicePassEvent event = new SlicePassEvent();
+        if (event.shouldCommit()) {
+            event.pass = pass;
+            event.arcsVisited = arcsVisited;
+            event.commit();
+        }
+    }
+
+    public long get(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    /** The number of times that a phase has been executed. */
+    public long getExecutions(Phase phase) {
+        return phases.get(phase).executions.sum();
+    }
+
+    /** The total wall time spent in a phase, in nanoseconds. */
+    public long getWallTime(Phase phase) {
+        return phases.get(phase).nanos.sum();
+    }
+
+    /** The total memory allocated in a phase, in bytes, or 0 if the JVM can't measure it. */
+    public long getAllocatedBytes(Phase phase) {
+        return phases.get(phase).allocated.sum();
+    }
+
+    /** Sets every phase and counter back to zero. */
+    public void reset() {
+        phases.values().forEach(PhaseRecord::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /** The number of nodes of each type in the given graph. */
+    public static Map<NodeType, Long> countNodes(Graph graph) {
+        return graph.vertexSet().stream()
+                .collect(Collectors.groupingBy(GraphNode::getNodeType, () -> new EnumMap<>(NodeType.class), Collectors.counting()));
+    }
+
+    /** The number of arcs of each class in the given graph, by their simple name. */
+    public static Map<String, Long> countArcs(Graph graph) {
+        return graph.edgeSet().stream()
+                .collect(Collectors.groupingBy(arcName(), TreeMap::new, Collectors.counting()));
+    }
+
+    protected static Function<Arc, String> arcName() {
+        return arc -> arc.getClass().getName().substring(arc.getClass().getPackageName().length() + 1);
+    }
+
+    /** A human-readable summary of these metrics and the size of the given graph. */
+    public String report(Graph graph) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-20s %10s %12s %15s%n", "Phase", "Runs", "Time (ms)", "Allocated (KB)"));
+        for (Phase phase : Phase.values())
+            builder.append(String.format("%-20s %10d %12.3f %15d%n", phase, getExecutions(phase),
+                    getWallTime(phase) / 1e6, getAllocatedBytes(phase) / 1024));
+        builder.append(String.format("%n%-30s %10s%n", "Counter", "Value"));
+        for (Counter counter : Counter.values())
+            builder.append(String.format("%-30s %10d%n", counter, get(counter)));
+        builder.append(String.format("%n%-30s %10s%n", "Node type", "Count"));
+        countNodes(graph).forEach((type, count) -> builder.append(String.format("%-30s %10d%n", type, count)));
+        builder.append(String.format("%n%-40s %10s%n", "Arc type", "Count"));
+        countArcs(graph).forEach((type, count) -> builder.append(String.format("%-40s %10d%n", type, count)));
+        return builder.toString();
+    }
+
+    protected static long currentThreadAllocatedBytes() {
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    protected static class PhaseRecord {
+        protected final LongAdder executions = new LongAdder();
+        protected final LongAdder nanos = new LongAdder();
+        protected final LongAdder allocated = new LongAdder();
+
+        protected void reset() {
+            executions.reset();
+            nanos.reset();
+            allocated.reset();
+        }
+    }
+
+    /** Measures one execution of a phase, from its creation until it is closed. */
+    public class Timer implements AutoCloseable {
+        protected final Phase phase;
+        protected final PhaseEvent event;
+        protected final long startNanos;
+        protected final long startBytes;
+
+        protected Timer(Phase phase) {
+            this.phase = phase;
+            if (phase == null) {
+                event = null;
+                startNanos = startBytes = 0;
+                return;
+            }
+            openTimers.get()[phase.ordinal()]++;
+            event = new PhaseEvent();
+            event.begin();
+            startBytes = currentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (phase == null)
+                return;
+            long nanos = System.nanoTime() - startNanos;
+            long bytes = currentThreadAllocatedBytes() - startBytes;
+            openTimers.get()[phase.ordinal()]--;
+            PhaseRecord record = phases.get(phase);
+            record.executions.increment();
+            record.nanos.add(nanos);
+            record.allocated.add(bytes);
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.allocated = bytes;
+                event.commit();
+            }
+        }
+    }
+}
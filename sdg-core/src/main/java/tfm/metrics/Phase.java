@@ -0,0 +1,21 @@
+package tfm.metrics;
+
+/** The steps of the construction of the graphs and of the slicing process that are measured. */
+public enum Phase {
+    /** Parsing of the source code. It is not performed by the graphs, but by their clients. */
+    PARSE,
+    /** Construction of the CFG of each method. */
+    CFG,
+    /** Computation of the control dependencies of each method, including conditional ones. */
+    CONTROL_DEPENDENCE,
+    /** Computation of the data dependencies of each method. */
+    DATA_DEPENDENCE,
+    /** Replacement of method calls by call, actual-in and actual-out nodes in the SDG. */
+    CALL_REPLACEMENT,
+    /** Computation of summary arcs in the SDG. */
+    SUMMARY_ARCS,
+    /** Traversal of a graph to obtain a slice. */
+    SLICE,
+    /** Conversion of a slice back to source code. */
+    TO_AST
+}
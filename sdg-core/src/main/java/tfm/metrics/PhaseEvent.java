@@ -0,0 +1,19 @@
+package tfm.metrics;
+
+import jdk.jfr.*;
+
+/** A JFR event that is emitted when a {@link Phase} ends, if JFR is recording. */
+@Name("tfm.Phase")
+@Label("Slicer Phase")
+@Category("Slicer")
+@Description("A phase of the construction of a graph or the slicing process")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Allocated")
+    @DataAmount
+    @Description("Bytes allocated by the thread that executed the phase")
+    long allocated;
+}
@@ -0,0 +1,16 @@
+package tfm.metrics;
+
+import jdk.jfr.*;
+
+/** A JFR event that is emitted after each pass of a slicing traversal, if JFR is recording. */
+@Name("tfm.SlicePass")
+@Label("Slicing Pass")
+@Category("Slicer")
+@StackTrace(false)
+class SlicePassEvent extends Event {
+    @Label("Pass")
+    int pass;
+
+    @Label("Arcs Visited")
+    long arcsVisited;
+}
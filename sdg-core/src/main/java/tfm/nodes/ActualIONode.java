@@ -21,6 +21,16 @@ public class ActualIONode extends IONode<MethodCallExpr> {
         this.argument = Objects.requireNonNull(argument);
     }
 
+    protected ActualIONode(ActualIONode original) {
+        super(original);
+        this.argument = original.argument;
+    }
+
+    @Override
+    public ActualIONode copy() {
+        return new ActualIONode(this);
+    }
+
     public Expression getArgument() {
         return argument;
     }
@@ -9,4 +9,13 @@ public class CallNode extends SyntheticNode<MethodCallExpr> {
     public CallNode(MethodCallExpr astNode) {
         super(NodeType.METHOD_CALL, "CALL " + astNode.toString(), astNode, new LinkedList<>());
     }
+
+    protected CallNode(CallNode original) {
+        super(original);
+    }
+
+    @Override
+    public CallNode copy() {
+        return new CallNode(this);
+    }
 }
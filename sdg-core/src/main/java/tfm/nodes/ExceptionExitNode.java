@@ -14,6 +14,16 @@ public class ExceptionExitNode extends ExitNode {
         this.exceptionType = Objects.requireNonNull(exceptionType);
     }
 
+    protected ExceptionExitNode(ExceptionExitNode original) {
+        super(original);
+        this.exceptionType = original.exceptionType;
+    }
+
+    @Override
+    public ExceptionExitNode copy() {
+        return new ExceptionExitNode(this);
+    }
+
     public ResolvedType getExceptionType() {
         return exceptionType;
     }
@@ -14,6 +14,16 @@ public class ExceptionReturnNode extends ReturnNode {
         this.exceptionType = Objects.requireNonNull(exceptionType);
     }
 
+    protected ExceptionReturnNode(ExceptionReturnNode original) {
+        super(original);
+        this.exceptionType = original.exceptionType;
+    }
+
+    @Override
+    public ExceptionReturnNode copy() {
+        return new ExceptionReturnNode(this);
+    }
+
     public ResolvedType getExceptionType() {
         return exceptionType;
     }
@@ -13,4 +13,13 @@ public class ExitNode extends SyntheticNode<MethodDeclaration> {
     protected ExitNode(NodeType type, String instruction, MethodDeclaration astNode) {
         super(type, instruction, astNode, new LinkedList<>());
     }
+
+    protected ExitNode(ExitNode original) {
+        super(original);
+    }
+
+    @Override
+    public ExitNode copy() {
+        return new ExitNode(this);
+    }
 }
@@ -15,6 +15,15 @@ public class FormalIONode extends IONode<MethodDeclaration> {
             throw new IllegalArgumentException("Illegal type for formal-in/out node");
     }
 
+    protected FormalIONode(FormalIONode original) {
+        super(original);
+    }
+
+    @Override
+    public FormalIONode copy() {
+        return new FormalIONode(this);
+    }
+
     protected static String createLabel(NodeType type, Parameter param) {
         switch (type) {
             case FORMAL_IN:
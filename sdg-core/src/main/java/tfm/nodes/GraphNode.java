@@ -54,6 +54,21 @@ public class GraphNode<N extends Node> implements Comparable<GraphNode<?>> {
         this.variableActions = variableActions;
     }
 
+    /** Copies the given node, with the same id and a copy of each of its variable actions. */
+    protected GraphNode(GraphNode<N> original) {
+        this(original.id, original.nodeType, original.instruction, original.astNode, new LinkedList<>());
+        for (VariableAction action : original.variableActions)
+            variableActions.add(action.copyTo(this));
+    }
+
+    /**
+     * Creates a copy of this node whose variable actions can be modified without affecting this
+     * one. The copy is equal to this node. Subclasses must return an instance of their own class.
+     */
+    public GraphNode<N> copy() {
+        return new GraphNode<>(this);
+    }
+
     protected void extractVariables() {
         new VariableVisitor().startVisit(this);
     }
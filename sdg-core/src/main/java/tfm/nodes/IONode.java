@@ -16,6 +16,11 @@ public abstract class IONode<T extends Node> extends SyntheticNode<T> {
         this.parameter = Objects.requireNonNull(parameter);
     }
 
+    protected IONode(IONode<T> original) {
+        super(original);
+        this.parameter = original.parameter;
+    }
+
     public String getParameterName() {
         return parameter.getNameAsString();
     }
@@ -7,4 +7,13 @@ public class NormalExitNode extends ExitNode {
     public NormalExitNode(MethodDeclaration astNode) {
         super(NodeType.METHOD_NORMAL_EXIT, "normal exit", astNode);
     }
+
+    protected NormalExitNode(NormalExitNode original) {
+        super(original);
+    }
+
+    @Override
+    public NormalExitNode copy() {
+        return new NormalExitNode(this);
+    }
 }
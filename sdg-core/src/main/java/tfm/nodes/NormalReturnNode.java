@@ -7,4 +7,13 @@ public class NormalReturnNode extends ReturnNode {
     public NormalReturnNode(MethodCallExpr astNode) {
         super(NodeType.METHOD_CALL_NORMAL_RETURN, "normal return", astNode);
     }
+
+    protected NormalReturnNode(NormalReturnNode original) {
+        super(original);
+    }
+
+    @Override
+    public NormalReturnNode copy() {
+        return new NormalReturnNode(this);
+    }
 }
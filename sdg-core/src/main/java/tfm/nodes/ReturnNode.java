@@ -9,4 +9,8 @@ public abstract class ReturnNode extends SyntheticNode<MethodCallExpr> {
     protected ReturnNode(NodeType type, String instruction, MethodCallExpr astNode) {
         super(type, instruction, astNode, new LinkedList<>());
     }
+
+    protected ReturnNode(ReturnNode original) {
+        super(original);
+    }
 }
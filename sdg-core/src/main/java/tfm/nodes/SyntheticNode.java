@@ -13,4 +13,8 @@ public abstract class SyntheticNode<T extends Node> extends GraphNode<T> {
     protected SyntheticNode(NodeType type, String instruction, T astNode, List<VariableAction> variableActions) {
         super(type, instruction, astNode, variableActions);
     }
+
+    protected SyntheticNode(SyntheticNode<T> original) {
+        super(original);
+    }
 }
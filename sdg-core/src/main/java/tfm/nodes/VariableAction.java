@@ -21,19 +21,37 @@ public abstract class VariableAction {
 
     public VariableAction moveTo(GraphNode<?> destination) {
         getGraphNode().variableActions.remove(this);
+        VariableAction a = createIn(destination);
+        destination.variableActions.add(a);
+        return a;
+    }
+
+    /** Creates an action of the same kind upon the same variable in another node, without adding it to the node. */
+    protected VariableAction createIn(GraphNode<?> destination) {
         try {
-            VariableAction a = getClass().getConstructor(NameExpr.class, GraphNode.class).newInstance(variable, destination);
-            destination.variableActions.add(a);
-            return a;
+            return getClass().getConstructor(NameExpr.class, GraphNode.class).newInstance(variable, destination);
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             throw new UnsupportedOperationException("The VariableAction constructor has changed!", e);
         }
     }
 
+    /** Creates a copy of this action in a copy of its node, without adding it to the copy.
+     *  @see GraphNode#copy() */
+    protected VariableAction copyTo(GraphNode<?> copy) {
+        VariableAction a = createIn(copy);
+        a.optional = optional;
+        return a;
+    }
+
     public String getVariable() {
         return variable.getNameAsString();
     }
 
+    /** The occurrence of the variable in the AST, which is shared by the actions moved to other nodes. */
+    public NameExpr getNameExpr() {
+        return variable;
+    }
+
     public boolean isOptional() {
         return optional;
     }
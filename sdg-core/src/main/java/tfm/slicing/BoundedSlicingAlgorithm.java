@@ -0,0 +1,127 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.*;
+
+/**
+ * Obtains the part of a slice that is near the slicing criterion: the nodes reached by the two passes of
+ * a {@link FrozenClassicSlicingAlgorithm} (backward or {@link FrozenForwardSlicingAlgorithm forward})
+ * through at most a number of arcs, and at most a number of interprocedural arcs (calls entered or left).
+ * The switch from the first to the second pass doesn't count as an arc.
+ * <br/>
+ * The passes are traversed in breadth-first order, as a graph of states where each node appears once per
+ * pass, so the distance of each node is the length of its shortest path from the criterion. If the
+ * number of interprocedural arcs is limited, a state is traversed again if it is reached through fewer
+ * of them, at most once per call level. Otherwise, each state is traversed once.
+ * <br/>
+ * Only the states reached are stored, in hash tables, so the time and memory needed are proportional to
+ * the arcs of the nodes reached (times the call levels, if the interprocedural arcs are limited), and not
+ * to the size of the graph. The instance has no state of its own, so it may be used by several threads at once.
+ */
+public class BoundedSlicingAlgorithm implements SlicingAlgorithm {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    protected final FrozenClassicSlicingAlgorithm algorithm;
+    protected final FrozenSDG graph;
+    protected final int maxDistance;
+    protected final int maxCallDepth;
+
+    /**
+     * @param algorithm    Defines the direction of the traversal and the arcs ignored in each pass.
+     * @param maxDistance  The maximum number of arcs between the criterion and a node, or {@link #UNBOUNDED}.
+     * @param maxCallDepth The maximum number of interprocedural arcs between the criterion and a node,
+     *                     or {@link #UNBOUNDED}.
+     */
+    public BoundedSlicingAlgorithm(FrozenClassicSlicingAlgorithm algorithm, int maxDistance, int maxCallDepth) {
+        if (maxDistance < 0 || maxCallDepth < 0)
+            throw new IllegalArgumentException("The limits of the slice can't be negative");
+        this.algorithm = Objects.requireNonNull(algorithm);
+        this.graph = algorithm.graph;
+        this.maxDistance = maxDistance;
+        this.maxCallDepth = maxCallDepth;
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        MutableSlice slice = new MutableSlice(graph.getMetrics());
+        for (GraphNode<?> node : distances(slicingCriterion).keySet())
+            slice.add(node);
+        return slice;
+    }
+
+    /** The nodes of the bounded slice and their distance to the criterion, from the nearest to the farthest. */
+    public Map<GraphNode<?>, Integer> distances(GraphNode<?> slicingCriterion) {
+        int criterion = graph.indexOf(slicingCriterion);
+        if (criterion < 0)
+            throw new IllegalArgumentException("The slicing criterion is not part of the graph");
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            return search(criterion);
+        }
+    }
+
+    /** Performs a 0-1 breadth-first search from the first-pass state of the criterion. The state of
+     *  node n in pass p is 2n + p - 1, and each entry of the queue is a state, its distance and its calls. */
+    protected Map<GraphNode<?>, Integer> search(int criterion) {
+        Map<GraphNode<?>, Integer> distances = new LinkedHashMap<>();
+        Map<Integer, Integer> fewestCalls = new HashMap<>();
+        Deque<int[]> queue = new ArrayDeque<>();
+        fewestCalls.put(criterion * 2, 0);
+        queue.add(new int[]{ criterion * 2, 0, 0 });
+        long statesVisited = 0;
+        while (!queue.isEmpty()) {
+            int[] entry = queue.poll();
+            int state = entry[0], distance = entry[1], calls = entry[2];
+            int node = state >> 1, pass = (state & 1) + 1;
+            distances.putIfAbsent(graph.getNode(node), distance);
+            if (fewestCalls.get(state) < calls)
+                continue; // Reached again with fewer calls
+            if (++statesVisited % PROGRESS_INTERVAL == 0)
+                algorithm.monitor.progress(TaskMonitor.Step.SLICE, distances.size(), -1);
+            if (pass == 1 && reach(fewestCalls, state + 1, calls))
+                queue.addFirst(new int[]{ state + 1, distance, calls });
+            if (distance == maxDistance)
+                continue;
+            int ignoredFlags = algorithm.ignoredFlags(pass);
+            int degree = algorithm.degree(node);
+            for (int i = 0; i < degree; i++) {
+                int arc = algorithm.arc(node, i);
+                if (graph.hasFlag(arc, ignoredFlags))
+                    continue;
+                int nextCalls = graph.hasFlag(arc, FrozenSDG.INTERPROCEDURAL_INPUT | FrozenSDG.INTERPROCEDURAL_OUTPUT)
+                        ? calls + 1 : calls;
+                if (nextCalls > maxCallDepth)
+                    continue;
+                int next = algorithm.next(arc) * 2 + pass - 1;
+                if (reach(fewestCalls, next, nextCalls))
+                    queue.addLast(new int[]{ next, distance + 1, nextCalls });
+            }
+        }
+        return distances;
+    }
+
+    /** Records that a state has been reached. @return Whether it hadn't been reached, or, if the call depth
+     *  is limited, whether it hadn't been reached with as few calls. */
+    protected boolean reach(Map<Integer, Integer> fewestCalls, int state, int calls) {
+        Integer previous = fewestCalls.get(state);
+        if (previous != null && (maxCallDepth == UNBOUNDED || previous <= calls))
+            return false;
+        fewestCalls.put(state, calls);
+        return true;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public int getMaxCallDepth() {
+        return maxCallDepth;
+    }
+}
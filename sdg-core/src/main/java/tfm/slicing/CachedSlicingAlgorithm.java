@@ -0,0 +1,115 @@
+package tfm.slicing;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The {@link ClassicSlicingAlgorithm two-pass backward slicing algorithm}, which reuses and stores
+ * the slices of a {@link SliceCache}.
+ * <br/>
+ * If the criterion has been sliced before, its slice is obtained from the cache. Otherwise, the
+ * first pass stops at every node whose slice is cached, and adds that slice instead. Any node
+ * reached in the first pass has a slice contained in the slice of the criterion, but that isn't the
+ * case for nodes reached only in the second pass, which may reach calls that the criterion
+ * doesn't, so their slices are not reused. The nodes of the cached slices are not traversed in the
+ * second pass either, as every node they reach is already part of those slices. If it is given
+ * {@link MethodSummaries summaries}, the second pass adds the summary of each method output it
+ * reaches, as the {@link ClassicSlicingAlgorithm} does.
+ */
+public class CachedSlicingAlgorithm extends ClassicSlicingAlgorithm {
+    protected final SliceCache cache;
+
+    public CachedSlicingAlgorithm(Graph graph, SliceCache cache) {
+        this(graph, graph.getMonitor(), cache);
+    }
+
+    /** @param monitor Controls the slices computed by this instance, instead of the monitor of the graph. */
+    public CachedSlicingAlgorithm(Graph graph, TaskMonitor monitor, SliceCache cache) {
+        this(graph, monitor, cache, null);
+    }
+
+    /** @param summaries The summaries added by the second pass, which must be summaries of the same graph, or null. */
+    public CachedSlicingAlgorithm(Graph graph, TaskMonitor monitor, SliceCache cache, MethodSummaries summaries) {
+        super(graph, monitor, summaries);
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        Metrics metrics = graph.getMetrics();
+        Optional<Set<GraphNode<?>>> cached = cache.get(slicingCriterion, SliceCache.Algorithm.CLASSIC);
+        if (cached.isPresent()) {
+            metrics.increment(Counter.SLICES);
+            metrics.increment(Counter.SLICE_CACHE_HITS);
+            return SliceCache.toSlice(cached.get(), metrics);
+        }
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            Set<GraphNode<?>> reused = new HashSet<>();
+            Set<GraphNode<?>> firstPass = new HashSet<>();
+            metrics.recordSlicePass(1, pass(Set.of(slicingCriterion), firstPass, this::ignorePass1, reused, true));
+            Set<GraphNode<?>> secondPass = new HashSet<>();
+            firstPass.removeAll(reused);
+            metrics.recordSlicePass(2, pass(firstPass, secondPass, this::ignorePass2, reused, false));
+            if (!reused.isEmpty())
+                metrics.increment(Counter.SLICE_CACHE_HITS);
+            secondPass.addAll(reused);
+            cache.put(slicingCriterion, SliceCache.Algorithm.CLASSIC, secondPass);
+            return SliceCache.toSlice(secondPass, metrics);
+        }
+    }
+
+    /**
+     * Performs a traversal from the given nodes, adding the nodes reached to {@code visited}.
+     * @param reuse Whether this is the first pass. If so, it stops at the nodes whose slice is cached (other
+     *              than the starting nodes), adding their slices to {@code reused}. Otherwise, the nodes in
+     *              {@code reused} are not traversed, and the summaries of the method outputs reached are added.
+     * @return The number of arcs visited.
+     */
+    protected long pass(Set<GraphNode<?>> start, Set<GraphNode<?>> visited, Predicate<Arc> ignoreCondition,
+                        Set<GraphNode<?>> reused, boolean reuse) {
+        Deque<GraphNode<?>> toVisit = new ArrayDeque<>(start);
+        visited.addAll(start);
+        long arcsVisited = 0;
+        while (!toVisit.isEmpty()) {
+            GraphNode<?> node = toVisit.pop();
+            if (visited.size() % PROGRESS_INTERVAL == 0)
+                SlicingAlgorithm.reportProgress(monitor, reuse ? 1 : 2, visited.size(), graph.vertexSet().size());
+            // Reused slices contain the second-pass traversal of their nodes, but not the first-pass one
+            if (!reuse && reused.contains(node))
+                continue;
+            if (!reuse && summaries != null && summaries.isOutput(node)) {
+                MethodSummaries.Summary summary = summaries.get(node);
+                visited.addAll(summary.getNodes());
+                for (GraphNode<?> exit : summary.getExits())
+                    if (visited.add(exit))
+                        toVisit.push(exit);
+                continue;
+            }
+            if (reuse && !start.contains(node)) {
+                Set<GraphNode<?>> slice = cache.peek(node, SliceCache.Algorithm.CLASSIC);
+                if (slice != null) {
+                    reused.addAll(slice);
+                    continue;
+                }
+            }
+            for (Arc arc : arcsToTraverse(node)) {
+                arcsVisited++;
+                if (ignoreCondition.test(arc))
+                    continue;
+                GraphNode<?> next = nextNode(arc);
+                if (visited.add(next))
+                    toVisit.push(next);
+            }
+        }
+        return arcsVisited;
+    }
+}
@@ -1,61 +1,96 @@
 package tfm.slicing;
 
+import com.github.javaparser.ast.expr.NameExpr;
 import tfm.arcs.Arc;
 import tfm.graphs.Graph;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.GraphNode;
-import tfm.utils.Utils;
+import tfm.nodes.VariableAction;
+import tfm.utils.TaskMonitor;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.function.Predicate;
-
-public class ClassicSlicingAlgorithm implements SlicingAlgorithm {
-    protected final Graph graph;
+import java.util.*;
 
+/** The two-pass backward slicing algorithm, which can also start from some of the variables of the criterion. */
+public class ClassicSlicingAlgorithm extends TwoPassSlicingAlgorithm implements VariableSlicingAlgorithm {
     public ClassicSlicingAlgorithm(Graph graph) {
-        this.graph = graph;
+        super(graph);
+    }
+
+    /** @param monitor Controls the slices computed by this instance, instead of the monitor of the graph. */
+    public ClassicSlicingAlgorithm(Graph graph, TaskMonitor monitor) {
+        super(graph, monitor);
     }
 
+    /**
+     * @param summaries When the second pass reaches the output of a method, the nodes of its summary are
+     *                  added at once, instead of traversing them. They must be summaries of the same graph.
+     *                  Subclasses that change {@link #ignorePass2(Arc)} must not use them.
+     */
+    public ClassicSlicingAlgorithm(Graph graph, TaskMonitor monitor, MethodSummaries summaries) {
+        super(graph, monitor, summaries);
+    }
+
+    /**
+     * Slices from some of the variables of a statement, instead of the whole statement. The traversal
+     * starts from the control dependencies of the statement, the definitions that reach the selected
+     * usages, and the nodes of the selected variables that are only defined. The data dependencies of
+     * the other variables are not traversed, unless they are reached from those nodes.
+     * The slice always contains the criterion.
+     * @param variables Actions of the variables of the criterion, or of its synthetic nodes (e.g. its actual-in nodes).
+     * @see FileLineVariableCriterion
+     */
     @Override
-    public Slice traverse(GraphNode<?> slicingCriterion) {
-        Slice slice = new Slice();
-        slice.add(slicingCriterion);
-        pass(slice, this::ignorePass1);
-        pass(slice, this::ignorePass2);
-        return slice;
+    public Slice traverse(GraphNode<?> slicingCriterion, Collection<VariableAction> variables) {
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            MutableSlice slice = new MutableSlice(metrics);
+            Set<NameExpr> used = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (VariableAction action : variables)
+                if (action.isUsage())
+                    used.add(action.getNameExpr());
+            Set<GraphNode<?>> start = new HashSet<>();
+            for (VariableAction action : variables) {
+                if (!used.contains(action.getNameExpr()))
+                    start.add(action.getGraphNode());
+                else if (action.isUsage())
+                    for (Arc arc : arcsToTraverse(action.getGraphNode()))
+                        if (arc.isDataDependencyArc() && arc.asDataDependencyArc().getTarget() == action && !ignorePass1(arc))
+                            start.add(nextNode(arc));
+            }
+            for (Arc arc : arcsToTraverse(slicingCriterion))
+                if (!arc.isDataDependencyArc() && !ignorePass1(arc))
+                    start.add(nextNode(arc));
+            start.forEach(slice::add);
+            metrics.recordSlicePass(1, pass(slice, 1));
+            metrics.recordSlicePass(2, pass(slice, 2, summaries));
+            if (!slice.contains(slicingCriterion))
+                slice.add(slicingCriterion);
+            return slice;
+        }
     }
 
+    @Override
     protected boolean ignorePass1(Arc arc) {
         return arc.isInterproceduralOutputArc();
     }
 
+    @Override
     protected boolean ignorePass2(Arc arc) {
         return arc.isInterproceduralInputArc();
     }
 
-    protected void pass(Slice slice, Predicate<Arc> ignoreCondition) {
-        // `toVisit` behaves like a set and using iterable we can use it as a queue
-        // More info: https://stackoverflow.com/a/2319126
-        LinkedHashSet<GraphNode<?>> toVisit = new LinkedHashSet<>(slice.getGraphNodes());
-        Set<GraphNode<?>> visited = new HashSet<>();
-
-        while (!toVisit.isEmpty()) {
-            GraphNode<?> node = Utils.setPop(toVisit);
-            // Avoid duplicate traversal
-            if (visited.contains(node))
-                continue;
-            visited.add(node);
-            // Traverse all edges backwards
-            for (Arc arc : graph.incomingEdgesOf(node)) {
-                if (ignoreCondition.test(arc))
-                    continue;
-                GraphNode<?> source = graph.getEdgeSource(arc);
-                if (!visited.contains(source))
-                    toVisit.add(source);
-            }
-        }
+    /** The arcs that may be traversed from a node reached: its incoming arcs. */
+    @Override
+    protected Set<Arc> arcsToTraverse(GraphNode<?> node) {
+        return graph.incomingEdgesOf(node);
+    }
 
-        visited.forEach(slice::add);
+    /** The source of the arc, as the traversal goes backwards. */
+    @Override
+    protected GraphNode<?> nextNode(Arc arc) {
+        return graph.getEdgeSource(arc);
     }
 }
@@ -0,0 +1,177 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Computes the same slices as the {@link FrozenClassicSlicingAlgorithm}, traversing the
+ * {@link TwoPassCondensation condensation} of its two passes instead of the graph. All the criteria
+ * in a component share the same slice, which is computed once and cached, and the traversal of a new
+ * component stops at every component whose slice is cached, adding its nodes instead.
+ * <br/>
+ * The batch method {@link #traverse(Collection)} computes the components of its criteria in reverse
+ * topological order, so that the slice of each component reuses the slices of the components it
+ * reaches. Only {@link #getCacheLimit() a limited number} of slices are kept between calls.
+ * <br/>
+ * The cache is thread-safe, so a single instance may be used by several threads at once. In an
+ * exception-sensitive snapshot, the slices still correspond to the classic algorithm.
+ */
+public class CondensedSlicingAlgorithm implements SlicingAlgorithm {
+    public static final int DEFAULT_CACHE_LIMIT = 1 << 10;
+
+    protected final TwoPassCondensation condensation;
+    protected final FrozenSDG graph;
+    protected final TaskMonitor monitor;
+    protected final int cacheLimit;
+    /** The nodes in the slice of each component, by component. The sets are never modified once cached. */
+    protected final Map<Integer, BitSet> cache = new ConcurrentHashMap<>();
+
+    public CondensedSlicingAlgorithm(FrozenSDG graph) {
+        this(new TwoPassCondensation(graph), TaskMonitor.NONE, DEFAULT_CACHE_LIMIT);
+    }
+
+    /**
+     * @param monitor    Controls every slice computed by this instance.
+     * @param cacheLimit The maximum number of slices kept between calls. Each one uses up to
+     *                   {@code N / 8} bytes, where {@code N} is the number of nodes.
+     */
+    public CondensedSlicingAlgorithm(TwoPassCondensation condensation, TaskMonitor monitor, int cacheLimit) {
+        if (cacheLimit < 0)
+            throw new IllegalArgumentException("The size of the cache can't be negative");
+        this.condensation = Objects.requireNonNull(condensation);
+        this.graph = condensation.getGraph();
+        this.monitor = Objects.requireNonNull(monitor);
+        this.cacheLimit = cacheLimit;
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        int component = condensation.criterionComponent(indexOf(slicingCriterion));
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            BitSet slice = cache.get(component);
+            if (slice != null) {
+                metrics.increment(Counter.SLICE_CACHE_HITS);
+            } else {
+                slice = traverse(component, cache::get);
+                store(component, slice);
+            }
+            return graph.toSlice(slice);
+        }
+    }
+
+    /**
+     * Computes the slice of each criterion, sharing the results between criteria of the same component
+     * and between components that reach each other.
+     * @return The slice of each criterion, in the order of iteration of the collection.
+     */
+    public List<Slice> traverse(Collection<? extends GraphNode<?>> slicingCriteria) {
+        int[] components = new int[slicingCriteria.size()];
+        int i = 0;
+        for (GraphNode<?> slicingCriterion : slicingCriteria)
+            components[i++] = condensation.criterionComponent(indexOf(slicingCriterion));
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            // Lower components can't reach higher ones, so they are computed first
+            int[] sorted = Arrays.stream(components).distinct().sorted().toArray();
+            Map<Integer, BitSet> batch = new HashMap<>();
+            for (int component : sorted) {
+                BitSet slice = cache.get(component);
+                if (slice == null) {
+                    slice = traverse(component, c -> {
+                        BitSet cached = cache.get(c);
+                        return cached != null ? cached : batch.get(c);
+                    });
+                    store(component, slice);
+                }
+                batch.put(component, slice);
+            }
+            List<Slice> slices = new ArrayList<>(components.length);
+            for (int component : components)
+                slices.add(graph.toSlice(batch.get(component)));
+            metrics.add(Counter.SLICES, components.length);
+            metrics.add(Counter.SLICE_CACHE_HITS, components.length - sorted.length);
+            return slices;
+        }
+    }
+
+    protected int indexOf(GraphNode<?> slicingCriterion) {
+        int criterion = graph.indexOf(slicingCriterion);
+        if (criterion < 0)
+            throw new IllegalArgumentException("The slicing criterion is not part of the graph");
+        return criterion;
+    }
+
+    /**
+     * Collects the nodes whose second-pass state is reachable from a component.
+     * @param known The slice of a component, or null if it hasn't been computed. The search
+     *              doesn't continue past a component whose slice is known.
+     */
+    protected BitSet traverse(int component, IntFunction<BitSet> known) {
+        BitSet slice = new BitSet(graph.getNodeCount());
+        BitSet visited = new BitSet(component + 1);
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = component;
+        visited.set(component);
+        long componentsVisited = 0;
+        while (size > 0) {
+            int current = stack[--size];
+            if (++componentsVisited % PROGRESS_INTERVAL == 0)
+                monitor.progress(TaskMonitor.Step.SLICE, componentsVisited, condensation.getComponentCount());
+            BitSet knownSlice = current == component ? null : known.apply(current);
+            if (knownSlice != null) {
+                slice.or(knownSlice);
+                continue;
+            }
+            for (int m = 0; m < condensation.getMemberCount(current); m++) {
+                int state = condensation.getMember(current, m);
+                if ((state & 1) == 1)
+                    slice.set(state >> 1);
+            }
+            for (int s = 0; s < condensation.getOutDegree(current); s++) {
+                int next = condensation.getSuccessor(current, s);
+                if (visited.get(next))
+                    continue;
+                visited.set(next);
+                if (size == stack.length)
+                    stack = Arrays.copyOf(stack, size * 2);
+                stack[size++] = next;
+            }
+        }
+        return slice;
+    }
+
+    /** Caches the slice of a component, unless the cache is full. */
+    protected void store(int component, BitSet slice) {
+        if (cache.size() < cacheLimit)
+            cache.putIfAbsent(component, slice);
+    }
+
+    /** Discards every cached slice. */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public int getCacheLimit() {
+        return cacheLimit;
+    }
+
+    /** The number of components whose slice is currently cached. */
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    public TwoPassCondensation getCondensation() {
+        return condensation;
+    }
+}
@@ -4,8 +4,13 @@ import tfm.arcs.Arc;
 import tfm.arcs.pdg.ConditionalControlDependencyArc.CC1;
 import tfm.arcs.pdg.ConditionalControlDependencyArc.CC2;
 import tfm.arcs.pdg.ControlDependencyArc;
+import tfm.graphs.Graph;
 import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
 import tfm.utils.Utils;
 
 import java.util.*;
@@ -15,13 +20,18 @@ import java.util.stream.Stream;
 
 // It doesn't inherit from PPSlicingAlgorithm because it's more difficult that way,
 // plus the PPDG is inherently wrong (see SAS2020 paper on exceptions).
+// Each instance keeps the state of a single traversal: use a new one for each slice, or
+// FrozenExceptionSensitiveSlicingAlgorithm to slice concurrently.
 public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
     /** Return values for handlers. A node can either be skipped, traversed or not handled.
      * In the second case, the handler is responsible of modifying the state of the algorithm.
      * In the last case, the following handler is called. */
     protected static final int SKIPPED = 0, TRAVERSED = 1, NOT_HANDLED = 2;
 
-    protected final ESSDG graph;
+    protected final Graph graph;
+    /** Whether a node is a pseudo-predicate of the graph. */
+    protected final Predicate<GraphNode<?>> pseudoPredicate;
+    protected final TaskMonitor monitor;
     protected GraphNode<?> slicingCriterion;
 
     /** Nodes that already in the slice and whose arcs have all been traversed. */
@@ -32,8 +42,10 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
     /** Arcs that have already been traversed. No arc must be traversed twice. */
     protected final Set<Arc> traversedArcs = new HashSet<>();
     /** Nodes that have been reached via an unconditional arc.
-     * The next step is to traverse their arcs and move them to 'visited' */
-    protected final Set<GraphNode<?>> reached = new HashSet<>();
+     * The next step is to traverse their arcs and move them to 'visited'.
+     * The slice depends on the order in which they are visited, which is FIFO so that
+     * {@link FrozenExceptionSensitiveSlicingAlgorithm} can reproduce it. */
+    protected final Set<GraphNode<?>> reached = new LinkedHashSet<>();
     /** Current SDG check (it changes depending on the pass). */
     protected Predicate<Arc> sdgSkipCheck;
 
@@ -51,23 +63,40 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
     );
 
     public ExceptionSensitiveSlicingAlgorithm(ESSDG graph) {
+        this(graph, graph.getMonitor());
+    }
+
+    /** @param monitor Controls the slice computed by this instance, instead of the monitor of the graph. */
+    public ExceptionSensitiveSlicingAlgorithm(ESSDG graph, TaskMonitor monitor) {
+        this(graph, graph::isPseudoPredicate, monitor);
+    }
+
+    /** Slices any graph with conditional control dependence arcs, such as an
+     *  {@link tfm.graphs.exceptionsensitive.ESPDG ESPDG}, given its pseudo-predicates. */
+    public ExceptionSensitiveSlicingAlgorithm(Graph graph, Predicate<GraphNode<?>> pseudoPredicate, TaskMonitor monitor) {
         this.graph = Objects.requireNonNull(graph);
+        this.pseudoPredicate = Objects.requireNonNull(pseudoPredicate);
+        this.monitor = Objects.requireNonNull(monitor);
     }
 
     @Override
     public Slice traverse(GraphNode<?> slicingCriterion) {
-        this.slicingCriterion = slicingCriterion;
-        reached.add(slicingCriterion);
-        sdgSkipCheck = Arc::isInterproceduralOutputArc;
-        pass();
-        reached.addAll(partlyVisited.keySet());
-        sdgSkipCheck = Arc::isInterproceduralInputArc;
-        pass();
-        return createSlice();
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            this.slicingCriterion = slicingCriterion;
+            reached.add(slicingCriterion);
+            sdgSkipCheck = Arc::isInterproceduralOutputArc;
+            metrics.recordSlicePass(1, pass(1));
+            reached.addAll(partlyVisited.keySet());
+            sdgSkipCheck = Arc::isInterproceduralInputArc;
+            metrics.recordSlicePass(2, pass(2));
+            return createSlice();
+        }
     }
 
     protected Slice createSlice() {
-        Slice slice = new Slice();
+        MutableSlice slice = new MutableSlice(graph.getMetrics());
         // Removes nodes that have only been visited by one kind of conditional control dependence
         Predicate<GraphNode<?>> pred = n -> slicingCriterion.equals(n) ||
                 (!hasOnlyBeenReachedBy(n, CC1.class) && !hasOnlyBeenReachedBy(n, CC2.class));
@@ -76,9 +105,15 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
         return slice;
     }
 
-    protected void pass() {
+    /** Performs a pass (1 or 2) of the traversal, skipping the arcs in {@link #sdgSkipCheck}.
+     *  @return The number of arcs visited. */
+    protected long pass(int pass) {
+        long arcsVisited = 0;
+        long nodesVisited = 0;
         while (!reached.isEmpty()) {
             GraphNode<?> node = Utils.setPop(reached);
+            if (++nodesVisited % PROGRESS_INTERVAL == 0)
+                SlicingAlgorithm.reportProgress(monitor, pass, nodesVisited, graph.vertexSet().size());
             // Avoid duplicate traversal
             if (visited.contains(node))
                 continue;
@@ -86,6 +121,7 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
             Set<Arc> incoming = graph.incomingEdgesOf(node);
             int remaining = partlyVisited.getOrDefault(node, incoming.size());
             arcLoop: for (Arc arc : incoming) {
+                arcsVisited++;
                 for (Function<Arc, Integer> handler : HANDLERS)
                     switch (handler.apply(arc)) {
                         case TRAVERSED:   // the arc has been traversed, count down and stop applying handlers
@@ -106,6 +142,7 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
                 partlyVisited.put(node, remaining);
             }
         }
+        return arcsVisited;
     }
 
     protected int handleDefault(Arc arc) {
@@ -123,7 +160,7 @@ public class ExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
     protected int ppdgSkipCheck(Arc arc) {
         GraphNode<?> node = graph.getEdgeTarget(arc);
         return !node.equals(slicingCriterion)
-                && graph.isPseudoPredicate(node)
+                && pseudoPredicate.test(node)
                 && hasOnlyBeenReachedBy(node, ControlDependencyArc.class)
                 && arc.isUnconditionalControlDependencyArc()
                 ? SKIPPED : NOT_HANDLED;
@@ -1,8 +1,10 @@
 package tfm.slicing;
 
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.stmt.Statement;
+import tfm.graphs.pdg.PDG;
+import tfm.graphs.sdg.FrozenSDG;
 import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
 
@@ -19,20 +21,40 @@ public class FileLineSlicingCriterion extends LineNumberCriterion {
 
     @Override
     public Optional<GraphNode<?>> findNode(SDG graph) {
-        Optional<CompilationUnit> optCu = findCompilationUnit(graph.getCompilationUnits());
-        if (optCu.isEmpty())
+        return graph.getLineIndex().find(file, lineNumber);
+    }
+
+    @Override
+    public Optional<GraphNode<?>> findNode(FrozenSDG graph) {
+        return graph.getLineIndex().find(file, lineNumber);
+    }
+
+    @Override
+    public Optional<GraphNode<?>> findNode(PDG graph) {
+        Optional<MethodDeclaration> optMethod = graph.getRootNode().map(GraphNode::getAstNode);
+        if (optMethod.isEmpty() || !optMethod.get().findCompilationUnit().map(this::isInFile).orElse(false))
             return Optional.empty();
-        return optCu.get().findFirst(Statement.class, this::matchesLine).flatMap(graph::findNodeByASTNode);
+        return optMethod.get().findFirst(Statement.class, this::matchesLine).flatMap(graph::findNodeByASTNode);
+    }
+
+    /** The innermost method with a body that contains the line of this criterion, whose PDG
+     *  is enough to compute the intraprocedural slice. The unit must be the file of this criterion. */
+    public Optional<MethodDeclaration> findMethod(CompilationUnit cu) {
+        MethodDeclaration method = null;
+        for (MethodDeclaration m : cu.findAll(MethodDeclaration.class, m -> m.getBody().isPresent() && containsLine(m)))
+            method = m; // Nested methods are found after their enclosing ones
+        return Optional.ofNullable(method);
+    }
+
+    protected boolean containsLine(MethodDeclaration method) {
+        return method.getBegin().isPresent() && method.getEnd().isPresent()
+                && method.getBegin().get().line <= lineNumber && lineNumber <= method.getEnd().get().line;
     }
 
-    protected Optional<CompilationUnit> findCompilationUnit(NodeList<CompilationUnit> cus) {
-        for (CompilationUnit cu : cus) {
-            Optional<CompilationUnit.Storage> optStorage = cu.getStorage();
-            if (optStorage.isPresent() && optStorage.get().getFileName().equals(file.getName())
-                    && optStorage.get().getDirectory().toAbsolutePath().equals(file.getParentFile().toPath().toAbsolutePath()))
-                return Optional.of(cu);
-        }
-        return Optional.empty();
+    protected boolean isInFile(CompilationUnit cu) {
+        Optional<CompilationUnit.Storage> optStorage = cu.getStorage();
+        return optStorage.isPresent() && optStorage.get().getPath().toAbsolutePath().normalize()
+                .equals(file.toPath().toAbsolutePath().normalize());
     }
 
     @Override
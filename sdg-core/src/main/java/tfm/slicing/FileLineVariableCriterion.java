@@ -0,0 +1,100 @@
+package tfm.slicing;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.ast.expr.NameExpr;
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.nodes.VariableAction;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * A statement of a file, and some of the variables that appear in it. Each variable is selected by its
+ * name and occurrence number: the n-th time that the name appears in the statement, from left to right.
+ * Without variables, it selects the whole statement, like a {@link FileLineSlicingCriterion}.
+ * <br/>
+ * The occurrences are found among the {@link VariableAction variable actions} of the node of the
+ * statement, and of the synthetic nodes that represent its calls in an SDG (e.g. actual-in nodes),
+ * which can be sliced with {@link VariableSlicingAlgorithm#traverse(GraphNode, Collection)}.
+ */
+public class FileLineVariableCriterion extends FileLineSlicingCriterion {
+    protected final List<String> variables;
+    protected final List<Integer> occurrences;
+
+    /** @param occurrences The occurrence number of each variable, starting at 1. */
+    public FileLineVariableCriterion(File file, int lineNumber, List<String> variables, List<Integer> occurrences) {
+        super(file, lineNumber);
+        if (variables.size() != occurrences.size())
+            throw new IllegalArgumentException("Each variable must have an occurrence number");
+        if (occurrences.stream().anyMatch(n -> n < 1))
+            throw new IllegalArgumentException("The occurrence numbers must be positive");
+        this.variables = List.copyOf(variables);
+        this.occurrences = List.copyOf(occurrences);
+        this.variable = String.join(",", variables);
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public List<Integer> getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * The actions of the selected variables, given the node found by this criterion.
+     * @throws IllegalArgumentException If a variable doesn't appear enough times in the statement.
+     */
+    public List<VariableAction> findVariableActions(Graph graph, GraphNode<?> node) {
+        List<List<VariableAction>> statementOccurrences = findOccurrences(graph, node);
+        List<VariableAction> selected = new LinkedList<>();
+        for (int i = 0; i < variables.size(); i++) {
+            int remaining = occurrences.get(i);
+            for (List<VariableAction> occurrence : statementOccurrences) {
+                if (occurrence.get(0).getVariable().equals(variables.get(i)) && --remaining == 0) {
+                    selected.addAll(occurrence);
+                    break;
+                }
+            }
+            if (remaining > 0)
+                throw new IllegalArgumentException("Occurrence " + occurrences.get(i) + " of variable "
+                        + variables.get(i) + " not found in line " + lineNumber);
+        }
+        return selected;
+    }
+
+    /** The actions of the statement, grouped by the occurrence of the variable they refer to,
+     *  and sorted by their position. Synthetic variables, without a position, are skipped. */
+    protected List<List<VariableAction>> findOccurrences(Graph graph, GraphNode<?> node) {
+        Map<NameExpr, List<VariableAction>> byName = new IdentityHashMap<>();
+        Deque<GraphNode<?>> toVisit = new ArrayDeque<>();
+        Set<GraphNode<?>> visited = new HashSet<>();
+        toVisit.push(node);
+        visited.add(node);
+        while (!toVisit.isEmpty()) {
+            GraphNode<?> current = toVisit.pop();
+            for (VariableAction action : current.getVariableActions())
+                if (action.getNameExpr().getBegin().isPresent())
+                    byName.computeIfAbsent(action.getNameExpr(), n -> new LinkedList<>()).add(action);
+            for (Arc arc : graph.outgoingEdgesOf(current)) {
+                GraphNode<?> next = graph.getEdgeTarget(arc);
+                if (arc.isControlDependencyArc() && next instanceof SyntheticNode && visited.add(next))
+                    toVisit.push(next);
+            }
+        }
+        List<List<VariableAction>> list = new ArrayList<>(byName.values());
+        list.sort(Comparator.comparing(l -> l.get(0).getNameExpr().getBegin().orElseThrow(), Position::compareTo));
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(file + "#" + lineNumber);
+        for (int i = 0; i < variables.size(); i++)
+            builder.append(i == 0 ? ":" : ",").append(variables.get(i)).append("!").append(occurrences.get(i));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package tfm.slicing;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.Set;
+
+/**
+ * The two-pass forward slicing algorithm, which obtains the statements that may be affected by
+ * the slicing criterion. It follows the outgoing arcs, instead of the incoming ones followed by the
+ * {@link ClassicSlicingAlgorithm}:
+ * <ol>
+ *     <li>The first pass ascends to the callers of the methods reached, but doesn't descend into
+ *     the methods called (it ignores the call and parameter-in arcs). The effect of each call on
+ *     the caller is found through its summary arcs.</li>
+ *     <li>The second pass descends into the methods called, but doesn't ascend to the callers
+ *     (it ignores the arcs from the formal-out to the actual-out nodes).</li>
+ * </ol>
+ * Therefore, the arcs ignored in each pass are swapped with respect to the backward algorithm.
+ * In an {@link tfm.graphs.exceptionsensitive.ESSDG ESSDG}, conditional control dependencies are
+ * treated as ordinary control dependencies, so the slice may be larger than necessary.
+ * Forward slices always start from a whole statement, as every variable it defines may affect others.
+ */
+public class ForwardSlicingAlgorithm extends TwoPassSlicingAlgorithm {
+    public ForwardSlicingAlgorithm(Graph graph) {
+        super(graph);
+    }
+
+    /** @param monitor Controls the slices computed by this instance, instead of the monitor of the graph. */
+    public ForwardSlicingAlgorithm(Graph graph, TaskMonitor monitor) {
+        super(graph, monitor);
+    }
+
+    @Override
+    protected boolean ignorePass1(Arc arc) {
+        return arc.isInterproceduralInputArc();
+    }
+
+    @Override
+    protected boolean ignorePass2(Arc arc) {
+        return arc.isInterproceduralOutputArc();
+    }
+
+    @Override
+    protected Set<Arc> arcsToTraverse(GraphNode<?> node) {
+        return graph.outgoingEdgesOf(node);
+    }
+
+    @Override
+    protected GraphNode<?> nextNode(Arc arc) {
+        return graph.getEdgeTarget(arc);
+    }
+}
@@ -0,0 +1,64 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes the chop between a source and a target criterion: the nodes through which the source
+ * may influence the target, i.e. those that are both in the {@link FrozenForwardSlicingAlgorithm
+ * forward slice} of the source and in the {@link FrozenClassicSlicingAlgorithm backward slice} of
+ * the target. Both traversals use summary arcs, so the chop is context-sensitive.
+ * <br/>
+ * Instead of computing both slices completely, the forward slice is computed first, and the
+ * backward traversal only expands nodes that are part of it. If no target is reached by the forward
+ * slice, the chop is empty and the backward traversal is skipped. Any prefix of a realizable path is
+ * realizable, so every node of every path from a source to a target is found. Nodes of the
+ * intersection of both slices that can only reach the target through nodes that are not reachable
+ * from the source are not on any such path, and are not included.
+ * <br/>
+ * It has no state of its own, so a single instance may be used by several threads at once.
+ */
+public class FrozenChoppingAlgorithm {
+    protected final FrozenSDG graph;
+    protected final FrozenForwardSlicingAlgorithm forward;
+    protected final FrozenClassicSlicingAlgorithm backward;
+
+    public FrozenChoppingAlgorithm(FrozenSDG graph) {
+        this(graph, TaskMonitor.NONE);
+    }
+
+    /** @param monitor Controls every chop computed by this instance. */
+    public FrozenChoppingAlgorithm(FrozenSDG graph, TaskMonitor monitor) {
+        this.graph = Objects.requireNonNull(graph);
+        this.forward = new FrozenForwardSlicingAlgorithm(graph, monitor);
+        this.backward = new FrozenClassicSlicingAlgorithm(graph, monitor);
+    }
+
+    public Slice chop(GraphNode<?> source, GraphNode<?> target) {
+        return chop(List.of(source), List.of(target));
+    }
+
+    /** The nodes through which any of the sources may influence any of the targets. */
+    public Slice chop(Collection<? extends GraphNode<?>> sources, Collection<? extends GraphNode<?>> targets) {
+        BitSet reachable = forward.toBitSet(sources);
+        BitSet chop = backward.toBitSet(targets);
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            forward.traverse(reachable, null);
+            chop.and(reachable);
+            if (!chop.isEmpty())
+                backward.traverse(chop, reachable);
+            return graph.toSlice(chop);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The {@link ClassicSlicingAlgorithm two-pass backward slicing algorithm}, on a {@link FrozenSDG}.
+ * It has no state of its own, so a single instance may be used by several threads at once.
+ */
+public class FrozenClassicSlicingAlgorithm implements SlicingAlgorithm {
+    protected final FrozenSDG graph;
+    protected final TaskMonitor monitor;
+
+    public FrozenClassicSlicingAlgorithm(FrozenSDG graph) {
+        this(graph, TaskMonitor.NONE);
+    }
+
+    /** @param monitor Controls every slice computed by this instance. */
+    public FrozenClassicSlicingAlgorithm(FrozenSDG graph, TaskMonitor monitor) {
+        this.graph = Objects.requireNonNull(graph);
+        this.monitor = Objects.requireNonNull(monitor);
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        return traverse(List.of(slicingCriterion));
+    }
+
+    /**
+     * Computes the union of the slices of several criteria with a single traversal, which visits
+     * each node at most once per pass, instead of once per criterion.
+     */
+    public Slice traverse(Collection<? extends GraphNode<?>> slicingCriteria) {
+        BitSet slice = toBitSet(slicingCriteria);
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            traverse(slice, null);
+            return graph.toSlice(slice);
+        }
+    }
+
+    /**
+     * Computes the slice of a criterion lazily: each node is returned as soon as it is found, and
+     * the traversal only advances when the next node is requested. The nodes of the first pass are
+     * returned first, starting with the criterion. The iterator may not be used by several threads.
+     */
+    public Iterator<GraphNode<?>> iterator(GraphNode<?> slicingCriterion) {
+        BitSet criterion = toBitSet(List.of(slicingCriterion));
+        graph.getMetrics().increment(Counter.SLICES);
+        return new LazyTraversal(criterion.nextSetBit(0));
+    }
+
+    /** The nodes of the slice of a criterion, computed lazily as the stream is consumed.
+     *  @see #iterator(GraphNode) */
+    public Stream<GraphNode<?>> stream(GraphNode<?> slicingCriterion) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(slicingCriterion),
+                Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /** Publishes the nodes of the slice of a criterion to each subscriber, as they are requested.
+     *  @see #iterator(GraphNode) */
+    public SlicePublisher publisher(GraphNode<?> slicingCriterion, Executor executor) {
+        if (graph.indexOf(slicingCriterion) < 0)
+            throw new IllegalArgumentException("The slicing criterion is not part of the graph");
+        return new SlicePublisher(() -> iterator(slicingCriterion), executor);
+    }
+
+    /** The numbers of the given nodes in the graph. */
+    protected BitSet toBitSet(Collection<? extends GraphNode<?>> slicingCriteria) {
+        BitSet set = new BitSet(graph.getNodeCount());
+        for (GraphNode<?> slicingCriterion : slicingCriteria) {
+            int criterion = graph.indexOf(slicingCriterion);
+            if (criterion < 0)
+                throw new IllegalArgumentException("The slicing criterion is not part of the graph");
+            set.set(criterion);
+        }
+        return set;
+    }
+
+    /**
+     * Performs both passes from the nodes in the slice, adding the nodes reached.
+     * @param allowed The only nodes that may be reached, or null if any node may be reached.
+     */
+    protected void traverse(BitSet slice, BitSet allowed) {
+        Metrics metrics = graph.getMetrics();
+        metrics.recordSlicePass(1, pass(slice, 1, allowed));
+        metrics.recordSlicePass(2, pass(slice, 2, allowed));
+    }
+
+    /**
+     * Performs a pass (1 or 2) of the traversal from the nodes in the slice, adding the nodes reached.
+     * It is backwards, unless {@link #degree(int)}, {@link #arc(int, int)} and {@link #next(int)} are
+     * overridden. The arcs with the {@link #ignoredFlags(int) flags ignored} in the pass are not traversed.
+     * @param allowed The only nodes that may be reached, or null if any node may be reached.
+     * @return The number of arcs visited.
+     */
+    protected long pass(BitSet slice, int pass, BitSet allowed) {
+        int ignoredFlags = ignoredFlags(pass);
+        int[] stack = new int[graph.getNodeCount()];
+        int size = 0;
+        BitSet visited = new BitSet(graph.getNodeCount());
+        for (int node = slice.nextSetBit(0); node >= 0; node = slice.nextSetBit(node + 1)) {
+            stack[size++] = node;
+            visited.set(node);
+        }
+        long arcsVisited = 0;
+        long nodesVisited = 0;
+        while (size > 0) {
+            int node = stack[--size];
+            if (++nodesVisited % PROGRESS_INTERVAL == 0)
+                SlicingAlgorithm.reportProgress(monitor, pass, nodesVisited, graph.getNodeCount());
+            int degree = degree(node);
+            arcsVisited += degree;
+            for (int i = 0; i < degree; i++) {
+                int arc = arc(node, i);
+                if (graph.hasFlag(arc, ignoredFlags))
+                    continue;
+                int next = next(arc);
+                if (!visited.get(next) && (allowed == null || allowed.get(next))) {
+                    visited.set(next);
+                    stack[size++] = next;
+                }
+            }
+        }
+        slice.or(visited);
+        return arcsVisited;
+    }
+
+    /** Both passes from a single node, performed a node at a time. */
+    protected class LazyTraversal implements Iterator<GraphNode<?>> {
+        /** The nodes returned so far. */
+        protected final BitSet slice = new BitSet(graph.getNodeCount());
+        /** The nodes reached in the current pass. */
+        protected BitSet visited = new BitSet(graph.getNodeCount());
+        protected int[] stack = new int[graph.getNodeCount()];
+        protected int size = 0;
+        protected int pass = 1;
+        protected long arcsVisited = 0;
+        /** The nodes expanded in the current pass. */
+        protected long nodesVisited = 0;
+        /** The next node to be returned, or -1 if it must be found. */
+        protected int pending = -1;
+
+        protected LazyTraversal(int criterion) {
+            stack[size++] = criterion;
+            visited.set(criterion);
+        }
+
+        @Override
+        public boolean hasNext() {
+            advance();
+            return pending >= 0;
+        }
+
+        @Override
+        public GraphNode<?> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            GraphNode<?> node = graph.getNode(pending);
+            pending = -1;
+            return node;
+        }
+
+        /** Expands nodes until one that hasn't been returned is found, or both passes end. */
+        protected void advance() {
+            while (pending < 0) {
+                if (size == 0) {
+                    if (pass > 2)
+                        return;
+                    endPass();
+                    continue;
+                }
+                int node = stack[--size];
+                if (++nodesVisited % PROGRESS_INTERVAL == 0)
+                    SlicingAlgorithm.reportProgress(monitor, pass, nodesVisited, graph.getNodeCount());
+                int degree = degree(node);
+                arcsVisited += degree;
+                for (int i = 0; i < degree; i++) {
+                    int arc = arc(node, i);
+                    if (graph.hasFlag(arc, ignoredFlags(pass)))
+                        continue;
+                    int next = FrozenClassicSlicingAlgorithm.this.next(arc);
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        stack[size++] = next;
+                    }
+                }
+                if (!slice.get(node)) {
+                    slice.set(node);
+                    pending = node;
+                }
+            }
+        }
+
+        /** Records the pass that has ended and, after the first one, starts the second one. */
+        protected void endPass() {
+            graph.getMetrics().recordSlicePass(pass, arcsVisited);
+            arcsVisited = 0;
+            nodesVisited = 0;
+            if (pass++ == 2)
+                return;
+            visited = (BitSet) slice.clone();
+            for (int node = slice.nextSetBit(0); node >= 0; node = slice.nextSetBit(node + 1))
+                stack[size++] = node;
+        }
+    }
+
+    /** The {@link FrozenSDG flags} of the arcs that are not traversed in the given pass (1 or 2). */
+    protected int ignoredFlags(int pass) {
+        return pass == 1 ? FrozenSDG.INTERPROCEDURAL_OUTPUT : FrozenSDG.INTERPROCEDURAL_INPUT;
+    }
+
+    /** The number of arcs that may be traversed from a node: its incoming arcs. */
+    protected int degree(int node) {
+        return graph.getInDegree(node);
+    }
+
+    /** The i-th arc that may be traversed from a node. */
+    protected int arc(int node, int i) {
+        return graph.getIncomingArc(node, i);
+    }
+
+    /** The node reached by traversing an arc. */
+    protected int next(int arc) {
+        return graph.getArcSource(arc);
+    }
+}
@@ -0,0 +1,207 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+import static tfm.graphs.sdg.FrozenSDG.*;
+
+/**
+ * The {@link ExceptionSensitiveSlicingAlgorithm exception-sensitive slicing algorithm}, on a
+ * {@link FrozenSDG}. The state of each slice is kept in a {@link Traversal}, so a single instance
+ * may be used by several threads at once.
+ * <br/>
+ * Instead of searching the arcs traversed to know which kinds of arc have reached a node, each
+ * node stores the kinds as a set of flags, which are updated when an arc is traversed.
+ */
+public class FrozenExceptionSensitiveSlicingAlgorithm implements SlicingAlgorithm {
+    /** Return values for handlers. A node can either be skipped, traversed or not handled.
+     * @see ExceptionSensitiveSlicingAlgorithm */
+    protected static final int SKIPPED = 0, TRAVERSED = 1, NOT_HANDLED = 2;
+    /** The kinds of arc that may reach a node. Only the exact class of each arc is considered,
+     *  e.g. a {@link tfm.arcs.pdg.ConditionalControlDependencyArc.CC1 CC1} is not a
+     *  {@link #BY_CONTROL_DEPENDENCE} arc. */
+    protected static final byte BY_CONTROL_DEPENDENCE = 1, BY_CC1 = 1 << 1, BY_CC2 = 1 << 2, BY_OTHER = 1 << 3;
+
+    protected final FrozenSDG graph;
+    protected final TaskMonitor monitor;
+
+    public FrozenExceptionSensitiveSlicingAlgorithm(FrozenSDG graph) {
+        this(graph, TaskMonitor.NONE);
+    }
+
+    /** @param monitor Controls every slice computed by this instance. */
+    public FrozenExceptionSensitiveSlicingAlgorithm(FrozenSDG graph, TaskMonitor monitor) {
+        this.graph = Objects.requireNonNull(graph);
+        this.monitor = Objects.requireNonNull(monitor);
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        int criterion = graph.indexOf(slicingCriterion);
+        if (criterion < 0)
+            throw new IllegalArgumentException("The slicing criterion is not part of the graph");
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            Traversal traversal = new Traversal(criterion);
+            traversal.reach(criterion);
+            metrics.recordSlicePass(1, traversal.pass(1));
+            traversal.reachPartlyVisited();
+            metrics.recordSlicePass(2, traversal.pass(2));
+            return graph.toSlice(traversal.result());
+        }
+    }
+
+    protected static byte kindOf(int arcFlags) {
+        if ((arcFlags & CONDITIONAL_CC1) != 0)
+            return BY_CC1;
+        if ((arcFlags & CONDITIONAL_CC2) != 0)
+            return BY_CC2;
+        if ((arcFlags & CONTROL_DEPENDENCE) != 0)
+            return BY_CONTROL_DEPENDENCE;
+        return BY_OTHER;
+    }
+
+    /** The state of a single slice. */
+    protected class Traversal {
+        protected final int criterion;
+        /** Nodes already in the slice whose arcs have all been traversed. */
+        protected final BitSet visited = new BitSet(graph.getNodeCount());
+        /** The number of arcs remaining for nodes whose arcs have been partially traversed, or -1. */
+        protected final int[] remaining = new int[graph.getNodeCount()];
+        /** The nodes that have been partially visited, in the order they were first visited. */
+        protected int[] partlyVisited = new int[16];
+        protected int partlyVisitedSize = 0;
+        /** Arcs that have already been traversed. No arc must be traversed twice. */
+        protected final BitSet traversedArcs = new BitSet(graph.getArcCount());
+        /** The kinds of traversed arc whose source is each node. */
+        protected final byte[] reachedBy = new byte[graph.getNodeCount()];
+        /** Nodes reached via an unconditional arc, which must be visited, in FIFO order. */
+        protected int[] queue = new int[16];
+        protected int queueHead = 0, queueTail = 0;
+        protected final BitSet queued = new BitSet(graph.getNodeCount());
+        /** The arcs that are skipped in the current pass. */
+        protected int skippedFlags;
+
+        protected Traversal(int criterion) {
+            this.criterion = criterion;
+            Arrays.fill(remaining, -1);
+        }
+
+        protected void reach(int node) {
+            if (queued.get(node))
+                return;
+            queued.set(node);
+            if (queueTail == queue.length) {
+                if (queueHead > 0) {
+                    System.arraycopy(queue, queueHead, queue, 0, queueTail - queueHead);
+                    queueTail -= queueHead;
+                    queueHead = 0;
+                }
+                if (queueTail == queue.length)
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+            }
+            queue[queueTail++] = node;
+        }
+
+        protected void reachPartlyVisited() {
+            for (int i = 0; i < partlyVisitedSize; i++)
+                if (remaining[partlyVisited[i]] > 0)
+                    reach(partlyVisited[i]);
+        }
+
+        /** Performs a pass (1 or 2) of the traversal, which skips the interprocedural output (1) or input (2) arcs.
+         *  @return The number of arcs visited. */
+        protected long pass(int pass) {
+            this.skippedFlags = pass == 1 ? INTERPROCEDURAL_OUTPUT : INTERPROCEDURAL_INPUT;
+            long arcsVisited = 0;
+            long nodesVisited = 0;
+            while (queueHead < queueTail) {
+                int node = queue[queueHead++];
+                if (++nodesVisited % PROGRESS_INTERVAL == 0)
+                    SlicingAlgorithm.reportProgress(monitor, pass, nodesVisited, graph.getNodeCount());
+                queued.clear(node);
+                // Avoid duplicate traversal
+                if (visited.get(node))
+                    continue;
+                // Traverse all edges backwards
+                int degree = graph.getInDegree(node);
+                int left = remaining[node] >= 0 ? remaining[node] : degree;
+                for (int i = 0; i < degree; i++) {
+                    arcsVisited++;
+                    if (handle(graph.getIncomingArc(node, i), node) == TRAVERSED)
+                        left--;
+                }
+                if (left == 0) {
+                    visited.set(node);
+                    remaining[node] = -1;
+                } else {
+                    if (remaining[node] < 0)
+                        addPartlyVisited(node);
+                    remaining[node] = left;
+                }
+            }
+            return arcsVisited;
+        }
+
+        protected void addPartlyVisited(int node) {
+            if (partlyVisitedSize == partlyVisited.length)
+                partlyVisited = Arrays.copyOf(partlyVisited, partlyVisited.length * 2);
+            partlyVisited[partlyVisitedSize++] = node;
+        }
+
+        /** Applies the handlers of {@link ExceptionSensitiveSlicingAlgorithm}, in the same order. */
+        protected int handle(int arc, int node) {
+            // Repeats
+            if (traversedArcs.get(arc))
+                return SKIPPED;
+            // SDG skip check
+            int flags = graph.getArcFlags(arc);
+            if ((flags & skippedFlags) != 0)
+                return SKIPPED;
+            // PPDG skip check
+            boolean unconditionalControl = (flags & (CONTROL_DEPENDENCE | CONDITIONAL_CC1 | CONDITIONAL_CC2)) == CONTROL_DEPENDENCE;
+            if (node != criterion && graph.isPseudoPredicate(node)
+                    && hasOnlyBeenReachedBy(node, BY_CONTROL_DEPENDENCE) && unconditionalControl)
+                return SKIPPED;
+            // Exception sensitive: visit only CC1 if only CC1 has visited it, and none
+            // if the node has only been reached by conditional arcs
+            if (!(hasOnlyBeenReachedBy(node, BY_CC1) && (flags & CONDITIONAL_CC1) != 0)
+                    && node != criterion && hasOnlyBeenReachedBy(node, (byte) (BY_CC1 | BY_CC2)))
+                return SKIPPED;
+            // Default
+            int source = graph.getArcSource(arc);
+            traversedArcs.set(arc);
+            reachedBy[source] |= kindOf(flags);
+            if (!visited.get(source))
+                reach(source);
+            return TRAVERSED;
+        }
+
+        /** Whether every traversed arc whose source is the node is of the given kinds. */
+        protected boolean hasOnlyBeenReachedBy(int node, byte kinds) {
+            return (reachedBy[node] & ~kinds) == 0;
+        }
+
+        /** The nodes in the slice. Nodes that have only been reached by one kind of conditional
+         *  control dependence are excluded. */
+        protected BitSet result() {
+            BitSet slice = new BitSet(graph.getNodeCount());
+            for (int node = 0; node < graph.getNodeCount(); node++) {
+                if (!visited.get(node) && remaining[node] < 0)
+                    continue;
+                if (node == criterion || (!hasOnlyBeenReachedBy(node, BY_CC1) && !hasOnlyBeenReachedBy(node, BY_CC2)))
+                    slice.set(node);
+            }
+            return slice;
+        }
+    }
+}
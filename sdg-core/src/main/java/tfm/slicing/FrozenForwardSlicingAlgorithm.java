@@ -0,0 +1,39 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.utils.TaskMonitor;
+
+/**
+ * The {@link ForwardSlicingAlgorithm two-pass forward slicing algorithm}, on a {@link FrozenSDG}.
+ * It has no state of its own, so a single instance may be used by several threads at once.
+ */
+public class FrozenForwardSlicingAlgorithm extends FrozenClassicSlicingAlgorithm {
+    public FrozenForwardSlicingAlgorithm(FrozenSDG graph) {
+        super(graph);
+    }
+
+    /** @param monitor Controls every slice computed by this instance. */
+    public FrozenForwardSlicingAlgorithm(FrozenSDG graph, TaskMonitor monitor) {
+        super(graph, monitor);
+    }
+
+    @Override
+    protected int ignoredFlags(int pass) {
+        return pass == 1 ? FrozenSDG.INTERPROCEDURAL_INPUT : FrozenSDG.INTERPROCEDURAL_OUTPUT;
+    }
+
+    @Override
+    protected int degree(int node) {
+        return graph.getOutDegree(node);
+    }
+
+    @Override
+    protected int arc(int node, int i) {
+        return graph.getOutgoingArc(node, i);
+    }
+
+    @Override
+    protected int next(int arc) {
+        return graph.getArcTarget(arc);
+    }
+}
@@ -0,0 +1,116 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.Node;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.nodes.GraphNode;
+
+import java.util.*;
+
+/**
+ * A slice of a {@link FrozenSDG}, which keeps the numbers of its nodes in a bitset instead
+ * of copying them, so that creating it takes constant time. The bitset must not be modified after
+ * creating the slice.
+ * <br/>
+ * Checking whether it contains a node takes constant time, and {@link #getGraphNodes()} is a view of
+ * the bitset. The AST nodes are only collected the first time they are needed.
+ */
+public class FrozenSlice extends Slice {
+    protected final FrozenSDG graph;
+    protected final BitSet nodeSet;
+    protected final int size;
+    /** Created by the first call to {@link #getAstNodes()}. */
+    protected volatile Set<Node> astNodes;
+    /** The hash of the nodes, or 0 if it hasn't been computed yet. */
+    private int hash;
+
+    public FrozenSlice(FrozenSDG graph, BitSet nodeSet) {
+        super(graph.getMetrics());
+        this.graph = graph;
+        this.nodeSet = Objects.requireNonNull(nodeSet);
+        this.size = nodeSet.cardinality();
+    }
+
+    @Override
+    public boolean contains(GraphNode<?> node) {
+        int index = graph.indexOfId(node.getId());
+        return index >= 0 && nodeSet.get(index);
+    }
+
+    /** Whether the node with the given {@link FrozenSDG} number belongs to this slice. */
+    public boolean contains(int node) {
+        return nodeSet.get(node);
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return getAstNodes().contains(node);
+    }
+
+    @Override
+    public Set<GraphNode<?>> getGraphNodes() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<GraphNode<?>> iterator() {
+                return new Iterator<>() {
+                    int next = nodeSet.nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public GraphNode<?> next() {
+                        if (next < 0)
+                            throw new NoSuchElementException();
+                        GraphNode<?> node = graph.getNode(next);
+                        next = nodeSet.nextSetBit(next + 1);
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof GraphNode))
+                    return false;
+                int index = graph.indexOf((GraphNode<?>) o);
+                return index >= 0 && nodeSet.get(index);
+            }
+        };
+    }
+
+    @Override
+    protected Set<Node> getAstNodes() {
+        Set<Node> set = astNodes;
+        if (set == null) {
+            set = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int node = nodeSet.nextSetBit(0); node >= 0; node = nodeSet.nextSetBit(node + 1))
+                set.add(graph.getNode(node).getAstNode());
+            astNodes = set;
+        }
+        return set;
+    }
+
+    /** Computed by the first call, as the nodes of this slice don't change. */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0)
+            hash = h = super.hashCode();
+        return h;
+    }
+
+    /** Compares the bitsets if both slices are of the same graph, instead of every node. */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FrozenSlice && ((FrozenSlice) obj).graph == graph)
+            return nodeSet.equals(((FrozenSlice) obj).nodeSet);
+        return super.equals(obj);
+    }
+}
@@ -2,6 +2,7 @@ package tfm.slicing;
 
 import tfm.graphs.cfg.CFG;
 import tfm.graphs.pdg.PDG;
+import tfm.graphs.sdg.FrozenSDG;
 import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
 
@@ -29,4 +30,9 @@ public class GraphNodeCriterion extends SlicingCriterion {
     public Optional<GraphNode<?>> findNode(SDG graph) {
         return graph.findNodeById(node.getId());
     }
+
+    @Override
+    public Optional<GraphNode<?>> findNode(FrozenSDG graph) {
+        return graph.findNodeById(node.getId());
+    }
 }
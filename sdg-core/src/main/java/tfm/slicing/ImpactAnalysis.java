@@ -0,0 +1,165 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.stmt.Statement;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.utils.TaskMonitor;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Obtains the statements and methods that may be affected by a change in the source code, given
+ * as a set of {@link LineRange changed lines}. The changed lines are mapped to the nodes of the
+ * {@link FrozenSDG} with a single scan of the graph, and the nodes affected are obtained with a single
+ * {@link FrozenForwardSlicingAlgorithm forward traversal} from all of them.
+ * <br/>
+ * A node is changed if one of its lines has changed. The lines of a node that contains other
+ * statements (e.g. an {@code if} or a method declaration) are only those before the first
+ * statement it contains, so that changing a statement doesn't change the ones around it.
+ * Synthetic nodes are never changed, but they are reached from the statements they belong to.
+ */
+public class ImpactAnalysis {
+    protected final FrozenSDG graph;
+    protected final FrozenForwardSlicingAlgorithm algorithm;
+
+    public ImpactAnalysis(FrozenSDG graph) {
+        this(graph, TaskMonitor.NONE);
+    }
+
+    /** @param monitor Controls every forward traversal performed by this instance. */
+    public ImpactAnalysis(FrozenSDG graph, TaskMonitor monitor) {
+        this.graph = Objects.requireNonNull(graph);
+        this.algorithm = new FrozenForwardSlicingAlgorithm(graph, monitor);
+    }
+
+    /** The nodes of the graph whose lines have changed, in id order. */
+    public List<GraphNode<?>> findChangedNodes(Collection<LineRange> changes) {
+        Map<Path, List<LineRange>> changesByFile = new HashMap<>();
+        for (LineRange change : changes)
+            changesByFile.computeIfAbsent(change.getFile(), f -> new LinkedList<>()).add(change);
+        Map<CompilationUnit, List<LineRange>> changesByUnit = new IdentityHashMap<>();
+        for (CompilationUnit cu : graph.getCompilationUnits()) {
+            Optional<CompilationUnit.Storage> storage = cu.getStorage();
+            if (storage.isPresent() && changesByFile.containsKey(LineRange.normalize(storage.get().getPath())))
+                changesByUnit.put(cu, changesByFile.get(LineRange.normalize(storage.get().getPath())));
+        }
+        List<GraphNode<?>> changed = new LinkedList<>();
+        if (changesByUnit.isEmpty())
+            return changed;
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            GraphNode<?> node = graph.getNode(i);
+            if (node instanceof SyntheticNode)
+                continue;
+            Node astNode = node.getAstNode();
+            if (astNode.getBegin().isEmpty() || astNode.getEnd().isEmpty())
+                continue;
+            List<LineRange> unitChanges = astNode.findCompilationUnit().map(changesByUnit::get).orElse(null);
+            if (unitChanges == null)
+                continue;
+            int first = astNode.getBegin().get().line;
+            int last = lastOwnLine(astNode);
+            for (LineRange change : unitChanges) {
+                if (change.intersects(first, last)) {
+                    changed.add(node);
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /** The last line that belongs to a node and not to the statements it contains. */
+    protected static int lastOwnLine(Node astNode) {
+        int last = astNode.getEnd().orElseThrow().line;
+        for (Node child : astNode.getChildNodes())
+            if (child instanceof Statement && child.getBegin().isPresent())
+                last = Math.min(last, child.getBegin().get().line - 1);
+        return Math.max(last, astNode.getBegin().orElseThrow().line);
+    }
+
+    /** The nodes that may be affected by the given changes, including the nodes changed. */
+    public Slice impactOfChanges(Collection<LineRange> changes) {
+        return impactOfNodes(findChangedNodes(changes));
+    }
+
+    /** The nodes that may be affected by a change in the given nodes, including themselves. */
+    public Slice impactOfNodes(Collection<? extends GraphNode<?>> changedNodes) {
+        return algorithm.traverse(changedNodes);
+    }
+
+    /** The methods and constructors that contain some node of the slice, in order of appearance in each file. */
+    public static List<CallableDeclaration<?>> findMethods(Slice slice) {
+        Set<CallableDeclaration<?>> methods = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GraphNode<?> node : slice.getGraphNodes()) {
+            Node astNode = node.getAstNode();
+            if (astNode instanceof CallableDeclaration)
+                methods.add((CallableDeclaration<?>) astNode);
+            else
+                astNode.findAncestor(CallableDeclaration.class).ifPresent(methods::add);
+        }
+        List<CallableDeclaration<?>> list = new ArrayList<>(methods);
+        list.sort(Comparator.comparing((CallableDeclaration<?> m) -> m.findCompilationUnit()
+                        .flatMap(CompilationUnit::getStorage).map(s -> s.getPath().toString()).orElse(""))
+                .thenComparing(m -> m.getBegin().map(p -> p.line).orElse(0)));
+        return list;
+    }
+
+    /** A range of lines of a file, both included. */
+    public static class LineRange {
+        protected final Path file;
+        protected final int first;
+        protected final int last;
+
+        public LineRange(Path file, int first, int last) {
+            if (first > last)
+                throw new IllegalArgumentException("Empty range of lines: " + first + "-" + last);
+            this.file = normalize(file);
+            this.first = first;
+            this.last = last;
+        }
+
+        protected static Path normalize(Path path) {
+            return path.toAbsolutePath().normalize();
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int getFirst() {
+            return first;
+        }
+
+        public int getLast() {
+            return last;
+        }
+
+        /** Whether any line between first and last (both included) is part of this range. */
+        public boolean intersects(int first, int last) {
+            return first <= this.last && this.first <= last;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LineRange)) return false;
+            LineRange that = (LineRange) o;
+            return first == that.first && last == that.last && file.equals(that.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, first, last);
+        }
+
+        @Override
+        public String toString() {
+            return file + "#" + first + "-" + last;
+        }
+    }
+}
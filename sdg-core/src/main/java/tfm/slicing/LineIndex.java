@@ -0,0 +1,83 @@
+package tfm.slicing;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.stmt.Statement;
+import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.utils.ASTUtils;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Finds the node of the statement that begins in each line of each file of a graph, which is the
+ * node located by a {@link FileLineSlicingCriterion}: the first statement that begins in the line,
+ * in pre-order, and its node as found by {@link tfm.graphs.Graph#findNodeByASTNode(com.github.javaparser.ast.Node)}.
+ * <br/>
+ * The index is built once, in time proportional to the size of the graph and the ASTs, and each lookup
+ * takes logarithmic time, instead of searching the compilation units and the nodes of the graph.
+ * Instances can't be modified, so they may be shared by several threads.
+ */
+public class LineIndex {
+    protected final Map<Path, NavigableMap<Integer, GraphNode<?>>> files = new HashMap<>();
+
+    /**
+     * @param compilationUnits The files of the graph. Those that have no storage are skipped.
+     * @param nodes            The nodes of the graph.
+     */
+    public LineIndex(Collection<CompilationUnit> compilationUnits, Collection<GraphNode<?>> nodes) {
+        Map<Range, List<GraphNode<?>>> byRange = new HashMap<>();
+        for (GraphNode<?> node : nodes)
+            node.getAstNode().getRange().ifPresent(range -> byRange.computeIfAbsent(range, r -> new LinkedList<>()).add(node));
+        for (CompilationUnit cu : compilationUnits) {
+            if (cu.getStorage().isEmpty())
+                continue;
+            NavigableMap<Integer, GraphNode<?>> lines = new TreeMap<>();
+            Set<Integer> seen = new HashSet<>();
+            for (Statement statement : cu.findAll(Statement.class)) {
+                if (statement.getRange().isEmpty() || !seen.add(statement.getRange().get().begin.line))
+                    continue;
+                findNode(statement, byRange.getOrDefault(statement.getRange().get(), List.of()))
+                        .ifPresent(node -> lines.put(statement.getRange().get().begin.line, node));
+            }
+            files.put(normalize(cu.getStorage().get().getPath()), Collections.unmodifiableNavigableMap(lines));
+        }
+    }
+
+    /** Selects the node of a statement among those with the same range. */
+    protected static Optional<GraphNode<?>> findNode(Statement statement, List<GraphNode<?>> candidates) {
+        List<GraphNode<?>> found = new LinkedList<>();
+        for (GraphNode<?> node : candidates)
+            if (ASTUtils.equalsWithRangeInCU(node.getAstNode(), statement))
+                found.add(node);
+        if (found.size() > 1)
+            found.removeIf(SyntheticNode.class::isInstance);
+        if (found.isEmpty())
+            return Optional.empty();
+        if (found.size() == 1)
+            return Optional.of(found.get(0));
+        throw new IllegalStateException("There may only be one real node representing each AST node in the graph!");
+    }
+
+    protected static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /** The node of the first statement that begins in the given line of the file, if it has one. */
+    public Optional<GraphNode<?>> find(File file, int line) {
+        return Optional.ofNullable(getLines(file).get(line));
+    }
+
+    /** The nodes of the statements of a file, by the line where they begin. It is empty
+     *  if the file is not part of the graph. */
+    public NavigableMap<Integer, GraphNode<?>> getLines(File file) {
+        return files.getOrDefault(normalize(file.toPath()), Collections.emptyNavigableMap());
+    }
+
+    /** Whether the file is part of the graph. */
+    public boolean contains(File file) {
+        return files.containsKey(normalize(file.toPath()));
+    }
+}
@@ -1,12 +1,13 @@
 package tfm.slicing;
 
 import com.github.javaparser.Position;
+import com.github.javaparser.Range;
 import com.github.javaparser.ast.Node;
 import tfm.graphs.cfg.CFG;
 import tfm.graphs.pdg.PDG;
+import tfm.graphs.sdg.FrozenSDG;
 import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
-import tfm.utils.Logger;
 
 import java.util.Optional;
 
@@ -26,22 +27,15 @@ public class LineNumberCriterion extends SlicingCriterion {
         return Optional.empty();
     }
 
+    /** The first node of the PDG whose AST node begins or ends in the line. */
     @Override
     public Optional<GraphNode<?>> findNode(PDG graph) {
-        // find node by line number
-        return graph.vertexSet().stream().filter(node -> {
-            Node astNode = node.getAstNode();
-
-            if (astNode.getBegin().isEmpty() || astNode.getEnd().isEmpty())
-                return false;
-
-            int begin = astNode.getBegin().get().line;
-            int end = astNode.getEnd().get().line;
-
-            Logger.format("begin %s end %s", begin, end);
-
-            return lineNumber == begin || lineNumber == end;
-        }).findFirst();
+        for (GraphNode<?> node : graph.vertexSet()) {
+            Optional<Range> range = node.getAstNode().getRange();
+            if (range.isPresent() && (range.get().begin.line == lineNumber || range.get().end.line == lineNumber))
+                return Optional.of(node);
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -49,6 +43,11 @@ public class LineNumberCriterion extends SlicingCriterion {
         return Optional.empty();
     }
 
+    @Override
+    public Optional<GraphNode<?>> findNode(FrozenSDG graph) {
+        return Optional.empty();
+    }
+
     protected boolean matchesLine(Node node) {
         return node.getBegin().orElse(DEFAULT_POSITION).line == lineNumber;
     }
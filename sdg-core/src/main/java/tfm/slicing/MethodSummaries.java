@@ -0,0 +1,91 @@
+package tfm.slicing;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The nodes reached from each output of a method (its {@link NodeType#FORMAL_OUT formal-out} and
+ * {@link NodeType#METHOD_OUTPUT output} nodes) in the second pass of the {@link ClassicSlicingAlgorithm},
+ * which are the same in every slice that descends into the method, so that they can be added at once.
+ * <br/>
+ * The summary of an output contains the nodes reached without traversing interprocedural arcs, and
+ * the nodes reached through an {@link Arc#isInterproceduralOutputArc() output arc}, which are the outputs
+ * of the methods called. The latter are the exits of the summary, and have their own summaries, so the
+ * summary of a method doesn't repeat the nodes of the methods it calls.
+ * <br/>
+ * Summaries are computed the first time they are needed, and kept until the instance is discarded.
+ * The graph must not be modified after that. Instances are thread-safe.
+ */
+public class MethodSummaries {
+    protected final Graph graph;
+    protected final Map<GraphNode<?>, Summary> summaries = new ConcurrentHashMap<>();
+
+    public MethodSummaries(Graph graph) {
+        this.graph = Objects.requireNonNull(graph);
+    }
+
+    /** Whether the node is an output of a method, which has a summary. */
+    public boolean isOutput(GraphNode<?> node) {
+        return node.getNodeType() == NodeType.FORMAL_OUT || node.getNodeType() == NodeType.METHOD_OUTPUT;
+    }
+
+    /** The summary of an output of a method, which is computed if it is the first time it is requested. */
+    public Summary get(GraphNode<?> output) {
+        if (!isOutput(output))
+            throw new IllegalArgumentException("Node " + output.getId() + " is not the output of a method");
+        return summaries.computeIfAbsent(output, this::compute);
+    }
+
+    /** Traverses the method backwards from the output, stopping at interprocedural arcs. */
+    protected Summary compute(GraphNode<?> output) {
+        Set<GraphNode<?>> nodes = new HashSet<>();
+        Set<GraphNode<?>> exits = new LinkedHashSet<>();
+        Deque<GraphNode<?>> toVisit = new ArrayDeque<>();
+        nodes.add(output);
+        toVisit.push(output);
+        while (!toVisit.isEmpty()) {
+            GraphNode<?> node = toVisit.pop();
+            for (Arc arc : graph.incomingEdgesOf(node)) {
+                if (arc.isInterproceduralInputArc())
+                    continue;
+                GraphNode<?> next = graph.getEdgeSource(arc);
+                if (arc.isInterproceduralOutputArc())
+                    exits.add(next);
+                else if (nodes.add(next))
+                    toVisit.push(next);
+            }
+        }
+        return new Summary(nodes, exits);
+    }
+
+    /** The number of summaries computed. */
+    public int size() {
+        return summaries.size();
+    }
+
+    /** The nodes reached from an output of a method, and the outputs of other methods reached from it. */
+    public static class Summary {
+        protected final List<GraphNode<?>> nodes;
+        protected final List<GraphNode<?>> exits;
+
+        protected Summary(Collection<GraphNode<?>> nodes, Collection<GraphNode<?>> exits) {
+            this.nodes = List.copyOf(nodes);
+            this.exits = List.copyOf(exits);
+        }
+
+        /** The nodes reached without traversing interprocedural arcs, including the output itself. */
+        public List<GraphNode<?>> getNodes() {
+            return nodes;
+        }
+
+        /** The nodes reached through an interprocedural output arc, which may have summaries of their own. */
+        public List<GraphNode<?>> getExits() {
+            return exits;
+        }
+    }
+}
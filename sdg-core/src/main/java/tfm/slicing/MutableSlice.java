@@ -0,0 +1,64 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.Node;
+import tfm.metrics.Metrics;
+import tfm.nodes.GraphNode;
+
+import java.util.*;
+
+/** A slice whose nodes are added one by one, used by the algorithms that traverse a {@link tfm.graphs.Graph}. */
+public class MutableSlice extends Slice {
+    private final Map<Long, GraphNode<?>> map = new HashMap<>();
+    /** Compared by identity, as the equality of AST nodes is structural and traverses their children. */
+    private final Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public MutableSlice() {
+        this(Metrics.DISABLED);
+    }
+
+    /** Creates an empty slice, whose conversion to source code will be recorded in the given metrics. */
+    public MutableSlice(Metrics metrics) {
+        super(metrics);
+    }
+
+    public void add(GraphNode<?> node) {
+        assert !map.containsKey(node.getId());
+        map.put(node.getId(), node);
+        nodes.add(node.getAstNode());
+    }
+
+    public void addAll(Collection<GraphNode<?>> nodes) {
+        nodes.forEach(this::add);
+    }
+
+    @Override
+    public boolean contains(GraphNode<?> node) {
+        return map.containsKey(node.getId());
+    }
+
+    /** A read-only view of the nodes of this slice, which reflects later changes. */
+    @Override
+    public Set<GraphNode<?>> getGraphNodes() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<GraphNode<?>> iterator() {
+                return Collections.unmodifiableCollection(map.values()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof GraphNode && o.equals(map.get(((GraphNode<?>) o).getId()));
+            }
+        };
+    }
+
+    @Override
+    protected Set<Node> getAstNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,164 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.utils.TaskMonitor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link FrozenClassicSlicingAlgorithm two-pass backward slicing algorithm}, whose passes
+ * expand the frontier of nodes reached level by level, splitting each level among the threads
+ * of a {@link ForkJoinPool}. The nodes reached are marked in a bitset of atomic words, so each
+ * node is expanded by a single thread.
+ * <br/>
+ * Small traversals gain nothing from parallelism, so graphs with fewer nodes than the threshold
+ * are sliced with the sequential algorithm, and levels with fewer nodes than the threshold are
+ * expanded by the calling thread. The slices are the same as those of the sequential algorithm.
+ */
+public class ParallelSlicingAlgorithm extends FrozenClassicSlicingAlgorithm {
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    protected final ForkJoinPool pool;
+    protected final int threshold;
+    /** The maximum number of nodes of the frontier expanded by each task. */
+    protected final int grain;
+
+    public ParallelSlicingAlgorithm(FrozenSDG graph) {
+        this(graph, TaskMonitor.NONE, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool      The threads that expand the frontier.
+     * @param threshold The minimum number of nodes of the graph, and of each level of the traversal,
+     *                  that are traversed in parallel.
+     */
+    public ParallelSlicingAlgorithm(FrozenSDG graph, TaskMonitor monitor, ForkJoinPool pool, int threshold) {
+        super(graph, monitor);
+        if (threshold < 1)
+            throw new IllegalArgumentException("The threshold must be positive");
+        this.pool = Objects.requireNonNull(pool);
+        this.threshold = threshold;
+        this.grain = Math.max(1, threshold / 8);
+    }
+
+    @Override
+    protected long pass(BitSet slice, int pass, BitSet allowed) {
+        if (graph.getNodeCount() < threshold)
+            return super.pass(slice, pass, allowed);
+        int ignoredFlags = ignoredFlags(pass);
+        AtomicLongArray visited = new AtomicLongArray((graph.getNodeCount() + 63) >> 6);
+        int[] frontier = new int[slice.cardinality()];
+        int size = 0;
+        for (int node = slice.nextSetBit(0); node >= 0; node = slice.nextSetBit(node + 1)) {
+            mark(visited, node);
+            frontier[size++] = node;
+        }
+        LongAdder arcsVisited = new LongAdder();
+        long nodesReached = size;
+        while (size > 0) {
+            SlicingAlgorithm.reportProgress(monitor, pass, nodesReached, graph.getNodeCount());
+            Queue<int[]> next = new ConcurrentLinkedQueue<>();
+            Expansion expansion = new Expansion(frontier, 0, size, ignoredFlags, allowed, visited, next, arcsVisited);
+            if (size < threshold)
+                expansion.compute();
+            else
+                pool.invoke(expansion);
+            // Join the nodes reached by each task; the last element of each array is its length
+            size = 0;
+            for (int[] part : next)
+                size += part[part.length - 1];
+            frontier = new int[size];
+            int offset = 0;
+            for (int[] part : next) {
+                System.arraycopy(part, 0, frontier, offset, part[part.length - 1]);
+                offset += part[part.length - 1];
+            }
+            nodesReached += size;
+        }
+        long[] words = new long[visited.length()];
+        for (int i = 0; i < words.length; i++)
+            words[i] = visited.get(i);
+        slice.or(BitSet.valueOf(words));
+        return arcsVisited.sum();
+    }
+
+    /** Marks a node as visited. @return Whether it wasn't visited before. */
+    protected static boolean mark(AtomicLongArray visited, int node) {
+        int word = node >> 6;
+        long bit = 1L << node;
+        long old;
+        do {
+            old = visited.get(word);
+            if ((old & bit) != 0)
+                return false;
+        } while (!visited.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    /** Expands a range of the frontier, splitting it in halves until it is small enough. */
+    protected class Expansion extends RecursiveAction {
+        protected final int[] frontier;
+        protected final int from, to;
+        protected final int ignoredFlags;
+        protected final BitSet allowed;
+        protected final AtomicLongArray visited;
+        /** The nodes reached by each task, followed by their number. */
+        protected final Queue<int[]> next;
+        protected final LongAdder arcsVisited;
+
+        protected Expansion(int[] frontier, int from, int to, int ignoredFlags, BitSet allowed,
+                            AtomicLongArray visited, Queue<int[]> next, LongAdder arcsVisited) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.ignoredFlags = ignoredFlags;
+            this.allowed = allowed;
+            this.visited = visited;
+            this.next = next;
+            this.arcsVisited = arcsVisited;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain && inForkJoinPool()) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Expansion(frontier, from, middle, ignoredFlags, allowed, visited, next, arcsVisited),
+                        new Expansion(frontier, middle, to, ignoredFlags, allowed, visited, next, arcsVisited));
+                return;
+            }
+            monitor.checkCancelled();
+            int[] reached = new int[16];
+            int size = 0;
+            long arcs = 0;
+            for (int i = from; i < to; i++) {
+                int node = frontier[i];
+                int degree = degree(node);
+                arcs += degree;
+                for (int j = 0; j < degree; j++) {
+                    int arc = arc(node, j);
+                    if (graph.hasFlag(arc, ignoredFlags))
+                        continue;
+                    int target = next(arc);
+                    if ((allowed == null || allowed.get(target)) && mark(visited, target)) {
+                        if (size == reached.length - 1)
+                            reached = Arrays.copyOf(reached, reached.length * 2);
+                        reached[size++] = target;
+                    }
+                }
+            }
+            arcsVisited.add(arcs);
+            if (size > 0) {
+                reached[reached.length - 1] = size;
+                next.add(reached);
+            }
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package tfm.slicing;
 
 import tfm.arcs.Arc;
+import tfm.graphs.Graph;
 import tfm.graphs.exceptionsensitive.ESSDG;
 import tfm.nodes.GraphNode;
+import tfm.nodes.VariableAction;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 public class PseudoPredicateSlicingAlgorithm extends ClassicSlicingAlgorithm {
+    /** Whether a node is a pseudo-predicate of the graph. */
+    protected final Predicate<GraphNode<?>> pseudoPredicate;
     protected GraphNode<?> slicingCriterion;
 
     public PseudoPredicateSlicingAlgorithm(ESSDG graph) {
+        this(graph, graph::isPseudoPredicate);
+    }
+
+    /** Slices any graph with pseudo-predicates, such as a {@link tfm.graphs.augmented.PPDG PPDG}. */
+    public PseudoPredicateSlicingAlgorithm(Graph graph, Predicate<GraphNode<?>> pseudoPredicate) {
         super(graph);
+        this.pseudoPredicate = Objects.requireNonNull(pseudoPredicate);
     }
 
     @Override
@@ -17,6 +31,12 @@ public class PseudoPredicateSlicingAlgorithm extends ClassicSlicingAlgorithm {
         return super.traverse(slicingCriterion);
     }
 
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion, Collection<VariableAction> variables) {
+        this.slicingCriterion = slicingCriterion;
+        return super.traverse(slicingCriterion, variables);
+    }
+
     @Override
     protected boolean ignorePass1(Arc arc) {
         return super.ignorePass1(arc) || ignorePseudoPredicate(arc);
@@ -29,7 +49,7 @@ public class PseudoPredicateSlicingAlgorithm extends ClassicSlicingAlgorithm {
 
     protected boolean ignorePseudoPredicate(Arc arc) {
         GraphNode<?> target = graph.getEdgeTarget(arc);
-        return ((ESSDG) graph).isPseudoPredicate(target)
+        return pseudoPredicate.test(target)
                 && arc.isControlDependencyArc()
                 && target != slicingCriterion;
     }
@@ -0,0 +1,209 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.nodes.GraphNode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Answers whether a node belongs to the backward slice of another, as computed by the
+ * {@link FrozenClassicSlicingAlgorithm}, without traversing the graph in most cases.
+ * <br/>
+ * The two passes of the algorithm are modelled as a graph of states, whose {@link TwoPassCondensation
+ * condensation} is computed first: a node belongs to the slice of a criterion if and only if the component
+ * of its second-pass state is reachable from the component of the first-pass state of the criterion.
+ * <br/>
+ * The acyclic graph of components is labelled as in GRAIL (Yildirim et al., 2010): each of {@code k}
+ * randomized depth-first traversals gives every component an interval that contains the intervals of
+ * every component it reaches. If any interval doesn't contain the other, the answer is negative. If the
+ * target is a descendant of the source in the spanning tree of the first traversal, it is positive.
+ * Otherwise, a depth-first search is performed, which skips the components whose intervals don't
+ * contain the target.
+ * <br/>
+ * <b>Cost</b>: with {@code N} nodes, {@code E} arcs and {@code C} components ({@code C <= 2N}),
+ * building the index takes {@code O(k (N + E))} time, and it uses {@code 4 (4N + A + C (2k + 3))}
+ * bytes (including the condensation), where {@code A <= 2E + N} is the number of arcs between components.
+ * {@link #estimateSize()} reports the exact amount.
+ * Queries take constant time when the labels decide the answer, which happens for most negative answers.
+ * <br/>
+ * The index is immutable, so it may be queried by several threads at once. In an exception-sensitive
+ * snapshot, the answers still correspond to the classic algorithm.
+ */
+public class ReachabilityIndex {
+    public static final int DEFAULT_LABELS = 3;
+
+    protected final TwoPassCondensation condensation;
+    protected final int labelCount;
+    protected final int componentCount;
+    /** Post-order number and lowest post-order number reached, of each component in each traversal. */
+    protected final int[][] post;
+    protected final int[][] low;
+    /** Pre-order number of each component in the first traversal. */
+    protected final int[] pre;
+
+    public ReachabilityIndex(FrozenSDG graph) {
+        this(graph, DEFAULT_LABELS, 0);
+    }
+
+    /**
+     * @param labels The number of randomized traversals, at least 1. More traversals decide more
+     *               queries without a search, at the cost of more memory.
+     * @param seed   The seed of the random order of the traversals.
+     */
+    public ReachabilityIndex(FrozenSDG graph, int labels, long seed) {
+        this(new TwoPassCondensation(graph), labels, seed);
+    }
+
+    /** Builds an index over an existing condensation, which may be shared with other users. */
+    public ReachabilityIndex(TwoPassCondensation condensation, int labels, long seed) {
+        if (labels < 1)
+            throw new IllegalArgumentException("At least one label is needed");
+        this.condensation = Objects.requireNonNull(condensation);
+        this.labelCount = labels;
+        this.componentCount = condensation.getComponentCount();
+        this.post = new int[labels][];
+        this.low = new int[labels][];
+        this.pre = new int[componentCount];
+        Random random = new Random(seed);
+        for (int i = 0; i < labels; i++)
+            label(i, random);
+    }
+
+    /** Performs the i-th randomized traversal of the components, computing their intervals. */
+    protected void label(int i, Random random) {
+        int[] postOrder = post[i] = new int[componentCount];
+        int[] lowest = low[i] = new int[componentCount];
+        int[] roots = new int[componentCount];
+        for (int c = 0; c < componentCount; c++)
+            roots[c] = c;
+        for (int c = componentCount - 1; c > 0; c--) {
+            int r = random.nextInt(c + 1);
+            int tmp = roots[c];
+            roots[c] = roots[r];
+            roots[r] = tmp;
+        }
+        // Children are visited starting from a random one
+        int[] start = new int[componentCount];
+        int[] visitedChildren = new int[componentCount];
+        int[] callStack = new int[componentCount];
+        BitSet visited = new BitSet(componentCount);
+        int preCounter = 0, postCounter = 0;
+        for (int root : roots) {
+            if (visited.get(root))
+                continue;
+            int depth = 0;
+            callStack[depth++] = root;
+            visited.set(root);
+            if (i == 0)
+                pre[root] = preCounter++;
+            start[root] = condensation.getOutDegree(root) == 0 ? 0 : random.nextInt(condensation.getOutDegree(root));
+            while (depth > 0) {
+                int component = callStack[depth - 1];
+                int degree = condensation.getOutDegree(component);
+                if (visitedChildren[component] < degree) {
+                    int child = condensation.getSuccessor(component,
+                            (start[component] + visitedChildren[component]++) % degree);
+                    if (visited.get(child))
+                        continue;
+                    visited.set(child);
+                    if (i == 0)
+                        pre[child] = preCounter++;
+                    start[child] = condensation.getOutDegree(child) == 0 ? 0
+                            : random.nextInt(condensation.getOutDegree(child));
+                    callStack[depth++] = child;
+                } else {
+                    postOrder[component] = postCounter++;
+                    depth--;
+                }
+            }
+        }
+        // Arcs go to lower component numbers, so successors are always computed first
+        for (int c = 0; c < componentCount; c++) {
+            lowest[c] = postOrder[c];
+            for (int s = 0; s < condensation.getOutDegree(c); s++)
+                lowest[c] = Math.min(lowest[c], lowest[condensation.getSuccessor(c, s)]);
+        }
+    }
+
+    // ================================================
+    // =================== Queries ====================
+    // ================================================
+
+    /** Whether the node belongs to the backward slice of the criterion. */
+    public boolean isInSlice(GraphNode<?> node, GraphNode<?> slicingCriterion) {
+        int nodeIndex = condensation.getGraph().indexOf(node);
+        int criterionIndex = condensation.getGraph().indexOf(slicingCriterion);
+        if (nodeIndex < 0 || criterionIndex < 0)
+            throw new IllegalArgumentException("The node or the slicing criterion is not part of the graph");
+        return isInSlice(nodeIndex, criterionIndex);
+    }
+
+    /** Whether the node belongs to the backward slice of the criterion, both given as {@link FrozenSDG} numbers. */
+    public boolean isInSlice(int node, int slicingCriterion) {
+        return reaches(condensation.criterionComponent(slicingCriterion), condensation.sliceComponent(node));
+    }
+
+    /** Whether a component reaches another one. */
+    protected boolean reaches(int from, int to) {
+        if (from == to)
+            return true;
+        if (to > from || !mayReach(from, to))
+            return false;
+        if (isTreeDescendant(from, to))
+            return true;
+        // Search, skipping the components that can't reach the target
+        BitSet visited = new BitSet(from + 1);
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = from;
+        visited.set(from);
+        while (size > 0) {
+            int component = stack[--size];
+            for (int s = 0; s < condensation.getOutDegree(component); s++) {
+                int next = condensation.getSuccessor(component, s);
+                if (next == to || isTreeDescendant(next, to))
+                    return true;
+                if (next < to || visited.get(next) || !mayReach(next, to))
+                    continue;
+                visited.set(next);
+                if (size == stack.length)
+                    stack = Arrays.copyOf(stack, size * 2);
+                stack[size++] = next;
+            }
+        }
+        return false;
+    }
+
+    /** Whether the intervals of {@code from} contain those of {@code to}. If not, it can't reach it. */
+    protected boolean mayReach(int from, int to) {
+        for (int i = 0; i < labelCount; i++)
+            if (low[i][from] > low[i][to] || post[i][to] > post[i][from])
+                return false;
+        return true;
+    }
+
+    /** Whether {@code to} is a descendant of {@code from} in the spanning tree of the first traversal. */
+    protected boolean isTreeDescendant(int from, int to) {
+        return pre[from] <= pre[to] && post[0][to] <= post[0][from];
+    }
+
+    public FrozenSDG getGraph() {
+        return condensation.getGraph();
+    }
+
+    public TwoPassCondensation getCondensation() {
+        return condensation;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /** The number of bytes used by the arrays of this index. */
+    public long estimateSize() {
+        return condensation.estimateSize() + 4L * componentCount * (2 * labelCount + 1);
+    }
+}
@@ -6,48 +6,50 @@ import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.visitor.CloneVisitor;
 import com.github.javaparser.ast.visitor.Visitable;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
 import tfm.nodes.GraphNode;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class Slice {
-    private final Map<Long, GraphNode<?>> map = new HashMap<>();
-    private final Set<Node> nodes = new HashSet<>();
+/**
+ * The nodes of a graph that belong to a slice, which can be converted back to source code.
+ * Slices are read-only: the algorithms build them with a {@link MutableSlice}, or
+ * return a {@link FrozenSlice} of a frozen graph.
+ */
+public abstract class Slice {
+    private final Metrics metrics;
 
-    public Slice() {}
-
-    public void add(GraphNode<?> node) {
-        assert !map.containsKey(node.getId());
-        map.put(node.getId(), node);
-        nodes.add(node.getAstNode());
-    }
-
-    public void addAll(Collection<GraphNode<?>> nodes) {
-        nodes.forEach(this::add);
+    /** Creates a slice whose conversion to source code will be recorded in the given metrics. */
+    protected Slice(Metrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
     }
 
-    public boolean contains(GraphNode<?> node) {
-        return map.containsKey(node.getId());
-    }
+    public abstract boolean contains(GraphNode<?> node);
 
+    /** Whether the AST node is part of this slice. It must be the same instance, not a copy. */
     public boolean contains(Node node) {
-        return nodes.contains(node);
+        return getAstNodes().contains(node);
     }
 
+    /** The hash of the nodes of this slice. It is computed from every node on each call. */
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return getGraphNodes().hashCode();
     }
 
+    /** Whether both slices have the same nodes. It compares every node on each call. */
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof Slice && map.equals(((Slice) obj).map);
+        return obj instanceof Slice && getGraphNodes().equals(((Slice) obj).getGraphNodes());
     }
 
-    public Set<GraphNode<?>> getGraphNodes() {
-        return Set.copyOf(map.values());
-    }
+    /** A read-only view of the nodes of this slice. */
+    public abstract Set<GraphNode<?>> getGraphNodes();
+
+    /** The AST nodes of the nodes of this slice, in a set that compares them by identity. */
+    protected abstract Set<Node> getAstNodes();
 
     /**
      * Organize all nodes pertaining to this slice in one or more CompilationUnits.
@@ -55,25 +57,27 @@ public class Slice {
      * components are present.
      */
     public NodeList<CompilationUnit> toAst() {
-        Map<CompilationUnit, Set<Node>> cuMap = new HashMap<>();
-        // Add each node to the corresponding bucket of the map
-        // Nodes may not belong to a compilation unit (fictional nodes), and they are skipped for the slice.
-        for (Node node : nodes) {
-            Optional<CompilationUnit> cu = node.findCompilationUnit();
-            if (cu.isEmpty()) continue;
-            cuMap.putIfAbsent(cu.get(), new HashSet<>());
-            cuMap.get(cu.get()).add(node);
+        try (Metrics.Timer t = metrics.time(Phase.TO_AST)) {
+            return buildAst();
         }
+    }
+
+    protected NodeList<CompilationUnit> buildAst() {
+        Set<CompilationUnit> units = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Find the compilation unit of each node
+        // Nodes may not belong to a compilation unit (fictional nodes), and they are skipped for the slice.
+        for (Node node : getAstNodes())
+            node.findCompilationUnit().ifPresent(units::add);
         // Traverse the AST of each compilation unit, creating a copy and
         // removing any element not present in the slice.
         NodeList<CompilationUnit> cus = new NodeList<>();
         SlicePruneVisitor sliceVisitor = new SlicePruneVisitor();
-        CloneVisitor cloneVisitor = new CloneVisitor();
-        for (Map.Entry<CompilationUnit, Set<Node>> entry : cuMap.entrySet()) {
-            CompilationUnit clone = (CompilationUnit) entry.getKey().accept(cloneVisitor, null);
-            assert entry.getKey().getStorage().isPresent();
-            clone.setStorage(entry.getKey().getStorage().get().getPath());
-            clone.accept(sliceVisitor, entry.getValue());
+        for (CompilationUnit cu : units) {
+            CopyVisitor copyVisitor = new CopyVisitor(getAstNodes());
+            CompilationUnit clone = copyVisitor.copy(cu);
+            assert cu.getStorage().isPresent();
+            clone.setStorage(cu.getStorage().get().getPath());
+            clone.accept(sliceVisitor, copyVisitor.getCopies());
             cus.add(clone);
         }
         return cus;
@@ -81,12 +85,12 @@ public class Slice {
 
     @Deprecated
     public Node getAst() {
-        List<GraphNode<?>> methods = map.values().stream().filter(e -> e.getAstNode() instanceof MethodDeclaration).collect(Collectors.toList());
+        List<GraphNode<?>> methods = getGraphNodes().stream().filter(e -> e.getAstNode() instanceof MethodDeclaration).collect(Collectors.toList());
         if (methods.size() == 1) {
-            Optional<Long> secondNode = map.keySet().stream()
-                    .sorted(Long::compareTo).skip(1).findFirst();
+            Optional<GraphNode<?>> secondNode = getGraphNodes().stream()
+                    .sorted(Comparator.comparingLong(GraphNode::getId)).skip(1).findFirst();
             assert secondNode.isPresent();
-            Node n = map.get(secondNode.get()).getAstNode();
+            Node n = secondNode.get().getAstNode();
             assert !(n instanceof MethodDeclaration);
             while (!(n instanceof MethodDeclaration) && n.getParentNode().isPresent())
                 n = n.getParentNode().get();
@@ -98,9 +102,65 @@ public class Slice {
     }
 
     private MethodDeclaration getMethodAst(Node node) {
-        Visitable clone = node.accept(new CloneVisitor(), null);
+        CopyVisitor copyVisitor = new CopyVisitor(getAstNodes());
+        Node clone = copyVisitor.copy(node);
         assert clone instanceof MethodDeclaration;
-        clone.accept(new SlicePruneVisitor(), nodes);
+        clone.accept(new SlicePruneVisitor(), copyVisitor.getCopies());
         return ((MethodDeclaration) clone);
     }
+
+    /**
+     * Copies an AST, and finds the copies of some of its nodes as they are created. Each node is
+     * matched with its own copy, even if there are equal nodes with the same range (or without one).
+     * The copies are compared by identity, so that looking them up doesn't traverse their children.
+     */
+    protected static class CopyVisitor extends CloneVisitor {
+        /** The nodes whose copies are found, in a set that compares them by identity. */
+        protected final Set<Node> originals;
+        protected final Set<Node> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        public CopyVisitor(Set<Node> originals) {
+            this.originals = originals;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T extends Node> T copy(T node) {
+            T clone = (T) node.accept(this, null);
+            record(node, clone);
+            return clone;
+        }
+
+        /** The copies of the original nodes found so far. */
+        public Set<Node> getCopies() {
+            return copies;
+        }
+
+        @Override
+        protected <T extends Node> T cloneNode(T node, Object arg) {
+            T clone = super.cloneNode(node, arg);
+            record(node, clone);
+            return clone;
+        }
+
+        @Override
+        protected <T extends Node> T cloneNode(Optional<T> node, Object arg) {
+            T clone = super.cloneNode(node, arg);
+            node.ifPresent(n -> record(n, clone));
+            return clone;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Visitable visit(NodeList n, Object arg) {
+            NodeList<?> clone = (NodeList<?>) super.visit(n, arg);
+            for (int i = 0; i < n.size(); i++)
+                record(n.get(i), clone.get(i));
+            return clone;
+        }
+
+        protected void record(Node original, Node copy) {
+            if (copy != null && originals.contains(original))
+                copies.add(copy);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package tfm.slicing;
+
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.nodes.GraphNode;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the slices computed on a graph, by slicing criterion and {@link Algorithm algorithm},
+ * within a budget of heap memory. When the budget is exceeded, the least recently used slices
+ * are evicted.
+ * <br/>
+ * The memory retained by each slice is estimated from its number of nodes. The graph must not be
+ * modified while its slices are cached, e.g. {@link tfm.graphs.sdg.SDG#build(com.github.javaparser.ast.NodeList)
+ * building an SDG} clears its cache.
+ * <br/>
+ * Besides answering repeated criteria, the cached classic slices are reused by the
+ * {@link CachedSlicingAlgorithm} to compute the slices of other criteria.
+ * <br/>
+ * Instances are thread-safe.
+ */
+public class SliceCache {
+    /** Estimated bytes retained by each node of a cached slice. */
+    public static final long NODE_BYTES = 16;
+    /** Estimated bytes retained by each cached slice, regardless of its size. */
+    public static final long ENTRY_BYTES = 128;
+
+    /** The slicing algorithms whose results are cached separately. */
+    public enum Algorithm {
+        /** {@link ClassicSlicingAlgorithm} and its {@link FrozenClassicSlicingAlgorithm frozen} version. */
+        CLASSIC,
+        /** {@link ExceptionSensitiveSlicingAlgorithm} and its {@link FrozenExceptionSensitiveSlicingAlgorithm frozen} version. */
+        EXCEPTION_SENSITIVE
+    }
+
+    protected final long budget;
+    /** The slices in access order (least recently used first). Guarded by {@code this}. */
+    protected final LinkedHashMap<Key, Set<GraphNode<?>>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    protected long usedBytes = 0;
+
+    protected final LongAdder hits = new LongAdder();
+    protected final LongAdder misses = new LongAdder();
+    protected final LongAdder evictions = new LongAdder();
+
+    /** @param budget The maximum number of bytes that the cached slices should retain. */
+    public SliceCache(long budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("The memory budget must be positive");
+        this.budget = budget;
+    }
+
+    /** Obtains the cached slice of a criterion, or computes and caches it if it isn't cached. */
+    public Slice computeIfAbsent(GraphNode<?> slicingCriterion, Algorithm algorithm,
+                                 SlicingAlgorithm slicingAlgorithm, Metrics metrics) {
+        Optional<Set<GraphNode<?>>> cached = get(slicingCriterion, algorithm);
+        if (cached.isPresent()) {
+            metrics.increment(Counter.SLICES);
+            metrics.increment(Counter.SLICE_CACHE_HITS);
+            return toSlice(cached.get(), metrics);
+        }
+        Slice slice = slicingAlgorithm.traverse(slicingCriterion);
+        put(slicingCriterion, algorithm, slice.getGraphNodes());
+        return slice;
+    }
+
+    /** The nodes in the cached slice of a criterion, counting it as a hit or a miss. */
+    public Optional<Set<GraphNode<?>>> get(GraphNode<?> slicingCriterion, Algorithm algorithm) {
+        Set<GraphNode<?>> slice;
+        synchronized (this) {
+            slice = entries.get(new Key(slicingCriterion, algorithm));
+        }
+        (slice == null ? misses : hits).increment();
+        return Optional.ofNullable(slice);
+    }
+
+    /** The nodes in the cached slice of a criterion, or null. It is neither a hit nor a use of the slice. */
+    protected synchronized Set<GraphNode<?>> peek(GraphNode<?> slicingCriterion, Algorithm algorithm) {
+        if (entries.isEmpty())
+            return null;
+        return entries.get(new Key(slicingCriterion, algorithm));
+    }
+
+    /** Caches the slice of a criterion, evicting other slices if the budget is exceeded.
+     *  Slices larger than the budget are not cached. */
+    public void put(GraphNode<?> slicingCriterion, Algorithm algorithm, Collection<GraphNode<?>> slice) {
+        long size = estimateSize(slice.size());
+        if (size > budget)
+            return;
+        Set<GraphNode<?>> nodes = Set.copyOf(slice);
+        synchronized (this) {
+            Set<GraphNode<?>> old = entries.put(new Key(slicingCriterion, algorithm), nodes);
+            if (old != null)
+                usedBytes -= estimateSize(old.size());
+            usedBytes += size;
+            Iterator<Set<GraphNode<?>>> it = entries.values().iterator();
+            while (usedBytes > budget && it.hasNext()) {
+                Set<GraphNode<?>> evicted = it.next();
+                it.remove();
+                usedBytes -= estimateSize(evicted.size());
+                evictions.increment();
+            }
+        }
+    }
+
+    /** Discards every cached slice. */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    protected static long estimateSize(int nodes) {
+        return ENTRY_BYTES + NODE_BYTES * nodes;
+    }
+
+    /** Creates a slice with the given nodes. */
+    protected static Slice toSlice(Collection<GraphNode<?>> nodes, Metrics metrics) {
+        MutableSlice slice = new MutableSlice(metrics);
+        for (GraphNode<?> node : nodes)
+            slice.add(node);
+        return slice;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d slices, %d/%d KB, %d hits, %d misses, %d evictions",
+                entries.size(), usedBytes / 1024, budget / 1024, getHits(), getMisses(), getEvictions());
+    }
+
+    /** A criterion, compared by identity, and an algorithm. */
+    protected static class Key {
+        protected final GraphNode<?> node;
+        protected final Algorithm algorithm;
+
+        protected Key(GraphNode<?> node, Algorithm algorithm) {
+            this.node = Objects.requireNonNull(node);
+            this.algorithm = Objects.requireNonNull(algorithm);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return node == key.node && algorithm == key.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(node) + algorithm.hashCode();
+        }
+    }
+}
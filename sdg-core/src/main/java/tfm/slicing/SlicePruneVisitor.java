@@ -16,6 +16,11 @@ import com.github.javaparser.ast.visitor.Visitable;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Removes from an AST the statements and declarations that are not in the given set. The set
+ * should compare nodes by identity (see {@link Slice.CopyVisitor}),
+ * as the equality of AST nodes is structural, so two equal statements couldn't be told apart.
+ */
 public class SlicePruneVisitor extends ModifierVisitor<Set<Node>> {
     // ========== Utility methods ==========
 
@@ -0,0 +1,113 @@
+package tfm.slicing;
+
+import tfm.nodes.GraphNode;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the nodes of a slice as they are found, e.g. to show them while the slice is computed.
+ * Each subscriber receives every node of the slice, from its own traversal, which only advances as
+ * far as the subscriber has requested. The signals of each subscription are sent from the given
+ * executor, one at a time.
+ * @see FrozenClassicSlicingAlgorithm#iterator(GraphNode)
+ */
+public class SlicePublisher implements Flow.Publisher<GraphNode<?>> {
+    protected final Supplier<Iterator<GraphNode<?>>> traversal;
+    protected final Executor executor;
+
+    /**
+     * @param traversal Creates a lazy traversal of the slice for each subscriber.
+     * @param executor  Where the traversal is performed and the subscribers are notified.
+     */
+    public SlicePublisher(Supplier<Iterator<GraphNode<?>>> traversal, Executor executor) {
+        this.traversal = Objects.requireNonNull(traversal);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GraphNode<?>> subscriber) {
+        subscriber.onSubscribe(new Subscription(Objects.requireNonNull(subscriber)));
+    }
+
+    /** Sends the nodes requested by a subscriber. Requests made while the nodes are being sent are
+     *  served by the same task, so that signals are never sent concurrently or recursively. */
+    protected class Subscription implements Flow.Subscription, Runnable {
+        protected final Flow.Subscriber<? super GraphNode<?>> subscriber;
+        /** The nodes requested and not sent yet, or {@link Long#MAX_VALUE} if unbounded. */
+        protected final AtomicLong demand = new AtomicLong();
+        /** The number of times that the subscription has been scheduled and not served. */
+        protected final AtomicInteger pending = new AtomicInteger();
+        protected volatile boolean done = false;
+        protected volatile IllegalArgumentException invalidRequest;
+        /** Created by the first task, so that subscribing doesn't start the traversal. */
+        protected Iterator<GraphNode<?>> iterator;
+
+        protected Subscription(Flow.Subscriber<? super GraphNode<?>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                invalidRequest = new IllegalArgumentException("The number of nodes requested must be positive: " + n);
+            else
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        protected void schedule() {
+            if (pending.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done && invalidRequest != null) {
+                    done = true;
+                    subscriber.onError(invalidRequest);
+                }
+                if (!done)
+                    send();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /** Sends the nodes requested, and completes the subscription if there are no nodes left. */
+        protected void send() {
+            try {
+                if (iterator == null)
+                    iterator = traversal.get();
+                long requested = demand.get();
+                long sent = 0;
+                while (sent < requested && !done && iterator.hasNext()) {
+                    subscriber.onNext(iterator.next());
+                    sent++;
+                }
+                if (requested != Long.MAX_VALUE)
+                    demand.addAndGet(-sent);
+                if (!done && !iterator.hasNext()) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            } catch (RuntimeException e) {
+                if (!done) {
+                    done = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,21 @@
 package tfm.slicing;
 
 import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
 
 public interface SlicingAlgorithm {
+    /** The number of nodes visited between two reports of progress to the {@link TaskMonitor monitor}. */
+    int PROGRESS_INTERVAL = 1 << 10;
+
+    /**
+     * Reports the progress of a pass (1 or 2) of a traversal. Each pass may visit every node, so the
+     * progress of the second pass starts at the number of nodes, out of twice that number, so that
+     * it only grows during the traversal.
+     * @param nodesVisited The nodes visited in this pass.
+     */
+    static void reportProgress(TaskMonitor monitor, int pass, long nodesVisited, long nodeCount) {
+        monitor.progress(TaskMonitor.Step.SLICE, (pass - 1) * nodeCount + Math.min(nodesVisited, nodeCount), 2 * nodeCount);
+    }
+
     Slice traverse(GraphNode<?> slicingCriterion);
 }
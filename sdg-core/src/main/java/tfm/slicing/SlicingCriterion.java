@@ -2,6 +2,7 @@ package tfm.slicing;
 
 import tfm.graphs.cfg.CFG;
 import tfm.graphs.pdg.PDG;
+import tfm.graphs.sdg.FrozenSDG;
 import tfm.graphs.sdg.SDG;
 import tfm.nodes.GraphNode;
 
@@ -22,6 +23,7 @@ public abstract class SlicingCriterion {
     public abstract Optional<GraphNode<?>> findNode(CFG graph);
     public abstract Optional<GraphNode<?>> findNode(PDG graph);
     public abstract Optional<GraphNode<?>> findNode(SDG graph);
+    public abstract Optional<GraphNode<?>> findNode(FrozenSDG graph);
 
     @Override
     public String toString() {
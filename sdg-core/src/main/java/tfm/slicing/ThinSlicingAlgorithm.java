@@ -0,0 +1,73 @@
+package tfm.slicing;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+/**
+ * Computes <b>thin slices</b>: the statements that produce the values used by the slicing criterion,
+ * directly or through other variables, without the predicates that control whether they are executed.
+ * Only {@link Arc#isDataDependencyArc() data dependence}, {@link Arc#isParameterInOutArc() parameter-in/out}
+ * and {@link Arc#isSummaryArc() summary} arcs are traversed, in the two passes of the
+ * {@link ClassicSlicingAlgorithm classic algorithm}. Summary arcs are needed to cross calls in the first
+ * pass, but they are computed from every kind of dependence, so the values that flow through a call
+ * may include some that only control it.
+ * <br/>
+ * The slice can be {@link #expand(Slice, GraphNode) expanded} on demand with the predicates that
+ * control one of its nodes, and the values that they use.
+ */
+public class ThinSlicingAlgorithm extends ClassicSlicingAlgorithm {
+    public ThinSlicingAlgorithm(Graph graph) {
+        super(graph);
+    }
+
+    /** @param monitor Controls the slices computed by this instance, instead of the monitor of the graph. */
+    public ThinSlicingAlgorithm(Graph graph, TaskMonitor monitor) {
+        super(graph, monitor);
+    }
+
+    @Override
+    protected boolean ignorePass1(Arc arc) {
+        return super.ignorePass1(arc) || !isProducerArc(arc);
+    }
+
+    @Override
+    protected boolean ignorePass2(Arc arc) {
+        return super.ignorePass2(arc) || !isProducerArc(arc);
+    }
+
+    /** Whether the arc carries a value from its source to its target. */
+    protected boolean isProducerArc(Arc arc) {
+        return arc.isDataDependencyArc() || arc.isParameterInOutArc() || arc.isSummaryArc();
+    }
+
+    /**
+     * Adds to a thin slice the predicates that control one of its nodes, and their thin slices.
+     * The predicates are sliced as new criteria, so the calls that lead to them are included.
+     * @return A new slice, with the nodes of the given one and those added.
+     */
+    public Slice expand(Slice slice, GraphNode<?> node) {
+        if (!slice.contains(node))
+            throw new IllegalArgumentException("Node " + node.getId() + " is not part of the slice");
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            MutableSlice added = new MutableSlice(metrics);
+            for (Arc arc : graph.incomingEdgesOf(node)) {
+                GraphNode<?> predicate = graph.getEdgeSource(arc);
+                if (arc.isControlDependencyArc() && !slice.contains(predicate) && !added.contains(predicate))
+                    added.add(predicate);
+            }
+            metrics.recordSlicePass(1, pass(added, 1));
+            metrics.recordSlicePass(2, pass(added, 2));
+            MutableSlice expanded = new MutableSlice(metrics);
+            expanded.addAll(slice.getGraphNodes());
+            for (GraphNode<?> n : added.getGraphNodes())
+                if (!expanded.contains(n))
+                    expanded.add(n);
+            return expanded;
+        }
+    }
+}
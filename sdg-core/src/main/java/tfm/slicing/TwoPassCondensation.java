@@ -0,0 +1,206 @@
+package tfm.slicing;
+
+import tfm.graphs.sdg.FrozenSDG;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * The condensation of the two passes of the {@link FrozenClassicSlicingAlgorithm} on a {@link FrozenSDG}.
+ * <br/>
+ * The two passes are modelled as a graph of states: each node appears once per pass, the arcs of each
+ * pass are reversed (except those ignored in that pass), and each node in the first pass leads to itself
+ * in the second pass. A node belongs to the slice of a criterion if and only if its second-pass state
+ * is reachable from the first-pass state of the criterion. Therefore, criteria whose first-pass states
+ * belong to the same strongly connected component have the same slice.
+ * <br/>
+ * The components are found once, with an iterative version of Tarjan's algorithm, and the arcs between
+ * them are kept in compressed sparse row form. With {@code N} nodes and {@code E} arcs, it takes
+ * {@code O(N + E)} time and {@code 4 (4N + A + 2C)} bytes, where {@code C <= 2N} is the number of
+ * components and {@code A <= 2E + N} the number of arcs between them.
+ * <br/>
+ * The condensation is immutable, so it may be shared by several threads and several indices.
+ */
+public class TwoPassCondensation {
+    protected final FrozenSDG graph;
+    /** The component of each state. The first-pass state of node n is 2n, the second-pass one is 2n + 1.
+     *  Components are numbered in reverse topological order: every arc goes to a lower number. */
+    protected final int[] components;
+    protected final int componentCount;
+    /** The states of each component, in compressed sparse row form. */
+    protected final int[] memberOffsets;
+    protected final int[] members;
+    /** The arcs between components, in compressed sparse row form. */
+    protected final int[] successorOffsets;
+    protected final int[] successors;
+
+    public TwoPassCondensation(FrozenSDG graph) {
+        this.graph = Objects.requireNonNull(graph);
+        this.components = new int[graph.getNodeCount() * 2];
+        this.componentCount = findComponents();
+        this.memberOffsets = new int[componentCount + 1];
+        this.members = groupMembers();
+        this.successorOffsets = new int[componentCount + 1];
+        this.successors = condense();
+    }
+
+    // ================================================
+    // ==================== States ====================
+    // ================================================
+
+    protected int stateDegree(int state) {
+        return graph.getInDegree(state >> 1) + ((state & 1) == 0 ? 1 : 0);
+    }
+
+    /** The i-th state reached from a state, or -1 if the arc is ignored in its pass. */
+    protected int stateSuccessor(int state, int i) {
+        int node = state >> 1;
+        int pass = state & 1;
+        if (i == graph.getInDegree(node))
+            return state + 1; // From the first to the second pass
+        int arc = graph.getIncomingArc(node, i);
+        int ignoredFlags = pass == 0 ? FrozenSDG.INTERPROCEDURAL_OUTPUT : FrozenSDG.INTERPROCEDURAL_INPUT;
+        return graph.hasFlag(arc, ignoredFlags) ? -1 : graph.getArcSource(arc) * 2 + pass;
+    }
+
+    /** Finds the strongly connected components of the states with an iterative version of Tarjan's algorithm.
+     *  @return The number of components. */
+    protected int findComponents() {
+        int states = components.length;
+        int[] index = new int[states];
+        int[] lowLink = new int[states];
+        int[] position = new int[states];
+        int[] stack = new int[states];
+        int[] callStack = new int[states];
+        BitSet onStack = new BitSet(states);
+        Arrays.fill(index, -1);
+        int counter = 0, stackSize = 0, componentCount = 0;
+        for (int root = 0; root < states; root++) {
+            if (index[root] >= 0)
+                continue;
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack.set(root);
+            while (depth > 0) {
+                int state = callStack[depth - 1];
+                if (position[state] < stateDegree(state)) {
+                    int next = stateSuccessor(state, position[state]++);
+                    if (next < 0)
+                        continue;
+                    if (index[next] < 0) {
+                        index[next] = lowLink[next] = counter++;
+                        stack[stackSize++] = next;
+                        onStack.set(next);
+                        callStack[depth++] = next;
+                    } else if (onStack.get(next)) {
+                        lowLink[state] = Math.min(lowLink[state], index[next]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0)
+                    lowLink[callStack[depth - 1]] = Math.min(lowLink[callStack[depth - 1]], lowLink[state]);
+                if (lowLink[state] == index[state]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack.clear(member);
+                        components[member] = componentCount;
+                    } while (member != state);
+                    componentCount++;
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    /** Fills the offsets of the states of each component (counting sort).
+     *  @return The states, grouped by component and in increasing order within each component. */
+    protected int[] groupMembers() {
+        for (int component : components)
+            memberOffsets[component + 1]++;
+        for (int c = 0; c < componentCount; c++)
+            memberOffsets[c + 1] += memberOffsets[c];
+        int[] members = new int[components.length];
+        int[] fill = Arrays.copyOf(memberOffsets, componentCount);
+        for (int state = 0; state < components.length; state++)
+            members[fill[components[state]]++] = state;
+        return members;
+    }
+
+    /** Fills the offsets of the arcs between components, without duplicates or loops.
+     *  @return The targets of the arcs. */
+    protected int[] condense() {
+        int[] targets = new int[16];
+        int size = 0;
+        int[] lastSource = new int[componentCount];
+        Arrays.fill(lastSource, -1);
+        for (int c = 0; c < componentCount; c++) {
+            successorOffsets[c] = size;
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int state = members[m];
+                int degree = stateDegree(state);
+                for (int i = 0; i < degree; i++) {
+                    int next = stateSuccessor(state, i);
+                    if (next < 0 || components[next] == c || lastSource[components[next]] == c)
+                        continue;
+                    lastSource[components[next]] = c;
+                    if (size == targets.length)
+                        targets = Arrays.copyOf(targets, size * 2);
+                    targets[size++] = components[next];
+                }
+            }
+        }
+        successorOffsets[componentCount] = size;
+        return Arrays.copyOf(targets, size);
+    }
+
+    // ================================================
+    // =================== Queries ====================
+    // ================================================
+
+    public FrozenSDG getGraph() {
+        return graph;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /** The component of the first-pass state of a node, which is shared by every node with the same slice. */
+    public int criterionComponent(int node) {
+        return components[node * 2];
+    }
+
+    /** The component of the second-pass state of a node, which is reached by every criterion whose slice contains it. */
+    public int sliceComponent(int node) {
+        return components[node * 2 + 1];
+    }
+
+    public int getOutDegree(int component) {
+        return successorOffsets[component + 1] - successorOffsets[component];
+    }
+
+    /** The i-th component reached through an arc from a component. Its number is always lower. */
+    public int getSuccessor(int component, int i) {
+        return successors[successorOffsets[component] + i];
+    }
+
+    public int getMemberCount(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    /** The i-th state of a component: {@code 2n} for the first pass of node {@code n}, {@code 2n + 1} for the second. */
+    public int getMember(int component, int i) {
+        return members[memberOffsets[component] + i];
+    }
+
+    /** The number of bytes used by the arrays of this condensation. */
+    public long estimateSize() {
+        return 4L * (components.length + memberOffsets.length + members.length
+                + successorOffsets.length + successors.length);
+    }
+}
@@ -0,0 +1,122 @@
+package tfm.slicing;
+
+import tfm.arcs.Arc;
+import tfm.graphs.Graph;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.metrics.Phase;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+import tfm.utils.Utils;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The two passes of the slicing algorithm of the SDG, in which each pass ignores some of the
+ * interprocedural arcs, so that the slice doesn't include unfeasible paths through the calls.
+ * Subclasses define the direction of the traversal and the arcs ignored in each pass.
+ */
+public abstract class TwoPassSlicingAlgorithm implements SlicingAlgorithm {
+    protected final Graph graph;
+    protected final TaskMonitor monitor;
+    /** The summaries used in the second pass, or null if every node is traversed. */
+    protected final MethodSummaries summaries;
+
+    protected TwoPassSlicingAlgorithm(Graph graph) {
+        this(graph, graph.getMonitor());
+    }
+
+    /** @param monitor Controls the slices computed by this instance, instead of the monitor of the graph. */
+    protected TwoPassSlicingAlgorithm(Graph graph, TaskMonitor monitor) {
+        this(graph, monitor, null);
+    }
+
+    /**
+     * @param summaries When the second pass reaches the output of a method, the nodes of its summary are
+     *                  added at once, instead of traversing them. They must be summaries of the same graph.
+     *                  Subclasses that change {@link #ignorePass2(Arc)} must not use them.
+     */
+    protected TwoPassSlicingAlgorithm(Graph graph, TaskMonitor monitor, MethodSummaries summaries) {
+        this.graph = graph;
+        this.monitor = monitor;
+        this.summaries = summaries;
+    }
+
+    @Override
+    public Slice traverse(GraphNode<?> slicingCriterion) {
+        Metrics metrics = graph.getMetrics();
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+            MutableSlice slice = new MutableSlice(metrics);
+            slice.add(slicingCriterion);
+            metrics.recordSlicePass(1, pass(slice, 1));
+            metrics.recordSlicePass(2, pass(slice, 2, summaries));
+            return slice;
+        }
+    }
+
+    /** Whether the arc is not traversed in the first pass. */
+    protected abstract boolean ignorePass1(Arc arc);
+
+    /** Whether the arc is not traversed in the second pass. */
+    protected abstract boolean ignorePass2(Arc arc);
+
+    /** Performs a pass (1 or 2) of the traversal from the nodes in the slice, adding the nodes reached.
+     *  @return The number of arcs visited.
+     *  @see #arcsToTraverse(GraphNode) */
+    protected long pass(MutableSlice slice, int pass) {
+        return pass(slice, pass, null);
+    }
+
+    /** Performs a traversal from the nodes in the slice, adding the nodes reached. The nodes of the
+     *  summary of each method output reached are added without traversing them.
+     *  @param summaries The summaries of the method outputs, or null to traverse every node.
+     *  @return The number of arcs visited. */
+    protected long pass(MutableSlice slice, int pass, MethodSummaries summaries) {
+        Predicate<Arc> ignoreCondition = pass == 1 ? this::ignorePass1 : this::ignorePass2;
+        // `toVisit` behaves like a set and using iterable we can use it as a queue
+        // More info: https://stackoverflow.com/a/2319126
+        LinkedHashSet<GraphNode<?>> toVisit = new LinkedHashSet<>(slice.getGraphNodes());
+        Set<GraphNode<?>> visited = new HashSet<>();
+        long arcsVisited = 0;
+
+        while (!toVisit.isEmpty()) {
+            GraphNode<?> node = Utils.setPop(toVisit);
+            // Avoid duplicate traversal
+            if (visited.contains(node))
+                continue;
+            visited.add(node);
+            if (visited.size() % PROGRESS_INTERVAL == 0)
+                SlicingAlgorithm.reportProgress(monitor, pass, visited.size(), graph.vertexSet().size());
+            if (summaries != null && summaries.isOutput(node)) {
+                MethodSummaries.Summary summary = summaries.get(node);
+                visited.addAll(summary.getNodes());
+                for (GraphNode<?> exit : summary.getExits())
+                    if (!visited.contains(exit))
+                        toVisit.add(exit);
+                continue;
+            }
+            // Traverse all edges (backwards, unless overridden)
+            for (Arc arc : arcsToTraverse(node)) {
+                arcsVisited++;
+                if (ignoreCondition.test(arc))
+                    continue;
+                GraphNode<?> next = nextNode(arc);
+                if (!visited.contains(next))
+                    toVisit.add(next);
+            }
+        }
+
+        for (GraphNode<?> node : visited)
+            if (!slice.contains(node))
+                slice.add(node);
+        return arcsVisited;
+    }
+
+    /** The arcs that may be traversed from a node reached. */
+    protected abstract Set<Arc> arcsToTraverse(GraphNode<?> node);
+
+    /** The node reached by traversing one of the arcs returned by {@link #arcsToTraverse(GraphNode)}. */
+    protected abstract GraphNode<?> nextNode(Arc arc);
+}
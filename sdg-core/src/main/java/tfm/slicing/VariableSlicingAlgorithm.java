@@ -0,0 +1,16 @@
+package tfm.slicing;
+
+import tfm.nodes.GraphNode;
+import tfm.nodes.VariableAction;
+
+import java.util.Collection;
+
+/** A slicing algorithm that can start from some of the variables of a statement, instead of the whole statement. */
+public interface VariableSlicingAlgorithm extends SlicingAlgorithm {
+    /**
+     * Slices from the given variables of the criterion. The slice always contains the criterion.
+     * @param variables Actions of the variables of the criterion, or of its synthetic nodes (e.g. its actual-in nodes).
+     * @see FileLineVariableCriterion#findVariableActions(tfm.graphs.Graph, GraphNode)
+     */
+    Slice traverse(GraphNode<?> slicingCriterion, Collection<VariableAction> variables);
+}
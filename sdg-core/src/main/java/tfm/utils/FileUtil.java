@@ -28,7 +28,7 @@ public class FileUtil {
         if (cmd != null) {
             new ProcessBuilder(cmd, file.getAbsolutePath()).start();
         } else {
-            Logger.format("Warning: cannot open file %s in your system (%s)",
+            Logger.format(Logger.Level.WARN, "Warning: cannot open file %s in your system (%s)",
                     file.getName(), os);
         }
     }
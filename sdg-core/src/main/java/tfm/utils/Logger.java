@@ -1,12 +1,38 @@
 package tfm.utils;
 
 import java.io.PrintStream;
-import java.util.LinkedList;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
+/**
+ * Prints messages to every registered {@link PrintStream} ({@link System#out} by default).
+ * <br/>
+ * Messages below the current {@link Level level} ({@link Level#INFO} by default) are discarded.
+ * The methods that accept a {@link Supplier} only build the message when its level is
+ * enabled, and should be used in code that runs often (e.g. once per node or argument).
+ * <br/>
+ * By default, messages are printed by the thread that logs them. {@link #startAsync(int)}
+ * moves the printing to a background thread, which receives the messages through a bounded
+ * queue; loggers block when the queue is full.
+ */
 public class Logger {
-    protected static final List<PrintStream> printStreams = new LinkedList<>();
+    /** The importance of a message, from least to most important. */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    protected static final List<PrintStream> printStreams = new CopyOnWriteArrayList<>();
+
+    protected static volatile Level level = Level.INFO;
+    protected static volatile AsyncWriter asyncWriter;
 
     static {
         printStreams.add(System.out);
@@ -20,6 +46,23 @@ public class Logger {
         printStreams.clear();
     }
 
+    public static Level getLevel() {
+        return level;
+    }
+
+    /** Sets the minimum level of the messages that are printed. {@link Level#OFF} disables the logger. */
+    public static void setLevel(Level level) {
+        Logger.level = Objects.requireNonNull(level);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(Logger.level) >= 0 && !printStreams.isEmpty();
+    }
+
+    // ================================================
+    // ============== INFO (legacy API) ===============
+    // ================================================
+
     public static void log() {
         log("");
     }
@@ -37,15 +80,144 @@ public class Logger {
     }
 
     public static void log(String context, String message) {
-        printStreams.forEach(out -> out.println(
-                String.format("%s%s",
-                        context.isEmpty() ? "" : String.format("[%s]: ", context),
-                        message
-                )
-        ));
+        log(Level.INFO, context, () -> message);
     }
 
     public static void format(String message, Object... args) {
-        log(String.format(message, args));
+        format(Level.INFO, message, args);
+    }
+
+    // ================================================
+    // ================ Leveled API ===================
+    // ================================================
+
+    /** Formats and prints the message, only if the given level is enabled. */
+    public static void format(Level level, String message, Object... args) {
+        log(level, "", () -> String.format(message, args));
+    }
+
+    public static void debug(String context, Supplier<?> message) {
+        log(Level.DEBUG, context, message);
+    }
+
+    public static void warn(String context, Supplier<?> message) {
+        log(Level.WARN, context, message);
+    }
+
+    public static void error(String context, Supplier<?> message) {
+        log(Level.ERROR, context, message);
+    }
+
+    /** Prints the message followed by the stack trace of the throwable, only if errors are enabled. */
+    public static void error(String context, Supplier<?> message, Throwable throwable) {
+        log(Level.ERROR, context, () -> {
+            StringWriter trace = new StringWriter();
+            throwable.printStackTrace(new PrintWriter(trace));
+            return message.get() + System.lineSeparator() + trace.toString().stripTrailing();
+        });
+    }
+
+    /** Prints the message, which is only computed if the given level is enabled. */
+    public static void log(Level level, String context, Supplier<?> message) {
+        if (!isEnabled(level))
+            return;
+        String line = (context.isEmpty() ? "" : "[" + context + "]: ") + message.get();
+        AsyncWriter writer = asyncWriter;
+        if (writer == null || !writer.offer(line))
+            print(line);
+    }
+
+    protected static void print(String line) {
+        printStreams.forEach(out -> out.println(line));
+    }
+
+    // ================================================
+    // ============== Background writer ===============
+    // ================================================
+
+    /** Prints the messages in a background thread, with a queue that holds up to {@code capacity} messages.
+     *  @throws IllegalStateException If the background thread is already running. */
+    public static synchronized void startAsync(int capacity) {
+        if (asyncWriter != null)
+            throw new IllegalStateException("The logger is already asynchronous");
+        asyncWriter = new AsyncWriter(capacity);
+        asyncWriter.start();
+    }
+
+    /** Prints the messages that are still queued and goes back to printing in the thread that logs
+     *  them. It has no effect if the logger is not asynchronous. */
+    public static synchronized void stopAsync() {
+        AsyncWriter writer = asyncWriter;
+        if (writer == null)
+            return;
+        asyncWriter = null;
+        writer.finish();
+    }
+
+    public static boolean isAsync() {
+        return asyncWriter != null;
+    }
+
+    /**
+     * Prints the lines of its queue until it is finished. Loggers queue their lines under the read lock
+     * and {@link #finish()} stops accepting them under the write lock, so every line accepted is
+     * queued before the end mark, even if its logger was blocked because the queue was full.
+     */
+    protected static class AsyncWriter extends Thread {
+        /** Marks the end of the queue. Compared by identity. */
+        protected static final String END = new String("END");
+
+        protected final BlockingQueue<String> queue;
+        protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+        protected boolean accepting = true;
+
+        protected AsyncWriter(int capacity) {
+            super("tfm-logger");
+            queue = new ArrayBlockingQueue<>(capacity);
+            setDaemon(true);
+        }
+
+        /** Queues the line, blocking while the queue is full.
+         *  @return False if the writer has stopped and the line must be printed by the caller. */
+        protected boolean offer(String line) {
+            lock.readLock().lock();
+            try {
+                if (!accepting)
+                    return false;
+                queue.put(line);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /** Waits for the loggers that are queueing a line, and prints every line queued before returning. */
+        protected void finish() {
+            // The background thread keeps printing meanwhile, so loggers blocked on a full queue can finish
+            lock.writeLock().lock();
+            try {
+                accepting = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                queue.put(END);
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (String line = queue.take(); line != END; line = queue.take())
+                    print(line);
+            } catch (InterruptedException ignored) {
+            }
+        }
     }
 }
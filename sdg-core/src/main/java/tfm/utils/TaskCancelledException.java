@@ -0,0 +1,16 @@
+package tfm.utils;
+
+/** Thrown by an operation that has been stopped by its {@link TaskMonitor}. */
+public class TaskCancelledException extends RuntimeException {
+    protected final boolean timeout;
+
+    public TaskCancelledException(String message, boolean timeout) {
+        super(message);
+        this.timeout = timeout;
+    }
+
+    /** Whether the operation was stopped because it exceeded its time budget, rather than cancelled. */
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,104 @@
+package tfm.utils;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Controls a long operation, such as building an {@link tfm.graphs.sdg.SDG SDG} or computing a
+ * slice: it can be {@link #cancel() cancelled} from another thread or given a time budget, and it
+ * receives the progress of each {@link Step}. The operation checks the monitor regularly and, once
+ * it has been cancelled or the budget has been exceeded, throws a {@link TaskCancelledException}.
+ * <br/>
+ * A graph whose construction has been cancelled is incomplete and must be discarded.
+ * <br/>
+ * Instances are thread-safe, but the listener may be called from several threads at once
+ * (e.g. when several slices are computed concurrently with the same monitor), so it must be thread-safe too.
+ * @see tfm.graphs.Graph#setMonitor(TaskMonitor)
+ */
+public class TaskMonitor {
+    /** A monitor that can't be cancelled, has no time budget and ignores the progress. */
+    public static final TaskMonitor NONE = new TaskMonitor(null, null) {
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException("The default monitor can't be cancelled");
+        }
+    };
+
+    /** The parts of an operation whose progress is reported. */
+    public enum Step {
+        /** PDGs built, out of the number of methods with a body. */
+        METHODS,
+        /** Nodes whose method calls have been replaced, out of the nodes of the SDG. */
+        CALL_REPLACEMENT,
+        /** Rounds of the fixed point analysis (the total is unknown), or methods
+         *  analysed out of the total if the summary arcs are computed one method at a time. */
+        SUMMARY_ARCS,
+        /** Nodes visited by the two passes of a slicing traversal, out of twice the nodes of the graph
+         *  (the second pass starts at the number of nodes), or by a traversal with a single pass. */
+        SLICE
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        /** @param total The number of units of work in the step, or -1 if it is not known. */
+        void progress(Step step, long done, long total);
+    }
+
+    protected final Listener listener;
+    /** The {@link System#nanoTime()} when the budget runs out, only used if {@link #hasDeadline}. */
+    protected final long deadline;
+    protected final boolean hasDeadline;
+    protected volatile boolean cancelled = false;
+
+    public TaskMonitor() {
+        this(null, null);
+    }
+
+    /**
+     * @param budget   The time that the operations controlled may take, starting now, or null for no limit.
+     * @param listener The receiver of the progress, or null to ignore it.
+     */
+    public TaskMonitor(Duration budget, Listener listener) {
+        this.listener = listener;
+        this.hasDeadline = budget != null;
+        this.deadline = hasDeadline ? System.nanoTime() + budget.toNanos() : 0;
+    }
+
+    /** Creates a monitor with the given time budget, starting now, and no listener. */
+    public static TaskMonitor withBudget(Duration budget) {
+        return new TaskMonitor(Objects.requireNonNull(budget), null);
+    }
+
+    /** Requests the operations controlled by this monitor to stop as soon as possible. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Whether the time budget has been exceeded. */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline > 0;
+    }
+
+    /** @throws TaskCancelledException If this monitor has been cancelled or its budget has been exceeded. */
+    public void checkCancelled() {
+        if (cancelled)
+            throw new TaskCancelledException("The operation has been cancelled", false);
+        if (isExpired())
+            throw new TaskCancelledException("The operation has exceeded its time budget", true);
+    }
+
+    /**
+     * Reports the progress of a step to the listener, after {@link #checkCancelled() checking}
+     * whether the operation must stop.
+     * @param total The number of units of work in the step, or -1 if it is not known.
+     */
+    public void progress(Step step, long done, long total) {
+        checkCancelled();
+        if (listener != null)
+            listener.progress(step, done, total);
+    }
+}
@@ -0,0 +1,98 @@
+package tfm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.arcs.Arc;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+/** Checks that a {@link FrozenSDG} keeps the graph it was created from, and that slicing it produces the same slices as slicing the {@link SDG}. */
+public class FrozenSDGTest {
+    private static final String PROGRAM = "class Sum {\n" +
+            "    static int add(int a, int b) {\n" +
+            "        return a + b;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = 1;\n" +
+            "        int z = 5;\n" +
+            "        while (x < 10)\n" +
+            "            x = add(x, y);\n" +
+            "        System.out.println(x);\n" +
+            "        System.out.println(z);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The snapshot numbers the nodes in id order, and keeps the arcs of each node. */
+    @Test
+    public void snapshotKeepsTheGraph() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        FrozenSDG frozen = sdg.freeze();
+        assertEquals(sdg.vertexSet().size(), frozen.getNodeCount());
+        assertEquals(sdg.edgeSet().size(), frozen.getArcCount());
+        for (int i = 0; i < frozen.getNodeCount(); i++) {
+            GraphNode<?> node = frozen.getNode(i);
+            assertEquals(i, frozen.indexOf(node));
+            assertTrue(i == 0 || frozen.getNode(i - 1).getId() < node.getId());
+            assertEquals(sdg.inDegreeOf(node), frozen.getInDegree(i));
+            assertEquals(sdg.outDegreeOf(node), frozen.getOutDegree(i));
+            for (int j = 0; j < frozen.getInDegree(i); j++) {
+                Arc arc = frozen.getArc(frozen.getIncomingArc(i, j));
+                assertEquals(node, sdg.getEdgeTarget(arc));
+                assertEquals(frozen.getNode(frozen.getArcSource(frozen.getIncomingArc(i, j))), sdg.getEdgeSource(arc));
+            }
+        }
+    }
+
+    @Test
+    public void sliceOfSnapshot() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        Slice slice = new FrozenClassicSlicingAlgorithm(sdg.freeze()).traverse(TestUtils.nodeAt(sdg, 11));
+        assertEquals(Set.of(2, 3, 5, 6, 7, 9, 10, 11), TestUtils.lines(slice));
+    }
+
+    @Test
+    public void changesAfterFreezingAreIgnored() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        FrozenSDG frozen = sdg.freeze();
+        GraphNode<?> criterion = TestUtils.nodeAt(sdg, 11);
+        Set<Long> before = ids(new FrozenClassicSlicingAlgorithm(frozen).traverse(criterion));
+        sdg.removeAllEdges(new HashSet<>(sdg.incomingEdgesOf(criterion)));
+        assertEquals(Set.of(criterion.getId()), ids(new ClassicSlicingAlgorithm(sdg).traverse(criterion)));
+        assertEquals(before, ids(new FrozenClassicSlicingAlgorithm(frozen).traverse(criterion)));
+    }
+
+    @Test
+    public void onlyBuiltGraphsCanBeFrozen() {
+        assertThrows(IllegalStateException.class, () -> new SDG().freeze());
+    }
+
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        FrozenSDG frozen = sdg.freeze();
+        List<GraphNode<?>> criteria = sdg.vertexSet().stream().sorted().collect(Collectors.toList());
+        Map<GraphNode<?>, Set<Long>> expected = criteria.stream().collect(Collectors.toMap(n -> n, n -> ids(
+                exceptionSensitive ? new ExceptionSensitiveSlicingAlgorithm((ESSDG) sdg).traverse(n)
+                        : new ClassicSlicingAlgorithm(sdg).traverse(n))));
+        // A single instance of the algorithm, shared by all threads
+        SlicingAlgorithm algorithm = exceptionSensitive ? new FrozenExceptionSensitiveSlicingAlgorithm(frozen)
+                : new FrozenClassicSlicingAlgorithm(frozen);
+        criteria.parallelStream().forEach(n ->
+                assertEquals(expected.get(n), ids(algorithm.traverse(n)), "Slice of node " + n.getId()));
+    }
+}
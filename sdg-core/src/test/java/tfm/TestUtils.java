@@ -0,0 +1,171 @@
+package tfm;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.junit.jupiter.params.provider.Arguments;
+import tfm.graphs.Graph;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.SyntheticNode;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.ExceptionSensitiveSlicingAlgorithm;
+import tfm.slicing.Slice;
+import tfm.utils.Logger;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Builds graphs from the small programs written in the tests, and locates their nodes by line.
+ * The programs in {@link #REVIEW_FILES} are used to check properties that must hold for every
+ * node of a graph (e.g. that two algorithms give the same slices).
+ */
+public class TestUtils {
+    public static final String REVIEW_FILES = "src/test/res/review-07-2020";
+    /** A program with constructors, which the SDG doesn't support (the ESSDG does). */
+    public static final String UNSUPPORTED_BY_SDG = "P5.java";
+
+    /** A loop whose body calls a method, which is called again after the loop with another variable. */
+    public static final String LOOP = "class Loop {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = 0;\n" +
+            "        while (x < 10)\n" +
+            "            x = inc(x);\n" +
+            "        y = inc(y);\n" +
+            "        System.out.println(x);\n" +
+            "    }\n" +
+            "}\n";
+    /** The lines of the slice of {@link #LOOP} from line 11, which prints {@code x}. */
+    public static final Set<Integer> LOOP_X_SLICE = Set.of(2, 3, 5, 6, 8, 9, 11);
+    /** The lines of the slice of {@link #LOOP} from line 10, which calls the method with {@code y}. */
+    public static final Set<Integer> LOOP_Y_SLICE = Set.of(2, 3, 5, 7, 10);
+
+    static {
+        Logger.clearPrintStreams();
+        CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+        combinedTypeSolver.add(new ReflectionTypeSolver(true));
+        JavaParser.getStaticConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
+        JavaParser.getStaticConfiguration().setAttributeComments(false);
+    }
+
+    /** Parses a program, which is stored in a file named after its first type, in the working directory. */
+    public static CompilationUnit parse(String source) {
+        CompilationUnit cu = JavaParser.parse(source);
+        cu.setStorage(Paths.get(cu.getType(0).getNameAsString() + ".java").toAbsolutePath());
+        return cu;
+    }
+
+    /** Builds the SDG (or ES-SDG) of some programs. */
+    public static SDG build(boolean exceptionSensitive, String... sources) {
+        NodeList<CompilationUnit> units = new NodeList<>();
+        for (String source : sources)
+            units.add(parse(source));
+        SDG sdg = exceptionSensitive ? new ESSDG() : new SDG();
+        sdg.build(units);
+        return sdg;
+    }
+
+    /** Builds the SDG (or ES-SDG) of a file. */
+    public static SDG build(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = exceptionSensitive ? new ESSDG() : new SDG();
+        sdg.build(new NodeList<>(JavaParser.parse(source)));
+        return sdg;
+    }
+
+    /** The programs in {@link #REVIEW_FILES}, as (file, exception-sensitive) arguments for every graph that supports them. */
+    public static Arguments[] reviewFiles() {
+        List<Arguments> arguments = new LinkedList<>();
+        for (File file : listReviewFiles()) {
+            if (!file.getName().equals(UNSUPPORTED_BY_SDG))
+                arguments.add(Arguments.of(file, false));
+            arguments.add(Arguments.of(file, true));
+        }
+        return arguments.toArray(new Arguments[0]);
+    }
+
+    /** The programs in {@link #REVIEW_FILES} that the SDG supports. */
+    public static File[] classicReviewFiles() {
+        return Arrays.stream(listReviewFiles())
+                .filter(file -> !file.getName().equals(UNSUPPORTED_BY_SDG))
+                .toArray(File[]::new);
+    }
+
+    protected static File[] listReviewFiles() {
+        File[] files = new File(REVIEW_FILES).listFiles((dir, name) -> name.endsWith(".java"));
+        if (files == null || files.length == 0)
+            throw new IllegalStateException("There are no programs in " + REVIEW_FILES);
+        Arrays.sort(files);
+        return files;
+    }
+
+    /** The node of the first statement that begins in the given line. */
+    public static GraphNode<?> nodeAt(Graph graph, int line) {
+        return graph.vertexSet().stream()
+                .filter(n -> !(n instanceof SyntheticNode))
+                .filter(n -> n.getAstNode() instanceof Statement)
+                .filter(n -> n.getAstNode().getBegin().map(b -> b.line == line).orElse(false))
+                .min(Comparator.naturalOrder())
+                .orElseThrow(() -> new IllegalArgumentException("There is no statement in line " + line));
+    }
+
+    /** The nodes of a graph, in the order of their ids. */
+    public static List<GraphNode<?>> nodes(Graph graph) {
+        return graph.vertexSet().stream().sorted().collect(Collectors.toList());
+    }
+
+    /** The nodes of a snapshot, in the order of their numbers. */
+    public static List<GraphNode<?>> nodes(FrozenSDG frozen) {
+        return IntStream.range(0, frozen.getNodeCount()).mapToObj(frozen::getNode).collect(Collectors.toList());
+    }
+
+    /** The slices the others are compared with: the exception-sensitive ones for an ESSDG, and the classic ones
+     *  otherwise. A new algorithm slices each criterion, as the exception-sensitive one can't be reused. */
+    public static Function<GraphNode<?>, Slice> reference(SDG sdg) {
+        if (sdg instanceof ESSDG)
+            return criterion -> new ExceptionSensitiveSlicingAlgorithm((ESSDG) sdg).traverse(criterion);
+        return criterion -> new ClassicSlicingAlgorithm(sdg).traverse(criterion);
+    }
+
+    /** Checks that the slices computed from each criterion contain the same nodes as the expected ones. */
+    public static void assertSameSlices(Function<GraphNode<?>, Slice> expected, Function<GraphNode<?>, Slice> actual,
+                                        Collection<GraphNode<?>> criteria) {
+        for (GraphNode<?> criterion : criteria)
+            assertEquals(ids(expected.apply(criterion)), ids(actual.apply(criterion)), "Slice of " + criterion.getId());
+    }
+
+    /** The ids of the nodes of a slice. */
+    public static Set<Long> ids(Slice slice) {
+        return slice.getGraphNodes().stream().map(GraphNode::getId).collect(Collectors.toSet());
+    }
+
+    /** The lines where the nodes of a slice begin, excluding synthetic nodes. */
+    public static Set<Integer> lines(Slice slice) {
+        return lines(slice.getGraphNodes());
+    }
+
+    public static Set<Integer> lines(Collection<GraphNode<?>> nodes) {
+        Set<Integer> lines = new TreeSet<>();
+        for (GraphNode<?> node : nodes)
+            if (!(node instanceof SyntheticNode))
+                node.getAstNode().getBegin().ifPresent(b -> lines.add(b.line));
+        return lines;
+    }
+}
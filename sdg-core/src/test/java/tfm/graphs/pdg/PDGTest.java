@@ -0,0 +1,114 @@
+package tfm.graphs.pdg;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.augmented.PPDG;
+import tfm.graphs.exceptionsensitive.ESPDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.FileLineSlicingCriterion;
+import tfm.slicing.Slice;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+
+public class PDGTest {
+    private static final String PROGRAM = "class Calls {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = 0;\n" +
+            "        while (x < 10)\n" +
+            "            x = inc(x);\n" +
+            "        y = inc(y);\n" +
+            "        System.out.println(x);\n" +
+            "    }\n" +
+            "    void nested() {\n" +
+            "        Runnable r = new Runnable() {\n" +
+            "            public void run() {\n" +
+            "                int z = 1;\n" +
+            "                System.out.println(z);\n" +
+            "            }\n" +
+            "        };\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The slice of a line of a method, computed with the PDG of the given type. */
+    private static Set<Integer> slice(CompilationUnit cu, int line, PDG pdg) {
+        FileLineSlicingCriterion criterion = new FileLineSlicingCriterion(cu.getStorage().get().getPath().toFile(), line);
+        pdg.build(criterion.findMethod(cu).orElseThrow());
+        return TestUtils.lines(pdg.slice(criterion));
+    }
+
+    /** The calls to inc are opaque statements: the slice stays in main, and doesn't include the call with y. */
+    @Test
+    public void callsAreOpaque() {
+        CompilationUnit cu = TestUtils.parse(PROGRAM);
+        for (PDG pdg : List.of(new PDG(), new PPDG(), new ESPDG()))
+            assertEquals(Set.of(5, 6, 8, 9, 11), slice(cu, 11, pdg), pdg.getClass().getSimpleName());
+        assertEquals(Set.of(5, 7, 10), slice(cu, 10, new PDG()));
+        assertEquals(Set.of(2, 3), slice(cu, 3, new PDG()));
+    }
+
+    /** The method of a line is the innermost one, such as the method of an anonymous class. */
+    @Test
+    public void findMethod() {
+        CompilationUnit cu = TestUtils.parse(PROGRAM);
+        File file = cu.getStorage().get().getPath().toFile();
+        assertEquals(Optional.of("main"), new FileLineSlicingCriterion(file, 11).findMethod(cu).map(MethodDeclaration::getNameAsString));
+        assertEquals(Optional.of("nested"), new FileLineSlicingCriterion(file, 14).findMethod(cu).map(MethodDeclaration::getNameAsString));
+        assertEquals(Optional.of("run"), new FileLineSlicingCriterion(file, 16).findMethod(cu).map(MethodDeclaration::getNameAsString));
+        assertEquals(Optional.empty(), new FileLineSlicingCriterion(file, 1).findMethod(cu));
+        assertEquals(Set.of(15, 16, 17), slice(cu, 17, new PDG()));
+    }
+
+    /** A criterion of another method or another file can't be found in the PDG. */
+    @Test
+    public void criterionOutsideThePDG() {
+        CompilationUnit cu = TestUtils.parse(PROGRAM);
+        File file = cu.getStorage().get().getPath().toFile();
+        PDG pdg = new PDG();
+        pdg.build(new FileLineSlicingCriterion(file, 11).findMethod(cu).orElseThrow());
+        assertThrows(IllegalArgumentException.class, () -> pdg.slice(new FileLineSlicingCriterion(file, 3)));
+        assertThrows(IllegalArgumentException.class, () -> pdg.slice(new FileLineSlicingCriterion(new File("Other.java"), 11)));
+    }
+
+    /** The slice of a single PDG contains the criterion, and is part of the slice of the SDG unless the
+     *  criterion is a call, whose arguments are only part of the slice of the PDG. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void intraproceduralSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        CompilationUnit cu = sdg.getCompilationUnits().get(0);
+        for (Statement statement : cu.findAll(Statement.class, s -> s.getBegin().isPresent())) {
+            FileLineSlicingCriterion criterion = new FileLineSlicingCriterion(source, statement.getBegin().get().line);
+            Optional<GraphNode<?>> node = criterion.findNode(sdg);
+            Optional<MethodDeclaration> method = criterion.findMethod(cu);
+            if (node.isEmpty() || method.isEmpty())
+                continue;
+            boolean call = node.get().getAstNode().findFirst(MethodCallExpr.class).isPresent();
+            PDG pdg = exceptionSensitive ? new ESPDG() : new PDG();
+            pdg.build(method.get());
+            Slice slice = pdg.slice(criterion);
+            Slice expected = sdg.slice(criterion);
+            assertTrue(slice.contains(node.get().getAstNode()));
+            for (GraphNode<?> n : slice.getGraphNodes())
+                assertTrue(call || expected.contains(n.getAstNode()), "Node " + n.getId() + " in the slice of line "
+                        + statement.getBegin().get().line);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package tfm.graphs.sdg;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.arcs.Arc;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.nodes.ActualIONode;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+import tfm.utils.Logger;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks that replacing the method calls of an SDG doesn't depend on the scheduling of the planning stage,
+ *  and that it doesn't modify the AST. */
+public class MethodCallReplacementTest {
+    static {
+        Logger.clearPrintStreams();
+        CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+        combinedTypeSolver.add(new ReflectionTypeSolver(true));
+        JavaParser.getStaticConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
+        JavaParser.getStaticConfiguration().setAttributeComments(false);
+    }
+
+    private static final String VARARGS = "class Varargs {\n" +
+            "    static int sum(int... xs) {\n" +
+            "        int s = 0;\n" +
+            "        for (int x : xs)\n" +
+            "            s += x;\n" +
+            "        return s;\n" +
+            "    }\n" +
+            "    public static void main(String[] args) {\n" +
+            "        int a = 1;\n" +
+            "        int b = 2;\n" +
+            "        int c = sum(a, b + 1);\n" +
+            "        System.out.println(c);\n" +
+            "    }\n" +
+            "}\n";
+
+    public static Arguments[] findAllFiles() {
+        return Stream.of("P1", "P2", "P3", "P4")
+                .map(name -> new File("src/test/res/review-07-2020", name + ".java"))
+                .flatMap(f -> Stream.of(Arguments.of(f, false), Arguments.of(f, true)))
+                .toArray(Arguments[]::new);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("findAllFiles")
+    public void parallelPlanningIsDeterministic(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sequential = build(JavaParser.parse(source), exceptionSensitive, false);
+        SDG parallel = build(JavaParser.parse(source), exceptionSensitive, true);
+        assertEquals(vertices(sequential), vertices(parallel));
+        assertEquals(arcs(sequential), arcs(parallel));
+    }
+
+    @Test
+    public void varargsStayInTheAst() {
+        CompilationUnit cu = JavaParser.parse(VARARGS);
+        String before = cu.toString();
+        SDG sdg = build(cu, false, true);
+        assertEquals(before, cu.toString());
+        MethodCallExpr call = cu.findFirst(MethodCallExpr.class, c -> c.getNameAsString().equals("sum")).orElseThrow();
+        assertEquals(2, call.getArguments().size());
+        call.getArguments().forEach(a -> {
+            assertTrue(a.getParentNode().orElseThrow() == call, a + " was detached from the call");
+            assertTrue(a.findCompilationUnit().isPresent(), a + " was detached from the compilation unit");
+        });
+        // The actual-in node of the array uses both arguments' variables
+        ActualIONode actualIn = sdg.vertexSet().stream()
+                .filter(ActualIONode.class::isInstance)
+                .map(ActualIONode.class::cast)
+                .filter(n -> n.getNodeType() == NodeType.ACTUAL_IN)
+                .filter(n -> n.getAstNode() == call)
+                .findFirst().orElseThrow();
+        assertEquals(Set.of("a", "b"), sdg.incomingEdgesOf(actualIn).stream()
+                .filter(Arc::isDataDependencyArc)
+                .map(arc -> arc.asDataDependencyArc().getTarget().getVariable())
+                .collect(Collectors.toSet()));
+    }
+
+    private static SDG build(CompilationUnit cu, boolean exceptionSensitive, boolean parallel) {
+        SDG sdg;
+        if (exceptionSensitive) {
+            sdg = new ESSDG() {
+                @Override
+                protected void replaceMethodCalls() {
+                    replaceMethodCalls(parallel);
+                }
+            };
+        } else {
+            sdg = new SDG() {
+                @Override
+                protected void replaceMethodCalls() {
+                    replaceMethodCalls(parallel);
+                }
+            };
+        }
+        sdg.build(new NodeList<>(cu));
+        return sdg;
+    }
+
+    /** The nodes of a graph, with their ids relative to the first one, as each graph has different ids. */
+    private static List<String> vertices(SDG sdg) {
+        long first = firstId(sdg);
+        return sdg.vertexSet().stream().sorted()
+                .map(n -> (n.getId() - first) + " " + n.getClass().getSimpleName() + " " + n.getNodeType() + " " + n.getInstruction())
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> arcs(SDG sdg) {
+        long first = firstId(sdg);
+        return sdg.edgeSet().stream()
+                .map(a -> (sdg.getEdgeSource(a).getId() - first) + " -> " + (sdg.getEdgeTarget(a).getId() - first)
+                        + " " + a.getClass().getSimpleName() + " " + a.getLabel())
+                .collect(Collectors.toSet());
+    }
+
+    private static long firstId(SDG sdg) {
+        return sdg.vertexSet().stream().mapToLong(GraphNode::getId).min().orElse(0);
+    }
+}
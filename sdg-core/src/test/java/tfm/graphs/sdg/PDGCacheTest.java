@@ -0,0 +1,95 @@
+package tfm.graphs.sdg;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PDGCacheTest {
+    public static File[] classicReviewFiles() {
+        return TestUtils.classicReviewFiles();
+    }
+
+    /** A rebuild that reuses every PDG is the same graph as a build from scratch, and it doesn't
+     *  modify the graph built before it. */
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("classicReviewFiles")
+    public void reusedPDGsBuildTheSameGraph(File source) throws FileNotFoundException {
+        CompilationUnit cu = JavaParser.parse(source);
+        int methods = cu.findAll(MethodDeclaration.class, m -> m.getBody().isPresent()).size();
+        PDGCache cache = new PDGCache();
+        SDG first = build(cu, cache);
+        assertEquals(methods, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        List<String> firstVertices = vertices(first);
+        List<String> firstArcs = arcs(first);
+
+        SDG second = build(cu, cache);
+        assertEquals(methods, cache.getMisses());
+        assertEquals(methods, cache.getHits());
+        SDG fresh = build(JavaParser.parse(source), null);
+        assertEquals(vertices(fresh), vertices(second));
+        assertEquals(arcs(fresh), arcs(second));
+        assertEquals(firstVertices, vertices(first));
+        assertEquals(firstArcs, arcs(first));
+    }
+
+    @Test
+    public void pdgsOfOtherUnitsAreDiscarded() {
+        CompilationUnit cu = TestUtils.parse("class A {\n" +
+                "    static int f(int x) {\n" +
+                "        return x + 1;\n" +
+                "    }\n" +
+                "}\n");
+        PDGCache cache = new PDGCache();
+        build(cu, cache);
+        assertEquals(1, cache.size());
+        cache.retainAll(List.of(cu));
+        assertEquals(1, cache.size());
+        cache.retainAll(List.of(cu.clone()));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void exceptionSensitivePDGsAreNotReused() {
+        assertThrows(UnsupportedOperationException.class, () -> new ESSDG().setPDGCache(new PDGCache()));
+    }
+
+    private static SDG build(CompilationUnit cu, PDGCache cache) {
+        SDG sdg = new SDG();
+        sdg.setPDGCache(cache);
+        sdg.build(new NodeList<>(cu));
+        return sdg;
+    }
+
+    /** The nodes of a graph, without their ids, as each graph has different ids and reused nodes keep theirs. */
+    private static List<String> vertices(SDG sdg) {
+        return sdg.vertexSet().stream().map(PDGCacheTest::describe).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> arcs(SDG sdg) {
+        return sdg.edgeSet().stream()
+                .map(a -> describe(sdg.getEdgeSource(a)) + " -> " + describe(sdg.getEdgeTarget(a))
+                        + " " + a.getClass().getSimpleName() + " " + a.getLabel())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(GraphNode<?> node) {
+        return node.getClass().getSimpleName() + " " + node.getNodeType() + " " + node.getInstruction() + " "
+                + node.getAstNode().getBegin().map(Object::toString).orElse("-") + " " + node.getVariableActions();
+    }
+}
@@ -0,0 +1,94 @@
+package tfm.metrics;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import org.junit.jupiter.api.Test;
+import tfm.TestUtils;
+import tfm.graphs.sdg.SDG;
+import tfm.slicing.ClassicSlicingAlgorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MetricsTest {
+    private static final String PROGRAM = "class Program {\n" +
+            "    static int twice(int x) {\n" +
+            "        return x * 2;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = twice(1);\n" +
+            "        System.out.println(x);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** Measuring is not free, so graphs only do it when they are given metrics. */
+    @Test
+    public void graphsAreNotMeasuredByDefault() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        assertSame(Metrics.DISABLED, sdg.getMetrics());
+        assertEquals(0, Metrics.DISABLED.getExecutions(Phase.CFG));
+        assertEquals(0, Metrics.DISABLED.get(Counter.SYMBOL_RESOLUTIONS));
+    }
+
+    @Test
+    public void disabledMetricsIgnoreEverything() {
+        Metrics metrics = Metrics.DISABLED;
+        assertFalse(metrics.isEnabled());
+        try (Metrics.Timer t = metrics.time(Phase.SLICE)) {
+            metrics.increment(Counter.SLICES);
+        }
+        boolean[] ran = { false };
+        metrics.runPart(Phase.SLICE, () -> ran[0] = true);
+        assertTrue(ran[0]);
+        assertEquals(0, metrics.getExecutions(Phase.SLICE));
+        assertEquals(0, metrics.get(Counter.SLICES));
+    }
+
+    /** The phases of the construction of an SDG and of its slices are shared by all its graphs. */
+    @Test
+    public void buildingAndSlicingAreRecorded() {
+        SDG sdg = new SDG();
+        Metrics metrics = new Metrics();
+        sdg.setMetrics(metrics);
+        sdg.build(new NodeList<>(TestUtils.parse(PROGRAM)));
+        assertEquals(2, metrics.getExecutions(Phase.CFG));
+        assertEquals(2, metrics.getExecutions(Phase.DATA_DEPENDENCE));
+        assertEquals(1, metrics.getExecutions(Phase.CALL_REPLACEMENT));
+        assertEquals(1, metrics.getExecutions(Phase.SUMMARY_ARCS));
+        assertTrue(metrics.getWallTime(Phase.CALL_REPLACEMENT) > 0);
+        assertTrue(metrics.get(Counter.SYMBOL_RESOLUTIONS) > 0);
+
+        new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 7));
+        assertEquals(1, metrics.getExecutions(Phase.SLICE));
+        assertEquals(1, metrics.get(Counter.SLICES));
+        assertTrue(metrics.get(Counter.FIRST_PASS_ARCS_VISITED) > 0);
+
+        metrics.reset();
+        assertEquals(0, metrics.getExecutions(Phase.CFG));
+        assertEquals(0, metrics.get(Counter.SLICES));
+    }
+
+    /** The allocation of the parts of a phase that run on other threads is added to the phase,
+     *  but that of the thread that measures the phase is only counted once. */
+    @Test
+    public void partsOnOtherThreadsAddTheirAllocation() throws InterruptedException {
+        assumeTrue(Metrics.currentThreadAllocatedBytes() > 0, "The JVM can't measure the memory allocated by a thread");
+        int size = 4 * 1024 * 1024;
+        Metrics metrics = new Metrics();
+        try (Metrics.Timer t = metrics.time(Phase.CALL_REPLACEMENT)) {
+            Thread worker = new Thread(() -> metrics.runPart(Phase.CALL_REPLACEMENT, () -> allocate(size)));
+            worker.start();
+            worker.join();
+            metrics.runPart(Phase.CALL_REPLACEMENT, () -> allocate(size));
+        }
+        long allocated = metrics.getAllocatedBytes(Phase.CALL_REPLACEMENT);
+        assertTrue(allocated >= 2 * size, "Allocated " + allocated);
+        assertTrue(allocated < 3 * size, "Allocated " + allocated);
+    }
+
+    private static volatile byte[] sink;
+
+    private static void allocate(int size) {
+        sink = new byte[size];
+    }
+}
@@ -0,0 +1,142 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.nodes;
+import static tfm.slicing.BoundedSlicingAlgorithm.UNBOUNDED;
+
+public class BoundedSlicingAlgorithmTest {
+    private static final String CHAIN = "class Chain {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = x + 1;\n" +
+            "        int z = y + 1;\n" +
+            "        int w = inc(z);\n" +
+            "        System.out.println(w);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The shortest paths go through the synthetic nodes of the call (its output, the call itself and its actual-in). */
+    @Test
+    public void distances() {
+        SDG sdg = TestUtils.build(false, CHAIN);
+        BoundedSlicingAlgorithm algorithm = new BoundedSlicingAlgorithm(
+                new FrozenClassicSlicingAlgorithm(sdg.freeze()), UNBOUNDED, UNBOUNDED);
+        Map<GraphNode<?>, Integer> distances = algorithm.distances(TestUtils.nodeAt(sdg, 10));
+        assertEquals(0, distances.get(TestUtils.nodeAt(sdg, 10)));
+        assertEquals(1, distances.get(TestUtils.nodeAt(sdg, 9)));
+        assertEquals(4, distances.get(TestUtils.nodeAt(sdg, 8)));
+        assertEquals(5, distances.get(TestUtils.nodeAt(sdg, 7)));
+        assertEquals(6, distances.get(TestUtils.nodeAt(sdg, 6)));
+        assertEquals(4, distances.get(TestUtils.nodeAt(sdg, 3)));
+        // From the nearest to the farthest
+        List<Integer> ordered = List.copyOf(distances.values());
+        assertEquals(ordered.stream().sorted().collect(Collectors.toList()), ordered);
+    }
+
+    @Test
+    public void maxDistance() {
+        SDG sdg = TestUtils.build(false, CHAIN);
+        FrozenSDG frozen = sdg.freeze();
+        Slice backward = new BoundedSlicingAlgorithm(new FrozenClassicSlicingAlgorithm(frozen), 2, UNBOUNDED)
+                .traverse(TestUtils.nodeAt(sdg, 10));
+        assertEquals(Set.of(5, 9, 10), TestUtils.lines(backward));
+        Slice forward = new BoundedSlicingAlgorithm(new FrozenForwardSlicingAlgorithm(frozen), 2, UNBOUNDED)
+                .traverse(TestUtils.nodeAt(sdg, 6));
+        assertEquals(Set.of(6, 7, 8), TestUtils.lines(forward));
+        Slice criterion = new BoundedSlicingAlgorithm(new FrozenClassicSlicingAlgorithm(frozen), 0, 0)
+                .traverse(TestUtils.nodeAt(sdg, 10));
+        assertEquals(Set.of(TestUtils.nodeAt(sdg, 10)), criterion.getGraphNodes());
+    }
+
+    /** Without interprocedural arcs, the slice doesn't descend into inc, which is entered through one of them. */
+    @Test
+    public void maxCallDepth() {
+        SDG sdg = TestUtils.build(false, CHAIN);
+        FrozenClassicSlicingAlgorithm classic = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        GraphNode<?> criterion = TestUtils.nodeAt(sdg, 10);
+        assertEquals(Set.of(5, 6, 7, 8, 9, 10), TestUtils.lines(new BoundedSlicingAlgorithm(classic, UNBOUNDED, 0).traverse(criterion)));
+        assertEquals(Set.of(2, 3, 5, 6, 7, 8, 9, 10), TestUtils.lines(new BoundedSlicingAlgorithm(classic, UNBOUNDED, 1).traverse(criterion)));
+        assertEquals(Set.of(5, 9, 10), TestUtils.lines(new BoundedSlicingAlgorithm(classic, 2, 0).traverse(criterion)));
+    }
+
+    @Test
+    public void invalidArguments() {
+        SDG sdg = TestUtils.build(false, CHAIN);
+        FrozenClassicSlicingAlgorithm classic = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedSlicingAlgorithm(classic, -1, UNBOUNDED));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedSlicingAlgorithm(classic, UNBOUNDED, -1));
+        GraphNode<?> other = TestUtils.nodeAt(TestUtils.build(false, CHAIN), 10);
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedSlicingAlgorithm(classic, UNBOUNDED, UNBOUNDED).traverse(other));
+    }
+
+    /** Unbounded slices are complete, and bounded ones contain the nodes within the bounds, at the same distance. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void boundedSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        for (FrozenClassicSlicingAlgorithm algorithm : List.of(new FrozenClassicSlicingAlgorithm(frozen),
+                new FrozenForwardSlicingAlgorithm(frozen))) {
+            BoundedSlicingAlgorithm unbounded = new BoundedSlicingAlgorithm(algorithm, UNBOUNDED, UNBOUNDED);
+            for (int i = 0; i < frozen.getNodeCount(); i++) {
+                GraphNode<?> criterion = frozen.getNode(i);
+                Map<GraphNode<?>, Integer> distances = unbounded.distances(criterion);
+                assertEquals(algorithm.traverse(criterion).getGraphNodes(), distances.keySet(), "Slice of " + criterion.getId());
+                assertEquals(0, distances.get(criterion));
+                for (int k = 0; k <= 3; k++) {
+                    int maxDistance = k;
+                    Map<GraphNode<?>, Integer> expected = distances.entrySet().stream()
+                            .filter(e -> e.getValue() <= maxDistance)
+                            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                    assertEquals(expected, new BoundedSlicingAlgorithm(algorithm, k, UNBOUNDED)
+                            .distances(criterion), "Slice of " + criterion.getId() + " within " + k + " arcs");
+                    Set<GraphNode<?>> withinCalls = new BoundedSlicingAlgorithm(algorithm, UNBOUNDED, k)
+                            .distances(criterion).keySet();
+                    assertTrue(distances.keySet().containsAll(withinCalls));
+                    assertTrue(withinCalls.containsAll(new BoundedSlicingAlgorithm(algorithm, k, k).distances(criterion).keySet()));
+                }
+            }
+        }
+    }
+
+    /** Without a limit on the interprocedural arcs, a state is not traversed again when it is reached with fewer of them. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void statesAreTraversedOnceWithUnboundedCallDepth(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        FrozenClassicSlicingAlgorithm classic = new FrozenClassicSlicingAlgorithm(frozen);
+        for (int maxDistance : new int[]{ 3, UNBOUNDED }) {
+            Set<Integer> reached = new HashSet<>();
+            BoundedSlicingAlgorithm algorithm = new BoundedSlicingAlgorithm(classic, maxDistance, UNBOUNDED) {
+                @Override
+                protected boolean reach(Map<Integer, Integer> fewestCalls, int state, int calls) {
+                    boolean first = super.reach(fewestCalls, state, calls);
+                    if (first)
+                        assertTrue(reached.add(state), "State " + state + " reached twice");
+                    return first;
+                }
+            };
+            for (GraphNode<?> criterion : nodes(frozen)) {
+                reached.clear();
+                algorithm.traverse(criterion);
+            }
+        }
+    }
+}
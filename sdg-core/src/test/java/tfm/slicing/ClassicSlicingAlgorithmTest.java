@@ -0,0 +1,20 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import tfm.TestUtils;
+import tfm.graphs.sdg.SDG;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ClassicSlicingAlgorithmTest {
+    /** The second pass revisits the nodes of the first one, which must not be added to the slice twice. */
+    @Test
+    public void passesDoNotAddNodesTwice() {
+        SDG sdg = TestUtils.build(false, TestUtils.LOOP);
+        Slice slice = new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 11));
+        assertEquals(TestUtils.LOOP_X_SLICE, TestUtils.lines(slice));
+        assertEquals(slice.getGraphNodes().size(), Set.copyOf(slice.getGraphNodes()).size());
+    }
+}
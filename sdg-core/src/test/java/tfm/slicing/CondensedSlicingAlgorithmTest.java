@@ -0,0 +1,85 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.utils.TaskMonitor;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.*;
+
+public class CondensedSlicingAlgorithmTest {
+    @Test
+    public void slices() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        CondensedSlicingAlgorithm algorithm = new CondensedSlicingAlgorithm(sdg.freeze());
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 11))));
+        assertEquals(LOOP_Y_SLICE, TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 10))));
+        assertThrows(IllegalArgumentException.class, () -> algorithm.traverse(TestUtils.nodeAt(TestUtils.build(false, LOOP), 11)));
+    }
+
+    /** The loop and its body reach each other, so they share a component and its cached slice. */
+    @Test
+    public void cycleSharesTheSlice() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        CondensedSlicingAlgorithm algorithm = new CondensedSlicingAlgorithm(sdg.freeze());
+        GraphNode<?> loop = TestUtils.nodeAt(sdg, 8), body = TestUtils.nodeAt(sdg, 9);
+        TwoPassCondensation condensation = algorithm.getCondensation();
+        FrozenSDG frozen = condensation.getGraph();
+        assertEquals(condensation.criterionComponent(frozen.indexOf(loop)), condensation.criterionComponent(frozen.indexOf(body)));
+        Slice slice = algorithm.traverse(loop);
+        assertEquals(1, algorithm.getCachedCount());
+        assertEquals(slice, algorithm.traverse(body));
+        assertEquals(1, algorithm.getCachedCount());
+    }
+
+    /** Only a limited number of slices are kept, but the slices don't depend on them. */
+    @Test
+    public void cacheLimit() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenSDG frozen = sdg.freeze();
+        SlicingAlgorithm classic = new FrozenClassicSlicingAlgorithm(frozen);
+        for (int limit : new int[]{ 0, 1, 2 }) {
+            CondensedSlicingAlgorithm algorithm = new CondensedSlicingAlgorithm(new TwoPassCondensation(frozen), TaskMonitor.NONE, limit);
+            assertSameSlices(classic::traverse, algorithm::traverse, nodes(frozen));
+            assertEquals(limit, algorithm.getCachedCount());
+            algorithm.clearCache();
+            assertEquals(0, algorithm.getCachedCount());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CondensedSlicingAlgorithm(new TwoPassCondensation(frozen), TaskMonitor.NONE, -1));
+    }
+
+    /** The batch returns a slice per criterion, in their order, even if they are repeated. */
+    @Test
+    public void batch() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        CondensedSlicingAlgorithm algorithm = new CondensedSlicingAlgorithm(sdg.freeze());
+        List<Slice> slices = algorithm.traverse(List.of(TestUtils.nodeAt(sdg, 10), TestUtils.nodeAt(sdg, 11), TestUtils.nodeAt(sdg, 10)));
+        assertEquals(3, slices.size());
+        assertEquals(LOOP_Y_SLICE, TestUtils.lines(slices.get(0)));
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(slices.get(1)));
+        assertEquals(slices.get(0), slices.get(2));
+    }
+
+    /** The slices assembled from the condensation are those of the classic algorithm, with and without cached results. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameAsClassicSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        SlicingAlgorithm classic = new FrozenClassicSlicingAlgorithm(frozen);
+        CondensedSlicingAlgorithm condensed = new CondensedSlicingAlgorithm(
+                new TwoPassCondensation(frozen), TaskMonitor.NONE, 8);
+        List<GraphNode<?>> criteria = nodes(frozen);
+        assertSameSlices(classic::traverse, condensed::traverse, criteria.subList(0, criteria.size() / 2));
+        List<Slice> batch = condensed.traverse(criteria);
+        assertSameSlices(classic::traverse, criterion -> batch.get(criteria.indexOf(criterion)), criteria);
+    }
+}
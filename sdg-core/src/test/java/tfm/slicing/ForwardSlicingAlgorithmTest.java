@@ -0,0 +1,84 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+public class ForwardSlicingAlgorithmTest {
+    private static final String TWO_CALLS = "class Sum {\n" +
+            "    static int add(int a, int b) {\n" +
+            "        return a + b;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = 1;\n" +
+            "        int z = add(5, 2);\n" +
+            "        while (x < 10)\n" +
+            "            x = add(x, y);\n" +
+            "        System.out.println(x);\n" +
+            "        System.out.println(z);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The slice descends into the method called with y (its parameters are in line 2), but doesn't
+     *  return from it to the other call. */
+    @Test
+    public void descendsIntoCalls() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        Set<Integer> expected = Set.of(2, 3, 7, 9, 10, 11);
+        assertEquals(expected, TestUtils.lines(new ForwardSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 7))));
+        assertEquals(expected, TestUtils.lines(new FrozenForwardSlicingAlgorithm(sdg.freeze()).traverse(TestUtils.nodeAt(sdg, 7))));
+    }
+
+    /** The slice of a statement in a method ascends to every call. */
+    @Test
+    public void ascendsToEveryCall() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        Set<Integer> expected = Set.of(2, 3, 8, 9, 10, 11, 12);
+        assertEquals(expected, TestUtils.lines(new ForwardSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 3))));
+        assertEquals(expected, TestUtils.lines(new FrozenForwardSlicingAlgorithm(sdg.freeze()).traverse(TestUtils.nodeAt(sdg, 3))));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameForwardSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        SlicingAlgorithm algorithm = new FrozenForwardSlicingAlgorithm(sdg.freeze());
+        sdg.vertexSet().parallelStream().forEach(n -> assertEquals(
+                ids(new ForwardSlicingAlgorithm(sdg).traverse(n)), ids(algorithm.traverse(n)), "Slice of node " + n.getId()));
+    }
+
+    /** A node is in the forward slice of another if and only if the latter is in the backward slice of the former. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void forwardSlicesAreDual(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        SlicingAlgorithm forward = new FrozenForwardSlicingAlgorithm(frozen);
+        SlicingAlgorithm backward = new FrozenClassicSlicingAlgorithm(frozen);
+        List<GraphNode<?>> nodes = IntStream.range(0, frozen.getNodeCount()).mapToObj(frozen::getNode).collect(Collectors.toList());
+        Map<GraphNode<?>, Set<GraphNode<?>>> backwardSlices = nodes.stream()
+                .collect(Collectors.toMap(n -> n, n -> backward.traverse(n).getGraphNodes()));
+        for (GraphNode<?> x : nodes) {
+            Set<GraphNode<?>> forwardSlice = forward.traverse(x).getGraphNodes();
+            for (GraphNode<?> y : nodes)
+                assertEquals(backwardSlices.get(y).contains(x), forwardSlice.contains(y),
+                        "Nodes " + x.getId() + " and " + y.getId());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+public class FrozenChoppingAlgorithmTest {
+    private static final String TWO_CALLS = "class Chop {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 1;\n" +
+            "        int y = 2;\n" +
+            "        int z = inc(x);\n" +
+            "        int w = inc(y);\n" +
+            "        System.out.println(z + w);\n" +
+            "        System.out.println(y);\n" +
+            "    }\n" +
+            "}\n";
+
+    private static Set<Integer> chop(SDG sdg, int from, int to) {
+        return TestUtils.lines(new FrozenChoppingAlgorithm(sdg.freeze()).chop(TestUtils.nodeAt(sdg, from), TestUtils.nodeAt(sdg, to)));
+    }
+
+    /** The chop passes through the method called with x (its parameter is in line 2), but not through the other call. */
+    @Test
+    public void chopThroughCall() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        assertEquals(Set.of(2, 3, 6, 8, 10), chop(sdg, 6, 10));
+        assertEquals(Set.of(2, 3, 7, 9, 10), chop(sdg, 7, 10));
+    }
+
+    /** The SDG treats the arguments of a call as modified by it, so y reaches line 11 both
+     *  directly and through the call in line 9. */
+    @Test
+    public void chopThroughArgument() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        assertEquals(Set.of(2, 3, 7, 9, 11), chop(sdg, 7, 11));
+    }
+
+    @Test
+    public void unreachableTarget() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        assertEquals(Set.of(), chop(sdg, 6, 11));
+        assertEquals(Set.of(), chop(sdg, 10, 6));
+    }
+
+    /** The chop between several sources and targets contains the chops between each of them. */
+    @Test
+    public void severalSourcesAndTargets() {
+        SDG sdg = TestUtils.build(false, TWO_CALLS);
+        FrozenChoppingAlgorithm chopping = new FrozenChoppingAlgorithm(sdg.freeze());
+        Slice chop = chopping.chop(List.of(TestUtils.nodeAt(sdg, 6), TestUtils.nodeAt(sdg, 7)),
+                List.of(TestUtils.nodeAt(sdg, 10), TestUtils.nodeAt(sdg, 11)));
+        assertEquals(Set.of(2, 3, 6, 7, 8, 9, 10, 11), TestUtils.lines(chop));
+    }
+
+    /** A chop is part of the intersection of the forward and backward slices, and it is empty
+     *  if and only if the source does not reach the target. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void chopsAreIntersections(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        FrozenChoppingAlgorithm chopping = new FrozenChoppingAlgorithm(frozen);
+        SlicingAlgorithm forward = new FrozenForwardSlicingAlgorithm(frozen);
+        SlicingAlgorithm backward = new FrozenClassicSlicingAlgorithm(frozen);
+        for (int i = 0; i < frozen.getNodeCount(); i += 2) {
+            GraphNode<?> from = frozen.getNode(i);
+            Set<Long> forwardSlice = ids(forward.traverse(from));
+            for (int j = 1; j < frozen.getNodeCount(); j += 3) {
+                GraphNode<?> to = frozen.getNode(j);
+                Set<Long> chop = ids(chopping.chop(from, to));
+                Set<Long> intersection = new HashSet<>(forwardSlice);
+                intersection.retainAll(ids(backward.traverse(to)));
+                String message = "Chop from " + from.getId() + " to " + to.getId();
+                assertTrue(intersection.containsAll(chop), message);
+                assertEquals(forwardSlice.contains(to.getId()), !chop.isEmpty(), message);
+                if (!chop.isEmpty())
+                    assertTrue(chop.contains(from.getId()) && chop.contains(to.getId()), message);
+            }
+        }
+    }
+}
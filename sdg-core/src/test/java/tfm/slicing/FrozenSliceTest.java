@@ -0,0 +1,63 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.LOOP;
+
+public class FrozenSliceTest {
+    /** The slice is a view of the bitset, whose nodes are listed in the order of their numbers. */
+    @Test
+    public void bitsetView() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenSDG frozen = sdg.freeze();
+        BitSet nodes = new BitSet();
+        nodes.set(frozen.indexOf(TestUtils.nodeAt(sdg, 9)));
+        nodes.set(frozen.indexOf(TestUtils.nodeAt(sdg, 6)));
+        FrozenSlice slice = new FrozenSlice(frozen, nodes);
+        assertEquals(2, slice.getGraphNodes().size());
+        assertEquals(Set.of(6, 9), TestUtils.lines(slice));
+        List<GraphNode<?>> listed = new ArrayList<>(slice.getGraphNodes());
+        assertTrue(frozen.indexOf(listed.get(0)) < frozen.indexOf(listed.get(1)));
+        assertTrue(slice.contains(TestUtils.nodeAt(sdg, 6)));
+        assertTrue(slice.contains(frozen.indexOf(TestUtils.nodeAt(sdg, 9))));
+        assertFalse(slice.contains(TestUtils.nodeAt(sdg, 7)));
+        assertTrue(slice.contains(TestUtils.nodeAt(sdg, 6).getAstNode()));
+        assertFalse(slice.contains(TestUtils.nodeAt(sdg, 7).getAstNode()));
+    }
+
+    /** Slices are equal if they have the same nodes, whatever the way they were computed. */
+    @Test
+    public void equality() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenSDG frozen = sdg.freeze();
+        Slice classic = new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 11));
+        Slice frozenSlice = new FrozenClassicSlicingAlgorithm(frozen).traverse(TestUtils.nodeAt(sdg, 11));
+        assertTrue(frozenSlice instanceof FrozenSlice);
+        assertEquals(classic, frozenSlice);
+        assertEquals(frozenSlice, classic);
+        assertEquals(classic.hashCode(), frozenSlice.hashCode());
+        assertEquals(frozenSlice.hashCode(), frozenSlice.hashCode());
+        Slice other = new FrozenClassicSlicingAlgorithm(frozen).traverse(TestUtils.nodeAt(sdg, 10));
+        assertNotEquals(frozenSlice, other);
+        assertEquals(other, new FrozenClassicSlicingAlgorithm(frozen).traverse(TestUtils.nodeAt(sdg, 10)));
+    }
+
+    /** The slice of a frozen graph is converted to the same code as the slice of the graph. */
+    @Test
+    public void toAst() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        Slice classic = new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 10));
+        Slice frozen = new FrozenClassicSlicingAlgorithm(sdg.freeze()).traverse(TestUtils.nodeAt(sdg, 10));
+        assertEquals(classic.toAst().toString(), frozen.toAst().toString());
+    }
+}
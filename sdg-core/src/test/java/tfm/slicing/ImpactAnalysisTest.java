@@ -0,0 +1,136 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.ImpactAnalysis.LineRange;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+public class ImpactAnalysisTest {
+    private static final Path FILE = Paths.get("Impact.java");
+    private static final String PROGRAM = "class Impact {\n" +
+            "    static int sum(int... values) {\n" +
+            "        int total = 0;\n" +
+            "        for (int v : values)\n" +
+            "            total += v;\n" +
+            "        return total;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 1;\n" +
+            "        int y = 2;\n" +
+            "        int z = 3;\n" +
+            "        if (x > 0) {\n" +
+            "            y = sum(x,\n" +
+            "                    z);\n" +
+            "        }\n" +
+            "        System.out.println(y);\n" +
+            "    }\n" +
+            "}\n";
+    /** The lines of the method sum, which are affected by any change to its call. */
+    private static final Set<Integer> SUM = Set.of(2, 3, 4, 5, 6);
+
+    private static Set<Integer> changedLines(ImpactAnalysis analysis, int first, int last) {
+        return TestUtils.lines(analysis.findChangedNodes(List.of(new LineRange(FILE, first, last))));
+    }
+
+    private static Set<Integer> affectedLines(ImpactAnalysis analysis, int... lines) {
+        List<LineRange> changes = new LinkedList<>();
+        for (int line : lines)
+            changes.add(new LineRange(FILE, line, line));
+        return TestUtils.lines(analysis.impactOfChanges(changes));
+    }
+
+    private static Set<Integer> union(Set<Integer> a, Set<Integer> b) {
+        return Stream.concat(a.stream(), b.stream()).collect(Collectors.toSet());
+    }
+
+    /** A compound statement only owns the lines before the first statement it contains. */
+    @Test
+    public void lastOwnLine() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        assertEquals(12, ImpactAnalysis.lastOwnLine(TestUtils.nodeAt(sdg, 12).getAstNode()));
+        assertEquals(14, ImpactAnalysis.lastOwnLine(TestUtils.nodeAt(sdg, 13).getAstNode()));
+        assertEquals(4, ImpactAnalysis.lastOwnLine(TestUtils.nodeAt(sdg, 4).getAstNode()));
+    }
+
+    @Test
+    public void changedNodes() {
+        ImpactAnalysis analysis = new ImpactAnalysis(TestUtils.build(false, PROGRAM).freeze());
+        assertEquals(Set.of(12), changedLines(analysis, 12, 12));
+        assertEquals(Set.of(13), changedLines(analysis, 13, 13));
+        assertEquals(Set.of(9, 10, 11), changedLines(analysis, 9, 11));
+        // Lines without statements of their own
+        assertEquals(Set.of(), changedLines(analysis, 15, 15));
+        assertEquals(Set.of(), changedLines(analysis, 1, 1));
+        assertTrue(analysis.findChangedNodes(List.of(new LineRange(Paths.get("Other.java"), 1, 20))).isEmpty());
+    }
+
+    /**
+     * The arguments of a varargs call are replaced in the graph by an array built from their copies,
+     * so the arguments themselves stay in the compilation unit, and changing one of them in a line
+     * of its own changes the call.
+     */
+    @Test
+    public void varargsArguments() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        MethodCallExpr call = sdg.getCompilationUnits().get(0).findFirst(MethodCallExpr.class,
+                c -> c.getNameAsString().equals("sum")).orElseThrow();
+        assertEquals(2, call.getArguments().size());
+        for (Node argument : call.getArguments())
+            assertTrue(argument.findCompilationUnit().isPresent(), "Detached argument " + argument);
+        assertEquals(Set.of(13), changedLines(new ImpactAnalysis(sdg.freeze()), 14, 14));
+    }
+
+    @Test
+    public void affectedStatements() {
+        ImpactAnalysis analysis = new ImpactAnalysis(TestUtils.build(false, PROGRAM).freeze());
+        assertEquals(Set.of(16), affectedLines(analysis, 16));
+        assertEquals(union(SUM, Set.of(11, 13, 16)), affectedLines(analysis, 11));
+        assertEquals(union(SUM, Set.of(13, 16)), affectedLines(analysis, 14));
+        assertEquals(union(SUM, Set.of(9, 12, 13, 16)), affectedLines(analysis, 9));
+        assertEquals(union(SUM, Set.of(9, 11, 12, 13, 16)), affectedLines(analysis, 9, 11));
+        assertEquals(Set.of(), affectedLines(analysis, 15));
+    }
+
+    @Test
+    public void affectedMethods() {
+        ImpactAnalysis analysis = new ImpactAnalysis(TestUtils.build(false, PROGRAM).freeze());
+        assertEquals(List.of("main"), ImpactAnalysis.findMethods(analysis.impactOfChanges(List.of(new LineRange(FILE, 16, 16))))
+                .stream().map(m -> m.getNameAsString()).collect(Collectors.toList()));
+        assertEquals(List.of("sum", "main"), ImpactAnalysis.findMethods(analysis.impactOfChanges(List.of(new LineRange(FILE, 11, 11))))
+                .stream().map(m -> m.getNameAsString()).collect(Collectors.toList()));
+    }
+
+    /** Slicing several criteria at once produces the union of their slices. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void multipleCriteria(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        for (FrozenClassicSlicingAlgorithm algorithm : List.of(new FrozenClassicSlicingAlgorithm(frozen), new FrozenForwardSlicingAlgorithm(frozen))) {
+            for (int first = 0; first < frozen.getNodeCount(); first += 3) {
+                List<GraphNode<?>> criteria = List.of(frozen.getNode(first), frozen.getNode((first * 7 + 1) % frozen.getNodeCount()));
+                Set<Long> union = criteria.stream().flatMap(n -> ids(algorithm.traverse(n)).stream()).collect(Collectors.toSet());
+                assertEquals(union, ids(algorithm.traverse(criteria)), "Slice of nodes " + criteria);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+
+public class LineIndexTest {
+    private static final String LINES = "class Lines {\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        if (x > 0) { x = 1; }\n" +
+            "        while (x < 10)\n" +
+            "            x++;\n" +
+            "\n" +
+            "    }\n" +
+            "}\n";
+    private static final String OTHER = "class Other {\n" +
+            "    static void main() {\n" +
+            "        int y = 0;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static File file(SDG sdg, int unit) {
+        return sdg.getCompilationUnits().get(unit).getStorage().orElseThrow().getPath().toFile();
+    }
+
+    /** Only the lines where a statement begins have a node, which is the first statement of the line. */
+    @Test
+    public void firstStatementOfEachLine() {
+        SDG sdg = TestUtils.build(false, LINES);
+        LineIndex index = sdg.getLineIndex();
+        File file = file(sdg, 0);
+        assertEquals(Set.of(3, 4, 5, 6), index.getLines(file).keySet());
+        assertTrue(index.find(file, 4).orElseThrow().getAstNode() instanceof IfStmt);
+        assertEquals(Optional.of(TestUtils.nodeAt(sdg, 6)), index.find(file, 6));
+        for (int line : new int[]{ 1, 2, 7, 8, 100 })
+            assertEquals(Optional.empty(), index.find(file, line), "Line " + line);
+        assertSame(index, sdg.getLineIndex());
+    }
+
+    /** Each file has its own lines, and is found by any path to it. */
+    @Test
+    public void files() {
+        SDG sdg = TestUtils.build(false, LINES, OTHER);
+        LineIndex index = sdg.getLineIndex();
+        File lines = file(sdg, 0), other = file(sdg, 1);
+        assertEquals(Set.of(3), index.getLines(other).keySet());
+        assertNotEquals(index.find(lines, 3), index.find(other, 3));
+        File indirect = new File(new File(lines.getParentFile(), "missing"), "../" + lines.getName());
+        assertTrue(index.contains(indirect));
+        assertEquals(index.find(lines, 3), index.find(indirect, 3));
+        assertFalse(index.contains(new File(lines.getParentFile(), "Missing.java")));
+        assertTrue(index.getLines(new File("Missing.java")).isEmpty());
+    }
+
+    /** Compilation units without a file are not indexed. */
+    @Test
+    public void unitsWithoutStorage() {
+        SDG sdg = TestUtils.build(false, LINES);
+        CompilationUnit cu = sdg.getCompilationUnits().get(0);
+        File file = file(sdg, 0);
+        CompilationUnit copy = cu.clone();
+        assertTrue(copy.getStorage().isEmpty());
+        assertTrue(new LineIndex(List.of(copy), sdg.vertexSet()).getLines(file).isEmpty());
+        assertEquals(sdg.getLineIndex().getLines(file), new LineIndex(List.of(cu), sdg.vertexSet()).getLines(file));
+    }
+
+    /** The line index finds the same nodes as searching the first statement of each line in the AST. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void lineIndex(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        FrozenSDG frozen = sdg.freeze();
+        CompilationUnit cu = sdg.getCompilationUnits().get(0);
+        int lines = cu.getEnd().orElseThrow().line;
+        for (int line = 1; line <= lines + 1; line++) {
+            int l = line;
+            Optional<GraphNode<?>> expected = cu.findFirst(Statement.class, s -> s.getBegin().isPresent() && s.getBegin().get().line == l)
+                    .flatMap(sdg::findNodeByASTNode);
+            FileLineSlicingCriterion criterion = new FileLineSlicingCriterion(source, line);
+            assertEquals(expected, criterion.findNode(sdg), "Line " + line);
+            assertEquals(expected, criterion.findNode(frozen), "Line " + line);
+        }
+        assertTrue(sdg.getLineIndex().contains(new File(source.getAbsoluteFile().getParentFile(), "../" +
+                source.getParentFile().getName() + "/" + source.getName())));
+        assertTrue(sdg.getLineIndex().getLines(new File(source.getParentFile(), "Missing.java")).isEmpty());
+    }
+}
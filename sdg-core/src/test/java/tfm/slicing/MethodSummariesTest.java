@@ -0,0 +1,118 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.type.NodeType;
+import tfm.utils.TaskMonitor;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.*;
+
+public class MethodSummariesTest {
+    private static final String CALLS = "class Calls {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static int twice(int b) {\n" +
+            "        int c = inc(b);\n" +
+            "        return b + c;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 1;\n" +
+            "        int y = twice(x);\n" +
+            "        System.out.println(y);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The outputs of a method (its formal-out and output nodes), which are controlled by its entry. */
+    private static Set<GraphNode<?>> outputs(SDG sdg, MethodSummaries summaries, String method) {
+        GraphNode<?> enter = sdg.vertexSet().stream()
+                .filter(n -> n.getNodeType() == NodeType.METHOD_ENTER)
+                .filter(n -> ((MethodDeclaration) n.getAstNode()).getNameAsString().equals(method))
+                .findFirst().orElseThrow();
+        return sdg.outgoingEdgesOf(enter).stream()
+                .map(sdg::getEdgeTarget)
+                .filter(summaries::isOutput)
+                .collect(Collectors.toSet());
+    }
+
+    /** The summary of the value returned by twice contains its statements, and exits through the outputs of inc. */
+    @Test
+    public void summaryOfAMethodWithCalls() {
+        SDG sdg = TestUtils.build(false, CALLS);
+        MethodSummaries summaries = new MethodSummaries(sdg);
+        GraphNode<?> output = outputs(sdg, summaries, "twice").stream()
+                .filter(n -> n.getNodeType() == NodeType.METHOD_OUTPUT)
+                .findFirst().orElseThrow();
+        MethodSummaries.Summary summary = summaries.get(output);
+        assertTrue(summary.getNodes().contains(output));
+        assertEquals(Set.of(6, 7), TestUtils.lines(summary.getNodes().stream()
+                .filter(n -> n.getNodeType() == NodeType.STATEMENT)
+                .collect(Collectors.toList())));
+        assertFalse(summary.getExits().isEmpty());
+        assertTrue(outputs(sdg, summaries, "inc").containsAll(summary.getExits()));
+        assertFalse(summaries.isOutput(TestUtils.nodeAt(sdg, 6)));
+    }
+
+    /** Summaries are computed once, the first time a slice descends into their method. */
+    @Test
+    public void summariesAreComputedOnce() {
+        SDG sdg = TestUtils.build(false, CALLS);
+        MethodSummaries summaries = new MethodSummaries(sdg);
+        assertEquals(0, summaries.size());
+        ClassicSlicingAlgorithm algorithm = new ClassicSlicingAlgorithm(sdg, TaskMonitor.NONE, summaries);
+        Slice slice = algorithm.traverse(TestUtils.nodeAt(sdg, 12));
+        assertTrue(TestUtils.lines(slice).containsAll(Set.of(2, 3, 5, 6, 7, 11, 12)), "Slice: " + TestUtils.lines(slice));
+        assertEquals(ids(new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 12))), ids(slice));
+        int computed = summaries.size();
+        assertTrue(computed > 0);
+        assertEquals(slice, algorithm.traverse(TestUtils.nodeAt(sdg, 12)));
+        assertEquals(computed, summaries.size());
+        GraphNode<?> output = outputs(sdg, summaries, "twice").iterator().next();
+        assertSame(summaries.get(output), summaries.get(output));
+    }
+
+    /** The classic algorithm gives the same slices when it adds the summaries of the methods in the second pass. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameSlicesWithSummaries(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        MethodSummaries summaries = new MethodSummaries(sdg);
+        assertSameSlices(criterion -> new ClassicSlicingAlgorithm(sdg).traverse(criterion),
+                new ClassicSlicingAlgorithm(sdg, TaskMonitor.NONE, summaries)::traverse, nodes(sdg));
+        assertTrue(summaries.size() > 0);
+    }
+
+    /** The slices of an SDG with a cache add the summaries of the SDG in their second pass. */
+    @Test
+    public void cachedSlicesUseSummaries() {
+        SDG sdg = TestUtils.build(false, CALLS);
+        sdg.setSliceCache(new SliceCache(1 << 20));
+        Slice slice = sdg.slice(new GraphNodeCriterion(TestUtils.nodeAt(sdg, 12), "-"));
+        assertTrue(sdg.getMethodSummaries().size() > 0);
+        assertEquals(ids(new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 12))), ids(slice));
+    }
+
+    /** The slices of an SDG with a cache are the same when its second pass adds the summaries of the methods. */
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("tfm.TestUtils#classicReviewFiles")
+    public void sameCachedSlicesWithSummaries(File source) throws FileNotFoundException {
+        SDG sdg = build(source, false);
+        MethodSummaries summaries = new MethodSummaries(sdg);
+        // A small budget evicts most slices, so that the second pass reaches the outputs of the methods
+        SliceCache cache = new SliceCache(4096);
+        assertSameSlices(criterion -> new ClassicSlicingAlgorithm(sdg).traverse(criterion),
+                new CachedSlicingAlgorithm(sdg, TaskMonitor.NONE, cache, summaries)::traverse, nodes(sdg));
+        assertTrue(summaries.size() > 0);
+    }
+}
@@ -0,0 +1,96 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.utils.TaskMonitor;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.*;
+
+public class ParallelSlicingAlgorithmTest {
+    /** A statement that depends on {@link #WIDTH} others, which form a single level of the traversal. */
+    private static final String WIDE;
+    private static final int WIDTH = 64;
+
+    static {
+        StringBuilder builder = new StringBuilder("class Wide {\n    static void main() {\n");
+        for (int i = 0; i < WIDTH; i++)
+            builder.append("        int x").append(i).append(" = ").append(i).append(";\n");
+        builder.append("        System.out.println(");
+        builder.append(IntStream.range(0, WIDTH).mapToObj(i -> "x" + i).collect(Collectors.joining(" + ")));
+        builder.append(");\n    }\n}\n");
+        WIDE = builder.toString();
+    }
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    /** With a threshold of 1, every level is split among the threads. */
+    @Test
+    public void everyLevelSplit() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        SlicingAlgorithm algorithm = new ParallelSlicingAlgorithm(sdg.freeze(), TaskMonitor.NONE, pool, 1);
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 11))));
+        assertEquals(LOOP_Y_SLICE, TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 10))));
+    }
+
+    /** The progress is reported at each level, and grows across both passes. */
+    @Test
+    public void wideLevel() {
+        SDG sdg = TestUtils.build(false, WIDE);
+        FrozenSDG frozen = sdg.freeze();
+        List<Long> progress = new ArrayList<>();
+        TaskMonitor monitor = new TaskMonitor(null, (step, done, total) -> {
+            assertEquals(2L * frozen.getNodeCount(), total);
+            progress.add(done);
+        });
+        Slice slice = new ParallelSlicingAlgorithm(frozen, monitor, pool, 8).traverse(TestUtils.nodeAt(sdg, WIDTH + 3));
+        assertEquals(IntStream.rangeClosed(2, WIDTH + 3).boxed().collect(Collectors.toSet()), TestUtils.lines(slice));
+        assertTrue(progress.size() >= 2, "Levels: " + progress);
+        for (int i = 1; i < progress.size(); i++)
+            assertTrue(progress.get(i - 1) <= progress.get(i), "Progress went back: " + progress);
+    }
+
+    /** Graphs smaller than the threshold are sliced by the sequential algorithm. */
+    @Test
+    public void smallGraphs() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenSDG frozen = sdg.freeze();
+        SlicingAlgorithm algorithm = new ParallelSlicingAlgorithm(frozen, TaskMonitor.NONE, pool, frozen.getNodeCount() + 1);
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 11))));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSlicingAlgorithm(frozen, TaskMonitor.NONE, pool, 0));
+    }
+
+    /** The parallel traversal gives the same slices as the sequential one, even if every level is split. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameAsSequentialSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        SlicingAlgorithm sequential = new FrozenClassicSlicingAlgorithm(frozen);
+        SlicingAlgorithm parallel = new ParallelSlicingAlgorithm(frozen, TaskMonitor.NONE, pool, 1);
+        assertSameSlices(sequential::traverse, parallel::traverse, nodes(frozen));
+    }
+}
@@ -0,0 +1,86 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.LOOP;
+import static tfm.TestUtils.build;
+
+public class ReachabilityIndexTest {
+    /** The lines of each statement whose node is in the slice of the criterion, according to the index. */
+    private static Set<Integer> slice(ReachabilityIndex index, SDG sdg, int criterion) {
+        GraphNode<?> node = TestUtils.nodeAt(sdg, criterion);
+        return TestUtils.lines(sdg.vertexSet().stream()
+                .filter(n -> index.isInSlice(n, node))
+                .collect(Collectors.toList()));
+    }
+
+    /** The slice descends into inc, but doesn't ascend from it to the call with y. */
+    @Test
+    public void contextSensitive() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        ReachabilityIndex index = new ReachabilityIndex(sdg.freeze());
+        assertEquals(Set.of(2, 3, 5, 6, 8, 9, 11), slice(index, sdg, 11));
+        assertEquals(Set.of(2, 3, 5, 7, 10), slice(index, sdg, 10));
+    }
+
+    /** The loop and its body reach each other, so they are in the same component of the condensation. */
+    @Test
+    public void cycles() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        ReachabilityIndex index = new ReachabilityIndex(sdg.freeze());
+        GraphNode<?> loop = TestUtils.nodeAt(sdg, 8), body = TestUtils.nodeAt(sdg, 9);
+        assertTrue(index.isInSlice(loop, body));
+        assertTrue(index.isInSlice(body, loop));
+        assertFalse(index.isInSlice(TestUtils.nodeAt(sdg, 11), body));
+    }
+
+    /** The labels only decide some of the answers without a search, so their number and order don't change them. */
+    @Test
+    public void labelsDontChangeTheAnswers() {
+        FrozenSDG frozen = TestUtils.build(false, LOOP).freeze();
+        ReachabilityIndex expected = new ReachabilityIndex(frozen);
+        for (int labels = 1; labels <= 4; labels++) {
+            ReachabilityIndex index = new ReachabilityIndex(frozen, labels, labels * 31L);
+            for (int criterion = 0; criterion < frozen.getNodeCount(); criterion++)
+                for (int node = 0; node < frozen.getNodeCount(); node++)
+                    assertEquals(expected.isInSlice(node, criterion), index.isInSlice(node, criterion));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ReachabilityIndex(frozen, 0, 0));
+    }
+
+    @Test
+    public void nodesOutsideTheGraph() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        ReachabilityIndex index = new ReachabilityIndex(sdg.freeze());
+        GraphNode<?> other = TestUtils.nodeAt(TestUtils.build(false, LOOP), 11);
+        assertThrows(IllegalArgumentException.class, () -> index.isInSlice(other, TestUtils.nodeAt(sdg, 11)));
+        assertThrows(IllegalArgumentException.class, () -> index.isInSlice(TestUtils.nodeAt(sdg, 11), other));
+    }
+
+    /** The reachability index gives the same answers as the classic algorithm. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameAsClassicSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        ReachabilityIndex index = new ReachabilityIndex(frozen);
+        SlicingAlgorithm algorithm = new FrozenClassicSlicingAlgorithm(frozen);
+        for (int criterion = 0; criterion < frozen.getNodeCount(); criterion++) {
+            Set<GraphNode<?>> slice = algorithm.traverse(frozen.getNode(criterion)).getGraphNodes();
+            for (int node = 0; node < frozen.getNodeCount(); node++)
+                assertEquals(slice.contains(frozen.getNode(node)), index.isInSlice(node, criterion),
+                        "Node " + frozen.getNode(node).getId() + " in the slice of " + frozen.getNode(criterion).getId());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.SDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.*;
+
+public class SliceCacheTest {
+    /** The budget of a cache that retains the given number of slices of a single node. */
+    private static long budget(int slices) {
+        return slices * (SliceCache.ENTRY_BYTES + SliceCache.NODE_BYTES);
+    }
+
+    @Test
+    public void hitsAndMisses() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        GraphNode<?> a = TestUtils.nodeAt(sdg, 6), b = TestUtils.nodeAt(sdg, 7);
+        SliceCache cache = new SliceCache(budget(2));
+        assertTrue(cache.get(a, SliceCache.Algorithm.CLASSIC).isEmpty());
+        cache.put(a, SliceCache.Algorithm.CLASSIC, List.of(b));
+        assertEquals(Optional.of(Set.of(b)), cache.get(a, SliceCache.Algorithm.CLASSIC));
+        // Each algorithm has its own slices
+        assertTrue(cache.get(a, SliceCache.Algorithm.EXCEPTION_SENSITIVE).isEmpty());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(budget(1), cache.getUsedBytes());
+    }
+
+    /** The least recently used slices are evicted first, and slices larger than the budget are not cached. */
+    @Test
+    public void evictions() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        GraphNode<?> a = TestUtils.nodeAt(sdg, 6), b = TestUtils.nodeAt(sdg, 7), c = TestUtils.nodeAt(sdg, 8);
+        SliceCache cache = new SliceCache(budget(2));
+        cache.put(a, SliceCache.Algorithm.CLASSIC, List.of(a));
+        cache.put(b, SliceCache.Algorithm.CLASSIC, List.of(b));
+        cache.get(a, SliceCache.Algorithm.CLASSIC);
+        cache.put(c, SliceCache.Algorithm.CLASSIC, List.of(c));
+        assertTrue(cache.get(b, SliceCache.Algorithm.CLASSIC).isEmpty());
+        assertTrue(cache.get(a, SliceCache.Algorithm.CLASSIC).isPresent());
+        assertTrue(cache.get(c, SliceCache.Algorithm.CLASSIC).isPresent());
+        assertEquals(1, cache.getEvictions());
+        cache.put(b, SliceCache.Algorithm.CLASSIC, sdg.vertexSet());
+        assertTrue(cache.get(b, SliceCache.Algorithm.CLASSIC).isEmpty());
+        assertEquals(2, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedBytes());
+        assertThrows(IllegalArgumentException.class, () -> new SliceCache(0));
+    }
+
+    /** The slice of the loop is reused to compute the slice of the statement after it, without changing it. */
+    @Test
+    public void cachedSlicesAreReused() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        Metrics metrics = new Metrics();
+        sdg.setMetrics(metrics);
+        sdg.setSliceCache(new SliceCache(1 << 20));
+        sdg.slice(new GraphNodeCriterion(TestUtils.nodeAt(sdg, 9), "-"));
+        assertEquals(0, metrics.get(Counter.SLICE_CACHE_HITS));
+        Slice slice = sdg.slice(new GraphNodeCriterion(TestUtils.nodeAt(sdg, 11), "-"));
+        assertEquals(1, metrics.get(Counter.SLICE_CACHE_HITS));
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(slice));
+        assertEquals(ids(new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 11))), ids(slice));
+    }
+
+    /** The slices obtained with a cache, which are reused to compute other slices, are those of the classic algorithm. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void sameAsClassicSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        List<GraphNode<?>> criteria = nodes(sdg);
+        List<GraphNode<?>> shuffled = new ArrayList<>(criteria);
+        Collections.shuffle(shuffled, new Random(0));
+        // A small budget evicts most slices, a large one keeps them all
+        for (long budget : new long[]{ 4096, 1 << 24 }) {
+            sdg.setSliceCache(new SliceCache(budget));
+            for (List<GraphNode<?>> order : List.of(shuffled, criteria))
+                assertSameSlices(reference(sdg), criterion -> sdg.slice(new GraphNodeCriterion(criterion, "-")), order);
+        }
+        assertEquals(criteria.size(), sdg.getSliceCache().getHits());
+    }
+}
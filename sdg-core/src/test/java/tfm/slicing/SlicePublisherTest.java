@@ -0,0 +1,151 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.metrics.Counter;
+import tfm.metrics.Metrics;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.*;
+
+public class SlicePublisherTest {
+    /** Records the signals received, and requests the given number of nodes each time it receives one. */
+    private static class Recorder implements Flow.Subscriber<GraphNode<?>> {
+        final List<GraphNode<?>> received = new LinkedList<>();
+        final long batch;
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed = false;
+
+        Recorder(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(GraphNode<?> item) {
+            received.add(item);
+            if (batch > 0)
+                subscription.request(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    /** The criterion comes first, and the nodes of inc, which are only reached by the second pass, come last. */
+    @Test
+    public void streamOrder() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenClassicSlicingAlgorithm algorithm = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        GraphNode<?> criterion = TestUtils.nodeAt(sdg, 11);
+        List<GraphNode<?>> streamed = algorithm.stream(criterion).collect(Collectors.toList());
+        assertEquals(criterion, streamed.get(0));
+        assertEquals(LOOP_X_SLICE, TestUtils.lines(streamed));
+        List<Integer> lines = streamed.stream()
+                .map(n -> TestUtils.lines(List.of(n)))
+                .filter(l -> !l.isEmpty())
+                .map(l -> l.iterator().next())
+                .collect(Collectors.toList());
+        assertEquals(Set.of(5, 6, 8, 9, 11), Set.copyOf(lines.subList(0, 5)), "Order: " + lines);
+        assertEquals(Set.of(2, 3), Set.copyOf(lines.subList(5, lines.size())), "Order: " + lines);
+    }
+
+    /** The first pass doesn't end until the nodes found before its end have been requested. */
+    @Test
+    public void lazyTraversal() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        Metrics metrics = new Metrics();
+        sdg.setMetrics(metrics);
+        Iterator<GraphNode<?>> iterator = new FrozenClassicSlicingAlgorithm(sdg.freeze()).iterator(TestUtils.nodeAt(sdg, 11));
+        assertEquals(TestUtils.nodeAt(sdg, 11), iterator.next());
+        assertEquals(0, metrics.get(Counter.FIRST_PASS_ARCS_VISITED));
+        iterator.forEachRemaining(n -> {});
+        assertTrue(metrics.get(Counter.FIRST_PASS_ARCS_VISITED) > 0);
+        assertTrue(metrics.get(Counter.SECOND_PASS_ARCS_VISITED) > 0);
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    /** Nodes requested one at a time, while the previous one is received, are sent in the order of the stream. */
+    @Test
+    public void oneNodeAtATime() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenClassicSlicingAlgorithm algorithm = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        GraphNode<?> criterion = TestUtils.nodeAt(sdg, 11);
+        Recorder recorder = new Recorder(1);
+        algorithm.publisher(criterion, Runnable::run).subscribe(recorder);
+        assertTrue(recorder.received.isEmpty());
+        recorder.subscription.request(1);
+        assertTrue(recorder.completed);
+        assertNull(recorder.error);
+        assertEquals(algorithm.stream(criterion).collect(Collectors.toList()), recorder.received);
+    }
+
+    /** No more nodes are sent after the subscription is cancelled, and it isn't completed. */
+    @Test
+    public void cancel() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenClassicSlicingAlgorithm algorithm = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        Recorder recorder = new Recorder(0);
+        algorithm.publisher(TestUtils.nodeAt(sdg, 11), Runnable::run).subscribe(recorder);
+        recorder.subscription.request(2);
+        recorder.subscription.cancel();
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, recorder.received.size());
+        assertFalse(recorder.completed);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    public void invalidRequests() {
+        SDG sdg = TestUtils.build(false, LOOP);
+        FrozenClassicSlicingAlgorithm algorithm = new FrozenClassicSlicingAlgorithm(sdg.freeze());
+        Recorder recorder = new Recorder(0);
+        algorithm.publisher(TestUtils.nodeAt(sdg, 11), Runnable::run).subscribe(recorder);
+        recorder.subscription.request(0);
+        assertTrue(recorder.error instanceof IllegalArgumentException);
+        assertTrue(recorder.received.isEmpty());
+        GraphNode<?> other = TestUtils.nodeAt(TestUtils.build(false, LOOP), 11);
+        assertThrows(IllegalArgumentException.class, () -> algorithm.publisher(other, Runnable::run));
+    }
+
+    /** The nodes streamed, forwards and backwards, are those of the slice, without repetitions. */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void streamedSlices(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        FrozenSDG frozen = build(source, exceptionSensitive).freeze();
+        FrozenClassicSlicingAlgorithm backward = new FrozenClassicSlicingAlgorithm(frozen);
+        FrozenClassicSlicingAlgorithm forward = new FrozenForwardSlicingAlgorithm(frozen);
+        for (GraphNode<?> criterion : nodes(frozen)) {
+            for (FrozenClassicSlicingAlgorithm algorithm : List.of(backward, forward)) {
+                Slice slice = algorithm.traverse(criterion);
+                List<GraphNode<?>> streamed = algorithm.stream(criterion).collect(Collectors.toList());
+                assertEquals(criterion, streamed.get(0));
+                assertEquals(slice.getGraphNodes().size(), streamed.size(), "Repeated nodes in the slice of " + criterion.getId());
+                assertEquals(slice.getGraphNodes(), new HashSet<>(streamed), "Slice of " + criterion.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tfm.slicing;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.IntegerLiteralExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.sdg.FrozenSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+
+public class SliceTest {
+    /** The first and the last statement of line 5 are equal, but only the last one is in the slice of line 6. */
+    private static final String TWINS = "class Twins {\n" +
+            "    static void main() {\n" +
+            "        int a = 1;\n" +
+            "        int b = 0;\n" +
+            "        b = a; a = 2; b = a;\n" +
+            "        System.out.println(b);\n" +
+            "    }\n" +
+            "}\n";
+
+    private static List<String> statements(NodeList<CompilationUnit> units) {
+        return units.stream()
+                .flatMap(cu -> cu.findAll(ExpressionStmt.class).stream())
+                .map(Node::toString)
+                .collect(Collectors.toList());
+    }
+
+    /** Each statement is kept or removed on its own, even if an equal one is on the same line. */
+    @Test
+    public void equalStatementsOnTheSameLine() {
+        SDG sdg = TestUtils.build(false, TWINS);
+        GraphNode<?> criterion = TestUtils.nodeAt(sdg, 6);
+        List<String> expected = List.of("int a = 1;", "int b = 0;", "a = 2;", "b = a;", "System.out.println(b);");
+        assertEquals(expected, statements(new ClassicSlicingAlgorithm(sdg).traverse(criterion).toAst()));
+        assertEquals(expected, statements(new FrozenClassicSlicingAlgorithm(sdg.freeze()).traverse(criterion).toAst()));
+    }
+
+    /** The copy of a node is found by the way it was copied, so nodes without a range are also told apart. */
+    @Test
+    public void copiesOfEqualNodes() {
+        BlockStmt block = new BlockStmt();
+        for (int i = 0; i < 2; i++)
+            block.addStatement(new AssignExpr(new NameExpr("a"), new IntegerLiteralExpr(1), AssignExpr.Operator.ASSIGN));
+        Statement second = block.getStatement(1);
+        assertEquals(block.getStatement(0), second);
+        assertFalse(second.getRange().isPresent());
+        Set<Node> originals = Collections.newSetFromMap(new IdentityHashMap<>());
+        originals.add(second);
+        originals.add(block);
+        Slice.CopyVisitor visitor = new Slice.CopyVisitor(originals);
+        BlockStmt copy = visitor.copy(block);
+        assertEquals(2, visitor.getCopies().size());
+        assertTrue(visitor.getCopies().stream().anyMatch(n -> n == copy));
+        assertTrue(visitor.getCopies().stream().anyMatch(n -> n == copy.getStatement(1)));
+        assertTrue(visitor.getCopies().stream().noneMatch(n -> n == copy.getStatement(0)));
+    }
+
+    /**
+     * The code of each slice of an expression statement has the statements of the slice, and no others.
+     * The programs have equal statements in different places, which must be told apart.
+     */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void slicedAsts(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        SDG sdg = build(source, exceptionSensitive);
+        FrozenSDG frozen = sdg.freeze();
+        for (GraphNode<?> criterion : sdg.vertexSet()) {
+            if (!(criterion.getAstNode() instanceof ExpressionStmt))
+                continue;
+            Set<Range> expected = sdg.slice(new NodeIdSlicingCriterion(criterion.getId(), "")).getGraphNodes().stream()
+                    .filter(n -> n.getAstNode() instanceof ExpressionStmt && n.getAstNode().findCompilationUnit().isPresent())
+                    .map(n -> n.getAstNode().getRange().orElseThrow())
+                    .collect(Collectors.toSet());
+            Set<Range> found = new HashSet<>();
+            for (CompilationUnit cu : frozen.slice(new NodeIdSlicingCriterion(criterion.getId(), "")).toAst())
+                cu.findAll(ExpressionStmt.class).forEach(s -> found.add(s.getRange().orElseThrow()));
+            assertEquals(expected, found, "Slice of node " + criterion.getId());
+        }
+    }
+}
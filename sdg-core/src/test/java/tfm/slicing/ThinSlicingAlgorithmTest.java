@@ -0,0 +1,76 @@
+package tfm.slicing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.arcs.Arc;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+public class ThinSlicingAlgorithmTest {
+    private static final String PROGRAM = "class Thin {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 0;\n" +
+            "        int y = 5;\n" +
+            "        if (y > 3)\n" +
+            "            x = inc(x);\n" +
+            "        System.out.println(x);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The thin slice has the statements that produce x, including the return of inc, but not the
+     *  condition that controls the call, nor the entries of the methods. */
+    @Test
+    public void producers() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        ThinSlicingAlgorithm thin = new ThinSlicingAlgorithm(sdg);
+        assertEquals(Set.of(3, 6, 9, 10), TestUtils.lines(thin.traverse(TestUtils.nodeAt(sdg, 10))));
+        assertEquals(Set.of(2, 3, 5, 6, 7, 8, 9, 10), TestUtils.lines(new ClassicSlicingAlgorithm(sdg).traverse(TestUtils.nodeAt(sdg, 10))));
+        // The second pass ascends from inc to the value passed by its call
+        assertEquals(Set.of(3, 6, 9), TestUtils.lines(thin.traverse(TestUtils.nodeAt(sdg, 3))));
+    }
+
+    /** Expanding the call adds the condition that controls it, and the values it uses. */
+    @Test
+    public void expand() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        ThinSlicingAlgorithm thin = new ThinSlicingAlgorithm(sdg);
+        Slice slice = thin.traverse(TestUtils.nodeAt(sdg, 10));
+        Slice expanded = thin.expand(slice, TestUtils.nodeAt(sdg, 9));
+        assertEquals(Set.of(3, 6, 7, 8, 9, 10), TestUtils.lines(expanded));
+        assertEquals(Set.of(3, 6, 9, 10), TestUtils.lines(slice));
+        assertEquals(Set.of(3, 5, 6, 9, 10), TestUtils.lines(thin.expand(slice, TestUtils.nodeAt(sdg, 10))));
+        assertThrows(IllegalArgumentException.class, () -> thin.expand(slice, TestUtils.nodeAt(sdg, 7)));
+    }
+
+    /** Thin slices are part of the classic ones, and expanding a node adds the predicates that control it. */
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("tfm.TestUtils#classicReviewFiles")
+    public void thinSlices(File source) throws FileNotFoundException {
+        SDG sdg = build(source, false);
+        ThinSlicingAlgorithm thin = new ThinSlicingAlgorithm(sdg);
+        for (GraphNode<?> criterion : sdg.vertexSet()) {
+            Slice slice = thin.traverse(criterion);
+            Set<Long> ids = ids(slice);
+            assertTrue(ids(new ClassicSlicingAlgorithm(sdg).traverse(criterion)).containsAll(ids), "Slice of " + criterion.getId());
+            assertTrue(ids.contains(criterion.getId()));
+            Slice expanded = thin.expand(slice, criterion);
+            assertTrue(ids(expanded).containsAll(ids));
+            for (Arc arc : sdg.incomingEdgesOf(criterion))
+                if (arc.isControlDependencyArc())
+                    assertTrue(expanded.contains(sdg.getEdgeSource(arc)), "Expansion of " + criterion.getId());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package tfm.slicing;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.Graph;
+import tfm.graphs.augmented.PPDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.nodes.VariableAction;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tfm.TestUtils.build;
+import static tfm.TestUtils.ids;
+
+public class VariableSlicingAlgorithmTest {
+    private static final String PROGRAM = "class Vars {\n" +
+            "    static int inc(int a) {\n" +
+            "        return a + 1;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int x = 1;\n" +
+            "        int y = 2;\n" +
+            "        int z = x + y;\n" +
+            "        int w = inc(x) + y;\n" +
+            "        System.out.println(z);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The lines of the slice of some variables of a line, each selected by its first occurrence. */
+    private static Set<Integer> slice(VariableSlicingAlgorithm algorithm, Graph graph, File file, int line, String... variables) {
+        FileLineVariableCriterion criterion = new FileLineVariableCriterion(file, line, List.of(variables),
+                Collections.nCopies(variables.length, 1));
+        GraphNode<?> node = TestUtils.nodeAt(graph, line);
+        return TestUtils.lines(algorithm.traverse(node, criterion.findVariableActions(graph, node)));
+    }
+
+    private static File file(SDG sdg) {
+        return sdg.getCompilationUnits().get(0).getStorage().orElseThrow().getPath().toFile();
+    }
+
+    /** Each used variable brings its own definition, and a variable that is only defined brings the whole statement. */
+    @Test
+    public void usedAndDefinedVariables() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        ClassicSlicingAlgorithm algorithm = new ClassicSlicingAlgorithm(sdg);
+        assertEquals(Set.of(5, 6, 8), slice(algorithm, sdg, file(sdg), 8, "x"));
+        assertEquals(Set.of(5, 7, 8), slice(algorithm, sdg, file(sdg), 8, "y"));
+        assertEquals(Set.of(5, 6, 7, 8), slice(algorithm, sdg, file(sdg), 8, "x", "y"));
+        assertEquals(Set.of(5, 6, 7, 8), slice(algorithm, sdg, file(sdg), 8, "z"));
+    }
+
+    /** An argument of a call is sliced from its actual-in node, without the called method. */
+    @Test
+    public void arguments() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        ClassicSlicingAlgorithm algorithm = new ClassicSlicingAlgorithm(sdg);
+        assertEquals(Set.of(5, 6, 9), slice(algorithm, sdg, file(sdg), 9, "x"));
+        assertEquals(Set.of(5, 7, 9), slice(algorithm, sdg, file(sdg), 9, "y"));
+        assertEquals(Set.of(2, 3, 5, 6, 7, 9), slice(algorithm, sdg, file(sdg), 9, "w"));
+        assertEquals(Set.of(2, 3, 5, 6, 7, 9), TestUtils.lines(algorithm.traverse(TestUtils.nodeAt(sdg, 9))));
+    }
+
+    /** The pseudo-predicate algorithm slices the variables of a PDG, and forward slices always start from a whole statement. */
+    @Test
+    public void implementations() {
+        CompilationUnit cu = TestUtils.parse(PROGRAM);
+        File file = cu.getStorage().orElseThrow().getPath().toFile();
+        PPDG ppdg = new PPDG();
+        ppdg.build(new FileLineSlicingCriterion(file, 8).findMethod(cu).orElseThrow());
+        VariableSlicingAlgorithm algorithm = new PseudoPredicateSlicingAlgorithm(ppdg, ppdg::isPseudoPredicate);
+        assertEquals(Set.of(5, 6, 8), slice(algorithm, ppdg, file, 8, "x"));
+        assertFalse(VariableSlicingAlgorithm.class.isAssignableFrom(ForwardSlicingAlgorithm.class));
+    }
+
+    @Test
+    public void missingOccurrences() {
+        SDG sdg = TestUtils.build(false, PROGRAM);
+        GraphNode<?> node = TestUtils.nodeAt(sdg, 8);
+        FileLineVariableCriterion second = new FileLineVariableCriterion(file(sdg), 8, List.of("x"), List.of(2));
+        assertThrows(IllegalArgumentException.class, () -> second.findVariableActions(sdg, node));
+        FileLineVariableCriterion other = new FileLineVariableCriterion(file(sdg), 8, List.of("w"), List.of(1));
+        assertThrows(IllegalArgumentException.class, () -> other.findVariableActions(sdg, node));
+        assertThrows(IllegalArgumentException.class, () -> new FileLineVariableCriterion(file(sdg), 8, List.of("x"), List.of(0)));
+        assertThrows(IllegalArgumentException.class, () -> new FileLineVariableCriterion(file(sdg), 8, List.of("x"), List.of()));
+    }
+
+    /** Slicing from some variables of a statement is part of the slice of the statement, unless they are
+     *  arguments of a call, which are not part of the latter. Slicing from several variables at once
+     *  produces the union of their slices. */
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("tfm.TestUtils#classicReviewFiles")
+    public void variableSlices(File source) throws FileNotFoundException {
+        SDG sdg = build(source, false);
+        ClassicSlicingAlgorithm algorithm = new ClassicSlicingAlgorithm(sdg);
+        for (Statement statement : sdg.getCompilationUnits().get(0).findAll(Statement.class, s -> s.getBegin().isPresent())) {
+            int line = statement.getBegin().get().line;
+            Optional<GraphNode<?>> node = new FileLineSlicingCriterion(source, line).findNode(sdg);
+            if (node.isEmpty())
+                continue;
+            Set<Long> statementSlice = ids(algorithm.traverse(node.get()));
+            boolean call = node.get().getAstNode().findFirst(MethodCallExpr.class).isPresent();
+            List<String> variables = new LinkedList<>();
+            Set<Long> union = new HashSet<>();
+            for (String variable : statement.findAll(NameExpr.class).stream().map(NameExpr::getNameAsString).collect(Collectors.toCollection(TreeSet::new))) {
+                FileLineVariableCriterion criterion = new FileLineVariableCriterion(source, line, List.of(variable), List.of(1));
+                List<VariableAction> actions;
+                try {
+                    actions = criterion.findVariableActions(sdg, node.get());
+                } catch (IllegalArgumentException e) {
+                    continue; // Not a variable of this statement, e.g. the name of a class
+                }
+                Set<Long> slice = ids(algorithm.traverse(node.get(), actions));
+                assertTrue(slice.contains(node.get().getId()));
+                assertTrue(call || statementSlice.containsAll(slice), "Slice of " + variable + " in line " + line);
+                variables.add(variable);
+                union.addAll(slice);
+            }
+            FileLineVariableCriterion all = new FileLineVariableCriterion(source, line, variables,
+                    Collections.nCopies(variables.size(), 1));
+            if (!variables.isEmpty())
+                assertEquals(union, ids(algorithm.traverse(node.get(), all.findVariableActions(sdg, node.get()))), "Slice of line " + line);
+        }
+    }
+}
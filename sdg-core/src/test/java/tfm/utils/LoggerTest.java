@@ -0,0 +1,118 @@
+package tfm.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoggerTest {
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    public void registerOutput() {
+        output = new ByteArrayOutputStream();
+        Logger.clearPrintStreams();
+        Logger.registerPrintStream(new PrintStream(output, true));
+    }
+
+    @AfterEach
+    public void restoreLogger() {
+        Logger.stopAsync();
+        Logger.setLevel(Logger.Level.INFO);
+        Logger.clearPrintStreams();
+    }
+
+    private List<String> lines() {
+        String text = output.toString();
+        return text.isEmpty() ? List.of() : Arrays.asList(text.split(System.lineSeparator()));
+    }
+
+    /** Messages below the level are neither printed nor computed. */
+    @Test
+    public void levelFiltersMessages() {
+        Logger.setLevel(Logger.Level.WARN);
+        Logger.debug("ctx", () -> fail("Disabled messages must not be computed"));
+        Logger.log("info");
+        Logger.warn("ctx", () -> "warn");
+        Logger.error("", () -> "error");
+        Logger.format(Logger.Level.ERROR, "%d errors", 2);
+        assertEquals(List.of("[ctx]: warn", "error", "2 errors"), lines());
+
+        Logger.setLevel(Logger.Level.OFF);
+        Logger.error("ctx", () -> fail("The logger is off"));
+        assertFalse(Logger.isEnabled(Logger.Level.OFF));
+        assertEquals(3, lines().size());
+    }
+
+    /** The stack trace follows the message, and neither is computed if errors are disabled. */
+    @Test
+    public void errorWithStackTrace() {
+        Logger.error("ctx", () -> "failed", new IllegalStateException("cause"));
+        List<String> lines = lines();
+        assertEquals("[ctx]: failed", lines.get(0));
+        assertEquals("java.lang.IllegalStateException: cause", lines.get(1));
+        assertTrue(lines.get(2).contains("errorWithStackTrace"), lines.get(2));
+
+        Logger.setLevel(Logger.Level.OFF);
+        Logger.error("ctx", () -> fail("The logger is off"), new IllegalStateException());
+        assertEquals(lines.size(), lines().size());
+    }
+
+    @Test
+    public void loggerWithoutStreamsIsDisabled() {
+        Logger.clearPrintStreams();
+        assertFalse(Logger.isEnabled(Logger.Level.ERROR));
+        Logger.error("ctx", () -> fail("Nothing would print the message"));
+    }
+
+    @Test
+    public void asyncWriterStartsOnce() {
+        Logger.startAsync(4);
+        assertTrue(Logger.isAsync());
+        assertThrows(IllegalStateException.class, () -> Logger.startAsync(4));
+        Logger.stopAsync();
+        assertFalse(Logger.isAsync());
+        Logger.stopAsync();
+    }
+
+    /** The queue is tiny, so loggers are blocked on it when the writer stops; none of their lines may be lost. */
+    @RepeatedTest(20)
+    public void stoppingTheAsyncWriterKeepsEveryLine() throws InterruptedException {
+        int threads = 4, messages = 200;
+        Logger.startAsync(2);
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> loggers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread logger = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < messages; i++)
+                    Logger.log(id + "-" + i);
+            });
+            loggers.add(logger);
+            logger.start();
+        }
+        started.await();
+        Logger.stopAsync();
+        for (Thread logger : loggers) {
+            logger.join(10_000);
+            assertFalse(logger.isAlive(), "A logger is blocked on the queue of a stopped writer");
+        }
+
+        List<String> lines = lines();
+        Set<String> unique = new HashSet<>(lines);
+        assertEquals(lines.size(), unique.size());
+        assertEquals(threads * messages, unique.size());
+    }
+}
@@ -0,0 +1,195 @@
+package tfm.utils;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.NodeList;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tfm.TestUtils;
+import tfm.graphs.exceptionsensitive.ESSDG;
+import tfm.graphs.sdg.SDG;
+import tfm.nodes.GraphNode;
+import tfm.slicing.ClassicSlicingAlgorithm;
+import tfm.slicing.FrozenClassicSlicingAlgorithm;
+import tfm.slicing.SlicingAlgorithm;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskMonitorTest {
+    /** A method whose last statement depends on every other, so its slice visits more than
+     *  {@link SlicingAlgorithm#PROGRESS_INTERVAL} nodes in each pass. */
+    private static final String CHAIN;
+    private static final int CHAIN_LENGTH = SlicingAlgorithm.PROGRESS_INTERVAL + 100;
+
+    static {
+        StringBuilder builder = new StringBuilder("class Chain {\n    static void main() {\n        int x0 = 0;\n");
+        for (int i = 1; i < CHAIN_LENGTH; i++)
+            builder.append("        int x").append(i).append(" = x").append(i - 1).append(" + 1;\n");
+        builder.append("        System.out.println(x").append(CHAIN_LENGTH - 1).append(");\n    }\n}\n");
+        CHAIN = builder.toString();
+    }
+
+    /** A small program, as the progress of a build is reported for every method and node. */
+    private static final String PROGRAM = "class Program {\n" +
+            "    static int twice(int x) {\n" +
+            "        return 2 * x;\n" +
+            "    }\n" +
+            "    static void main() {\n" +
+            "        int y = twice(1);\n" +
+            "        System.out.println(y);\n" +
+            "    }\n" +
+            "}\n";
+
+    /** The SDG of the chain and its last statement, which are built once, as the chain is long. */
+    private static SDG chain;
+    private static GraphNode<?> criterion;
+
+    @BeforeAll
+    public static void buildChain() {
+        chain = TestUtils.build(false, CHAIN);
+        criterion = TestUtils.nodeAt(chain, CHAIN_LENGTH + 2);
+    }
+
+    /** Stops a monitor when its listener receives the first progress of a step. */
+    private static class Stopper implements TaskMonitor.Listener {
+        final TaskMonitor.Step step;
+        final Duration delay;
+        TaskMonitor monitor;
+        int calls;
+
+        /** @param delay How long to sleep, to exceed the budget, or null to cancel the monitor. */
+        Stopper(TaskMonitor.Step step, Duration delay) {
+            this.step = step;
+            this.delay = delay;
+        }
+
+        @Override
+        public void progress(TaskMonitor.Step step, long done, long total) {
+            if (step != this.step || calls++ > 0)
+                return;
+            if (delay == null) {
+                monitor.cancel();
+                return;
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static TaskMonitor monitor(Stopper stopper, Duration budget) {
+        stopper.monitor = new TaskMonitor(budget, stopper);
+        return stopper.monitor;
+    }
+
+    private static TaskCancelledException assertBuildStopped(Stopper stopper, Duration budget) {
+        SDG sdg = new SDG();
+        sdg.setMonitor(monitor(stopper, budget));
+        return assertThrows(TaskCancelledException.class, () -> sdg.build(new NodeList<>(TestUtils.parse(PROGRAM))));
+    }
+
+    @Test
+    public void buildCanBeCancelled() {
+        Stopper stopper = new Stopper(TaskMonitor.Step.CALL_REPLACEMENT, null);
+        assertFalse(assertBuildStopped(stopper, null).isTimeout());
+        assertEquals(1, stopper.calls);
+    }
+
+    @Test
+    public void buildCanExpire() {
+        Stopper stopper = new Stopper(TaskMonitor.Step.METHODS, Duration.ofMillis(200));
+        assertTrue(assertBuildStopped(stopper, Duration.ofMillis(100)).isTimeout());
+    }
+
+    /** Slices of the SDG and of its snapshot, from the last statement of the chain. */
+    private static List<Function<TaskMonitor, SlicingAlgorithm>> algorithms(SDG sdg) {
+        return List.of(m -> new ClassicSlicingAlgorithm(sdg, m), m -> new FrozenClassicSlicingAlgorithm(sdg.freeze(), m));
+    }
+
+    @Test
+    public void sliceCanBeCancelled() {
+        for (Function<TaskMonitor, SlicingAlgorithm> algorithm : algorithms(chain)) {
+            Stopper stopper = new Stopper(TaskMonitor.Step.SLICE, null);
+            SlicingAlgorithm slicing = algorithm.apply(monitor(stopper, null));
+            assertFalse(assertThrows(TaskCancelledException.class, () -> slicing.traverse(criterion)).isTimeout());
+        }
+    }
+
+    @Test
+    public void sliceCanExpire() {
+        for (Function<TaskMonitor, SlicingAlgorithm> algorithm : algorithms(chain)) {
+            Stopper stopper = new Stopper(TaskMonitor.Step.SLICE, Duration.ofMillis(200));
+            SlicingAlgorithm slicing = algorithm.apply(monitor(stopper, Duration.ofMillis(100)));
+            assertTrue(assertThrows(TaskCancelledException.class, () -> slicing.traverse(criterion)).isTimeout());
+        }
+    }
+
+    /** A monitor that is not stopped lets the slice finish: it contains the method and all its statements. */
+    @Test
+    public void sliceWithinBudgetIsComplete() {
+        TaskMonitor monitor = TaskMonitor.withBudget(Duration.ofMinutes(5));
+        Set<Integer> expected = IntStream.rangeClosed(2, CHAIN_LENGTH + 2).boxed().collect(Collectors.toSet());
+        assertEquals(expected, TestUtils.lines(new ClassicSlicingAlgorithm(chain, monitor).traverse(criterion)));
+    }
+
+    @Test
+    public void defaultMonitorCannotBeCancelled() {
+        assertThrows(UnsupportedOperationException.class, TaskMonitor.NONE::cancel);
+        TaskMonitor.NONE.checkCancelled();
+    }
+
+    /**
+     * The steps of a build are reported in order, and the work done in each step only grows
+     * and never exceeds the total, when it is known.
+     */
+    @ParameterizedTest(name = "[{index}] {0} (ES: {1})")
+    @MethodSource("tfm.TestUtils#reviewFiles")
+    public void progressIsMonotonic(File source, boolean exceptionSensitive) throws FileNotFoundException {
+        List<long[]> reports = Collections.synchronizedList(new ArrayList<>());
+        TaskMonitor monitor = new TaskMonitor(null, (step, done, total) -> reports.add(new long[]{ step.ordinal(), done, total }));
+        SDG sdg = exceptionSensitive ? new ESSDG() : new SDG();
+        sdg.setMonitor(monitor);
+        sdg.build(new NodeList<>(JavaParser.parse(source)));
+        assertFalse(reports.isEmpty());
+        long[] previous = null;
+        for (long[] report : reports) {
+            if (report[2] >= 0)
+                assertTrue(report[1] <= report[2], "Progress over the total: " + Arrays.toString(report));
+            if (previous != null) {
+                assertTrue(previous[0] <= report[0], "Steps out of order: " + Arrays.toString(report));
+                if (previous[0] == report[0])
+                    assertTrue(previous[1] < report[1], "Progress went back: " + Arrays.toString(report));
+            }
+            previous = report;
+        }
+    }
+
+    /** The progress of a slice only grows across both passes, and never exceeds twice the number of nodes. */
+    @Test
+    public void sliceProgressIsMonotonic() {
+        for (Function<TaskMonitor, SlicingAlgorithm> algorithm : algorithms(chain)) {
+            List<Long> progress = new ArrayList<>();
+            TaskMonitor monitor = new TaskMonitor(null, (step, done, total) -> {
+                assertEquals(TaskMonitor.Step.SLICE, step);
+                assertEquals(2L * chain.vertexSet().size(), total);
+                assertTrue(done <= total);
+                progress.add(done);
+            });
+            algorithm.apply(monitor).traverse(criterion);
+            assertFalse(progress.isEmpty());
+            for (int i = 1; i < progress.size(); i++)
+                assertTrue(progress.get(i - 1) < progress.get(i), "Progress went back: " + progress);
+        }
+    }
+}